@@ -0,0 +1,106 @@
+package it.unive.lisa.benchmarks;
+
+import it.unive.lisa.analysis.nonrelational.BaseNonRelationalValueDomain;
+import it.unive.lisa.analysis.nonrelational.ValueEnvironment;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.cfg.type.Type;
+import it.unive.lisa.symbolic.value.BinaryExpression;
+import it.unive.lisa.symbolic.value.BinaryOperator;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.UnaryExpression;
+import it.unive.lisa.symbolic.value.UnaryOperator;
+import it.unive.lisa.symbolic.value.ValueExpression;
+import it.unive.lisa.symbolic.value.ValueIdentifier;
+import it.unive.lisa.test.imp.tutorial.Sign;
+import it.unive.lisa.test.imp.types.IntType;
+import it.unive.lisa.util.collections.ExternalSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for
+ * {@link BaseNonRelationalValueDomain#eval(ValueExpression, ValueEnvironment)}
+ * on deep expression trees, using the {@link Sign} domain. The evaluated
+ * expression is a complete binary tree of {@link #depth} levels, whose inner
+ * nodes are additions, subtractions and negations, and whose leaves are
+ * variables and constants.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvalBenchmark {
+
+	/**
+	 * The depth of the evaluated expression
+	 */
+	@Param({ "4", "8", "12", "16" })
+	public int depth;
+
+	private ValueExpression expression;
+
+	private ValueEnvironment<Sign> environment;
+
+	private ExternalSet<Type> types;
+
+	private int leaves;
+
+	/**
+	 * Builds the expression and the environment used by the benchmarks.
+	 */
+	@Setup
+	public void setup() {
+		types = Caches.types().mkSingletonSet(IntType.INSTANCE);
+		environment = new ValueEnvironment<>(new Sign());
+		for (int i = 0; i < 16; i++)
+			environment = environment.assign(variable(i), constant(i % 2 == 0 ? i + 1 : -i));
+		leaves = 0;
+		expression = build(depth);
+	}
+
+	private Identifier variable(int i) {
+		return Caches.expressions().intern(new ValueIdentifier(types, "x" + i));
+	}
+
+	private Constant constant(int value) {
+		return Caches.expressions().intern(new Constant(IntType.INSTANCE, value));
+	}
+
+	private ValueExpression build(int levels) {
+		if (levels == 0) {
+			int leaf = leaves++;
+			return leaf % 3 == 0 ? constant(leaf) : variable(leaf % 16);
+		}
+
+		ValueExpression left = build(levels - 1), right = build(levels - 1);
+		if (levels % 3 == 0)
+			left = Caches.expressions().intern(new UnaryExpression(types, left, UnaryOperator.NUMERIC_NEG));
+		BinaryOperator operator = levels % 2 == 0 ? BinaryOperator.NUMERIC_ADD : BinaryOperator.NUMERIC_SUB;
+		return Caches.expressions().intern(new BinaryExpression(types, left, right, operator));
+	}
+
+	/**
+	 * Benchmarks the evaluation of the expression.
+	 * 
+	 * @return the abstraction of the expression
+	 */
+	@Benchmark
+	public Sign eval() {
+		return new Sign().eval(expression, environment);
+	}
+}
@@ -0,0 +1,111 @@
+package it.unive.lisa.benchmarks;
+
+import it.unive.lisa.util.collections.ExternalSet;
+import it.unive.lisa.util.collections.ExternalSetCache;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the set operations of {@link ExternalSet}. The two sets are
+ * random subsets (each containing roughly half of the elements) of a cache
+ * holding {@link #elements} strings.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExternalSetBenchmark {
+
+	/**
+	 * The number of elements stored in the cache
+	 */
+	@Param({ "16", "256", "4096" })
+	public int elements;
+
+	private ExternalSet<String> left;
+
+	private ExternalSet<String> right;
+
+	private String probe;
+
+	/**
+	 * Builds the sets used by the benchmarks.
+	 */
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		ExternalSetCache<String> cache = new ExternalSetCache<>();
+		List<String> first = new ArrayList<>(), second = new ArrayList<>();
+		for (int i = 0; i < elements; i++) {
+			String element = "e" + i;
+			// all elements must be stored in the cache to get the
+			// bitsets of the expected size
+			cache.mkSingletonSet(element);
+			if (random.nextBoolean())
+				first.add(element);
+			if (random.nextBoolean())
+				second.add(element);
+		}
+
+		left = cache.mkSet(first);
+		right = cache.mkSet(second);
+		probe = "e" + (elements - 1);
+	}
+
+	/**
+	 * Benchmarks {@link ExternalSet#union(ExternalSet)}.
+	 * 
+	 * @return the union of the two sets
+	 */
+	@Benchmark
+	public ExternalSet<String> union() {
+		return left.union(right);
+	}
+
+	/**
+	 * Benchmarks {@link ExternalSet#intersection(ExternalSet)}.
+	 * 
+	 * @return the intersection of the two sets
+	 */
+	@Benchmark
+	public ExternalSet<String> intersection() {
+		return left.intersection(right);
+	}
+
+	/**
+	 * Benchmarks {@link ExternalSet#contains(Object)}.
+	 * 
+	 * @return whether or not the probed element is in the set
+	 */
+	@Benchmark
+	public boolean contains() {
+		return left.contains(probe);
+	}
+
+	/**
+	 * Benchmarks {@link ExternalSet#contains(ExternalSet)}.
+	 * 
+	 * @return whether or not the second set is contained in the first one
+	 */
+	@Benchmark
+	public boolean containsAll() {
+		return left.contains(right);
+	}
+}
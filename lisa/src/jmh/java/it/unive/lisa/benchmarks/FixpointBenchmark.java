@@ -0,0 +1,116 @@
+package it.unive.lisa.benchmarks;
+
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.CFGWithAnalysisResults;
+import it.unive.lisa.analysis.heap.MonolithicHeap;
+import it.unive.lisa.analysis.impl.types.TypeEnvironment;
+import it.unive.lisa.analysis.nonrelational.ValueEnvironment;
+import it.unive.lisa.callgraph.impl.intraproc.IntraproceduralCallGraph;
+import it.unive.lisa.cfg.CFG;
+import it.unive.lisa.cfg.FixpointException;
+import it.unive.lisa.cfg.statement.Statement;
+import it.unive.lisa.symbolic.value.Skip;
+import it.unive.lisa.test.imp.IMPFrontend;
+import it.unive.lisa.test.imp.ParsingException;
+import it.unive.lisa.test.imp.tutorial.Sign;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end benchmarks for
+ * {@link CFG#fixpoint(AnalysisState, it.unive.lisa.callgraph.CallGraph, it.unive.lisa.cfg.CFG.SemanticFunction)}
+ * on the IMP programs used as test cases. Each benchmark computes the fixpoint
+ * of all the cfgs of {@link #program}, either inferring types or running the
+ * {@link Sign} analysis (on top of the inferred types). Paths are relative to
+ * the project directory, which is the working directory of the {@code jmh}
+ * gradle task.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FixpointBenchmark {
+
+	/**
+	 * The IMP program to analyze
+	 */
+	@Param({ "imp-testcases/type-inference/program.imp", "imp-testcases/syntactic/expressions.imp" })
+	public String program;
+
+	private Collection<CFG> cfgs;
+
+	private IntraproceduralCallGraph callGraph;
+
+	/**
+	 * Parses the program and infers its types.
+	 * 
+	 * @throws ParsingException  if the program cannot be parsed
+	 * @throws FixpointException if the type inference fails
+	 */
+	@Setup
+	public void setup() throws ParsingException, FixpointException {
+		cfgs = new ArrayList<>(IMPFrontend.processFile(program));
+		callGraph = new IntraproceduralCallGraph();
+		for (CFG cfg : cfgs) {
+			cfg.freeze();
+			callGraph.addCFG(cfg);
+		}
+
+		// runtime types are needed by the semantic analysis
+		types();
+	}
+
+	/**
+	 * Benchmarks the type inference.
+	 * 
+	 * @return the results of the fixpoints
+	 * 
+	 * @throws FixpointException if the fixpoint fails
+	 */
+	@Benchmark
+	public Collection<CFGWithAnalysisResults<MonolithicHeap, TypeEnvironment>> types() throws FixpointException {
+		AnalysisState<MonolithicHeap, TypeEnvironment> entry = new AnalysisState<>(
+				new AbstractState<>(new MonolithicHeap().top(), new TypeEnvironment().top()), Skip.INSTANCE);
+		Collection<CFGWithAnalysisResults<MonolithicHeap, TypeEnvironment>> results = new ArrayList<>(cfgs.size());
+		for (CFG cfg : cfgs)
+			results.add(cfg.fixpoint(entry, callGraph, Statement::typeInference));
+		return results;
+	}
+
+	/**
+	 * Benchmarks the {@link Sign} analysis.
+	 * 
+	 * @return the results of the fixpoints
+	 * 
+	 * @throws FixpointException if the fixpoint fails
+	 */
+	@Benchmark
+	public Collection<CFGWithAnalysisResults<MonolithicHeap, ValueEnvironment<Sign>>> sign()
+			throws FixpointException {
+		AnalysisState<MonolithicHeap, ValueEnvironment<Sign>> entry = new AnalysisState<>(
+				new AbstractState<>(new MonolithicHeap().top(), new ValueEnvironment<>(new Sign()).top()),
+				Skip.INSTANCE);
+		Collection<CFGWithAnalysisResults<MonolithicHeap, ValueEnvironment<Sign>>> results = new ArrayList<>(
+				cfgs.size());
+		for (CFG cfg : cfgs)
+			results.add(cfg.fixpoint(entry, callGraph, Statement::semantics));
+		return results;
+	}
+}
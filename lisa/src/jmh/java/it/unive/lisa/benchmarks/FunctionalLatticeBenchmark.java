@@ -0,0 +1,116 @@
+package it.unive.lisa.benchmarks;
+
+import it.unive.lisa.analysis.FunctionalLattice;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.nonrelational.ValueEnvironment;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.ValueIdentifier;
+import it.unive.lisa.test.imp.tutorial.Sign;
+import it.unive.lisa.test.imp.types.IntType;
+import it.unive.lisa.util.collections.SlotTable;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the lattice operations of {@link FunctionalLattice}, using
+ * {@link ValueEnvironment}s of {@link Sign}s. The two environments map the same
+ * {@link #variables} identifiers, and they differ on roughly {@link #changed}%
+ * of them. Environments are created either with hash tries or with slot maps,
+ * depending on {@link #slots}.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FunctionalLatticeBenchmark {
+
+	/**
+	 * The number of variables in the environments
+	 */
+	@Param({ "10", "100", "1000", "10000" })
+	public int variables;
+
+	/**
+	 * The percentage of variables mapped to different values in the two
+	 * environments
+	 */
+	@Param({ "1", "50" })
+	public int changed;
+
+	/**
+	 * Whether or not the environments are backed by slot maps
+	 */
+	@Param({ "false", "true" })
+	public boolean slots;
+
+	private ValueEnvironment<Sign> left;
+
+	private ValueEnvironment<Sign> right;
+
+	/**
+	 * Builds the environments used by the benchmarks.
+	 */
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		ValueEnvironment<Sign> env = slots ? new ValueEnvironment<>(new Sign(), new SlotTable<>())
+				: new ValueEnvironment<>(new Sign());
+		Constant positive = Caches.expressions().intern(new Constant(IntType.INSTANCE, 1));
+		Constant negative = Caches.expressions().intern(new Constant(IntType.INSTANCE, -1));
+		Identifier[] ids = new Identifier[variables];
+		for (int i = 0; i < variables; i++) {
+			ids[i] = Caches.expressions()
+					.intern(new ValueIdentifier(Caches.types().mkSingletonSet(IntType.INSTANCE), "x" + i));
+			env = env.assign(ids[i], positive);
+		}
+
+		left = env;
+		for (int i = 0; i < variables; i++)
+			if (random.nextInt(100) < changed)
+				env = env.assign(ids[i], negative);
+		right = env;
+	}
+
+	/**
+	 * Benchmarks {@link FunctionalLattice#lub(it.unive.lisa.analysis.Lattice)}.
+	 * 
+	 * @return the least upper bound of the two environments
+	 * 
+	 * @throws SemanticException if the lub fails
+	 */
+	@Benchmark
+	public ValueEnvironment<Sign> lub() throws SemanticException {
+		return left.lub(right);
+	}
+
+	/**
+	 * Benchmarks
+	 * {@link FunctionalLattice#lessOrEqual(it.unive.lisa.analysis.Lattice)}.
+	 * 
+	 * @return whether or not the first environment is less or equal than the
+	 *             second one
+	 * 
+	 * @throws SemanticException if the comparison fails
+	 */
+	@Benchmark
+	public boolean lessOrEqual() throws SemanticException {
+		return left.lessOrEqual(right);
+	}
+}
@@ -0,0 +1,201 @@
+package it.unive.lisa.benchmarks;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * A generator of synthetic IMP programs, to be used for measuring how the
+ * analysis scales with the size of its input. Generated programs are made of a
+ * single class containing {@code methods} methods. Each method has one
+ * parameter and {@code variables} local variables (all initialized with integer
+ * constants), followed by {@code statements} random statements and by a return.
+ * Statements are:
+ * <ul>
+ * <li>assignments of arithmetic expressions over the variables and
+ * constants;</li>
+ * <li>calls to other methods of the class, generated with probability
+ * {@code callDensity}% in place of an assignment;</li>
+ * <li>{@code while} loops, nested up to {@code loopDepth} levels;</li>
+ * <li>chains of {@code if}-{@code else} with {@code branching} branches.</li>
+ * </ul>
+ * Loops and branches count as one statement, plus the ones contained in their
+ * bodies. The generation is deterministic for a given seed.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class ProgramGenerator {
+
+	private static final String[] OPERATORS = { "+", "-", "*" };
+
+	private static final String[] COMPARISONS = { "<", "<=", ">", ">=" };
+
+	private final int methods;
+
+	private final int statements;
+
+	private final int loopDepth;
+
+	private final int branching;
+
+	private final int variables;
+
+	private final int callDensity;
+
+	private final long seed;
+
+	private Random random;
+
+	private StringBuilder code;
+
+	/**
+	 * Builds the generator.
+	 * 
+	 * @param methods     the number of methods of the generated program
+	 * @param statements  the number of statements of each method
+	 * @param loopDepth   the maximum nesting depth of loops
+	 * @param branching   the number of branches of conditional statements
+	 *                        (conditionals are not generated if this is less
+	 *                        than {@code 2})
+	 * @param variables   the number of local variables of each method
+	 * @param callDensity the percentage of statements that are calls to other
+	 *                        methods
+	 * @param seed        the seed of the random number generator
+	 * 
+	 * @throws IllegalArgumentException if {@code methods}, {@code statements}
+	 *                                      or {@code variables} is not
+	 *                                      positive, or if {@code callDensity}
+	 *                                      is not a percentage
+	 */
+	public ProgramGenerator(int methods, int statements, int loopDepth, int branching, int variables,
+			int callDensity, long seed) {
+		if (methods < 1 || statements < 1 || variables < 1)
+			throw new IllegalArgumentException("Methods, statements and variables must be positive");
+		if (callDensity < 0 || callDensity > 100)
+			throw new IllegalArgumentException("Call density must be a percentage: " + callDensity);
+		this.methods = methods;
+		this.statements = statements;
+		this.loopDepth = loopDepth;
+		this.branching = branching;
+		this.variables = variables;
+		this.callDensity = callDensity;
+		this.seed = seed;
+	}
+
+	/**
+	 * Yields the source code of the generated program.
+	 * 
+	 * @return the IMP code
+	 */
+	public String generate() {
+		random = new Random(seed);
+		code = new StringBuilder();
+		code.append("class synthetic {\n");
+		for (int m = 0; m < methods; m++)
+			method(m);
+		code.append("}\n");
+		String result = code.toString();
+		code = null;
+		return result;
+	}
+
+	/**
+	 * Writes the generated program in the given file, so that it can be parsed
+	 * with the IMP frontend.
+	 * 
+	 * @param file the file to write
+	 * 
+	 * @throws IOException if the file cannot be written
+	 */
+	public void generate(Path file) throws IOException {
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			writer.write(generate());
+		}
+	}
+
+	private void method(int index) {
+		code.append("\tm").append(index).append("(p) {\n");
+		for (int v = 0; v < variables; v++)
+			indent(2).append("x").append(v).append(" = ").append(random.nextInt(10)).append(";\n");
+		block(statements, 0, 2, index);
+		indent(2).append("return x0;\n");
+		code.append("\t}\n");
+	}
+
+	/**
+	 * Generates {@code budget} statements, where loops and conditionals count
+	 * as one statement plus the ones in their bodies.
+	 */
+	private void block(int budget, int loops, int indent, int method) {
+		while (budget > 0) {
+			int choice = random.nextInt(10);
+			if (budget > 2 && choice == 0 && loops < loopDepth) {
+				int body = 1 + random.nextInt(budget - 1);
+				loop(body, loops, indent, method);
+				budget -= body + 1;
+			} else if (budget > branching && choice == 1 && branching > 1) {
+				int body = branching + random.nextInt(budget - branching);
+				conditional(body, loops, indent, method);
+				budget -= body + 1;
+			} else {
+				simple(indent, method);
+				budget--;
+			}
+		}
+	}
+
+	private void loop(int body, int loops, int indent, int method) {
+		String counter = variable();
+		indent(indent).append("while (").append(counter).append(" < ").append(random.nextInt(100)).append(") {\n");
+		block(body, loops + 1, indent + 1, method);
+		indent(indent + 1).append(counter).append(" = ").append(counter).append(" + 1;\n");
+		indent(indent).append("}\n");
+	}
+
+	private void conditional(int body, int loops, int indent, int method) {
+		int perBranch = body / branching;
+		indent(indent).append("if (").append(condition()).append(") {\n");
+		for (int b = 1; b < branching; b++) {
+			block(perBranch, loops, indent + 1, method);
+			indent(indent).append("} else ");
+			if (b < branching - 1)
+				code.append("if (").append(condition()).append(") ");
+			code.append("{\n");
+		}
+		block(body - perBranch * (branching - 1), loops, indent + 1, method);
+		indent(indent).append("}\n");
+	}
+
+	private void simple(int indent, int method) {
+		indent(indent).append(variable()).append(" = ");
+		if (methods > 1 && random.nextInt(100) < callDensity) {
+			int callee = random.nextInt(methods - 1);
+			code.append("this.m").append(callee < method ? callee : callee + 1).append("(").append(variable())
+					.append(")");
+		} else
+			code.append(operand()).append(" ").append(OPERATORS[random.nextInt(OPERATORS.length)]).append(" ")
+					.append(operand());
+		code.append(";\n");
+	}
+
+	private String condition() {
+		return operand() + " " + COMPARISONS[random.nextInt(COMPARISONS.length)] + " " + operand();
+	}
+
+	private String operand() {
+		return random.nextInt(4) == 0 ? String.valueOf(random.nextInt(10)) : variable();
+	}
+
+	private String variable() {
+		return random.nextInt(variables + 1) == 0 ? "p" : "x" + random.nextInt(variables);
+	}
+
+	private StringBuilder indent(int level) {
+		for (int i = 0; i < level; i++)
+			code.append('\t');
+		return code;
+	}
+}
@@ -0,0 +1,161 @@
+package it.unive.lisa.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import it.unive.lisa.AnalysisException;
+import it.unive.lisa.LiSA;
+import it.unive.lisa.cfg.CFG;
+import it.unive.lisa.test.imp.IMPFrontend;
+import it.unive.lisa.test.imp.ParsingException;
+import it.unive.lisa.test.imp.tutorial.Sign;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A benchmark measuring how LiSA scales on programs generated by
+ * {@link ProgramGenerator}. Starting from a single method, the number of
+ * methods of the generated program is doubled at each step, until it reaches
+ * the given maximum. At each step, the program is parsed and analyzed (with
+ * type inference and the {@link Sign} domain), recording the analysis time and
+ * the peak heap usage. The latter is approximated by the sum of the peak usages
+ * of all heap memory pools, that are reset after a garbage collection right
+ * before each analysis.<br>
+ * <br>
+ * Arguments are, in order and all optional: maximum number of methods,
+ * statements per method, loop nesting depth, branching factor, variables per
+ * method, call density (as percentage) and the path of the json file where to
+ * dump the results. The {@code scaling} gradle task runs this class.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class ScalingBenchmark {
+
+	/**
+	 * Runs the benchmark.
+	 * 
+	 * @param args the arguments of the benchmark
+	 * 
+	 * @throws IOException       if the programs or the results cannot be
+	 *                               written
+	 * @throws ParsingException  if a generated program cannot be parsed
+	 * @throws AnalysisException if the analysis fails
+	 */
+	public static void main(String[] args) throws IOException, ParsingException, AnalysisException {
+		int maxMethods = arg(args, 0, 256);
+		int statements = arg(args, 1, 50);
+		int loopDepth = arg(args, 2, 2);
+		int branching = arg(args, 3, 2);
+		int variables = arg(args, 4, 10);
+		int callDensity = arg(args, 5, 5);
+		File output = new File(args.length > 6 ? args[6] : "build/reports/scaling/results.json");
+
+		List<Result> results = new ArrayList<>();
+		Path workdir = Files.createTempDirectory("lisa-scaling");
+		Path program = workdir.resolve("synthetic.imp");
+		for (int methods = 1; methods <= maxMethods; methods *= 2) {
+			new ProgramGenerator(methods, statements, loopDepth, branching, variables, callDensity, 42)
+					.generate(program);
+			Result result = run(program.toString(), workdir.toString());
+			result.methods = methods;
+			results.add(result);
+			System.out.println(String.format("methods: %6d, statements: %8d, time: %8d ms, peak heap: %6d MB",
+					methods, result.statements, result.millis, result.peakHeap >> 20));
+		}
+
+		output.getAbsoluteFile().getParentFile().mkdirs();
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output, results);
+		System.out.println("Results dumped to " + output.getAbsolutePath());
+	}
+
+	private static int arg(String[] args, int index, int defaultValue) {
+		return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+	}
+
+	private static Result run(String program, String workdir) throws ParsingException, AnalysisException {
+		Collection<CFG> cfgs = IMPFrontend.processFile(program);
+		LiSA lisa = new LiSA();
+		cfgs.forEach(lisa::addCFG);
+		lisa.setInferTypes(true);
+		lisa.addNonRelationalValueDomain(new Sign());
+		lisa.setWorkdir(workdir);
+
+		List<MemoryPoolMXBean> pools = new ArrayList<>();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+			if (pool.getType() == MemoryType.HEAP)
+				pools.add(pool);
+
+		System.gc();
+		pools.forEach(MemoryPoolMXBean::resetPeakUsage);
+		long start = System.nanoTime();
+		lisa.run();
+		long elapsed = System.nanoTime() - start;
+
+		Result result = new Result();
+		result.millis = elapsed / 1_000_000;
+		for (MemoryPoolMXBean pool : pools)
+			result.peakHeap += pool.getPeakUsage().getUsed();
+		for (CFG cfg : cfgs)
+			result.statements += cfg.getNodesCount();
+		return result;
+	}
+
+	/**
+	 * The measurements taken on a generated program.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	public static class Result {
+
+		private int methods;
+
+		private int statements;
+
+		private long millis;
+
+		private long peakHeap;
+
+		/**
+		 * Yields the number of methods of the program.
+		 * 
+		 * @return the number of methods
+		 */
+		public int getMethods() {
+			return methods;
+		}
+
+		/**
+		 * Yields the total number of statements of the program.
+		 * 
+		 * @return the number of statements
+		 */
+		public int getStatements() {
+			return statements;
+		}
+
+		/**
+		 * Yields the time taken by the analysis, in milliseconds.
+		 * 
+		 * @return the analysis time
+		 */
+		public long getMillis() {
+			return millis;
+		}
+
+		/**
+		 * Yields the peak heap usage during the analysis, in bytes.
+		 * 
+		 * @return the peak heap usage
+		 */
+		public long getPeakHeap() {
+			return peakHeap;
+		}
+	}
+}
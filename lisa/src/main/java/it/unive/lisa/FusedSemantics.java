@@ -0,0 +1,320 @@
+package it.unive.lisa;
+
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisContext;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.CFGWithAnalysisResults;
+import it.unive.lisa.analysis.ExpressionStore;
+import it.unive.lisa.analysis.HeapDomain;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.ValueCartesianProduct;
+import it.unive.lisa.analysis.ValueDomain;
+import it.unive.lisa.analysis.impl.types.TypeEnvironment;
+import it.unive.lisa.callgraph.CallGraph;
+import it.unive.lisa.cfg.CFG;
+import it.unive.lisa.cfg.CFG.SemanticFunction;
+import it.unive.lisa.cfg.FixpointException;
+import it.unive.lisa.cfg.statement.CFGCall;
+import it.unive.lisa.cfg.statement.Call;
+import it.unive.lisa.cfg.statement.Expression;
+import it.unive.lisa.cfg.statement.Statement;
+import it.unive.lisa.cfg.statement.UnresolvedCall;
+import it.unive.lisa.symbolic.SymbolicExpression;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.function.Consumer;
+
+/**
+ * A {@link SemanticFunction} that computes type inference and the semantics of
+ * a value domain within the same fixpoint. States are products of a
+ * {@link TypeEnvironment} and of the value domain: for each statement,
+ * {@link Statement#typeInference(AnalysisState, CallGraph, ExpressionStore)} is
+ * first applied on the types, registering the runtime types of the expressions,
+ * and then
+ * {@link Statement#semantics(AnalysisState, CallGraph, ExpressionStore)} is
+ * applied on the values, reading the runtime types that have just been
+ * computed. The heap and the computed expressions of the resulting state are
+ * the ones computed by the latter.<br>
+ * <br>
+ * Calls contained in the statement are resolved only once, passing the product
+ * of the types and of the values at their entry to the call graph: when one of
+ * the two computations reaches a call whose result is not known, it is
+ * suspended until the other one reaches the same call, and it is then restarted
+ * reading the results of the calls resolved so far. The two computations must
+ * reach the same calls in the same order, otherwise a {@link SemanticException}
+ * is raised. Call graphs that analyze the targets of calls thus analyze them on
+ * products, using this function.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ * 
+ * @param <H> the type of {@link HeapDomain} to compute
+ * @param <V> the type of {@link ValueDomain} to compute alongside the types
+ */
+final class FusedSemantics<H extends HeapDomain<H>, V extends ValueDomain<V>>
+		implements SemanticFunction<H, ValueCartesianProduct<TypeEnvironment, V>> {
+
+	@Override
+	public AnalysisState<H, ValueCartesianProduct<TypeEnvironment, V>> compute(Statement st,
+			AnalysisState<H, ValueCartesianProduct<TypeEnvironment, V>> entryState, CallGraph callGraph,
+			ExpressionStore<AnalysisState<H, ValueCartesianProduct<TypeEnvironment, V>>> expressions)
+			throws SemanticException {
+		H heap = entryState.getState().getHeapState();
+		ValueCartesianProduct<TypeEnvironment, V> product = entryState.getState().getValueState();
+		AnalysisState<H, TypeEnvironment> typesEntry = new AnalysisState<>(
+				new AbstractState<>(heap, product.getLeft()), entryState.getComputedExpressions());
+		AnalysisState<H, V> valuesEntry = new AnalysisState<>(new AbstractState<>(heap, product.getRight()),
+				entryState.getComputedExpressions());
+
+		Calls calls = new Calls(callGraph);
+		int progress;
+		do {
+			progress = calls.progress();
+			ExpressionStore<AnalysisState<H, TypeEnvironment>> typesStore = new ExpressionStore<>(typesEntry);
+			ExpressionStore<AnalysisState<H, V>> valuesStore = new ExpressionStore<>(valuesEntry);
+
+			AnalysisState<H, TypeEnvironment> types = null;
+			try {
+				types = st.typeInference(typesEntry, calls.new TypesView(), typesStore);
+			} catch (Suspension s) {
+				// the values at the entry of the next call are needed
+			}
+
+			AnalysisState<H, V> values = null;
+			try {
+				values = st.semantics(valuesEntry, calls.new ValuesView(types != null), valuesStore);
+			} catch (Suspension s) {
+				// the types at the entry of the next call are needed
+			}
+
+			if (types != null && values != null) {
+				for (Entry<Expression, AnalysisState<H, V>> entry : valuesStore)
+					expressions.put(entry.getKey(), combine(typesStore.getState(entry.getKey()), entry.getValue()));
+				return combine(types, values);
+			}
+		} while (calls.progress() > progress);
+
+		throw new SemanticException("Type inference and semantics of " + st + " do not reach the same calls");
+	}
+
+	private AnalysisState<H, ValueCartesianProduct<TypeEnvironment, V>> combine(AnalysisState<H, TypeEnvironment> types,
+			AnalysisState<H, V> values) {
+		return new AnalysisState<>(new AbstractState<>(values.getState().getHeapState(),
+				new ValueCartesianProduct<>(types.getState().getValueState(), values.getState().getValueState())),
+				values.getComputedExpressions());
+	}
+
+	/**
+	 * The calls of a statement, resolved on products in the order they are
+	 * reached by the two computations.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private final class Calls {
+
+		private final CallGraph callGraph;
+
+		/**
+		 * The calls reached by type inference, with the types at their entry
+		 */
+		private final List<Reached> entries;
+
+		/**
+		 * The results of the calls resolved so far
+		 */
+		private final List<AnalysisState<H, ValueCartesianProduct<TypeEnvironment, V>>> results;
+
+		private Calls(CallGraph callGraph) {
+			this.callGraph = callGraph;
+			this.entries = new ArrayList<>();
+			this.results = new ArrayList<>();
+		}
+
+		/**
+		 * Yields how far the two computations got: this increases every time a
+		 * call is reached by type inference or resolved.
+		 */
+		private int progress() {
+			return entries.size() + results.size();
+		}
+
+		/**
+		 * Checks that the given call is the one reached by type inference at
+		 * the given position. Calls are compared through
+		 * {@link Statement#isEqualTo(Statement)}, since the call graph might
+		 * resolve the same call to different instances.
+		 */
+		private void check(int index, CFGCall call) throws SemanticException {
+			CFGCall expected = entries.get(index).call;
+			if (!expected.isEqualTo(call))
+				throw new SemanticException("Type inference reached " + expected + " where the semantics reached "
+						+ call);
+		}
+
+		/**
+		 * A call reached by type inference.
+		 * 
+		 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+		 */
+		private final class Reached {
+
+			private final CFGCall call;
+
+			private final AnalysisState<H, TypeEnvironment> types;
+
+			private Reached(CFGCall call, AnalysisState<H, TypeEnvironment> types) {
+				this.call = call;
+				this.types = types;
+			}
+		}
+
+		/**
+		 * The call graph used while computing the types.
+		 * 
+		 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+		 */
+		private final class TypesView extends CallGraphView {
+
+			private int next;
+
+			private TypesView() {
+				super(callGraph);
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public <H1 extends HeapDomain<H1>, V1 extends ValueDomain<V1>> AnalysisState<H1, V1> getAbstractResultOf(
+					CFGCall call, AnalysisState<H1, V1> entryState, Collection<SymbolicExpression>[] parameters)
+					throws SemanticException {
+				int index = next++;
+				if (index < results.size()) {
+					check(index, call);
+					AnalysisState<H, ValueCartesianProduct<TypeEnvironment, V>> result = results.get(index);
+					return (AnalysisState<H1, V1>) new AnalysisState<>(new AbstractState<>(
+							result.getState().getHeapState(), result.getState().getValueState().getLeft()),
+							result.getComputedExpressions());
+				}
+
+				if (index == entries.size())
+					entries.add(new Reached(call, (AnalysisState<H, TypeEnvironment>) entryState));
+				else
+					check(index, call);
+				throw new Suspension();
+			}
+		}
+
+		/**
+		 * The call graph used while computing the values.
+		 * 
+		 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+		 */
+		private final class ValuesView extends CallGraphView {
+
+			private final boolean typesComplete;
+
+			private int next;
+
+			private ValuesView(boolean typesComplete) {
+				super(callGraph);
+				this.typesComplete = typesComplete;
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public <H1 extends HeapDomain<H1>, V1 extends ValueDomain<V1>> AnalysisState<H1, V1> getAbstractResultOf(
+					CFGCall call, AnalysisState<H1, V1> entryState, Collection<SymbolicExpression>[] parameters)
+					throws SemanticException {
+				int index = next++;
+				if (index == entries.size()) {
+					if (typesComplete)
+						throw new SemanticException("Type inference did not reach " + call);
+					throw new Suspension();
+				}
+
+				check(index, call);
+				if (index == results.size())
+					results.add(callGraph.getAbstractResultOf(call,
+							combine(entries.get(index).types, (AnalysisState<H, V>) entryState), parameters));
+
+				AnalysisState<H, ValueCartesianProduct<TypeEnvironment, V>> result = results.get(index);
+				return (AnalysisState<H1, V1>) new AnalysisState<>(new AbstractState<>(
+						result.getState().getHeapState(), result.getState().getValueState().getRight()),
+						result.getComputedExpressions());
+			}
+		}
+	}
+
+	/**
+	 * A {@link CallGraph} delegating all operations to another one, except for
+	 * the computation of the results of calls.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private abstract static class CallGraphView implements CallGraph {
+
+		private final CallGraph delegate;
+
+		private CallGraphView(CallGraph delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void addCFG(CFG cfg) {
+			delegate.addCFG(cfg);
+		}
+
+		@Override
+		public Call resolve(UnresolvedCall call) {
+			return delegate.resolve(call);
+		}
+
+		@Override
+		public <H extends HeapDomain<H>, V extends ValueDomain<V>> void fixpoint(AnalysisState<H, V> entryState,
+				SemanticFunction<H, V> semantics) throws FixpointException {
+			delegate.fixpoint(entryState, semantics);
+		}
+
+		@Override
+		public <H extends HeapDomain<H>, V extends ValueDomain<V>> void fixpoint(AnalysisState<H, V> entryState,
+				SemanticFunction<H, V> semantics, Consumer<CFGWithAnalysisResults<H, V>> consumer,
+				boolean retain) throws FixpointException {
+			delegate.fixpoint(entryState, semantics, consumer, retain);
+		}
+
+		@Override
+		public <H extends HeapDomain<H>, V extends ValueDomain<V>> CFGWithAnalysisResults<H, V> getAnalysisResultsOf(
+				CFG cfg) {
+			return delegate.getAnalysisResultsOf(cfg);
+		}
+
+		@Override
+		public void clear() {
+			delegate.clear();
+		}
+
+		@Override
+		public AnalysisContext getContext() {
+			return delegate.getContext();
+		}
+	}
+
+	/**
+	 * Signals that a computation reached a call whose result is not known yet.
+	 * This is always caught by
+	 * {@link FusedSemantics#compute(Statement, AnalysisState, CallGraph, ExpressionStore)},
+	 * that restarts the computation once the result is available.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static final class Suspension extends SemanticException {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			// no stack trace is needed, since this never escapes compute
+			return this;
+		}
+	}
+}
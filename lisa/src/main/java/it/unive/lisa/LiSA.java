@@ -4,7 +4,9 @@ import it.unive.lisa.analysis.AbstractState;
 import it.unive.lisa.analysis.AnalysisState;
 import it.unive.lisa.analysis.CFGWithAnalysisResults;
 import it.unive.lisa.analysis.HeapDomain;
+import it.unive.lisa.analysis.ValueCartesianProduct;
 import it.unive.lisa.analysis.ValueDomain;
+import it.unive.lisa.analysis.ValueProduct;
 import it.unive.lisa.analysis.heap.MonolithicHeap;
 import it.unive.lisa.analysis.impl.types.TypeEnvironment;
 import it.unive.lisa.analysis.nonrelational.HeapEnvironment;
@@ -12,27 +14,44 @@ import it.unive.lisa.analysis.nonrelational.NonRelationalHeapDomain;
 import it.unive.lisa.analysis.nonrelational.NonRelationalValueDomain;
 import it.unive.lisa.analysis.nonrelational.ValueEnvironment;
 import it.unive.lisa.callgraph.CallGraph;
+import it.unive.lisa.callgraph.impl.BaseCallGraph;
 import it.unive.lisa.callgraph.impl.intraproc.IntraproceduralCallGraph;
 import it.unive.lisa.cfg.CFG;
+import it.unive.lisa.cfg.CFGDescriptor;
 import it.unive.lisa.cfg.CFG.SemanticFunction;
 import it.unive.lisa.cfg.FixpointException;
+import it.unive.lisa.cfg.FixpointStrategy;
 import it.unive.lisa.cfg.statement.Statement;
 import it.unive.lisa.checks.CheckTool;
+import it.unive.lisa.checks.semantic.SemanticCheck;
 import it.unive.lisa.checks.syntactic.SyntacticCheck;
 import it.unive.lisa.checks.syntactic.SyntacticChecksExecutor;
 import it.unive.lisa.checks.warnings.Warning;
 import it.unive.lisa.logging.IterationLogger;
 import it.unive.lisa.logging.TimerLogger;
+import it.unive.lisa.outputs.DotGraph.LabelWriter;
 import it.unive.lisa.outputs.JsonReport;
+import it.unive.lisa.outputs.JsonReportWriter;
+import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.symbolic.value.Skip;
+import it.unive.lisa.util.collections.SlotTable;
 import it.unive.lisa.util.file.FileManager;
+import it.unive.lisa.util.file.OutputPipeline;
 import java.io.IOException;
-import java.io.Writer;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -59,22 +78,46 @@ public class LiSA {
 	 */
 	private final Collection<SyntacticCheck> syntacticChecks;
 
+	/**
+	 * The collection of semantic checks to execute
+	 */
+	private final Collection<SemanticCheck> semanticChecks;
+
 	/**
 	 * The collection of warnings that will be filled with the results of all
-	 * the executed checks
+	 * the executed checks, if they are not written to a json report
 	 */
 	private final Collection<Warning> warnings;
 
+	/**
+	 * The number of warnings that have been generated, including the ones that
+	 * have not been added to {@link #warnings}
+	 */
+	private int generatedWarnings;
+
 	/**
 	 * The callgraph to use during the analysis
 	 */
 	private CallGraph callGraph;
 
+	/**
+	 * The callgraph used by the running analysis: either {@link #callGraph}, or
+	 * a default one created for each run. This is only available while
+	 * {@link #run()} is executing.
+	 */
+	private CallGraph analysisCallGraph;
+
 	/**
 	 * Whether or not type inference should be executed before the analysis
 	 */
 	private boolean inferTypes;
 
+	/**
+	 * Whether or not type inference should be executed within the same fixpoint
+	 * of the analysis, instead of before it
+	 */
+	private boolean fuseTypeInference;
+
 	/**
 	 * Whether or not the input cfgs should be dumped to dot format. This is
 	 * useful for checking if the inputs that reach LiSA are well formed.
@@ -93,11 +136,34 @@ public class LiSA {
 	 */
 	private boolean dumpAnalysis;
 
+	/**
+	 * Whether or not the results of the analysis should be retained by the call
+	 * graph after they have been inspected by the semantic checks and dumped
+	 */
+	private boolean retainResults;
+
+	/**
+	 * The strategy used for computing the fixpoint over each cfg, or
+	 * {@code null} to leave the one of the call graph untouched
+	 */
+	private FixpointStrategy fixpointStrategy;
+
 	/**
 	 * Whether or not the warning list should be dumped to a json file
 	 */
 	private boolean jsonOutput;
 
+	/**
+	 * The name of the zip archive where all generated files should be stored,
+	 * or {@code null} if they should be created as loose files
+	 */
+	private String outputArchive;
+
+	/**
+	 * Whether or not the entries of {@link #outputArchive} should be compressed
+	 */
+	private boolean compressOutputs;
+
 	/**
 	 * The workdir that LiSA should use as root for all generated files (log
 	 * files excluded, use the logging configuration for controlling where those
@@ -115,23 +181,72 @@ public class LiSA {
 	 */
 	private final Collection<HeapDomain<?>> heapDomains;
 
+	/**
+	 * The reduction to apply between value domains when more than one is
+	 * provided, or {@code null}
+	 */
+	private ValueProduct.Reduction valueReduction;
+
+	/**
+	 * The maximum number of threads that LiSA can use for running independent
+	 * computations concurrently
+	 */
+	private int parallelism;
+
+	/**
+	 * The executor that runs concurrent computations during the analysis. This
+	 * is only available while {@link #run()} is executing, and only if
+	 * {@link #parallelism} is greater than {@code 1}.
+	 */
+	private ExecutorService executor;
+
+	/**
+	 * The manager creating the output files of the analysis. This is only
+	 * available while {@link #run()} is executing.
+	 */
+	private FileManager fileManager;
+
+	/**
+	 * The pipeline writing dot files in background. This is only available
+	 * while {@link #run()} is executing, and only if at least one kind of dot
+	 * files has to be dumped.
+	 */
+	private OutputPipeline output;
+
+	/**
+	 * The writer of the json report, to which warnings are appended as soon as
+	 * they are generated. This is only available while {@link #run()} is
+	 * executing, and only if {@link #jsonOutput} is {@code true}.
+	 */
+	private JsonReportWriter report;
+
+	/**
+	 * The table assigning a slot to each {@link Identifier} encountered during
+	 * the analysis, shared by all the environments created by this instance
+	 */
+	private final SlotTable<Identifier> identifiers;
+
 	/**
 	 * Builds a new LiSA instance.
 	 */
 	public LiSA() {
 		this.inputs = Collections.newSetFromMap(new ConcurrentHashMap<>());
 		this.syntacticChecks = Collections.newSetFromMap(new ConcurrentHashMap<>());
-		// since the warnings collection will be filled AFTER the execution of
-		// every
-		// concurrent bit has completed its execution, it is fine to use a non
-		// thread-safe one
+		this.semanticChecks = Collections.newSetFromMap(new ConcurrentHashMap<>());
+		// warnings coming from concurrent computations are added through
+		// report(), that synchronizes on the collection
 		this.warnings = new ArrayList<>();
+		this.generatedWarnings = 0;
 		this.valueDomains = new ArrayList<>();
 		this.heapDomains = new ArrayList<>();
 		this.inferTypes = false;
 		this.dumpCFGs = false;
 		this.dumpTypeInference = false;
 		this.dumpAnalysis = false;
+		this.retainResults = true;
+		this.compressOutputs = true;
+		this.parallelism = 1;
+		this.identifiers = new SlotTable<>();
 		this.workdir = Paths.get(".").toAbsolutePath().normalize().toString();
 	}
 
@@ -163,6 +278,17 @@ public class LiSA {
 		syntacticChecks.add(check);
 	}
 
+	/**
+	 * Adds the given semantic check to the ones that will be executed. These
+	 * checks will be executed on the results of the analysis of each cfg, as
+	 * soon as those are available.
+	 * 
+	 * @param check the check to execute
+	 */
+	public void addSemanticCheck(SemanticCheck check) {
+		semanticChecks.add(check);
+	}
+
 	/**
 	 * Sets the {@link CallGraph} to use for the analysis. Any existing value is
 	 * overwritten.
@@ -186,6 +312,29 @@ public class LiSA {
 		this.inferTypes = inferTypes;
 	}
 
+	/**
+	 * Sets whether or not type inference, if executed, should be computed
+	 * within the same fixpoint of the semantic analysis, instead of in a
+	 * separate fixpoint before it. In the former case, each cfg is traversed
+	 * once with states that are products of the inferred types and of the value
+	 * domain, and the runtime types read by the semantics of each statement are
+	 * the ones computed on the current state instead of the final ones. This
+	 * has no effect if no value domain is provided, or if types are not
+	 * inferred. When the fixpoints are fused, the results are projected
+	 * before being handed to semantic checks and dumped: the files dumped after
+	 * type inference (see {@link #setDumpTypeInference(boolean)}) only contain
+	 * the inferred types, while semantic checks and the files dumped after the
+	 * analysis (see {@link #setDumpAnalysis(boolean)}) only see the states of
+	 * the value domain. The results retained by the call graph still contain
+	 * the product states.
+	 * 
+	 * @param fuseTypeInference if {@code true}, type inference will be computed
+	 *                              together with the semantic analysis
+	 */
+	public void setFuseTypeInference(boolean fuseTypeInference) {
+		this.fuseTypeInference = fuseTypeInference;
+	}
+
 	/**
 	 * Sets whether or not dot files, named {@code <cfg name>.dot}, should be
 	 * created and dumped in the working directory at the start of the
@@ -241,11 +390,47 @@ public class LiSA {
 		this.dumpAnalysis = dumpAnalysis;
 	}
 
+	/**
+	 * Sets whether or not the results of the semantic analysis should be
+	 * retained by the {@link CallGraph} once the analysis has been completed,
+	 * to be later retrieved through
+	 * {@link CallGraph#getAnalysisResultsOf(CFG)}. If results are not retained,
+	 * the results of each cfg are discarded as soon as they have been inspected
+	 * by the semantic checks and dumped (if {@link #setDumpAnalysis(boolean)}
+	 * or {@link #setDumpTypeInference(boolean)} require it), bounding the
+	 * memory needed by the analysis to the one needed by the cfgs that are
+	 * being analyzed instead of the whole program. Results are retained by
+	 * default.
+	 * 
+	 * @param retainResults if {@code true}, the results of the analysis will be
+	 *                          available after the analysis
+	 */
+	public void setRetainResults(boolean retainResults) {
+		this.retainResults = retainResults;
+	}
+
+	/**
+	 * Sets the {@link FixpointStrategy} used for computing the fixpoint over
+	 * each cfg. The strategy is applied to the {@link CallGraph} used by the
+	 * analysis if it is a {@link BaseCallGraph}, including the default one that
+	 * is created if {@link #setCallGraph(CallGraph)} has not been invoked. If
+	 * this method has not been invoked, the strategy of the call graph is left
+	 * untouched ({@link FixpointStrategy#FIFO} unless changed through
+	 * {@link BaseCallGraph#setFixpointStrategy(FixpointStrategy)}).
+	 * 
+	 * @param fixpointStrategy the strategy to use
+	 */
+	public void setFixpointStrategy(FixpointStrategy fixpointStrategy) {
+		this.fixpointStrategy = fixpointStrategy;
+	}
+
 	/**
 	 * Sets whether or not a json report file, named {@code report.json}, should
-	 * be created and dumped in the working directory at the end of the
-	 * analysis. This file will contain all the {@link Warning}s that have been
-	 * generated, as well as a list of produced files.<br>
+	 * be created and dumped in the working directory. This file will contain
+	 * all the {@link Warning}s that have been generated, that are appended to
+	 * it as soon as they are generated, as well as a list of produced files.
+	 * Since warnings are written to the report, they are not kept in memory,
+	 * and they will not be available through {@link #getWarnings()}.<br>
 	 * <br>
 	 * To customize where the report should be generated, use
 	 * {@link #setWorkdir(String)}.
@@ -257,6 +442,32 @@ public class LiSA {
 		this.jsonOutput = jsonOutput;
 	}
 
+	/**
+	 * Sets the name of a zip archive, created in the working directory, where
+	 * all the files generated by the analysis (including the json report, if
+	 * any) will be stored as entries. This avoids creating many small files in
+	 * the working directory. The names of the files listed in the json report
+	 * will refer to entries of the archive. An existing archive with the same
+	 * name is replaced. If {@code null}, files are created in the working
+	 * directory.
+	 * 
+	 * @param outputArchive the name of the archive, or {@code null}
+	 */
+	public void setOutputArchive(String outputArchive) {
+		this.outputArchive = outputArchive;
+	}
+
+	/**
+	 * Sets whether or not the entries of the archive set through
+	 * {@link #setOutputArchive(String)} should be compressed. Defaults to
+	 * {@code true}.
+	 * 
+	 * @param compressOutputs if {@code true}, entries will be compressed
+	 */
+	public void setCompressOutputs(boolean compressOutputs) {
+		this.compressOutputs = compressOutputs;
+	}
+
 	/**
 	 * Sets the working directory for this instance of LiSA, that is, the
 	 * directory files will be created, if any. If files need to be created and
@@ -269,6 +480,26 @@ public class LiSA {
 		this.workdir = Paths.get(workdir).toAbsolutePath().normalize().toString();
 	}
 
+	/**
+	 * Sets the maximum number of threads that LiSA can use for running
+	 * independent computations concurrently. With the default value of
+	 * {@code 1}, everything is executed sequentially on the calling thread.
+	 * When this is greater than {@code 1} and no {@link CallGraph} has been set
+	 * through {@link #setCallGraph(CallGraph)}, the default one will compute
+	 * the fixpoints of different cfgs concurrently. The threads are created
+	 * when {@link #run()} is invoked, and are disposed before it returns.
+	 * 
+	 * @param parallelism the maximum number of threads to use
+	 * 
+	 * @throws IllegalArgumentException if {@code parallelism} is less than
+	 *                                      {@code 1}
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+		this.parallelism = parallelism;
+	}
+
 	/**
 	 * Adds a new {@link HeapDomain} to execute during the analysis.
 	 * 
@@ -300,6 +531,20 @@ public class LiSA {
 		this.valueDomains.add(domain);
 	}
 
+	/**
+	 * Sets the reduction to apply between the value domains of the analysis.
+	 * When more than one value domain is provided, all of them are executed
+	 * within the same fixpoint as the components of a {@link ValueProduct},
+	 * ordered as they were added, and {@code reduction} is applied after each
+	 * of their transfer functions. By default, no reduction is applied.
+	 * 
+	 * @param reduction the reduction to apply, or {@code null} for not reducing
+	 *                      the value domains
+	 */
+	public void setValueReduction(ValueProduct.Reduction reduction) {
+		this.valueReduction = reduction;
+	}
+
 	/**
 	 * Adds a new {@link NonRelationalValueDomain} to execute during the
 	 * analysis.
@@ -308,7 +553,7 @@ public class LiSA {
 	 * @param domain the domain to execute
 	 */
 	public <T extends NonRelationalValueDomain<T>> void addNonRelationalValueDomain(T domain) {
-		this.valueDomains.add(new ValueEnvironment<>(domain));
+		this.valueDomains.add(new ValueEnvironment<>(domain, identifiers));
 	}
 
 	/**
@@ -327,36 +572,213 @@ public class LiSA {
 	 * @throws AnalysisException if anything goes wrong during the analysis
 	 */
 	public void run() throws AnalysisException {
+		ExecutorService pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+		try {
+			run(pool);
+		} finally {
+			if (pool != null)
+				pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Runs the given configurations over the same cfgs, sharing a single pool
+	 * of threads for all of them. Each configuration is an instance of LiSA
+	 * that has been set up with the domains, call graph, checks and dump
+	 * options to use, and that will hold its own results: its warnings are
+	 * available through {@link #getWarnings()} (or in its json report, see
+	 * {@link #setJsonOutput(boolean)}) once this method returns, and each of
+	 * its outputs is created in its own working directory. The given
+	 * cfgs are added to all the configurations, while their parallelism is
+	 * ignored in favor of the given one: configurations and the fixpoints they
+	 * compute are all executed by the shared pool. Since the information
+	 * computed on the cfgs is stored in the context of each call graph,
+	 * configurations must not share the same {@link CallGraph} instance.
+	 * Both conditions are checked before any configuration is started.
+	 * 
+	 * @param cfgs           the cfgs to analyze
+	 * @param configurations the configurations to run
+	 * @param parallelism    the maximum number of threads to use
+	 * 
+	 * @throws AnalysisException        if anything goes wrong during the
+	 *                                      analysis of at least one
+	 *                                      configuration (other failures are
+	 *                                      added as suppressed exceptions)
+	 * @throws IllegalArgumentException if {@code parallelism} is less than
+	 *                                      {@code 1}, or if two
+	 *                                      configurations share the same
+	 *                                      working directory or the same
+	 *                                      call graph
+	 */
+	public static void runAll(Collection<CFG> cfgs, List<LiSA> configurations, int parallelism)
+			throws AnalysisException {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+
+		Set<String> workdirs = new HashSet<>();
+		Set<CallGraph> callGraphs = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (LiSA configuration : configurations) {
+			if (!workdirs.add(configuration.workdir))
+				throw new IllegalArgumentException(
+						"Multiple configurations use the same working directory: " + configuration.workdir);
+			if (configuration.callGraph != null && !callGraphs.add(configuration.callGraph))
+				throw new IllegalArgumentException(
+						"Multiple configurations use the same call graph: " + configuration.callGraph);
+		}
+
+		for (LiSA configuration : configurations)
+			configuration.addCFGs(cfgs);
+
+		ExecutorService pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+		List<AnalysisException> failures = new ArrayList<>();
+		try {
+			if (pool == null)
+				for (LiSA configuration : configurations)
+					runCollecting(configuration, null, failures);
+			else {
+				List<Future<?>> tasks = new ArrayList<>(configurations.size());
+				for (LiSA configuration : configurations)
+					tasks.add(pool.submit(() -> runCollecting(configuration, pool, failures)));
+				for (Future<?> task : tasks)
+					task.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new AnalysisException("Interrupted while waiting for the configurations to complete", e);
+		} catch (ExecutionException e) {
+			throw new AnalysisException("Unexpected exception while running the configurations", e.getCause());
+		} finally {
+			if (pool != null)
+				pool.shutdownNow();
+		}
+
+		if (!failures.isEmpty()) {
+			AnalysisException failure = failures.get(0);
+			for (int i = 1; i < failures.size(); i++)
+				failure.addSuppressed(failures.get(i));
+			throw failure;
+		}
+	}
+
+	private static void runCollecting(LiSA configuration, ExecutorService pool,
+			Collection<AnalysisException> failures) {
+		try {
+			configuration.run(pool);
+		} catch (AnalysisException e) {
+			synchronized (failures) {
+				failures.add(e);
+			}
+		}
+	}
+
+	private void run(ExecutorService pool) throws AnalysisException {
 		printConfig();
 
+		try {
+			fileManager = outputArchive == null ? new FileManager(workdir)
+					: new FileManager(workdir, outputArchive, compressOutputs);
+		} catch (IOException e) {
+			throw new AnalysisException("Unable to create the output archive " + outputArchive, e);
+		}
+
+		executor = pool;
+		if (dumpCFGs || dumpTypeInference || dumpAnalysis)
+			output = new OutputPipeline(fileManager);
+		if (jsonOutput)
+			openReport();
 		try {
 			TimerLogger.execAction(log, "Analysis time", this::runAux);
 		} catch (AnalysisExecutionException e) {
 			throw new AnalysisException("LiSA has encountered an exception while executing the analysis", e);
+		} finally {
+			executor = null;
+			analysisCallGraph = null;
+			// the report lists the dumped files, so it can be completed only
+			// once all of them have been written
+			drainOutput();
+			closeReport();
+			closeFiles();
 		}
 
 		printStats();
+	}
+
+	private void drainOutput() {
+		if (output == null)
+			return;
+
+		try {
+			output.drain();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			log.error("Interrupted while waiting for pending dumps", e);
+		} finally {
+			output = null;
+		}
+	}
+
+	private void closeFiles() {
+		try {
+			fileManager.close();
+		} catch (IOException e) {
+			log.error("Unable to complete the output archive", e);
+		} finally {
+			fileManager = null;
+		}
+	}
 
-		if (jsonOutput) {
-			log.info("Dumping reported warnings to 'report.json'");
-			JsonReport report = new JsonReport(warnings, FileManager.createdFiles());
-			try (Writer writer = FileManager.mkOutputFile("report.json")) {
-				report.dump(writer);
-				log.info("Report file dumped to report.json");
+	private void openReport() {
+		log.info("Dumping reported warnings to '" + JsonReport.REPORT_FILE + "'");
+		try {
+			report = new JsonReportWriter(fileManager.mkOutputFile(JsonReport.REPORT_FILE));
+		} catch (IOException e) {
+			log.error("Unable to create report file", e);
+		}
+	}
+
+	private void closeReport() {
+		if (report == null)
+			return;
+
+		// the report itself is not one of the outputs it lists
+		Collection<String> files = fileManager.createdFiles();
+		files.remove(JsonReport.REPORT_FILE);
+		try (JsonReportWriter writer = report) {
+			writer.writeFiles(files);
+			log.info("Report file dumped to " + JsonReport.REPORT_FILE);
+		} catch (IOException e) {
+			log.error("Unable to dump report file", e);
+		} finally {
+			report = null;
+		}
+	}
+
+	private void report(Collection<Warning> generated) {
+		synchronized (warnings) {
+			generatedWarnings += generated.size();
+			// warnings written to the report are not retained
+			if (report == null) {
+				warnings.addAll(generated);
+				return;
+			}
+
+			try {
+				for (Warning warning : generated)
+					report.write(warning);
 			} catch (IOException e) {
-				log.error("Unable to dump report file", e);
+				log.error("Unable to dump warnings to the report file", e);
 			}
 		}
-
-		FileManager.clearCreatedFiles();
 	}
 
 	private void printConfig() {
 		log.info("LiSA setup:");
 		log.info("  workdir: " + String.valueOf(workdir));
 		log.info("  " + inputs.size() + " CFGs to analyze");
+		log.info("  parallelism: " + parallelism);
 		log.info("  dump input cfgs: " + dumpCFGs);
 		log.info("  infer types: " + inferTypes);
+		log.info("  fuse type inference: " + fuseTypeInference);
 		log.info("  dump inferred types: " + dumpTypeInference);
 		log.info("  " + heapDomains.size() + " heap domains to execute");
 		log.info("  " + valueDomains.size() + " value domains to execute");
@@ -365,41 +787,60 @@ public class LiSA {
 				+ (syntacticChecks.isEmpty() ? "" : ":"));
 		for (SyntacticCheck check : syntacticChecks)
 			log.info("      " + check.getClass().getSimpleName());
+		log.info("  " + semanticChecks.size() + " semantic checks to execute"
+				+ (semanticChecks.isEmpty() ? "" : ":"));
+		for (SemanticCheck check : semanticChecks)
+			log.info("      " + check.getClass().getSimpleName());
+		log.info("  retain analysis results: " + retainResults);
+		log.info("  fixpoint strategy: " + (fixpointStrategy == null ? "default" : fixpointStrategy));
 		log.info("  dump json report: " + jsonOutput);
+		log.info("  output archive: " + (outputArchive == null ? "none"
+				: outputArchive + (compressOutputs ? " (compressed)" : " (stored)")));
 	}
 
 	private void printStats() {
 		log.info("LiSA statistics:");
-		log.info("  " + warnings.size() + " warnings generated");
+		log.info("  " + generatedWarnings + " warnings generated");
 	}
 
 	@SuppressWarnings({ "unchecked" })
 	private <H extends HeapDomain<H>, V extends ValueDomain<V>> void runAux() throws AnalysisExecutionException {
-		FileManager.setWorkdir(workdir);
+		// the structure of the inputs will not change from now on
+		for (CFG cfg : inputs)
+			try {
+				cfg.freeze();
+			} catch (IllegalStateException e) {
+				throw new AnalysisExecutionException("Malformed cfg " + cfg.getDescriptor().getFullSignature(), e);
+			}
 
 		if (dumpCFGs)
 			for (CFG cfg : IterationLogger.iterate(log, inputs, "Dumping input CFGs", "cfgs"))
-				dumpCFG("", cfg, st -> "");
+				dumpCFG("", cfg, (st, output) -> {
+				});
 
 		CheckTool tool = new CheckTool();
 		if (!syntacticChecks.isEmpty()) {
-			SyntacticChecksExecutor.executeAll(tool, inputs, syntacticChecks);
-			warnings.addAll(tool.getWarnings());
+			// warnings are reported as soon as each cfg has been inspected
+			SyntacticChecksExecutor.executeAll(tool, inputs, syntacticChecks, executor,
+					buffer -> report(buffer.getWarnings()));
+			report(tool.getWarnings());
 		} else
 			log.warn("Skipping syntactic checks execution since none have been provided");
 
 		if (callGraph == null) {
 			log.warn("No call graph set for this analysis, defaulting to a non-interprocedural implementation");
-			callGraph = new IntraproceduralCallGraph();
-		}
+			// the default call graph is bound to the executor of this run
+			analysisCallGraph = new IntraproceduralCallGraph(executor);
+		} else
+			analysisCallGraph = callGraph;
 
-		inputs.forEach(callGraph::addCFG);
+		if (fixpointStrategy != null && analysisCallGraph instanceof BaseCallGraph)
+			((BaseCallGraph) analysisCallGraph).setFixpointStrategy(fixpointStrategy);
+		else if (fixpointStrategy != null)
+			log.warn("The call graph of this analysis does not support fixpoint strategies, ignoring "
+					+ fixpointStrategy);
 
-		// TODO we want to support these eventually
-		if (valueDomains.size() > 1) {
-			log.fatal("Analyses with a combination of value domains are not supported yet");
-			throw new AnalysisExecutionException("Analyses with a combination of value domains are not supported yet");
-		}
+		inputs.forEach(analysisCallGraph::addCFG);
 
 		// TODO we want to support these eventually
 		if (heapDomains.size() > 1) {
@@ -414,61 +855,154 @@ public class LiSA {
 
 		H heap = (H) heapDomains.iterator().next();
 
+		if (inferTypes && fuseTypeInference && !valueDomains.isEmpty()) {
+			V value = (V) valueDomain();
+			TimerLogger.execAction(log, "Computing types and fixpoint over the whole program",
+					() -> computeAnalysis(heap, new ValueCartesianProduct<>(new TypeEnvironment(identifiers), value),
+							new FusedSemantics<>(),
+							dumpTypeInference ? result -> result.project(ValueCartesianProduct::getLeft) : null,
+							result -> result.project(ValueCartesianProduct::getRight)));
+			return;
+		}
+
 		if (inferTypes) {
 			TimerLogger.execAction(log, "Computing type information",
-					() -> computeFixpoint(heap, new TypeEnvironment(), Statement::typeInference));
+					() -> computeFixpoint(heap, new TypeEnvironment(identifiers), Statement::typeInference));
 
 			if (dumpTypeInference)
-				for (CFG cfg : IterationLogger.iterate(log, inputs, "Dumping type analysis", "cfgs")) {
-					CFGWithAnalysisResults<?, ?> result = callGraph.getAnalysisResultsOf(cfg);
-					dumpCFG("typing___", result, st -> result.getAnalysisStateAt(st).toString());
-				}
+				dumpResults("typing___", "Dumping type analysis");
 
-			callGraph.clear();
+			analysisCallGraph.clear();
 		} else
 			log.warn("No type domain provided: dynamic type information will not be available for following analyses");
 
 		if (valueDomains.isEmpty()) {
 			// TODO we should have a base analysis that can serve as default
 			log.warn("Skipping analysis execution since no abstract domains have been provided");
+			if (!semanticChecks.isEmpty())
+				log.warn("Skipping semantic checks execution since no analysis has been executed");
 			return;
 		}
 
-		V value = (V) valueDomains.iterator().next();
+		V value = (V) valueDomain();
 		TimerLogger.execAction(log, "Computing fixpoint over the whole program",
-				() -> computeFixpoint(heap, value, Statement::semantics));
-
-		if (dumpAnalysis)
-			for (CFG cfg : IterationLogger.iterate(log, inputs, "Dumping analysis results", "cfgs")) {
-				CFGWithAnalysisResults<?, ?> result = callGraph.getAnalysisResultsOf(cfg);
-				dumpCFG("analysis___", result, st -> result.getAnalysisStateAt(st).toString());
-			}
+				() -> computeAnalysis(heap, value, Statement::semantics, null, result -> result));
 	}
 
-	private void dumpCFG(String filePrefix, CFG cfg, Function<Statement, String> labelGenerator) {
-		try (Writer file = FileManager.mkDotFile(filePrefix + cfg.getDescriptor().getFullSignature())) {
-			cfg.dump(file, cfg.getDescriptor().getFullSignature(), st -> labelGenerator.apply(st));
-		} catch (IOException e) {
-			log.error("Exception while dumping the analysis results on " + cfg.getDescriptor().getFullSignature(),
-					e);
+	/**
+	 * Computes the fixpoint of the analysis, running the semantic checks and
+	 * dumping the results. Semantic checks and the {@code analysis___} dump
+	 * receive the results projected through {@code values}, while the
+	 * {@code typing___} dump receives the ones projected through {@code types},
+	 * and it is skipped if {@code types} is {@code null}.
+	 */
+	private <H extends HeapDomain<H>, V extends ValueDomain<V>, W extends ValueDomain<W>> void computeAnalysis(H heap,
+			V value, SemanticFunction<H, V> semantics,
+			Function<CFGWithAnalysisResults<H, V>, CFGWithAnalysisResults<?, ?>> types,
+			Function<CFGWithAnalysisResults<H, V>, CFGWithAnalysisResults<H, W>> values) {
+		CheckTool tool = new CheckTool();
+		semanticChecks.forEach(c -> c.beforeExecution(tool));
+
+		Consumer<CFGWithAnalysisResults<H, V>> consumer = null;
+		if (!semanticChecks.isEmpty() || !retainResults)
+			consumer = result -> {
+				CFGWithAnalysisResults<H, W> projected = values.apply(result);
+				// warnings are reported as soon as each cfg has been inspected
+				CheckTool buffer = tool.buffer();
+				for (SemanticCheck check : semanticChecks)
+					check.visitCFG(buffer, projected);
+				report(buffer.getWarnings());
+				// the results will not be available later
+				if (!retainResults) {
+					if (types != null)
+						dumpResults("typing___", types.apply(result));
+					if (dumpAnalysis)
+						dumpResults("analysis___", projected);
+				}
+			};
+		computeFixpoint(heap, value, semantics, consumer, retainResults);
+
+		semanticChecks.forEach(c -> c.afterExecution(tool));
+		report(tool.getWarnings());
+
+		if (retainResults) {
+			if (types != null)
+				dumpResults("typing___", "Dumping type analysis", types);
+			if (dumpAnalysis)
+				dumpResults("analysis___", "Dumping analysis results", values);
 		}
 	}
 
-	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private ValueDomain<?> valueDomain() {
+		if (valueDomains.size() == 1)
+			return valueDomains.iterator().next();
+		return new ValueProduct(valueDomains, valueReduction);
+	}
+
+	private void dumpResults(String filePrefix, String message) {
+		for (CFG cfg : IterationLogger.iterate(log, inputs, message, "cfgs"))
+			dumpResults(filePrefix, analysisCallGraph.getAnalysisResultsOf(cfg));
+	}
+
+	private <H extends HeapDomain<H>, V extends ValueDomain<V>> void dumpResults(String filePrefix, String message,
+			Function<CFGWithAnalysisResults<H, V>, ? extends CFGWithAnalysisResults<?, ?>> projection) {
+		for (CFG cfg : IterationLogger.iterate(log, inputs, message, "cfgs"))
+			dumpResults(filePrefix, projection.apply(analysisCallGraph.getAnalysisResultsOf(cfg)));
+	}
+
+	private void dumpResults(String filePrefix, CFGWithAnalysisResults<?, ?> result) {
+		dumpCFG(filePrefix, result, (st, output) -> result.getAnalysisStateAt(st).representation(output));
+	}
+
+	private void dumpCFG(String filePrefix, CFG cfg, LabelWriter labelWriter) {
+		// the dump is only enqueued: the analysis can proceed while the file
+		// is written
+		String signature = cfg.getDescriptor().getFullSignature();
+		output.dumpDot(filePrefix + signature, writer -> cfg.dump(writer, signature, labelWriter));
+	}
+
 	private <H extends HeapDomain<H>, V extends ValueDomain<V>> void computeFixpoint(H heap, V value,
 			SemanticFunction<H, V> semantics) {
+		computeFixpoint(heap, value, semantics, null, true);
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private <H extends HeapDomain<H>, V extends ValueDomain<V>> void computeFixpoint(H heap, V value,
+			SemanticFunction<H, V> semantics, Consumer<CFGWithAnalysisResults<H, V>> consumer, boolean retain) {
+		Collection<CFGDescriptor> consumed = Collections.newSetFromMap(new ConcurrentHashMap<>());
+		Consumer<CFGWithAnalysisResults<H, V>> tracking = consumer == null ? null : result -> {
+			consumed.add(result.getDescriptor());
+			consumer.accept(result);
+		};
+
 		try {
-			callGraph.fixpoint(new AnalysisState(new AbstractState(heap.top(), value.top()), new Skip()), semantics);
+			analysisCallGraph.fixpoint(new AnalysisState(new AbstractState(heap.top(), value.top()),
+					Skip.INSTANCE), semantics, tracking, retain);
 		} catch (FixpointException e) {
 			log.fatal("Exception during fixpoint computation", e);
 			throw new AnalysisExecutionException("Exception during fixpoint computation", e);
 		}
+
+		if (consumer == null)
+			return;
+
+		// call graphs that do not support consumers retain their results
+		// instead: these are consumed once the fixpoint has been computed
+		for (CFG cfg : inputs)
+			if (!consumed.contains(cfg.getDescriptor())) {
+				CFGWithAnalysisResults<H, V> result = analysisCallGraph.getAnalysisResultsOf(cfg);
+				if (result != null)
+					consumer.accept(result);
+			}
 	}
 
 	/**
 	 * Yields an unmodifiable view of the warnings that have been generated
 	 * during the analysis. Invoking this method before invoking {@link #run()}
-	 * will return an empty collection.
+	 * will return an empty collection. If a json report has been generated
+	 * (see {@link #setJsonOutput(boolean)}), warnings have been written to it
+	 * instead of being kept in memory, and this method will return an empty
+	 * collection as well.
 	 * 
 	 * @return a view of the generated warnings
 	 */
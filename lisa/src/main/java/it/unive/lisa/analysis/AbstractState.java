@@ -3,7 +3,9 @@ package it.unive.lisa.analysis;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.symbolic.value.ValueExpression;
+import java.io.IOException;
 import java.util.Collection;
+import java.util.function.Predicate;
 
 /**
  * An abstract state of the analysis, composed by a heap state modeling the
@@ -153,6 +155,27 @@ public class AbstractState<H extends HeapDomain<H>, V extends ValueDomain<V>>
 		return new AbstractState<>(heapState.forgetIdentifier(id), valueState.forgetIdentifier(id));
 	}
 
+	@Override
+	public AbstractState<H, V> forgetIdentifiersIf(Predicate<Identifier> test) throws SemanticException {
+		return new AbstractState<>(heapState.forgetIdentifiersIf(test), valueState.forgetIdentifiersIf(test));
+	}
+
+	@Override
+	public AbstractState<H, V> pushScope(ScopeToken token) throws SemanticException {
+		return new AbstractState<>(heapState.pushScope(token), valueState.pushScope(token));
+	}
+
+	@Override
+	public AbstractState<H, V> popScope(ScopeToken token) throws SemanticException {
+		return new AbstractState<>(heapState.popScope(token), valueState.popScope(token));
+	}
+
+	@Override
+	public AbstractState<H, V> popScope(ScopeToken token, AbstractState<H, V> frame) throws SemanticException {
+		return new AbstractState<>(heapState.popScope(token, frame.heapState),
+				valueState.popScope(token, frame.valueState));
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -189,6 +212,15 @@ public class AbstractState<H extends HeapDomain<H>, V extends ValueDomain<V>>
 		return "heap [[ " + heapState.representation() + " ]]\nvalue [[ " + valueState.representation() + " ]]";
 	}
 
+	@Override
+	public void representation(Appendable output) throws IOException {
+		output.append("heap [[ ");
+		heapState.representation(output);
+		output.append(" ]]\nvalue [[ ");
+		valueState.representation(output);
+		output.append(" ]]");
+	}
+
 	@Override
 	public String toString() {
 		return representation();
@@ -0,0 +1,128 @@
+package it.unive.lisa.analysis;
+
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.cfg.CFG;
+import it.unive.lisa.cfg.statement.Expression;
+import it.unive.lisa.cfg.type.Type;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.util.collections.ExternalSet;
+import java.util.Collection;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The information computed on the {@link Expression}s of the program during an
+ * analysis, that is, their runtime types and the meta variables generated by
+ * their evaluation. Keeping this information outside of the expressions leaves
+ * the {@link CFG}s untouched by the analysis, so that different analyses can be
+ * executed over the same cfgs, even concurrently, each with its own
+ * context.<br>
+ * <br>
+ * Information is indexed by the offset of the expressions inside their cfg.
+ * Expressions built during the analysis that are not part of a cfg (e.g., the
+ * ones that a frontend creates on-the-fly while computing the semantics of a
+ * call) have their own entry, that lives as long as the expression itself.
+ * Instances of this class are safe for concurrent use.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class AnalysisContext {
+
+	/**
+	 * The tables of the expressions that are part of a cfg
+	 */
+	private final Map<CFG, Table> tables;
+
+	/**
+	 * The entries of the expressions that are not part of a cfg
+	 */
+	private final Map<Expression, Entry> detached;
+
+	/**
+	 * Builds an empty context.
+	 */
+	public AnalysisContext() {
+		tables = new ConcurrentHashMap<>();
+		detached = new WeakHashMap<>();
+	}
+
+	/**
+	 * Yields the runtime types of the given expression, that is, the concrete
+	 * types that it can have at runtime. If those have not been set, this
+	 * method returns a singleton set containing the static type of the
+	 * expression.
+	 * 
+	 * @param expression the expression
+	 * 
+	 * @return the set of runtime types
+	 */
+	public ExternalSet<Type> getRuntimeTypes(Expression expression) {
+		ExternalSet<Type> types = entry(expression).types;
+		if (types == null)
+			return Caches.types().mkSingletonSet(expression.getStaticType());
+		return types;
+	}
+
+	/**
+	 * Sets the runtime types of the given expression.
+	 * 
+	 * @param expression   the expression
+	 * @param runtimeTypes the set of concrete types that {@code expression} can
+	 *                         have at runtime
+	 */
+	public void setRuntimeTypes(Expression expression, ExternalSet<Type> runtimeTypes) {
+		// we store a copy since the given set might be modified afterwards
+		entry(expression).types = runtimeTypes == null || runtimeTypes.isEmpty() ? null : runtimeTypes.copy();
+	}
+
+	/**
+	 * Yields the meta variables that are generated by the evaluation of the
+	 * given expression. These should be removed as soon as the values computed
+	 * by those gets out of scope (e.g., popped from the stack). The returned
+	 * collection is modifiable, and it is filled while computing the semantics
+	 * of {@code expression}.
+	 * 
+	 * @param expression the expression
+	 * 
+	 * @return the meta variables
+	 */
+	public Collection<Identifier> getMetaVariables(Expression expression) {
+		return entry(expression).metaVariables;
+	}
+
+	private Entry entry(Expression expression) {
+		CFG cfg = expression.getCFG();
+		int offset = expression.getOffset();
+		if (offset >= 0 && offset < cfg.getOffsetLimit()) {
+			Table table = tables.computeIfAbsent(cfg, Table::new);
+			if (offset < table.length()) {
+				Entry entry = table.get(offset);
+				if (entry == null && !table.compareAndSet(offset, null, entry = new Entry()))
+					entry = table.get(offset);
+				return entry;
+			}
+		}
+
+		synchronized (detached) {
+			return detached.computeIfAbsent(expression, e -> new Entry());
+		}
+	}
+
+	private static final class Table extends AtomicReferenceArray<Entry> {
+
+		private static final long serialVersionUID = 1L;
+
+		private Table(CFG cfg) {
+			super(cfg.getOffsetLimit());
+		}
+	}
+
+	private static final class Entry {
+
+		private volatile ExternalSet<Type> types;
+
+		private final Collection<Identifier> metaVariables = ConcurrentHashMap.newKeySet();
+	}
+}
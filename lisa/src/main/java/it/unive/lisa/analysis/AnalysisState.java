@@ -3,8 +3,11 @@ package it.unive.lisa.analysis;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.symbolic.value.Skip;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.function.Predicate;
 import org.apache.commons.collections.CollectionUtils;
 
 /**
@@ -127,12 +130,12 @@ public class AnalysisState<H extends HeapDomain<H>, V extends ValueDomain<V>>
 
 	@Override
 	public AnalysisState<H, V> top() {
-		return new AnalysisState<>(state.top(), new Skip());
+		return new AnalysisState<>(state.top(), Skip.INSTANCE);
 	}
 
 	@Override
 	public AnalysisState<H, V> bottom() {
-		return new AnalysisState<>(state.bottom(), new Skip());
+		return new AnalysisState<>(state.bottom(), Skip.INSTANCE);
 	}
 
 	@Override
@@ -152,6 +155,46 @@ public class AnalysisState<H extends HeapDomain<H>, V extends ValueDomain<V>>
 		return new AnalysisState<>(state.forgetIdentifier(id), computedExpressions);
 	}
 
+	@Override
+	public AnalysisState<H, V> forgetIdentifiersIf(Predicate<Identifier> test) throws SemanticException {
+		return new AnalysisState<>(state.forgetIdentifiersIf(test), computedExpressions);
+	}
+
+	@Override
+	public AnalysisState<H, V> pushScope(ScopeToken token) throws SemanticException {
+		Collection<SymbolicExpression> exprs = new ArrayList<>(computedExpressions.size());
+		for (SymbolicExpression expression : computedExpressions)
+			exprs.add(expression instanceof Identifier ? ((Identifier) expression).pushScope(token) : expression);
+		return new AnalysisState<>(state.pushScope(token), exprs);
+	}
+
+	@Override
+	public AnalysisState<H, V> popScope(ScopeToken token) throws SemanticException {
+		return new AnalysisState<>(state.popScope(token), popComputedExpressions(token));
+	}
+
+	@Override
+	public AnalysisState<H, V> popScope(ScopeToken token, AnalysisState<H, V> frame) throws SemanticException {
+		return new AnalysisState<>(state.popScope(token, frame.state), popComputedExpressions(token));
+	}
+
+	private Collection<SymbolicExpression> popComputedExpressions(ScopeToken token) {
+		Collection<SymbolicExpression> exprs = new ArrayList<>(computedExpressions.size());
+		for (SymbolicExpression expression : computedExpressions)
+			if (!(expression instanceof Identifier))
+				exprs.add(expression);
+			else {
+				// identifiers of the closed scope are not visible anymore
+				Identifier restored = ((Identifier) expression).popScope(token);
+				if (restored != null)
+					exprs.add(restored);
+			}
+
+		if (exprs.isEmpty())
+			exprs.add(Skip.INSTANCE);
+		return exprs;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -188,6 +231,13 @@ public class AnalysisState<H extends HeapDomain<H>, V extends ValueDomain<V>>
 		return "{{\n" + state + "\n}} -> " + computedExpressions;
 	}
 
+	@Override
+	public void representation(Appendable output) throws IOException {
+		output.append("{{\n");
+		state.representation(output);
+		output.append("\n}} -> ").append(String.valueOf(computedExpressions));
+	}
+
 	@Override
 	public String toString() {
 		return representation();
@@ -1,5 +1,6 @@
 package it.unive.lisa.analysis;
 
+import it.unive.lisa.caches.Caches;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.heap.HeapExpression;
 import it.unive.lisa.symbolic.value.BinaryExpression;
@@ -33,8 +34,11 @@ public abstract class BaseHeapDomain<H extends BaseHeapDomain<H>> extends BaseLa
 			UnaryExpression unary = (UnaryExpression) expression;
 			H sem = smallStepSemantics(unary.getExpression());
 			H result = bottom();
-			for (ValueExpression expr : sem.getRewrittenExpressions())
-				result = result.lub(mk(sem, new UnaryExpression(expression.getTypes(), expr, unary.getOperator())));
+			for (ValueExpression expr : sem.getRewrittenExpressions()) {
+				UnaryExpression rewritten = Caches.expressions()
+						.intern(new UnaryExpression(expression.getTypes(), expr, unary.getOperator()));
+				result = result.lub(mk(sem, rewritten));
+			}
 			return result;
 		}
 
@@ -44,9 +48,11 @@ public abstract class BaseHeapDomain<H extends BaseHeapDomain<H>> extends BaseLa
 			H sem2 = sem1.smallStepSemantics(binary.getRight());
 			H result = bottom();
 			for (ValueExpression expr1 : sem1.getRewrittenExpressions())
-				for (ValueExpression expr2 : sem2.getRewrittenExpressions())
-					result = result.lub(
-							mk(sem2, new BinaryExpression(expression.getTypes(), expr1, expr2, binary.getOperator())));
+				for (ValueExpression expr2 : sem2.getRewrittenExpressions()) {
+					BinaryExpression rewritten = Caches.expressions()
+							.intern(new BinaryExpression(expression.getTypes(), expr1, expr2, binary.getOperator()));
+					result = result.lub(mk(sem2, rewritten));
+				}
 			return result;
 		}
 
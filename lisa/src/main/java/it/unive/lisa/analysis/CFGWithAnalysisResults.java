@@ -3,13 +3,17 @@ package it.unive.lisa.analysis;
 import it.unive.lisa.cfg.CFG;
 import it.unive.lisa.cfg.edge.Edge;
 import it.unive.lisa.cfg.statement.Statement;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * A control flow graph, that has {@link Statement}s as nodes and {@link Edge}s
  * as edges. It also maps each statement (and its inner expressions) to the
  * result of a fixpoint computation, in the form of an {@link AnalysisState}
- * instance.
+ * instance. Results are stored in arrays indexed by the offsets of the
+ * statements (see {@link Statement#getOffset()}), so that they can be retrieved
+ * without hashing.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  * 
@@ -21,9 +25,22 @@ import java.util.Map;
 public class CFGWithAnalysisResults<H extends HeapDomain<H>, V extends ValueDomain<V>> extends CFG {
 
 	/**
-	 * The map storing the analysis results
+	 * The statements whose results are stored in {@link #states}, indexed by
+	 * their offset
 	 */
-	private final Map<Statement, AnalysisState<H, V>> results;
+	private final Statement[] statements;
+
+	/**
+	 * The analysis results, indexed by the offset of the statement they refer
+	 * to
+	 */
+	private final AnalysisState<H, V>[] states;
+
+	/**
+	 * The analysis results of the statements whose offset does not fit in
+	 * {@link #states}, or that collide with the offset of another statement
+	 */
+	private final Map<Statement, AnalysisState<H, V>> overflow;
 
 	/**
 	 * Builds the control flow graph, storing the given mapping between nodes
@@ -32,19 +49,105 @@ public class CFGWithAnalysisResults<H extends HeapDomain<H>, V extends ValueDoma
 	 * @param cfg     the original control flow graph
 	 * @param results the results of the fixpoint computation
 	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public CFGWithAnalysisResults(CFG cfg, Map<Statement, AnalysisState<H, V>> results) {
 		super(cfg);
-		this.results = results;
+		this.statements = new Statement[cfg.getOffsetLimit()];
+		this.states = new AnalysisState[statements.length];
+		this.overflow = new HashMap<>();
+		for (Map.Entry<Statement, AnalysisState<H, V>> entry : results.entrySet()) {
+			int offset = entry.getKey().getOffset();
+			if (offset < 0 || offset >= statements.length || statements[offset] != null)
+				overflow.put(entry.getKey(), entry.getValue());
+			else {
+				statements[offset] = entry.getKey();
+				states[offset] = entry.getValue();
+			}
+		}
+	}
+
+	/**
+	 * Builds the control flow graph, storing the given fixpoint computation
+	 * results. The {@code i}-th element of {@code states} is the result
+	 * computed on the {@code i}-th element of {@code statements}, that must
+	 * have offset {@code i}. Both arrays must have length equal to
+	 * {@link CFG#getOffsetLimit()} of {@code cfg}, and they will not be copied.
+	 * 
+	 * @param cfg        the original control flow graph
+	 * @param statements the statements that have a result, indexed by their
+	 *                       offset
+	 * @param states     the results of the fixpoint computation, indexed by the
+	 *                       offset of the statement they refer to
+	 */
+	public CFGWithAnalysisResults(CFG cfg, Statement[] statements, AnalysisState<H, V>[] states) {
+		super(cfg);
+		this.statements = statements;
+		this.states = states;
+		this.overflow = new HashMap<>();
 	}
 
 	/**
-	 * Yields the computed result at a given statement.
+	 * Yields the computed result at a given statement. As with the {@link Map}
+	 * the results were built from, {@code st} is matched against the statements
+	 * that have a result through {@link Statement#equals(Object)}: the
+	 * statement stored at the offset of {@code st} is checked first, and the
+	 * ones that did not fit in the offset table are searched otherwise.
 	 * 
 	 * @param st the statement
 	 * 
-	 * @return the result computed at the given statement
+	 * @return the result computed at the given statement, or {@code null} if no
+	 *             result is stored for it
 	 */
 	public final AnalysisState<H, V> getAnalysisStateAt(Statement st) {
-		return results.get(st);
+		int offset = st.getOffset();
+		if (offset >= 0 && offset < statements.length && st.equals(statements[offset]))
+			return states[offset];
+		return overflow.get(st);
+	}
+
+	/**
+	 * Yields the computed result at the statement with the given offset. This
+	 * method yields {@code null} if no result is stored for that offset.
+	 * 
+	 * @param offset the offset of the statement
+	 * 
+	 * @return the result computed at the statement with the given offset, or
+	 *             {@code null}
+	 */
+	public final AnalysisState<H, V> getAnalysisStateAt(int offset) {
+		return offset >= 0 && offset < states.length ? states[offset] : null;
+	}
+
+	/**
+	 * Yields a copy of this control flow graph where the value state of each
+	 * stored result has been replaced by the one obtained through
+	 * {@code projection}. Heap states and computed expressions are left
+	 * untouched.
+	 * 
+	 * @param <W>        the type of {@link ValueDomain} contained into the
+	 *                       projected states
+	 * @param projection the function mapping each value state to the one to
+	 *                       store in the copy
+	 * 
+	 * @return the control flow graph with the projected results
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public <W extends ValueDomain<W>> CFGWithAnalysisResults<H, W> project(Function<V, W> projection) {
+		AnalysisState<H, W>[] projected = new AnalysisState[states.length];
+		for (int i = 0; i < states.length; i++)
+			if (states[i] != null)
+				projected[i] = project(states[i], projection);
+
+		CFGWithAnalysisResults<H, W> result = new CFGWithAnalysisResults<>(this, statements, projected);
+		for (Map.Entry<Statement, AnalysisState<H, V>> entry : overflow.entrySet())
+			result.overflow.put(entry.getKey(), project(entry.getValue(), projection));
+		return result;
+	}
+
+	private static <H extends HeapDomain<H>, V extends ValueDomain<V>, W extends ValueDomain<W>> AnalysisState<H, W> project(
+			AnalysisState<H, V> state, Function<V, W> projection) {
+		AbstractState<H, V> inner = state.getState();
+		return new AnalysisState<>(new AbstractState<>(inner.getHeapState(), projection.apply(inner.getValueState())),
+				state.getComputedExpressions());
 	}
 }
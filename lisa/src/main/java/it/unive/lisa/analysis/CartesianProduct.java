@@ -12,4 +12,22 @@ public abstract class CartesianProduct<T1 extends SemanticDomain<T1, E, I>, T2 e
 		this.left = left;
 		this.right = right;
 	}
+
+	/**
+	 * Yields the first component of this product.
+	 * 
+	 * @return the first component
+	 */
+	public T1 getLeft() {
+		return left;
+	}
+
+	/**
+	 * Yields the second component of this product.
+	 * 
+	 * @return the second component
+	 */
+	public T2 getRight() {
+		return right;
+	}
 }
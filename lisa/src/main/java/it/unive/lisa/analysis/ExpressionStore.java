@@ -35,7 +35,9 @@ public class ExpressionStore<V extends Lattice<V>> extends FunctionalLattice<Exp
 	 * @return the previous state mapped to {@code expression}, or {@code null}
 	 */
 	public V put(Expression expression, V state) {
-		return function.put(expression, state);
+		V previous = function.get(expression);
+		function = functionWith(expression, state);
+		return previous;
 	}
 
 	@Override
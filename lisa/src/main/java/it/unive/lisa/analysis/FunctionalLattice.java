@@ -1,16 +1,24 @@
 package it.unive.lisa.analysis;
 
+import it.unive.lisa.util.collections.PersistentHashMap;
+import it.unive.lisa.util.collections.PersistentMap;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.function.Function;
 
 /**
  * A generic functional abstract domain that performs the functional lifting of
- * the lattice on the elements of the co-domain.
+ * the lattice on the elements of the co-domain. Functions are represented
+ * through {@link PersistentMap}s (by default, {@link PersistentHashMap}s, see
+ * {@link #mkNewFunction()}), so that single-key updates performed with
+ * {@link #functionWith(Object, Lattice)} and {@link #functionWithout(Object)}
+ * share most of their structure with the original function instead of copying
+ * it. Least upper bounds, widenings and comparisons between functions skip all
+ * the mappings that are shared between the two operands, and return one of the
+ * operands when it already is the result of the operation.
  * 
  * @param <F> the concrete {@link FunctionalLattice} type
  * @param <K> the concrete type of the keys of this function
@@ -51,10 +59,115 @@ public abstract class FunctionalLattice<F extends FunctionalLattice<F, K, V>, K,
 	}
 
 	/**
-	 * This method exist just to ensure that all functions share the same type
+	 * Yields a new empty function. This method exist to ensure that all
+	 * functions share the same type: subclasses can override it to use a
+	 * different {@link PersistentMap} implementation. Note that this method is
+	 * invoked by {@link #FunctionalLattice(Lattice)}, before the fields of
+	 * subclasses are initialized.
+	 * 
+	 * @return an empty function
+	 */
+	protected PersistentMap<K, V> mkNewFunction() {
+		return PersistentHashMap.empty();
+	}
+
+	private PersistentMap<K, V> persistent(Map<K, V> function) {
+		if (function instanceof PersistentMap)
+			return (PersistentMap<K, V>) function;
+
+		PersistentMap<K, V> result = mkNewFunction();
+		for (Map.Entry<K, V> entry : function.entrySet())
+			result = result.plus(entry.getKey(), entry.getValue());
+		return result;
+	}
+
+	/**
+	 * Yields a function that contains all the mappings of the one implemented
+	 * by this lattice, with the exception that {@code key} is mapped to
+	 * {@code value}. The function implemented by this lattice is not modified,
+	 * and it shares most of its structure with the returned one. If this
+	 * lattice does not implement a function (e.g., if it is top or bottom), the
+	 * returned function will contain only the given mapping.
+	 * 
+	 * @param key   the key
+	 * @param value the value
+	 * 
+	 * @return the updated function
+	 */
+	protected final Map<K, V> functionWith(K key, V value) {
+		PersistentMap<K, V> func = function == null ? mkNewFunction() : persistent(function);
+		return func.plus(key, value);
+	}
+
+	/**
+	 * Yields a function that contains all the mappings of the one implemented
+	 * by this lattice, except the one for {@code key}. The function implemented
+	 * by this lattice is not modified, and it shares most of its structure with
+	 * the returned one. If this lattice does not implement a function (e.g., if
+	 * it is top or bottom), {@code null} is returned.
+	 * 
+	 * @param key the key
+	 * 
+	 * @return the updated function, or {@code null}
+	 */
+	protected final Map<K, V> functionWithout(K key) {
+		if (function == null)
+			return null;
+		return persistent(function).minus(key);
+	}
+
+	/**
+	 * Yields a function where each key of the one implemented by this lattice
+	 * has been replaced by the result of {@code renaming}. Mappings whose keys
+	 * are renamed to {@code null} are dropped, while values of keys that are
+	 * renamed to the same key are joined together. If this lattice does not
+	 * implement a function (e.g., if it is top or bottom), {@code null} is
+	 * returned.
+	 * 
+	 * @param renaming the function renaming keys
+	 * 
+	 * @return the renamed function, or {@code null}
+	 * 
+	 * @throws SemanticException if an error occurs while joining values
+	 */
+	protected final Map<K, V> functionRenamed(Function<K, K> renaming) throws SemanticException {
+		if (function == null)
+			return null;
+
+		PersistentMap<K, V> result = mkNewFunction();
+		for (Map.Entry<K, V> entry : function.entrySet()) {
+			K key = renaming.apply(entry.getKey());
+			if (key == null)
+				continue;
+			V previous = result.get(key);
+			result = result.plus(key, previous == null ? entry.getValue() : previous.lub(entry.getValue()));
+		}
+		return result;
+	}
+
+	/**
+	 * Yields a function containing the mappings of the one implemented by
+	 * {@code frame}, updated with the mappings of
+	 * {@link #functionRenamed(Function)}: when the same key is mapped by both,
+	 * the renamed mapping is kept. If neither this lattice nor {@code frame}
+	 * implement a function, {@code null} is returned.
+	 * 
+	 * @param renaming the function renaming keys
+	 * @param frame    the lattice whose mappings are to be kept
+	 * 
+	 * @return the resulting function, or {@code null}
+	 * 
+	 * @throws SemanticException if an error occurs while joining values
 	 */
-	private Map<K, V> mkNewFunction() {
-		return new HashMap<>();
+	protected final Map<K, V> functionRenamed(Function<K, K> renaming, F frame) throws SemanticException {
+		if (function == null && frame.function == null)
+			return null;
+
+		PersistentMap<K, V> result = frame.function == null ? mkNewFunction() : persistent(frame.function);
+		if (function != null)
+			for (Map.Entry<K, V> entry : functionRenamed(renaming).entrySet())
+				result = result.plus(entry.getKey(), entry.getValue());
+		return result;
 	}
 
 	/**
@@ -97,28 +210,37 @@ public abstract class FunctionalLattice<F extends FunctionalLattice<F, K, V>, K,
 		V lift(V first, V second) throws SemanticException;
 	}
 
+	@SuppressWarnings("unchecked")
 	private final F functionalLift(F other, FunctionalLift<V> lift) throws SemanticException {
-		F result = bottom();
-		result.function = mkNewFunction();
-		Set<K> keys = new HashSet<>(function.keySet());
-		keys.addAll(other.function.keySet());
-		for (K key : keys)
+		PersistentMap<K, V> left = persistent(function);
+		PersistentMap<K, V> right = persistent(other.function);
+		// keys missing from one of the functions are implicitly mapped to top
+		PersistentMap<K, V> func = left.merge(right, (key, first, second) -> {
 			try {
-				result.function.put(key, lift.lift(getState(key), other.getState(key)));
+				return lift.lift(first == null ? lattice.top() : first, second == null ? lattice.top() : second);
 			} catch (SemanticException e) {
 				throw new SemanticException("Exception during functional lifting of key '" + key + "'", e);
 			}
+		});
 
+		if (func == left && function == left)
+			return (F) this;
+		if (func == right && other.function == right)
+			return other;
+
+		F result = bottom();
+		result.function = func;
 		return result;
 	}
 
 	@Override
 	public boolean lessOrEqualAux(F other) throws SemanticException {
-		for (K key : function.keySet())
-			if (getState(key) != null && (!getState(key).lessOrEqual(other.getState(key))))
-				return false;
-
-		return true;
+		PersistentMap<K, V> left = persistent(function);
+		PersistentMap<K, V> right = persistent(other.function);
+		// keys that are mapped only in other are not relevant, since they are
+		// implicitly mapped to top in this function
+		return left.allMatch(right,
+				(key, first, second) -> first == null || first.lessOrEqual(second == null ? lattice.top() : second));
 	}
 
 	@Override
@@ -4,6 +4,7 @@ import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.heap.HeapExpression;
 import it.unive.lisa.symbolic.value.HeapIdentifier;
 import it.unive.lisa.symbolic.value.Identifier;
+import java.util.function.Predicate;
 
 /**
  * A semantic domain that can evaluate the semantic of statements that operate
@@ -17,4 +18,55 @@ import it.unive.lisa.symbolic.value.Identifier;
  */
 public interface HeapDomain<D extends HeapDomain<D>>
 		extends SemanticDomain<D, SymbolicExpression, Identifier>, Lattice<D>, HeapSemanticOperation {
+
+	/**
+	 * Forgets all the {@link Identifier}s that satisfy the given predicate, as
+	 * specified by {@link SemanticDomain#forgetIdentifiersIf(Predicate)}. The
+	 * default implementation of this method yields the top element of the
+	 * domain, that is the result of forgetting all identifiers.
+	 * 
+	 * @param test the predicate identifying the identifiers to forget
+	 * 
+	 * @return the top element
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	@Override
+	public default D forgetIdentifiersIf(Predicate<Identifier> test) throws SemanticException {
+		return top();
+	}
+
+	/**
+	 * Opens the scope identified by {@code token}, as specified by
+	 * {@link SemanticDomain#pushScope(ScopeToken)}. The default implementation
+	 * of this method yields the top element of the domain, thus losing all the
+	 * information about the heap: heap domains tracking identifiers should
+	 * override it.
+	 * 
+	 * @param token the token identifying the scope
+	 * 
+	 * @return the top element
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	@Override
+	public default D pushScope(ScopeToken token) throws SemanticException {
+		return top();
+	}
+
+	/**
+	 * Closes the scope identified by {@code token}, as specified by
+	 * {@link SemanticDomain#popScope(ScopeToken)}. The default implementation
+	 * of this method yields the top element of the domain.
+	 * 
+	 * @param token the token identifying the scope
+	 * 
+	 * @return the top element
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	@Override
+	public default D popScope(ScopeToken token) throws SemanticException {
+		return top();
+	}
 }
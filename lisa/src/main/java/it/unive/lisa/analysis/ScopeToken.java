@@ -0,0 +1,68 @@
+package it.unive.lisa.analysis;
+
+import it.unive.lisa.cfg.statement.Statement;
+
+/**
+ * A token identifying a scope, that is opened when the execution of a program
+ * enters a new context (e.g., a call to another cfg) and closed when it leaves
+ * it. Identifiers of the context that is being left are hidden through
+ * {@link SemanticDomain#pushScope(ScopeToken)}, and they are restored through
+ * {@link SemanticDomain#popScope(ScopeToken)}. Two tokens are equal if they
+ * have been created by statements at the same offset of the same cfg, that is,
+ * by the same program point. Since calls are rebuilt each time they are
+ * resolved by a call graph, this ensures that every evaluation of a call site
+ * uses the same token, and thus the same identifiers. Statements with no offset
+ * are compared by identity instead.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class ScopeToken {
+
+	/**
+	 * The statement that opened the scope
+	 */
+	private final Statement scoper;
+
+	/**
+	 * Builds the token.
+	 * 
+	 * @param scoper the statement that opened the scope
+	 */
+	public ScopeToken(Statement scoper) {
+		this.scoper = scoper;
+	}
+
+	/**
+	 * Yields the statement that opened the scope.
+	 * 
+	 * @return the statement
+	 */
+	public Statement getScoper() {
+		return scoper;
+	}
+
+	@Override
+	public int hashCode() {
+		if (scoper.getOffset() < 0)
+			return System.identityHashCode(scoper);
+		return 31 * System.identityHashCode(scoper.getCFG()) + scoper.getOffset();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null || getClass() != obj.getClass())
+			return false;
+		Statement other = ((ScopeToken) obj).scoper;
+		if (scoper == other)
+			return true;
+		return scoper.getOffset() >= 0 && scoper.getOffset() == other.getOffset()
+				&& scoper.getCFG() == other.getCFG();
+	}
+
+	@Override
+	public String toString() {
+		return scoper.getCFG().getDescriptor().getName() + "@" + scoper.getOffset();
+	}
+}
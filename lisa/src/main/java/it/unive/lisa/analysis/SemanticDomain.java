@@ -2,7 +2,9 @@ package it.unive.lisa.analysis;
 
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.Identifier;
+import java.io.IOException;
 import java.util.Collection;
+import java.util.function.Predicate;
 
 /**
  * A domain able to determine how abstract information evolves thanks to the
@@ -90,6 +92,98 @@ public interface SemanticDomain<D extends SemanticDomain<D, E, I>, E extends Sym
 		return result;
 	}
 
+	/**
+	 * Forgets all the {@link Identifier}s that satisfy the given predicate, as
+	 * if {@link #forgetIdentifier(Identifier)} was invoked on each of them.
+	 * This is useful when the identifiers to forget are not known in advance
+	 * (e.g., all the memory locations that a call might have modified).<br>
+	 * <br>
+	 * The default implementation of this method throws a
+	 * {@link SemanticException}, since the identifiers tracked by the domain
+	 * are unknown: domains tracking identifiers should override it.
+	 * 
+	 * @param test the predicate identifying the identifiers to forget
+	 * 
+	 * @return the semantic domain without information about the identifiers
+	 *             satisfying {@code test}
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	public default D forgetIdentifiersIf(Predicate<Identifier> test) throws SemanticException {
+		throw new SemanticException(getClass().getName() + " cannot forget identifiers through a predicate");
+	}
+
+	/**
+	 * Opens the scope identified by {@code token}, that is, yields a copy of
+	 * this domain where all the identifiers have been hidden through
+	 * {@link Identifier#pushScope(ScopeToken)}. This method should be invoked
+	 * when the execution enters a new context (e.g., a call), so that the
+	 * identifiers of the calling context are not visible in the new one.<br>
+	 * <br>
+	 * The default implementation of this method throws a
+	 * {@link SemanticException}, since scopes cannot be handled without knowing
+	 * the identifiers tracked by the domain: domains tracking identifiers
+	 * should override it.
+	 * 
+	 * @param token the token identifying the scope
+	 * 
+	 * @return the semantic domain with all identifiers hidden
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	public default D pushScope(ScopeToken token) throws SemanticException {
+		throw new SemanticException(getClass().getName() + " does not support scopes");
+	}
+
+	/**
+	 * Closes the scope identified by {@code token}, that is, yields a copy of
+	 * this domain where the identifiers hidden by
+	 * {@link #pushScope(ScopeToken)} with the same token have been restored
+	 * through {@link Identifier#popScope(ScopeToken)}, and where all the
+	 * identifiers belonging to the closed scope have been forgotten.<br>
+	 * <br>
+	 * The default implementation of this method throws a
+	 * {@link SemanticException}, for the same reasons of
+	 * {@link #pushScope(ScopeToken)}.
+	 * 
+	 * @param token the token identifying the scope
+	 * 
+	 * @return the semantic domain with the identifiers of the scope forgotten
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	public default D popScope(ScopeToken token) throws SemanticException {
+		throw new SemanticException(getClass().getName() + " does not support scopes");
+	}
+
+	/**
+	 * Closes the scope identified by {@code token} as
+	 * {@link #popScope(ScopeToken)}, and then re-attaches the identifiers of
+	 * {@code frame}. This method should be invoked when the identifiers of the
+	 * calling context have been removed while the scope was open (e.g., for
+	 * analyzing a call starting from a state that contains only its
+	 * parameters), with {@code frame} being the domain before the scope was
+	 * opened. The resulting domain tracks both the identifiers restored from
+	 * this domain and the ones of {@code frame}, with the former taking
+	 * precedence over the latter. Any other information is taken from this
+	 * domain.<br>
+	 * <br>
+	 * The default implementation of this method ignores {@code frame}, thus
+	 * losing the information about its identifiers: domains tracking
+	 * identifiers should override it.
+	 * 
+	 * @param token the token identifying the scope
+	 * @param frame the domain holding the identifiers of the calling context
+	 * 
+	 * @return the semantic domain with the identifiers of the scope forgotten
+	 *             and the ones of {@code frame} re-attached
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	public default D popScope(ScopeToken token, D frame) throws SemanticException {
+		return popScope(token);
+	}
+
 	/**
 	 * Checks if the given expression is satisfied by the abstract values of
 	 * this domain, returning an instance of {@link Satisfiability}.
@@ -354,4 +448,20 @@ public interface SemanticDomain<D extends SemanticDomain<D, E, I>, E extends Sym
 	 * @return the textual representation
 	 */
 	String representation();
+
+	/**
+	 * Writes the textual representation of the content of this domain's
+	 * instance, that is, the one returned by {@link #representation()}, to the
+	 * given {@link Appendable}. The default implementation of this method
+	 * appends the result of {@link #representation()}: domains holding large
+	 * amounts of information should override it, writing their contents
+	 * directly to {@code output} without building intermediate strings.
+	 * 
+	 * @param output the appendable to write to
+	 * 
+	 * @throws IOException if an I/O error occurs while writing
+	 */
+	default void representation(Appendable output) throws IOException {
+		output.append(representation());
+	}
 }
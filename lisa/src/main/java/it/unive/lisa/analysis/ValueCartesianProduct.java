@@ -2,6 +2,7 @@ package it.unive.lisa.analysis;
 
 import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.symbolic.value.ValueExpression;
+import java.util.function.Predicate;
 
 public class ValueCartesianProduct<T1 extends ValueDomain<T1>, T2 extends ValueDomain<T2>> extends CartesianProduct<T1, T2, ValueExpression, Identifier> 
 implements ValueDomain<ValueCartesianProduct<T1, T2>> {
@@ -17,6 +18,23 @@ implements ValueDomain<ValueCartesianProduct<T1, T2>> {
 		return new ValueCartesianProduct<T1, T2>(newLeft, newRight);
 	}
 
+	@Override
+	public ValueCartesianProduct<T1, T2> pushScope(ScopeToken token) throws SemanticException {
+		return new ValueCartesianProduct<T1, T2>(left.pushScope(token), right.pushScope(token));
+	}
+
+	@Override
+	public ValueCartesianProduct<T1, T2> popScope(ScopeToken token) throws SemanticException {
+		return new ValueCartesianProduct<T1, T2>(left.popScope(token), right.popScope(token));
+	}
+
+	@Override
+	public ValueCartesianProduct<T1, T2> popScope(ScopeToken token, ValueCartesianProduct<T1, T2> frame)
+			throws SemanticException {
+		return new ValueCartesianProduct<T1, T2>(left.popScope(token, frame.left),
+				right.popScope(token, frame.right));
+	}
+
 	@Override
 	public ValueCartesianProduct<T1, T2> smallStepSemantics(ValueExpression expression) throws SemanticException {
 		T1 newLeft = left.smallStepSemantics(expression);
@@ -38,6 +56,11 @@ implements ValueDomain<ValueCartesianProduct<T1, T2>> {
 		return new ValueCartesianProduct<T1, T2>(newLeft, newRight);
 	}
 
+	@Override
+	public ValueCartesianProduct<T1, T2> forgetIdentifiersIf(Predicate<Identifier> test) throws SemanticException {
+		return new ValueCartesianProduct<T1, T2>(left.forgetIdentifiersIf(test), right.forgetIdentifiersIf(test));
+	}
+
 	@Override
 	public Satisfiability satisfies(ValueExpression expression) throws SemanticException {
 		return left.satisfies(expression).and(right.satisfies(expression));
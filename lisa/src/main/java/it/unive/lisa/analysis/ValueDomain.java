@@ -5,6 +5,7 @@ import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.symbolic.value.ValueExpression;
 import it.unive.lisa.symbolic.value.ValueIdentifier;
 import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * A semantic domain that can evaluate the semantic of statements that operate
@@ -47,4 +48,57 @@ public interface ValueDomain<D extends ValueDomain<D>>
 
 		return result;
 	}
+
+	/**
+	 * Forgets all the {@link Identifier}s that satisfy the given predicate, as
+	 * specified by {@link SemanticDomain#forgetIdentifiersIf(Predicate)}. The
+	 * default implementation of this method yields the top element of the
+	 * domain, that is the result of forgetting all identifiers.
+	 * 
+	 * @param test the predicate identifying the identifiers to forget
+	 * 
+	 * @return the top element
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	@Override
+	public default D forgetIdentifiersIf(Predicate<Identifier> test) throws SemanticException {
+		return top();
+	}
+
+	/**
+	 * Opens the scope identified by {@code token}, as specified by
+	 * {@link SemanticDomain#pushScope(ScopeToken)}. The default implementation
+	 * of this method yields the top element of the domain, since the
+	 * identifiers of the calling context could otherwise remain visible: this
+	 * is sound, but all the information is lost. Domains tracking identifiers
+	 * should override it.
+	 * 
+	 * @param token the token identifying the scope
+	 * 
+	 * @return the top element
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	@Override
+	public default D pushScope(ScopeToken token) throws SemanticException {
+		return top();
+	}
+
+	/**
+	 * Closes the scope identified by {@code token}, as specified by
+	 * {@link SemanticDomain#popScope(ScopeToken)}. The default implementation
+	 * of this method yields the top element of the domain, for the same reasons
+	 * of {@link #pushScope(ScopeToken)}.
+	 * 
+	 * @param token the token identifying the scope
+	 * 
+	 * @return the top element
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	@Override
+	public default D popScope(ScopeToken token) throws SemanticException {
+		return top();
+	}
 }
@@ -0,0 +1,307 @@
+package it.unive.lisa.analysis;
+
+import it.unive.lisa.analysis.HeapSemanticOperation.HeapReplacement;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.ValueExpression;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A {@link ValueDomain} that is the product of an arbitrary number of value
+ * domains, all executed within the same fixpoint. Each operation is applied to
+ * all the components, and the product is bottom as soon as one of them is
+ * bottom: when this happens, all the other components are set to bottom as
+ * well, so that there is a single bottom product. An optional {@link Reduction}
+ * can be used for refining the components using each other's information: it is
+ * applied after each assignment, small step semantics, assumption and
+ * substitution, but never after lubs and widenings, in order to preserve the
+ * termination of the fixpoint.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class ValueProduct implements ValueDomain<ValueProduct> {
+
+	/**
+	 * The components of this product
+	 */
+	private final List<ValueDomain<?>> components;
+
+	/**
+	 * The reduction to apply after each transfer function, or {@code null}
+	 */
+	private final Reduction reduction;
+
+	/**
+	 * Builds the product of the given domains, without reduction.
+	 * 
+	 * @param components the components of the product, in order
+	 * 
+	 * @throws IllegalArgumentException if {@code components} is empty
+	 */
+	public ValueProduct(Collection<? extends ValueDomain<?>> components) {
+		this(components, null);
+	}
+
+	/**
+	 * Builds the product of the given domains.
+	 * 
+	 * @param components the components of the product, in order
+	 * @param reduction  the reduction to apply after each transfer function, or
+	 *                       {@code null} if no reduction should be performed
+	 * 
+	 * @throws IllegalArgumentException if {@code components} is empty
+	 */
+	public ValueProduct(Collection<? extends ValueDomain<?>> components, Reduction reduction) {
+		if (components.isEmpty())
+			throw new IllegalArgumentException("A product needs at least one component");
+		this.components = Collections.unmodifiableList(new ArrayList<>(components));
+		this.reduction = reduction;
+	}
+
+	/**
+	 * Yields the components of this product, in the order they were given at
+	 * construction time.
+	 * 
+	 * @return the (unmodifiable) components
+	 */
+	public List<ValueDomain<?>> getComponents() {
+		return components;
+	}
+
+	/**
+	 * Yields the component of this product at the given position.
+	 * 
+	 * @param <T>   the type of the component
+	 * @param index the position of the component
+	 * 
+	 * @return the component
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends ValueDomain<T>> T getComponent(int index) {
+		return (T) components.get(index);
+	}
+
+	@SuppressWarnings("rawtypes")
+	private ValueProduct map(ComponentOperation op, boolean reduce) throws SemanticException {
+		List<ValueDomain<?>> result = new ArrayList<>(components.size());
+		for (ValueDomain component : components)
+			result.add(op.apply(component));
+
+		if (reduce && reduction != null) {
+			result = reduction.reduce(Collections.unmodifiableList(result));
+			if (result.size() != components.size())
+				throw new SemanticException("The reduction changed the number of components of the product");
+		}
+
+		return mk(result);
+	}
+
+	@SuppressWarnings("rawtypes")
+	private ValueProduct zip(ValueProduct other, ComponentsOperation op) throws SemanticException {
+		List<ValueDomain<?>> result = new ArrayList<>(components.size());
+		for (int i = 0; i < components.size(); i++)
+			result.add(op.apply((ValueDomain) components.get(i), (ValueDomain) other.components.get(i)));
+		return mk(result);
+	}
+
+	private ValueProduct mk(List<ValueDomain<?>> result) {
+		for (ValueDomain<?> component : result)
+			if (component.isBottom())
+				return bottom();
+		return new ValueProduct(result, reduction);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public ValueProduct assign(Identifier id, ValueExpression expression) throws SemanticException {
+		return map(c -> (ValueDomain<?>) c.assign(id, expression), true);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public ValueProduct smallStepSemantics(ValueExpression expression) throws SemanticException {
+		return map(c -> (ValueDomain<?>) c.smallStepSemantics(expression), true);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public ValueProduct assume(ValueExpression expression) throws SemanticException {
+		return map(c -> (ValueDomain<?>) c.assume(expression), true);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public ValueProduct applySubstitution(List<HeapReplacement> substitution) throws SemanticException {
+		return map(c -> (ValueDomain<?>) c.applySubstitution(substitution), true);
+	}
+
+	@Override
+	public ValueProduct forgetIdentifier(Identifier id) throws SemanticException {
+		return map(c -> (ValueDomain<?>) c.forgetIdentifier(id), false);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public ValueProduct forgetIdentifiersIf(Predicate<Identifier> test) throws SemanticException {
+		return map(c -> (ValueDomain<?>) c.forgetIdentifiersIf(test), false);
+	}
+
+	@Override
+	public ValueProduct pushScope(ScopeToken token) throws SemanticException {
+		return map(c -> (ValueDomain<?>) c.pushScope(token), false);
+	}
+
+	@Override
+	public ValueProduct popScope(ScopeToken token) throws SemanticException {
+		return map(c -> (ValueDomain<?>) c.popScope(token), false);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public ValueProduct popScope(ScopeToken token, ValueProduct frame) throws SemanticException {
+		return zip(frame, (c, f) -> (ValueDomain<?>) c.popScope(token, f));
+	}
+
+	@Override
+	public Satisfiability satisfies(ValueExpression expression) throws SemanticException {
+		// each component provides a sound answer, so we can keep the most
+		// precise one
+		Satisfiability result = Satisfiability.UNKNOWN;
+		for (ValueDomain<?> component : components)
+			result = result.glb(component.satisfies(expression));
+		return result;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public ValueProduct lub(ValueProduct other) throws SemanticException {
+		return zip(other, (c1, c2) -> (ValueDomain<?>) c1.lub(c2));
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public ValueProduct widening(ValueProduct other) throws SemanticException {
+		return zip(other, (c1, c2) -> (ValueDomain<?>) c1.widening(c2));
+	}
+
+	@Override
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public boolean lessOrEqual(ValueProduct other) throws SemanticException {
+		for (int i = 0; i < components.size(); i++)
+			if (!((ValueDomain) components.get(i)).lessOrEqual(other.components.get(i)))
+				return false;
+		return true;
+	}
+
+	@Override
+	public ValueProduct top() {
+		List<ValueDomain<?>> result = new ArrayList<>(components.size());
+		for (ValueDomain<?> component : components)
+			result.add((ValueDomain<?>) component.top());
+		return new ValueProduct(result, reduction);
+	}
+
+	@Override
+	public ValueProduct bottom() {
+		List<ValueDomain<?>> result = new ArrayList<>(components.size());
+		for (ValueDomain<?> component : components)
+			result.add((ValueDomain<?>) component.bottom());
+		return new ValueProduct(result, reduction);
+	}
+
+	@Override
+	public boolean isTop() {
+		for (ValueDomain<?> component : components)
+			if (!component.isTop())
+				return false;
+		return true;
+	}
+
+	@Override
+	public boolean isBottom() {
+		for (ValueDomain<?> component : components)
+			if (component.isBottom())
+				return true;
+		return false;
+	}
+
+	@Override
+	public String representation() {
+		StringBuilder result = new StringBuilder();
+		for (ValueDomain<?> component : components) {
+			if (result.length() > 0)
+				result.append(", ");
+			result.append(component.representation());
+		}
+		return result.toString();
+	}
+
+	@Override
+	public void representation(Appendable output) throws IOException {
+		boolean first = true;
+		for (ValueDomain<?> component : components) {
+			if (!first)
+				output.append(", ");
+			first = false;
+			component.representation(output);
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return components.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		return components.equals(((ValueProduct) obj).components);
+	}
+
+	@Override
+	public String toString() {
+		return representation();
+	}
+
+	/**
+	 * A reduction between the components of a {@link ValueProduct}, that can
+	 * refine each component using the information contained in the other ones.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	@FunctionalInterface
+	public interface Reduction {
+
+		/**
+		 * Reduces the given components. The returned list must contain the same
+		 * number of components, each of the same type of the corresponding one
+		 * in {@code components} and not greater than it.
+		 * 
+		 * @param components the (unmodifiable) components to reduce
+		 * 
+		 * @return the reduced components
+		 * 
+		 * @throws SemanticException if an error occurs during the computation
+		 */
+		List<ValueDomain<?>> reduce(List<ValueDomain<?>> components) throws SemanticException;
+	}
+
+	@SuppressWarnings("rawtypes")
+	private interface ComponentOperation {
+		ValueDomain<?> apply(ValueDomain component) throws SemanticException;
+	}
+
+	@SuppressWarnings("rawtypes")
+	private interface ComponentsOperation {
+		ValueDomain<?> apply(ValueDomain first, ValueDomain second) throws SemanticException;
+	}
+}
@@ -1,7 +1,9 @@
 package it.unive.lisa.analysis.heap;
 
 import it.unive.lisa.analysis.BaseHeapDomain;
+import it.unive.lisa.analysis.ScopeToken;
 import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.caches.Caches;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.heap.HeapExpression;
 import it.unive.lisa.symbolic.value.HeapIdentifier;
@@ -11,6 +13,7 @@ import it.unive.lisa.symbolic.value.ValueExpression;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Predicate;
 import org.apache.commons.collections.CollectionUtils;
 
 /**
@@ -34,7 +37,7 @@ public class MonolithicHeap extends BaseHeapDomain<MonolithicHeap> {
 	 * this instance will return a singleton set containing one {@link Skip}.
 	 */
 	public MonolithicHeap() {
-		this(new Skip());
+		this(Skip.INSTANCE);
 	}
 
 	private MonolithicHeap(ValueExpression rewritten) {
@@ -71,7 +74,7 @@ public class MonolithicHeap extends BaseHeapDomain<MonolithicHeap> {
 		// any expression accessing an area of the heap or instantiating a new
 		// one
 		// is modeled through the monolith
-		return new MonolithicHeap(new HeapIdentifier(expression.getTypes(), MONOLITH_NAME));
+		return new MonolithicHeap(Caches.expressions().intern(new HeapIdentifier(expression.getTypes(), MONOLITH_NAME)));
 	}
 
 	@Override
@@ -91,6 +94,21 @@ public class MonolithicHeap extends BaseHeapDomain<MonolithicHeap> {
 		return new MonolithicHeap(rewritten);
 	}
 
+	@Override
+	public MonolithicHeap forgetIdentifiersIf(Predicate<Identifier> test) throws SemanticException {
+		return new MonolithicHeap(rewritten);
+	}
+
+	@Override
+	public MonolithicHeap pushScope(ScopeToken token) throws SemanticException {
+		return new MonolithicHeap(rewritten);
+	}
+
+	@Override
+	public MonolithicHeap popScope(ScopeToken token) throws SemanticException {
+		return new MonolithicHeap(rewritten);
+	}
+
 	@Override
 	@SuppressWarnings("unchecked")
 	protected MonolithicHeap lubAux(MonolithicHeap other) throws SemanticException {
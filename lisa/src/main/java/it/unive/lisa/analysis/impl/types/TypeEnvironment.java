@@ -1,15 +1,21 @@
 package it.unive.lisa.analysis.impl.types;
 
 import it.unive.lisa.analysis.FunctionalLattice;
+import it.unive.lisa.analysis.ScopeToken;
 import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.ValueDomain;
 import it.unive.lisa.analysis.nonrelational.ValueEnvironment;
 import it.unive.lisa.caches.Caches;
 import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.symbolic.value.ValueExpression;
-import java.util.HashMap;
+import it.unive.lisa.util.collections.PersistentMap;
+import it.unive.lisa.util.collections.SlotMap;
+import it.unive.lisa.util.collections.SlotTable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.Predicate;
 
 /**
  * A type environment, mapping {@link Identifier}s to {@link InferredTypes}
@@ -26,18 +32,44 @@ public final class TypeEnvironment extends FunctionalLattice<TypeEnvironment, Id
 
 	private final InferredTypes lastComputedTypes;
 
+	/**
+	 * The table assigning slots to identifiers, or {@code null} if this
+	 * environment is backed by hash maps
+	 */
+	private final SlotTable<Identifier> identifiers;
+
 	/**
 	 * Builds an empty type environment.
 	 */
 	public TypeEnvironment() {
 		super(new InferredTypes());
 		this.lastComputedTypes = new InferredTypes(Caches.types().mkEmptySet());
+		this.identifiers = null;
+	}
+
+	/**
+	 * Builds an empty type environment, whose functions are {@link SlotMap}s
+	 * using the given table. All the environments generated from this one will
+	 * use the same table.
+	 * 
+	 * @param identifiers the table assigning slots to identifiers
+	 */
+	public TypeEnvironment(SlotTable<Identifier> identifiers) {
+		super(new InferredTypes(), SlotMap.empty(identifiers));
+		this.lastComputedTypes = new InferredTypes(Caches.types().mkEmptySet());
+		this.identifiers = identifiers;
 	}
 
 	private TypeEnvironment(InferredTypes domain, Map<Identifier, InferredTypes> function,
-			InferredTypes lastComputedTypes) {
+			InferredTypes lastComputedTypes, SlotTable<Identifier> identifiers) {
 		super(domain, function);
 		this.lastComputedTypes = lastComputedTypes;
+		this.identifiers = identifiers;
+	}
+
+	@Override
+	protected PersistentMap<Identifier, InferredTypes> mkNewFunction() {
+		return identifiers == null ? super.mkNewFunction() : SlotMap.empty(identifiers);
 	}
 
 	/**
@@ -53,28 +85,22 @@ public final class TypeEnvironment extends FunctionalLattice<TypeEnvironment, Id
 
 	@Override
 	public TypeEnvironment assign(Identifier id, ValueExpression value) {
-		Map<Identifier, InferredTypes> func;
-		if (function == null)
-			func = new HashMap<>();
-		else
-			func = new HashMap<>(function);
 		InferredTypes inferred = new InferredTypes(value.getTypes());
-		func.put(id, inferred);
-		return new TypeEnvironment(lattice, func, inferred);
+		return new TypeEnvironment(lattice, functionWith(id, inferred), inferred, identifiers);
 	}
 
 	@Override
 	public TypeEnvironment smallStepSemantics(ValueExpression expression) {
 		// environment should not change without an assignment
 		if (expression instanceof Identifier)
-			return new TypeEnvironment(lattice, function, getState((Identifier) expression));
-		return new TypeEnvironment(lattice, function, new InferredTypes(expression.getTypes()));
+			return new TypeEnvironment(lattice, function, getState((Identifier) expression), identifiers);
+		return new TypeEnvironment(lattice, function, new InferredTypes(expression.getTypes()), identifiers);
 	}
 
 	@Override
 	public TypeEnvironment assume(ValueExpression expression) throws SemanticException {
 		// TODO: to be refined
-		return new TypeEnvironment(lattice, function, new InferredTypes(expression.getTypes()));
+		return new TypeEnvironment(lattice, function, new InferredTypes(expression.getTypes()), identifiers);
 	}
 
 	@Override
@@ -85,14 +111,23 @@ public final class TypeEnvironment extends FunctionalLattice<TypeEnvironment, Id
 
 	@Override
 	public TypeEnvironment lubAux(TypeEnvironment other) throws SemanticException {
-		TypeEnvironment lub = super.lubAux(other);
-		return new TypeEnvironment(lub.lattice, lub.function, lastComputedTypes.lub(other.lastComputedTypes));
+		return lifted(super.lubAux(other), other);
 	}
 
 	@Override
 	public TypeEnvironment wideningAux(TypeEnvironment other) throws SemanticException {
-		TypeEnvironment widen = super.wideningAux(other);
-		return new TypeEnvironment(widen.lattice, widen.function, lastComputedTypes.lub(other.lastComputedTypes));
+		return lifted(super.wideningAux(other), other);
+	}
+
+	private TypeEnvironment lifted(TypeEnvironment env, TypeEnvironment other) throws SemanticException {
+		InferredTypes types = lastComputedTypes.lub(other.lastComputedTypes);
+		// the functional lift returns one of the operands when it does not
+		// change its mapping
+		if (env == this && types.equals(lastComputedTypes))
+			return this;
+		if (env == other && types.equals(other.lastComputedTypes))
+			return other;
+		return new TypeEnvironment(env.lattice, env.function, types, identifiers);
 	}
 
 	@Override
@@ -105,12 +140,12 @@ public final class TypeEnvironment extends FunctionalLattice<TypeEnvironment, Id
 
 	@Override
 	public TypeEnvironment top() {
-		return new TypeEnvironment(lattice.top(), null, new InferredTypes());
+		return new TypeEnvironment(lattice.top(), null, new InferredTypes(), identifiers);
 	}
 
 	@Override
 	public TypeEnvironment bottom() {
-		return new TypeEnvironment(lattice.bottom(), null, new InferredTypes());
+		return new TypeEnvironment(lattice.bottom(), null, new InferredTypes(), identifiers);
 	}
 
 	@Override
@@ -126,13 +161,36 @@ public final class TypeEnvironment extends FunctionalLattice<TypeEnvironment, Id
 	@Override
 	public TypeEnvironment forgetIdentifier(Identifier id) throws SemanticException {
 		if (function == null)
-			return new TypeEnvironment(lattice, null, new InferredTypes());
+			return new TypeEnvironment(lattice, null, new InferredTypes(), identifiers);
 
-		TypeEnvironment result = new TypeEnvironment(lattice, new HashMap<>(function), lastComputedTypes);
-		if (result.function.containsKey(id))
-			result.function.remove(id);
+		return new TypeEnvironment(lattice, functionWithout(id), lastComputedTypes, identifiers);
+	}
 
-		return result;
+	@Override
+	public TypeEnvironment forgetIdentifiersIf(Predicate<Identifier> test) throws SemanticException {
+		return new TypeEnvironment(lattice, functionRenamed(id -> test.test(id) ? null : id), lastComputedTypes,
+				identifiers);
+	}
+
+	@Override
+	public TypeEnvironment pushScope(ScopeToken token) throws SemanticException {
+		return new TypeEnvironment(lattice, functionRenamed(id -> id.pushScope(token)), lastComputedTypes,
+				identifiers);
+	}
+
+	@Override
+	public TypeEnvironment popScope(ScopeToken token) throws SemanticException {
+		return new TypeEnvironment(lattice, functionRenamed(id -> id.popScope(token)), lastComputedTypes,
+				identifiers);
+	}
+
+	@Override
+	public TypeEnvironment popScope(ScopeToken token, TypeEnvironment frame) throws SemanticException {
+		if (isBottom() || frame.isBottom())
+			return bottom();
+
+		return new TypeEnvironment(lattice, functionRenamed(id -> id.popScope(token), frame), lastComputedTypes,
+				identifiers);
 	}
 
 	@Override
@@ -158,16 +216,30 @@ public final class TypeEnvironment extends FunctionalLattice<TypeEnvironment, Id
 
 	@Override
 	public String representation() {
-		if (isTop())
-			return "TOP";
-
-		if (isBottom())
-			return "BOTTOM";
-
 		StringBuilder builder = new StringBuilder();
-		for (Entry<Identifier, InferredTypes> entry : function.entrySet())
-			builder.append(entry.getKey()).append(": ").append(entry.getValue().toString()).append("\n");
+		try {
+			representation(builder);
+		} catch (IOException e) {
+			// string builders never throw
+			throw new UncheckedIOException(e);
+		}
+		return builder.toString();
+	}
 
-		return builder.toString().trim();
+	@Override
+	public void representation(Appendable output) throws IOException {
+		if (isTop())
+			output.append("TOP");
+		else if (isBottom())
+			output.append("BOTTOM");
+		else {
+			boolean first = true;
+			for (Entry<Identifier, InferredTypes> entry : function.entrySet()) {
+				if (!first)
+					output.append("\n");
+				first = false;
+				output.append(entry.getKey().toString()).append(": ").append(entry.getValue().toString());
+			}
+		}
 	}
 }
\ No newline at end of file
@@ -2,16 +2,19 @@ package it.unive.lisa.analysis.nonrelational;
 
 import it.unive.lisa.analysis.FunctionalLattice;
 import it.unive.lisa.analysis.HeapDomain;
+import it.unive.lisa.analysis.ScopeToken;
 import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.symbolic.value.ValueExpression;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.Predicate;
 
 /**
  * An environment for a {@link NonRelationalHeapDomain}, that maps
@@ -60,14 +63,9 @@ public final class HeapEnvironment<T extends NonRelationalHeapDomain<T>>
 
 	@Override
 	public HeapEnvironment<T> assign(Identifier id, SymbolicExpression value) {
-		Map<Identifier, T> func;
-		if (function == null)
-			func = new HashMap<>();
-		else
-			func = new HashMap<>(function);
 		T eval = lattice.eval(value, this);
-		function.put(id, eval);
-		return new HeapEnvironment<>(lattice, func, eval.getRewrittenExpressions(), eval.getSubstitution());
+		return new HeapEnvironment<>(lattice, functionWith(id, eval), eval.getRewrittenExpressions(),
+				eval.getSubstitution());
 	}
 
 	@Override
@@ -118,11 +116,41 @@ public final class HeapEnvironment<T extends NonRelationalHeapDomain<T>>
 		if (isTop() || isBottom())
 			return this;
 
-		HeapEnvironment<T> result = new HeapEnvironment<>(lattice, new HashMap<>(function), rewritten, substitution);
-		if (result.function.containsKey(id))
-			result.function.remove(id);
+		return new HeapEnvironment<>(lattice, functionWithout(id), rewritten, substitution);
+	}
+
+	@Override
+	public HeapEnvironment<T> forgetIdentifiersIf(Predicate<Identifier> test) throws SemanticException {
+		if (isTop() || isBottom())
+			return this;
 
-		return result;
+		return new HeapEnvironment<>(lattice, functionRenamed(id -> test.test(id) ? null : id), rewritten,
+				substitution);
+	}
+
+	@Override
+	public HeapEnvironment<T> pushScope(ScopeToken token) throws SemanticException {
+		if (isTop() || isBottom())
+			return this;
+
+		return new HeapEnvironment<>(lattice, functionRenamed(id -> id.pushScope(token)), rewritten, substitution);
+	}
+
+	@Override
+	public HeapEnvironment<T> popScope(ScopeToken token) throws SemanticException {
+		if (isTop() || isBottom())
+			return this;
+
+		return new HeapEnvironment<>(lattice, functionRenamed(id -> id.popScope(token)), rewritten, substitution);
+	}
+
+	@Override
+	public HeapEnvironment<T> popScope(ScopeToken token, HeapEnvironment<T> frame) throws SemanticException {
+		if (isBottom() || frame.isBottom())
+			return bottom();
+
+		return new HeapEnvironment<>(lattice, functionRenamed(id -> id.popScope(token), frame), rewritten,
+				substitution);
 	}
 
 	@Override
@@ -142,16 +170,30 @@ public final class HeapEnvironment<T extends NonRelationalHeapDomain<T>>
 
 	@Override
 	public String representation() {
-		if (isTop())
-			return "TOP";
-
-		if (isBottom())
-			return "BOTTOM";
-
 		StringBuilder builder = new StringBuilder();
-		for (Entry<Identifier, T> entry : function.entrySet())
-			builder.append(entry.getKey()).append(": ").append(entry.getValue().representation()).append("\n");
+		try {
+			representation(builder);
+		} catch (IOException e) {
+			// string builders never throw
+			throw new UncheckedIOException(e);
+		}
+		return builder.toString();
+	}
 
-		return builder.toString().trim();
+	@Override
+	public void representation(Appendable output) throws IOException {
+		if (isTop())
+			output.append("TOP");
+		else if (isBottom())
+			output.append("BOTTOM");
+		else {
+			boolean first = true;
+			for (Entry<Identifier, T> entry : function.entrySet()) {
+				if (!first)
+					output.append("\n");
+				first = false;
+				output.append(entry.getKey().toString()).append(": ").append(entry.getValue().representation());
+			}
+		}
 	}
 }
\ No newline at end of file
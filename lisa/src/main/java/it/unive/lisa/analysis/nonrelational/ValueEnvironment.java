@@ -1,13 +1,19 @@
 package it.unive.lisa.analysis.nonrelational;
 
 import it.unive.lisa.analysis.FunctionalLattice;
+import it.unive.lisa.analysis.ScopeToken;
 import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.ValueDomain;
 import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.symbolic.value.ValueExpression;
-import java.util.HashMap;
+import it.unive.lisa.util.collections.PersistentMap;
+import it.unive.lisa.util.collections.SlotMap;
+import it.unive.lisa.util.collections.SlotTable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.Predicate;
 
 /**
  * An environment for a {@link NonRelationalValueDomain}, that maps
@@ -25,6 +31,12 @@ import java.util.Map.Entry;
 public final class ValueEnvironment<T extends NonRelationalValueDomain<T>>
 		extends FunctionalLattice<ValueEnvironment<T>, Identifier, T> implements ValueDomain<ValueEnvironment<T>> {
 
+	/**
+	 * The table assigning slots to identifiers, or {@code null} if this
+	 * environment is backed by hash maps
+	 */
+	private final SlotTable<Identifier> identifiers;
+
 	/**
 	 * Builds an empty environment.
 	 * 
@@ -33,27 +45,42 @@ public final class ValueEnvironment<T extends NonRelationalValueDomain<T>>
 	 */
 	public ValueEnvironment(T domain) {
 		super(domain);
+		this.identifiers = null;
+	}
+
+	/**
+	 * Builds an empty environment, whose functions are {@link SlotMap}s using
+	 * the given table. All the environments generated from this one will use
+	 * the same table.
+	 * 
+	 * @param domain      a singleton instance to be used during semantic
+	 *                        operations to retrieve top and bottom values
+	 * @param identifiers the table assigning slots to identifiers
+	 */
+	public ValueEnvironment(T domain, SlotTable<Identifier> identifiers) {
+		super(domain, SlotMap.empty(identifiers));
+		this.identifiers = identifiers;
 	}
 
-	private ValueEnvironment(T domain, Map<Identifier, T> function) {
+	private ValueEnvironment(T domain, Map<Identifier, T> function, SlotTable<Identifier> identifiers) {
 		super(domain, function);
+		this.identifiers = identifiers;
+	}
+
+	@Override
+	protected PersistentMap<Identifier, T> mkNewFunction() {
+		return identifiers == null ? super.mkNewFunction() : SlotMap.empty(identifiers);
 	}
 
 	@Override
 	public ValueEnvironment<T> assign(Identifier id, ValueExpression value) {
-		Map<Identifier, T> func;
-		if (function == null)
-			func = new HashMap<>();
-		else
-			func = new HashMap<>(function);
-		func.put(id, lattice.eval(value, this));
-		return new ValueEnvironment<>(lattice, func);
+		return new ValueEnvironment<>(lattice, functionWith(id, lattice.eval(value, this)), identifiers);
 	}
 
 	@Override
 	public ValueEnvironment<T> smallStepSemantics(ValueExpression expression) {
 		// environment should not change without an assignment
-		return new ValueEnvironment<>(lattice, function);
+		return new ValueEnvironment<>(lattice, function, identifiers);
 	}
 
 	@Override
@@ -61,11 +88,11 @@ public final class ValueEnvironment<T extends NonRelationalValueDomain<T>>
 		if (lattice.satisfies(expression, this) == Satisfiability.NOT_SATISFIED)
 			return bottom();
 		else if (lattice.satisfies(expression, this) == Satisfiability.SATISFIED)
-			return new ValueEnvironment<>(lattice, function);
+			return new ValueEnvironment<>(lattice, function, identifiers);
 		else
 			// TODO: a more precise filtering is needed when satisfiability of
 			// expression is unknown
-			return new ValueEnvironment<>(lattice, function);
+			return new ValueEnvironment<>(lattice, function, identifiers);
 	}
 
 	@Override
@@ -75,12 +102,12 @@ public final class ValueEnvironment<T extends NonRelationalValueDomain<T>>
 
 	@Override
 	public ValueEnvironment<T> top() {
-		return new ValueEnvironment<T>(lattice.top(), null);
+		return new ValueEnvironment<T>(lattice.top(), null, identifiers);
 	}
 
 	@Override
 	public ValueEnvironment<T> bottom() {
-		return new ValueEnvironment<T>(lattice.bottom(), null);
+		return new ValueEnvironment<T>(lattice.bottom(), null, identifiers);
 	}
 
 	@Override
@@ -96,13 +123,32 @@ public final class ValueEnvironment<T extends NonRelationalValueDomain<T>>
 	@Override
 	public ValueEnvironment<T> forgetIdentifier(Identifier id) throws SemanticException {
 		if (function == null)
-			return new ValueEnvironment<>(lattice, null);
+			return new ValueEnvironment<>(lattice, null, identifiers);
+
+		return new ValueEnvironment<>(lattice, functionWithout(id), identifiers);
+	}
+
+	@Override
+	public ValueEnvironment<T> forgetIdentifiersIf(Predicate<Identifier> test) throws SemanticException {
+		return new ValueEnvironment<>(lattice, functionRenamed(id -> test.test(id) ? null : id), identifiers);
+	}
+
+	@Override
+	public ValueEnvironment<T> pushScope(ScopeToken token) throws SemanticException {
+		return new ValueEnvironment<>(lattice, functionRenamed(id -> id.pushScope(token)), identifiers);
+	}
+
+	@Override
+	public ValueEnvironment<T> popScope(ScopeToken token) throws SemanticException {
+		return new ValueEnvironment<>(lattice, functionRenamed(id -> id.popScope(token)), identifiers);
+	}
 
-		ValueEnvironment<T> result = new ValueEnvironment<>(lattice, new HashMap<>(function));
-		if (result.function.containsKey(id))
-			result.function.remove(id);
+	@Override
+	public ValueEnvironment<T> popScope(ScopeToken token, ValueEnvironment<T> frame) throws SemanticException {
+		if (isBottom() || frame.isBottom())
+			return bottom();
 
-		return result;
+		return new ValueEnvironment<>(lattice, functionRenamed(id -> id.popScope(token), frame), identifiers);
 	}
 
 	@Override
@@ -128,16 +174,30 @@ public final class ValueEnvironment<T extends NonRelationalValueDomain<T>>
 
 	@Override
 	public String representation() {
-		if (isTop())
-			return "TOP";
-
-		if (isBottom())
-			return "BOTTOM";
-
 		StringBuilder builder = new StringBuilder();
-		for (Entry<Identifier, T> entry : function.entrySet())
-			builder.append(entry.getKey()).append(": ").append(entry.getValue().representation()).append("\n");
+		try {
+			representation(builder);
+		} catch (IOException e) {
+			// string builders never throw
+			throw new UncheckedIOException(e);
+		}
+		return builder.toString();
+	}
 
-		return builder.toString().trim();
+	@Override
+	public void representation(Appendable output) throws IOException {
+		if (isTop())
+			output.append("TOP");
+		else if (isBottom())
+			output.append("BOTTOM");
+		else {
+			boolean first = true;
+			for (Entry<Identifier, T> entry : function.entrySet()) {
+				if (!first)
+					output.append("\n");
+				first = false;
+				output.append(entry.getKey().toString()).append(": ").append(entry.getValue().representation());
+			}
+		}
 	}
 }
\ No newline at end of file
@@ -1,13 +1,16 @@
 package it.unive.lisa.caches;
 
 import it.unive.lisa.cfg.type.Type;
+import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.SymbolicExpressionCache;
 import it.unive.lisa.util.collections.ExternalSet;
 import it.unive.lisa.util.collections.ExternalSetCache;
 
 /**
  * A holder of {@link ExternalSetCache}s, to ensure that all
  * {@link ExternalSet}s built to hold a given element type will share the same
- * <i>unique</i> cache.
+ * <i>unique</i> cache. It also holds the unique {@link SymbolicExpressionCache}
+ * used to intern {@link SymbolicExpression}s.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  */
@@ -15,6 +18,8 @@ public class Caches {
 
 	private static final ExternalSetCache<Type> types = new ExternalSetCache<>();
 
+	private static final SymbolicExpressionCache expressions = new SymbolicExpressionCache();
+
 	/**
 	 * Yields the globally defined cache for {@link ExternalSet}s containing
 	 * {@link Type}s.
@@ -24,4 +29,14 @@ public class Caches {
 	public static ExternalSetCache<Type> types() {
 		return types;
 	}
+
+	/**
+	 * Yields the globally defined cache for interning
+	 * {@link SymbolicExpression}s.
+	 * 
+	 * @return the expressions cache
+	 */
+	public static SymbolicExpressionCache expressions() {
+		return expressions;
+	}
 }
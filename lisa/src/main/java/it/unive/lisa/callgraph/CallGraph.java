@@ -1,5 +1,6 @@
 package it.unive.lisa.callgraph;
 
+import it.unive.lisa.analysis.AnalysisContext;
 import it.unive.lisa.analysis.AnalysisState;
 import it.unive.lisa.analysis.CFGWithAnalysisResults;
 import it.unive.lisa.analysis.HeapDomain;
@@ -15,6 +16,7 @@ import it.unive.lisa.cfg.statement.UnresolvedCall;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.Identifier;
 import java.util.Collection;
+import java.util.function.Consumer;
 
 /**
  * A callgraph of the program to analyze, that knows how to resolve dynamic
@@ -71,6 +73,43 @@ public interface CallGraph {
 			SemanticFunction<H, V> semantics)
 			throws FixpointException;
 
+	/**
+	 * Computes a fixpoint over the whole control flow graph, like
+	 * {@link #fixpoint(AnalysisState, SemanticFunction)}, passing the
+	 * {@link CFGWithAnalysisResults} of each {@link CFG} to {@code consumer} as
+	 * soon as the fixpoint over that cfg has been computed. The consumer might
+	 * be invoked concurrently on different cfgs. If {@code retain} is
+	 * {@code false}, results are discarded after being consumed, and
+	 * {@link #getAnalysisResultsOf(CFG)} will not yield them: this bounds the
+	 * memory needed by the analysis to the one needed by the cfgs that are
+	 * being analyzed, instead of the whole program.<br>
+	 * <br>
+	 * The default implementation of this method falls back to
+	 * {@link #fixpoint(AnalysisState, SemanticFunction)}: {@code consumer} is
+	 * never invoked, and results are always retained. Callers can still
+	 * retrieve the results of each cfg through
+	 * {@link #getAnalysisResultsOf(CFG)}.
+	 * 
+	 * @param <H>        the type of {@link HeapDomain} to compute
+	 * @param <V>        the type of {@link ValueDomain} to compute
+	 * @param entryState the entry state for the {@link CFG}s that are the
+	 *                       entrypoints of the computation
+	 * @param semantics  the {@link SemanticFunction} that will be used for
+	 *                       computing the abstract post-state of statements
+	 * @param consumer   the consumer of the results of each cfg, or
+	 *                       {@code null}
+	 * @param retain     whether or not the results should be retained after
+	 *                       being consumed
+	 * 
+	 * @throws FixpointException if something goes wrong while evaluating the
+	 *                               fixpoint
+	 */
+	default <H extends HeapDomain<H>, V extends ValueDomain<V>> void fixpoint(AnalysisState<H, V> entryState,
+			SemanticFunction<H, V> semantics, Consumer<CFGWithAnalysisResults<H, V>> consumer, boolean retain)
+			throws FixpointException {
+		fixpoint(entryState, semantics);
+	}
+
 	/**
 	 * Yields the results of the given analysis, identified by its class, on the
 	 * given {@link CFG}. Results are provided as
@@ -90,16 +129,35 @@ public interface CallGraph {
 	/**
 	 * Clears all the data from the last fixpoint computation, effectively
 	 * re-initializing the call graph. The set of {@link CFG} under analysis
-	 * (added through {@link #addCFG(CFG)}) is not lost.
+	 * (added through {@link #addCFG(CFG)}) is not lost, and neither is the
+	 * {@link #getContext() context} of the analysis, so that the runtime types
+	 * computed by a fixpoint are available to the following ones.
 	 */
 	void clear();
 
+	/**
+	 * Yields the context of the analyses executed through this call graph,
+	 * where the information computed on the expressions of the {@link CFG}s
+	 * under analysis is stored. The default implementation of this method
+	 * yields a context that is created the first time that it is requested, and
+	 * that is then associated with this call graph for as long as the call
+	 * graph is reachable: implementers that need to control the lifetime of the
+	 * context should override it.
+	 * 
+	 * @return the context of the analysis
+	 */
+	default AnalysisContext getContext() {
+		return Contexts.of(this);
+	}
+
 	/**
 	 * Resolves the given call to all of its possible runtime targets, and then
 	 * computes an analysis state that abstracts the execution of the possible
 	 * targets considering that they were given {@code parameters} as actual
 	 * parameters. The abstract value of each parameter is computed on
-	 * {@code entryState}.
+	 * {@code entryState}. The returned state is the state of the caller after
+	 * the call, and it thus replaces {@code entryState}: implementations that
+	 * do not track the effects of the call can safely return top.
 	 * 
 	 * @param <H>        the type of {@link HeapDomain} contained into the
 	 *                       computed abstract state
@@ -111,7 +169,7 @@ public interface CallGraph {
 	 *                       the call
 	 * 
 	 * @return an abstract analysis state representing the abstract result of
-	 *             the cfg call. The
+	 *             the cfg call, in the scope of the caller. The
 	 *             {@link AnalysisState#getComputedExpressions()} will contain
 	 *             an {@link Identifier} pointing to the meta variable
 	 *             containing the abstraction of the returned value
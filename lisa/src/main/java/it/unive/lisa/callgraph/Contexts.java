@@ -0,0 +1,34 @@
+package it.unive.lisa.callgraph;
+
+import it.unive.lisa.analysis.AnalysisContext;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The {@link AnalysisContext}s of the {@link CallGraph}s that rely on the
+ * default implementation of {@link CallGraph#getContext()}. Each call graph is
+ * weakly referenced, so that its context is discarded together with it.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+final class Contexts {
+
+	private static final Map<CallGraph, AnalysisContext> CONTEXTS = Collections.synchronizedMap(new WeakHashMap<>());
+
+	private Contexts() {
+		// this class is just a static holder
+	}
+
+	/**
+	 * Yields the context of the given call graph, creating it the first time
+	 * that this method is invoked on it.
+	 * 
+	 * @param callGraph the call graph
+	 * 
+	 * @return the context of {@code callGraph}
+	 */
+	static AnalysisContext of(CallGraph callGraph) {
+		return CONTEXTS.computeIfAbsent(callGraph, cg -> new AnalysisContext());
+	}
+}
@@ -0,0 +1,468 @@
+package it.unive.lisa.callgraph.impl;
+
+import it.unive.lisa.analysis.AnalysisContext;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.CFGWithAnalysisResults;
+import it.unive.lisa.analysis.HeapDomain;
+import it.unive.lisa.analysis.ValueDomain;
+import it.unive.lisa.callgraph.CallGraph;
+import it.unive.lisa.cfg.CFG;
+import it.unive.lisa.cfg.CFG.SemanticFunction;
+import it.unive.lisa.cfg.FixpointException;
+import it.unive.lisa.cfg.FixpointStrategy;
+import it.unive.lisa.cfg.Parameter;
+import it.unive.lisa.cfg.statement.CFGCall;
+import it.unive.lisa.cfg.statement.Call;
+import it.unive.lisa.cfg.statement.Expression;
+import it.unive.lisa.cfg.statement.OpenCall;
+import it.unive.lisa.cfg.statement.UnresolvedCall;
+import it.unive.lisa.cfg.type.Type;
+import it.unive.lisa.logging.Counter;
+import it.unive.lisa.logging.IterationLogger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A base implementation of {@link CallGraph}, that takes care of storing the
+ * cfgs under analysis together with their fixpoint results, and of scheduling
+ * the fixpoint computations over them. In particular:
+ * <ul>
+ * <li>resolves {@link UnresolvedCall} to all the {@link CFG}s that match the
+ * target's signature, looking them up in an index of the cfgs by name and
+ * number of parameters, and caching the targets of each combination of
+ * qualified name and static types of the call (subclasses can change how
+ * targets are selected among such cfgs through
+ * {@link #selectTargets(UnresolvedCall, List)})</li>
+ * <li>computes a fixpoint over each cfg, using the given entry state, either
+ * sequentially or concurrently through an {@link ExecutorService}</li>
+ * </ul>
+ * Subclasses define how the abstract result of a {@link CFGCall} is computed,
+ * by implementing
+ * {@link #getAbstractResultOf(CFGCall, AnalysisState, Collection[])}.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public abstract class BaseCallGraph implements CallGraph {
+
+	private static final Logger log = LogManager.getLogger(BaseCallGraph.class);
+
+	/**
+	 * The cash of the fixpoints' results. {@link Map#keySet()} will contain all
+	 * the cfgs that have been added. If a key's values's
+	 * {@link Optional#isEmpty()} yields true, then the fixpoint for that key
+	 * has not be computed yet.
+	 */
+	private final Map<CFG, Optional<CFGWithAnalysisResults<?, ?>>> results;
+
+	/**
+	 * The executor used to compute the fixpoints of different cfgs
+	 * concurrently. If this is {@code null}, cfgs are analyzed sequentially.
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * The cfgs that have been added, indexed by their full name and then by
+	 * their number of parameters
+	 */
+	private final Map<String, Map<Integer, List<CFG>>> index;
+
+	/**
+	 * The targets of the calls resolved so far, indexed by the shape of the
+	 * calls. This is cleared whenever a cfg is added.
+	 */
+	private final Map<CallShape, Collection<CFG>> resolutions;
+
+	/**
+	 * The context of the analyses executed through this call graph
+	 */
+	private final AnalysisContext context;
+
+	/**
+	 * The consumer of the results of the fixpoint being computed, or
+	 * {@code null}
+	 */
+	private volatile Consumer<CFGWithAnalysisResults<?, ?>> consumer;
+
+	/**
+	 * Whether or not the results of the fixpoint being computed should be
+	 * retained after being consumed
+	 */
+	private volatile boolean retain;
+
+	/**
+	 * The strategy used for computing the fixpoint over each cfg
+	 */
+	private volatile FixpointStrategy strategy;
+
+	/**
+	 * Builds the call graph.
+	 * 
+	 * @param executor the executor to use for running the fixpoints of
+	 *                     different cfgs, or {@code null} to analyze them
+	 *                     sequentially
+	 */
+	protected BaseCallGraph(ExecutorService executor) {
+		this.results = new ConcurrentHashMap<>();
+		this.executor = executor;
+		this.index = new ConcurrentHashMap<>();
+		this.resolutions = new ConcurrentHashMap<>();
+		this.context = new AnalysisContext();
+		this.retain = true;
+		this.strategy = FixpointStrategy.FIFO;
+	}
+
+	/**
+	 * Sets the {@link FixpointStrategy} used for computing the fixpoint over
+	 * each cfg. Cfgs are analyzed with {@link FixpointStrategy#FIFO} by
+	 * default.
+	 * 
+	 * @param strategy the strategy to use
+	 */
+	public final void setFixpointStrategy(FixpointStrategy strategy) {
+		this.strategy = Objects.requireNonNull(strategy, "The fixpoint strategy cannot be null");
+	}
+
+	/**
+	 * Yields the {@link FixpointStrategy} used for computing the fixpoint over
+	 * each cfg.
+	 * 
+	 * @return the strategy in use
+	 */
+	public final FixpointStrategy getFixpointStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * Yields the cfgs that have been added to this call graph.
+	 * 
+	 * @return the cfgs under analysis
+	 */
+	protected final Collection<CFG> getCFGs() {
+		return results.keySet();
+	}
+
+	@Override
+	public void addCFG(CFG cfg) {
+		if (results.put(cfg, Optional.empty()) != null)
+			return;
+
+		index.computeIfAbsent(cfg.getDescriptor().getFullName(), name -> new ConcurrentHashMap<>())
+				.computeIfAbsent(cfg.getDescriptor().getArgs().length, arity -> new CopyOnWriteArrayList<>()).add(cfg);
+		// a cached resolution might now miss the new cfg
+		resolutions.clear();
+	}
+
+	@Override
+	public void clear() {
+		for (CFG cfg : results.keySet())
+			results.put(cfg, Optional.empty());
+	}
+
+	@Override
+	public final AnalysisContext getContext() {
+		return context;
+	}
+
+	@Override
+	public Call resolve(UnresolvedCall call) {
+		CallShape shape = new CallShape(call);
+		Collection<CFG> targets = resolutions.get(shape);
+		if (targets == null) {
+			targets = findTargets(call);
+			resolutions.put(shape, targets);
+		}
+
+		Call resolved;
+		if (targets.isEmpty())
+			resolved = new OpenCall(call.getCFG(), call.getSourceFile(), call.getLine(), call.getCol(),
+					call.getQualifiedName(), call.getStaticType(), call.getParameters());
+		else
+			resolved = new CFGCall(call.getCFG(), call.getSourceFile(), call.getLine(), call.getCol(),
+					call.getQualifiedName(), targets, call.getParameters());
+
+		resolved.setOffset(call.getOffset());
+		return resolved;
+	}
+
+	private Collection<CFG> findTargets(UnresolvedCall call) {
+		Map<Integer, List<CFG>> byArity = index.get(call.getQualifiedName());
+		List<CFG> candidates = byArity == null ? null : byArity.get(call.getParameters().length);
+		if (candidates == null)
+			return Collections.emptyList();
+
+		return Collections.unmodifiableList(selectTargets(call, candidates));
+	}
+
+	/**
+	 * Selects the targets of the given call among the cfgs of this call graph
+	 * having the same name and number of parameters. Since the result is cached
+	 * for all the calls with the same qualified name and static types, this
+	 * method must only depend on such information and on the cfgs that have
+	 * been added. The default implementation selects the candidates that match
+	 * the signature of the call, as in
+	 * {@link #matchesSignature(CFG, UnresolvedCall, int)}.
+	 * 
+	 * @param call       the call being resolved
+	 * @param candidates the cfgs with the same name and number of parameters of
+	 *                       the call
+	 * 
+	 * @return the targets of the call
+	 */
+	protected List<CFG> selectTargets(UnresolvedCall call, List<CFG> candidates) {
+		List<CFG> targets = new ArrayList<>();
+		for (CFG cfg : candidates)
+			if (matchesSignature(cfg, call, 0))
+				targets.add(cfg);
+		return targets;
+	}
+
+	/**
+	 * Yields {@code true} if and only if the return type of {@code cfg} can be
+	 * assigned to the static type of {@code call}, and the static type of each
+	 * formal parameter of {@code cfg} can be assigned to the one of the
+	 * corresponding actual parameter of {@code call}, starting from the one at
+	 * position {@code firstParameter}.
+	 * 
+	 * @param cfg            the cfg
+	 * @param call           the call
+	 * @param firstParameter the position of the first parameter to check
+	 * 
+	 * @return whether or not {@code cfg} matches the signature of {@code call}
+	 */
+	protected final boolean matchesSignature(CFG cfg, UnresolvedCall call, int firstParameter) {
+		Parameter[] formals = cfg.getDescriptor().getArgs();
+		Expression[] actuals = call.getParameters();
+		if (!cfg.getDescriptor().getReturnType().canBeAssignedTo(call.getStaticType())
+				|| formals.length != actuals.length)
+			return false;
+
+		for (int i = firstParameter; i < formals.length; i++)
+			if (!formals[i].getStaticType().canBeAssignedTo(actuals[i].getStaticType()))
+				return false;
+
+		return true;
+	}
+
+	/**
+	 * Yields the executor used to compute the fixpoints of different cfgs
+	 * concurrently.
+	 * 
+	 * @return the executor, or {@code null} if cfgs are analyzed sequentially
+	 */
+	protected final ExecutorService getExecutor() {
+		return executor;
+	}
+
+	@Override
+	public <H extends HeapDomain<H>, V extends ValueDomain<V>> void fixpoint(AnalysisState<H, V> entryState,
+			SemanticFunction<H, V> semantics)
+			throws FixpointException {
+		fixpoint(entryState, semantics, null, true);
+	}
+
+	@Override
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public <H extends HeapDomain<H>, V extends ValueDomain<V>> void fixpoint(AnalysisState<H, V> entryState,
+			SemanticFunction<H, V> semantics, Consumer<CFGWithAnalysisResults<H, V>> consumer, boolean retain)
+			throws FixpointException {
+		// cfgs are processed in a deterministic order, so that sequential
+		// analyses of the same program always produce the same results
+		List<CFG> cfgs = new ArrayList<>(results.keySet());
+		cfgs.sort(Comparator.comparing(cfg -> cfg.getDescriptor().getFullSignature()));
+		this.consumer = (Consumer) consumer;
+		this.retain = retain;
+		try {
+			schedule(cfgs, entryState, semantics);
+		} finally {
+			this.consumer = null;
+			this.retain = true;
+		}
+	}
+
+	/**
+	 * Schedules the fixpoint computations over the given cfgs, invoking
+	 * {@link #analyze(CFG, AnalysisState, SemanticFunction)} on each of them.
+	 * The default implementation analyzes the cfgs in the given order if
+	 * {@link #getExecutor()} is {@code null}, and submits all of them to the
+	 * executor otherwise.
+	 * 
+	 * @param <H>        the type of {@link HeapDomain} to compute
+	 * @param <V>        the type of {@link ValueDomain} to compute
+	 * @param cfgs       the cfgs to analyze, sorted by signature
+	 * @param entryState the entry state for the cfgs
+	 * @param semantics  the {@link SemanticFunction} that will be used for
+	 *                       computing the abstract post-state of statements
+	 * 
+	 * @throws FixpointException if something goes wrong while evaluating the
+	 *                               fixpoints
+	 */
+	protected <H extends HeapDomain<H>, V extends ValueDomain<V>> void schedule(List<CFG> cfgs,
+			AnalysisState<H, V> entryState, SemanticFunction<H, V> semantics) throws FixpointException {
+		if (executor == null) {
+			for (CFG cfg : IterationLogger.iterate(log, cfgs, "Computing fixpoint over the whole program", "cfgs"))
+				analyze(cfg, entryState, semantics);
+			return;
+		}
+
+		Counter counter = new Counter(log, Level.INFO, "Computing fixpoint over the whole program", "cfgs",
+				cfgs.size(), 0.025);
+		List<Future<?>> tasks = new ArrayList<>(cfgs.size());
+		counter.on();
+		try {
+			for (CFG cfg : cfgs)
+				tasks.add(executor.submit(() -> {
+					analyze(cfg, entryState, semantics);
+					counter.count();
+					return null;
+				}));
+
+			for (Future<?> task : tasks)
+				task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			tasks.forEach(t -> t.cancel(true));
+			throw new FixpointException("Interrupted while waiting for the fixpoint computations", e);
+		} catch (ExecutionException e) {
+			tasks.forEach(t -> t.cancel(true));
+			if (e.getCause() instanceof FixpointException)
+				throw (FixpointException) e.getCause();
+			throw new FixpointException("Unexpected exception during the fixpoint computations", e.getCause());
+		} finally {
+			counter.off();
+		}
+	}
+
+	/**
+	 * Computes the fixpoint over the given cfg, storing its results so that
+	 * they are available through {@link #getAnalysisResultsOf(CFG)} and passing
+	 * them to the consumer of the current fixpoint, if any.
+	 * 
+	 * @param <H>        the type of {@link HeapDomain} to compute
+	 * @param <V>        the type of {@link ValueDomain} to compute
+	 * @param cfg        the cfg to analyze
+	 * @param entryState the entry state for the cfg
+	 * @param semantics  the {@link SemanticFunction} that will be used for
+	 *                       computing the abstract post-state of statements
+	 * 
+	 * @return the results of the fixpoint
+	 * 
+	 * @throws FixpointException if something goes wrong while evaluating the
+	 *                               fixpoint
+	 */
+	protected final <H extends HeapDomain<H>, V extends ValueDomain<V>> CFGWithAnalysisResults<H, V> analyze(
+			CFG cfg, AnalysisState<H, V> entryState, SemanticFunction<H, V> semantics) throws FixpointException {
+		CFGWithAnalysisResults<H, V> result = iterate(cfg, entryState, semantics);
+		publish(cfg, result);
+		return result;
+	}
+
+	/**
+	 * Computes the fixpoint over the given cfg following the
+	 * {@link FixpointStrategy} of this call graph, without storing its results.
+	 * Use {@link #analyze(CFG, AnalysisState, SemanticFunction)} for results
+	 * that should be made available.
+	 * 
+	 * @param <H>        the type of {@link HeapDomain} to compute
+	 * @param <V>        the type of {@link ValueDomain} to compute
+	 * @param cfg        the cfg to analyze
+	 * @param entryState the entry state for the cfg
+	 * @param semantics  the {@link SemanticFunction} that will be used for
+	 *                       computing the abstract post-state of statements
+	 * 
+	 * @return the results of the fixpoint
+	 * 
+	 * @throws FixpointException if something goes wrong while evaluating the
+	 *                               fixpoint
+	 */
+	protected final <H extends HeapDomain<H>, V extends ValueDomain<V>> CFGWithAnalysisResults<H, V> iterate(
+			CFG cfg, AnalysisState<H, V> entryState, SemanticFunction<H, V> semantics) throws FixpointException {
+		return strategy.fixpoint(cfg, entryState, this, semantics);
+	}
+
+	/**
+	 * Stores the given results of a fixpoint over {@code cfg}, so that they are
+	 * available through {@link #getAnalysisResultsOf(CFG)}, and passes them to
+	 * the consumer of the current fixpoint, if any. This is invoked by
+	 * {@link #analyze(CFG, AnalysisState, SemanticFunction)}, and it should be
+	 * invoked directly only for results computed through
+	 * {@link #iterate(CFG, AnalysisState, SemanticFunction)}.
+	 * 
+	 * @param <H>    the type of {@link HeapDomain} computed
+	 * @param <V>    the type of {@link ValueDomain} computed
+	 * @param cfg    the analyzed cfg
+	 * @param result the results of the fixpoint
+	 */
+	protected final <H extends HeapDomain<H>, V extends ValueDomain<V>> void publish(CFG cfg,
+			CFGWithAnalysisResults<H, V> result) {
+		if (retain)
+			results.put(cfg, Optional.of(result));
+
+		Consumer<CFGWithAnalysisResults<?, ?>> current = consumer;
+		if (current != null)
+			current.accept(result);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <H extends HeapDomain<H>, V extends ValueDomain<V>> CFGWithAnalysisResults<H, V> getAnalysisResultsOf(
+			CFG cfg) {
+		return (CFGWithAnalysisResults<H, V>) results.get(cfg).orElse(null);
+	}
+
+	/**
+	 * The shape of a call, that is, the information that determines its
+	 * targets: the qualified name of the call and the static types of the call
+	 * itself and of its parameters.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static final class CallShape {
+
+		private final String name;
+
+		private final Type[] types;
+
+		private final int hash;
+
+		private CallShape(UnresolvedCall call) {
+			Expression[] params = call.getParameters();
+			this.name = call.getQualifiedName();
+			this.types = new Type[params.length + 1];
+			this.types[0] = call.getStaticType();
+			for (int i = 0; i < params.length; i++)
+				this.types[i + 1] = params[i].getStaticType();
+			this.hash = 31 * name.hashCode() + Arrays.hashCode(types);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof CallShape))
+				return false;
+			CallShape other = (CallShape) obj;
+			return hash == other.hash && name.equals(other.name) && Arrays.equals(types, other.types);
+		}
+	}
+}
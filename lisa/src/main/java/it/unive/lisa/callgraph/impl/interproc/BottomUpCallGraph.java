@@ -0,0 +1,296 @@
+package it.unive.lisa.callgraph.impl.interproc;
+
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.CFGWithAnalysisResults;
+import it.unive.lisa.analysis.HeapDomain;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.ValueDomain;
+import it.unive.lisa.cfg.CFG;
+import it.unive.lisa.cfg.CFG.SemanticFunction;
+import it.unive.lisa.cfg.FixpointException;
+import it.unive.lisa.cfg.statement.CFGCall;
+import it.unive.lisa.cfg.statement.Call;
+import it.unive.lisa.cfg.statement.Statement;
+import it.unive.lisa.cfg.statement.UnresolvedCall;
+import it.unive.lisa.logging.Counter;
+import it.unive.lisa.logging.IterationLogger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A {@link ContextInsensitiveCallGraph} that computes the summaries of the cfgs
+ * bottom-up, following the structure of the program's call graph. Before the
+ * fixpoint, all the calls contained in the cfgs are resolved, and the strongly
+ * connected components of the resulting graph are computed. Each component is
+ * then analyzed only after all the components it calls into, starting from the
+ * entry state provided to {@link #fixpoint(AnalysisState, SemanticFunction)}:
+ * the results of each cfg are the ones returned by
+ * {@link #getAnalysisResultsOf(CFG)}, and its exit state becomes the summary of
+ * the cfg for that entry state. Calls towards already analyzed components thus
+ * read their summaries, and each cfg of a non-recursive component is analyzed
+ * exactly once, as long as the entry states of the calls are covered by the one
+ * of the fixpoint (e.g., if the latter is top).<br>
+ * <br>
+ * The summaries of the cfgs of a recursive component start from bottom (that
+ * is, recursive calls do not return), and the cfgs of the component are
+ * analyzed repeatedly, reading each other's summaries, until none of them
+ * grows. The summaries are updated through the lub, replaced by the widening
+ * after {@link CFG#DEFAULT_WIDENING_THRESHOLD} iterations over the
+ * component.<br>
+ * <br>
+ * When an executor is available, components are submitted to it as soon as
+ * their callees have been analyzed, so that independent components are analyzed
+ * in parallel. The cfgs of the same component are analyzed one after the other
+ * by the same worker.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class BottomUpCallGraph extends ContextInsensitiveCallGraph {
+
+	private static final Logger log = LogManager.getLogger(BottomUpCallGraph.class);
+
+	/**
+	 * Builds the call graph. Components will be analyzed sequentially.
+	 */
+	public BottomUpCallGraph() {
+		this(null);
+	}
+
+	/**
+	 * Builds the call graph. Components will be analyzed concurrently through
+	 * the given executor, that is not shut down by this call graph.
+	 * 
+	 * @param executor the executor to use for running the fixpoints of
+	 *                     different components, or {@code null} to analyze them
+	 *                     sequentially
+	 */
+	public BottomUpCallGraph(ExecutorService executor) {
+		super(executor);
+	}
+
+	@Override
+	protected <H extends HeapDomain<H>, V extends ValueDomain<V>> void schedule(List<CFG> cfgs,
+			AnalysisState<H, V> entryState, SemanticFunction<H, V> semantics) throws FixpointException {
+		List<Component> components = components(cfgs);
+		log.info("The call graph has " + components.size() + " strongly connected components, "
+				+ components.stream().filter(c -> c.recursive).count() + " of which are recursive");
+
+		ExecutorService executor = getExecutor();
+		if (executor == null) {
+			for (Component component : IterationLogger.iterate(log, components,
+					"Computing fixpoint over the whole program", "components"))
+				analyze(component, entryState, semantics);
+			return;
+		}
+
+		Counter counter = new Counter(log, Level.INFO, "Computing fixpoint over the whole program", "components",
+				components.size(), 0.025);
+		Map<Component, CompletableFuture<Void>> tasks = new HashMap<>(components.size());
+		counter.on();
+		try {
+			// components are sorted so that callees come before their callers
+			for (Component component : components) {
+				CompletableFuture<?>[] callees = new CompletableFuture<?>[component.callees.size()];
+				int i = 0;
+				for (Component callee : component.callees)
+					callees[i++] = tasks.get(callee);
+
+				tasks.put(component, CompletableFuture.allOf(callees).thenRunAsync(() -> {
+					try {
+						analyze(component, entryState, semantics);
+					} catch (FixpointException e) {
+						throw new CompletionException(e);
+					}
+					counter.count();
+				}, executor));
+			}
+
+			CompletableFuture.allOf(tasks.values().toArray(new CompletableFuture<?>[tasks.size()])).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			tasks.values().forEach(t -> t.cancel(true));
+			throw new FixpointException("Interrupted while waiting for the fixpoint computations", e);
+		} catch (ExecutionException e) {
+			tasks.values().forEach(t -> t.cancel(true));
+			Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+			if (cause instanceof FixpointException)
+				throw (FixpointException) cause;
+			throw new FixpointException("Unexpected exception during the fixpoint computations", cause);
+		} finally {
+			counter.off();
+		}
+	}
+
+	private <H extends HeapDomain<H>, V extends ValueDomain<V>> void analyze(Component component,
+			AnalysisState<H, V> entryState, SemanticFunction<H, V> semantics) throws FixpointException {
+		try {
+			if (!component.recursive) {
+				for (CFG cfg : component.members)
+					setSummary(cfg, entryState, exitState(cfg, analyze(cfg, entryState, semantics), entryState));
+				return;
+			}
+
+			for (CFG cfg : component.members)
+				setSummary(cfg, entryState, entryState.bottom());
+
+			Map<CFG, CFGWithAnalysisResults<H, V>> results = new HashMap<>(component.members.size());
+			int iterations = 0;
+			boolean changed;
+			do {
+				changed = false;
+				for (CFG cfg : component.members) {
+					CFGWithAnalysisResults<H, V> result = iterate(cfg, entryState, semantics);
+					results.put(cfg, result);
+					AnalysisState<H, V> previous = getSummary(cfg);
+					AnalysisState<H, V> exit = exitState(cfg, result, entryState);
+					if (!exit.lessOrEqual(previous)) {
+						changed = true;
+						setSummary(cfg, entryState, iterations < CFG.DEFAULT_WIDENING_THRESHOLD ? previous.lub(exit)
+								: previous.widening(exit));
+					}
+				}
+				iterations++;
+			} while (changed);
+
+			// the last iteration has been computed with the final summaries
+			for (CFG cfg : component.members)
+				publish(cfg, results.get(cfg));
+		} catch (SemanticException e) {
+			throw new FixpointException("Exception while computing the summaries of " + component.members, e);
+		}
+	}
+
+	/**
+	 * Computes the strongly connected components of the call graph through an
+	 * iterative version of Tarjan's algorithm, that yields them in reverse
+	 * topological order (that is, each component comes after all the components
+	 * it calls into).
+	 */
+	private List<Component> components(List<CFG> cfgs) {
+		Map<CFG, Set<CFG>> calls = new HashMap<>();
+		for (CFG cfg : cfgs)
+			calls.put(cfg, callees(cfg));
+
+		Map<CFG, Integer> index = new HashMap<>();
+		Map<CFG, Integer> lowlink = new HashMap<>();
+		Map<CFG, Component> owners = new HashMap<>();
+		Deque<CFG> stack = new ArrayDeque<>();
+		Set<CFG> onStack = new HashSet<>();
+		List<Component> components = new ArrayList<>();
+
+		for (CFG root : cfgs) {
+			if (index.containsKey(root))
+				continue;
+
+			Deque<CFG> path = new ArrayDeque<>();
+			Deque<Iterator<CFG>> pending = new ArrayDeque<>();
+			index.put(root, index.size());
+			lowlink.put(root, index.get(root));
+			stack.push(root);
+			onStack.add(root);
+			path.push(root);
+			pending.push(calls.get(root).iterator());
+
+			while (!path.isEmpty()) {
+				CFG node = path.peek();
+				Iterator<CFG> successors = pending.peek();
+				if (successors.hasNext()) {
+					CFG next = successors.next();
+					if (!index.containsKey(next)) {
+						index.put(next, index.size());
+						lowlink.put(next, index.get(next));
+						stack.push(next);
+						onStack.add(next);
+						path.push(next);
+						pending.push(calls.get(next).iterator());
+					} else if (onStack.contains(next))
+						lowlink.put(node, Math.min(lowlink.get(node), index.get(next)));
+					continue;
+				}
+
+				path.pop();
+				pending.pop();
+				if (!path.isEmpty())
+					lowlink.put(path.peek(), Math.min(lowlink.get(path.peek()), lowlink.get(node)));
+
+				if (lowlink.get(node).equals(index.get(node))) {
+					Component component = new Component();
+					CFG member;
+					do {
+						member = stack.pop();
+						onStack.remove(member);
+						component.members.add(member);
+						owners.put(member, component);
+					} while (member != node);
+					components.add(component);
+				}
+			}
+		}
+
+		for (Component component : components)
+			for (CFG member : component.members)
+				for (CFG callee : calls.get(member)) {
+					Component target = owners.get(callee);
+					if (target == component)
+						component.recursive = true;
+					else
+						component.callees.add(target);
+				}
+
+		return components;
+	}
+
+	private Set<CFG> callees(CFG cfg) {
+		Set<CFG> callees = new LinkedHashSet<>();
+		ExpressionVisitor visitor = new ExpressionVisitor(e -> {
+			if (e instanceof Call) {
+				Call call = e instanceof UnresolvedCall ? resolve((UnresolvedCall) e) : (Call) e;
+				if (call instanceof CFGCall)
+					callees.addAll(((CFGCall) call).getTargets());
+			}
+		});
+		for (Statement st : cfg.getNodes())
+			st.accept(visitor);
+		// targets are resolved among the cfgs of this call graph
+		callees.retainAll(getCFGs());
+		return callees;
+	}
+
+	/**
+	 * A strongly connected component of the call graph.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static final class Component {
+
+		/**
+		 * The cfgs in this component
+		 */
+		private final List<CFG> members = new ArrayList<>();
+
+		/**
+		 * The other components that are called by the members of this one
+		 */
+		private final Set<Component> callees = new LinkedHashSet<>();
+
+		/**
+		 * Whether or not this component contains recursive calls
+		 */
+		private boolean recursive;
+	}
+}
@@ -0,0 +1,188 @@
+package it.unive.lisa.callgraph.impl.interproc;
+
+import it.unive.lisa.cfg.CFG;
+import it.unive.lisa.cfg.Parameter;
+import it.unive.lisa.cfg.statement.Expression;
+import it.unive.lisa.cfg.statement.Statement;
+import it.unive.lisa.cfg.statement.UnresolvedCall;
+import it.unive.lisa.cfg.type.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A {@link BottomUpCallGraph} that resolves calls through Class Hierarchy
+ * Analysis (CHA). The first parameter of a call is considered to be its
+ * receiver, and the static type of the first formal parameter of a cfg is
+ * considered to be the type declaring it. Before resolving the first call, the
+ * type hierarchy of the program is precomputed from the types of the formal
+ * parameters, of the returned values and of all the expressions of the cfgs:
+ * for each type, all the types that can be assigned to it and that might be
+ * instantiated at runtime (see {@link #instantiatedTypes(Set)}) are stored. The
+ * targets of each call are then the cfgs that are selected by dynamic dispatch
+ * for at least one of such types, that is, the most specific cfgs that match
+ * the signature of the call and that are declared by a supertype of a possible
+ * runtime type of the receiver. This includes implementations inherited from
+ * supertypes of the receiver's static type, while it excludes the ones that are
+ * overridden for all its possible runtime types.<br>
+ * <br>
+ * Calls without parameters, or where the receiver or any of the candidate
+ * targets are untyped, are resolved without pruning.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class ClassHierarchyCallGraph extends BottomUpCallGraph {
+
+	private static final Logger log = LogManager.getLogger(ClassHierarchyCallGraph.class);
+
+	/**
+	 * For each type of the program, the instantiated types that can be assigned
+	 * to it. This is {@code null} if it has not been computed since the last
+	 * cfg has been added.
+	 */
+	private volatile Map<Type, Collection<Type>> hierarchy;
+
+	/**
+	 * Builds the call graph. Components will be analyzed sequentially.
+	 */
+	public ClassHierarchyCallGraph() {
+		this(null);
+	}
+
+	/**
+	 * Builds the call graph. Components will be analyzed concurrently through
+	 * the given executor, that is not shut down by this call graph.
+	 * 
+	 * @param executor the executor to use for running the fixpoints of
+	 *                     different components, or {@code null} to analyze them
+	 *                     sequentially
+	 */
+	public ClassHierarchyCallGraph(ExecutorService executor) {
+		super(executor);
+	}
+
+	@Override
+	public void addCFG(CFG cfg) {
+		super.addCFG(cfg);
+		hierarchy = null;
+	}
+
+	/**
+	 * Yields the types, among the given ones, that might be instantiated at
+	 * runtime. This implementation conservatively returns {@code types}.
+	 * 
+	 * @param types the non-untyped types appearing in the cfgs of this call
+	 *                  graph
+	 * 
+	 * @return the types that might be instantiated
+	 */
+	protected Collection<Type> instantiatedTypes(Set<Type> types) {
+		return types;
+	}
+
+	@Override
+	protected List<CFG> selectTargets(UnresolvedCall call, List<CFG> candidates) {
+		Expression[] params = call.getParameters();
+		if (params.length == 0 || params[0].getStaticType().isUntyped())
+			return super.selectTargets(call, candidates);
+
+		List<CFG> matching = new ArrayList<>(candidates.size());
+		Set<Type> declaring = new HashSet<>();
+		for (CFG cfg : candidates) {
+			Type type = cfg.getDescriptor().getArgs()[0].getStaticType();
+			if (type.isUntyped())
+				return super.selectTargets(call, candidates);
+			// the receiver is checked through the hierarchy
+			if (matchesSignature(cfg, call, 1)) {
+				matching.add(cfg);
+				declaring.add(type);
+			}
+		}
+
+		Collection<Type> receivers = hierarchy().get(params[0].getStaticType());
+		if (matching.isEmpty() || receivers == null)
+			return super.selectTargets(call, candidates);
+
+		Set<Type> selected = new HashSet<>();
+		for (Type receiver : receivers)
+			selected.addAll(dispatch(receiver, declaring));
+
+		List<CFG> targets = new ArrayList<>(matching.size());
+		for (CFG cfg : matching)
+			if (selected.contains(cfg.getDescriptor().getArgs()[0].getStaticType()))
+				targets.add(cfg);
+		return targets;
+	}
+
+	/**
+	 * Yields the most specific types among {@code declaring} that
+	 * {@code receiver} can be assigned to.
+	 */
+	private static Collection<Type> dispatch(Type receiver, Set<Type> declaring) {
+		List<Type> applicable = new ArrayList<>();
+		for (Type type : declaring)
+			if (receiver.canBeAssignedTo(type))
+				applicable.add(type);
+
+		List<Type> mostSpecific = new ArrayList<>(applicable.size());
+		for (Type type : applicable) {
+			boolean overridden = false;
+			for (Type other : applicable)
+				if (!other.equals(type) && other.canBeAssignedTo(type)) {
+					overridden = true;
+					break;
+				}
+			if (!overridden)
+				mostSpecific.add(type);
+		}
+		return mostSpecific;
+	}
+
+	private Map<Type, Collection<Type>> hierarchy() {
+		Map<Type, Collection<Type>> result = hierarchy;
+		if (result != null)
+			return result;
+
+		synchronized (this) {
+			if (hierarchy == null)
+				hierarchy = computeHierarchy();
+			return hierarchy;
+		}
+	}
+
+	private Map<Type, Collection<Type>> computeHierarchy() {
+		Set<Type> types = new LinkedHashSet<>();
+		ExpressionVisitor visitor = new ExpressionVisitor(e -> types.add(e.getStaticType()));
+		for (CFG cfg : getCFGs()) {
+			types.add(cfg.getDescriptor().getReturnType());
+			for (Parameter formal : cfg.getDescriptor().getArgs())
+				types.add(formal.getStaticType());
+			for (Statement st : cfg.getNodes())
+				st.accept(visitor);
+		}
+		types.removeIf(Type::isUntyped);
+
+		Collection<Type> instantiated = instantiatedTypes(types);
+		Map<Type, Collection<Type>> result = new HashMap<>(types.size());
+		for (Type type : types) {
+			List<Type> subtypes = new ArrayList<>();
+			for (Type runtime : instantiated)
+				if (runtime.canBeAssignedTo(type))
+					subtypes.add(runtime);
+			result.put(type, Collections.unmodifiableList(subtypes));
+		}
+
+		log.debug("Type hierarchy computed over " + types.size() + " types, " + instantiated.size()
+				+ " of which might be instantiated");
+		return Collections.unmodifiableMap(result);
+	}
+}
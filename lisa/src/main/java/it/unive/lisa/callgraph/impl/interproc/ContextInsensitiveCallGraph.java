@@ -0,0 +1,337 @@
+package it.unive.lisa.callgraph.impl.interproc;
+
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.CFGWithAnalysisResults;
+import it.unive.lisa.analysis.HeapDomain;
+import it.unive.lisa.analysis.ScopeToken;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.ValueDomain;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.callgraph.CallGraph;
+import it.unive.lisa.callgraph.impl.BaseCallGraph;
+import it.unive.lisa.cfg.CFG;
+import it.unive.lisa.cfg.CFG.SemanticFunction;
+import it.unive.lisa.cfg.FixpointException;
+import it.unive.lisa.cfg.Parameter;
+import it.unive.lisa.cfg.statement.CFGCall;
+import it.unive.lisa.cfg.statement.Expression;
+import it.unive.lisa.cfg.statement.Return;
+import it.unive.lisa.cfg.statement.Statement;
+import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.value.HeapIdentifier;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.Skip;
+import it.unive.lisa.symbolic.value.ValueIdentifier;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * An interprocedural {@link CallGraph}, that computes the abstract result of a
+ * {@link CFGCall} by analyzing its targets. No call strings are tracked: the
+ * result of a call only depends on the target and on the values of its
+ * parameters. In particular:
+ * <ul>
+ * <li>the actual parameters are assigned to the formal parameters of the
+ * target, hidden through {@link Identifier#pushScope(ScopeToken)}, and then
+ * {@link AnalysisState#popScope(ScopeToken)} restores them while dropping all
+ * the variables of the caller: the resulting state, that contains only the
+ * formal parameters and the memory locations (that are never hidden, see
+ * {@link HeapIdentifier}), is the entry state of the target;</li>
+ * <li>the target is analyzed starting from such state, unless its summary
+ * already covers it;</li>
+ * <li>the states at the exitpoints of the target are joined, the returned value
+ * (that is unknown if some of the exitpoints are not {@link Return}s) is stored
+ * in a variable hidden in the same way, and the scope is closed through
+ * {@link AnalysisState#popScope(ScopeToken, AnalysisState)}, removing all the
+ * variables of the target and re-attaching the ones of the caller from the
+ * state at the call site. Memory locations are not affected by the scope, so
+ * their values at the exit of the target replace the ones they had at the call
+ * site.</li>
+ * </ul>
+ * A single summary is kept for each cfg, made of the entry state it has been
+ * analyzed with and of the resulting exit state. The summary is reused by all
+ * the calls whose entry state is covered by the one of the summary. Otherwise,
+ * the target is analyzed again starting from the lub of the two entry states,
+ * that is replaced by the widening after {@link CFG#DEFAULT_WIDENING_THRESHOLD}
+ * updates of the same summary. Since callees cannot modify the variables of
+ * their callers, recursive calls (that is, calls towards a cfg that is being
+ * analyzed) are not analyzed, and yield an unknown value while leaving the
+ * variables of the caller unchanged. All memory locations are instead
+ * forgotten, since they might have been modified by the call.<br>
+ * <br>
+ * Each cfg of the program is also analyzed starting from the entry state
+ * provided to {@link #fixpoint(AnalysisState, SemanticFunction)}, and those are
+ * the results returned by {@link #getAnalysisResultsOf(CFG)}.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class ContextInsensitiveCallGraph extends BaseCallGraph {
+
+	/**
+	 * The summaries computed so far, one for each cfg
+	 */
+	private final Map<CFG, Summary> summaries;
+
+	/**
+	 * The cfgs whose summary is being computed by the current thread
+	 */
+	private final ThreadLocal<Set<CFG>> analyzing;
+
+	/**
+	 * The semantic function of the current fixpoint computation
+	 */
+	private volatile SemanticFunction<?, ?> semantics;
+
+	/**
+	 * Builds the call graph. Fixpoints over different cfgs will be computed
+	 * sequentially.
+	 */
+	public ContextInsensitiveCallGraph() {
+		this(null);
+	}
+
+	/**
+	 * Builds the call graph. Fixpoints over different cfgs will be computed
+	 * concurrently through the given executor, that is not shut down by this
+	 * call graph. Summaries computed concurrently are shared among all the
+	 * fixpoints, but the same summary might be computed by more than one of
+	 * them.
+	 * 
+	 * @param executor the executor to use for running the fixpoints of
+	 *                     different cfgs, or {@code null} to analyze them
+	 *                     sequentially
+	 */
+	public ContextInsensitiveCallGraph(ExecutorService executor) {
+		super(executor);
+		this.summaries = new ConcurrentHashMap<>();
+		this.analyzing = ThreadLocal.withInitial(HashSet::new);
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		summaries.clear();
+	}
+
+	@Override
+	public <H extends HeapDomain<H>, V extends ValueDomain<V>> void fixpoint(AnalysisState<H, V> entryState,
+			SemanticFunction<H, V> semantics, Consumer<CFGWithAnalysisResults<H, V>> consumer, boolean retain)
+			throws FixpointException {
+		// summaries computed with a different semantic function are useless
+		summaries.clear();
+		this.semantics = semantics;
+		super.fixpoint(entryState, semantics, consumer, retain);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<H, V> getAbstractResultOf(CFGCall call,
+			AnalysisState<H, V> entryState, Collection<SymbolicExpression>[] parameters) throws SemanticException {
+		SemanticFunction<H, V> semantics = (SemanticFunction<H, V>) this.semantics;
+		Identifier ret = Caches.expressions()
+				.intern(new ValueIdentifier(call.getRuntimeTypes(getContext()), "ret_value"));
+		ScopeToken scope = new ScopeToken(call);
+
+		AnalysisState<H, V> result = null;
+		for (CFG target : call.getTargets()) {
+			AnalysisState<H, V> exit;
+			if (semantics == null)
+				exit = call.getStaticType().isVoidType() ? entryState.top() : entryState.top().smallStepSemantics(ret);
+			else if (analyzing.get().contains(target)) {
+				// recursive calls are not analyzed: since the target cannot
+				// modify the variables of the caller, only the returned value
+				// and the memory locations are unknown
+				exit = entryState.forgetIdentifier(ret).forgetIdentifiersIf(id -> id instanceof HeapIdentifier);
+				if (!call.getStaticType().isVoidType())
+					exit = exit.smallStepSemantics(ret);
+			} else {
+				AnalysisState<H, V> projected = project(call, target, scope, entryState, parameters);
+				exit = bind(call, target, ret, scope, summarize(target, projected, semantics))
+						.popScope(scope, entryState.forgetIdentifier(ret));
+			}
+
+			result = result == null ? exit : result.lub(exit);
+		}
+
+		return result;
+	}
+
+	private <H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<H, V> project(CFGCall call,
+			CFG target, ScopeToken scope, AnalysisState<H, V> entryState,
+			Collection<SymbolicExpression>[] parameters) throws SemanticException {
+		Parameter[] formals = target.getDescriptor().getArgs();
+		Expression[] actuals = call.getParameters();
+
+		AnalysisState<H, V> state = entryState;
+		for (int i = 0; i < formals.length; i++) {
+			Identifier formal = Caches.expressions()
+					.intern(new ValueIdentifier(actuals[i].getRuntimeTypes(getContext()), formals[i].getName()))
+					.pushScope(scope);
+			AnalysisState<H, V> assigned = null;
+			for (SymbolicExpression actual : parameters[i]) {
+				AnalysisState<H, V> tmp = state.assign(formal, actual);
+				assigned = assigned == null ? tmp : assigned.lub(tmp);
+			}
+			if (assigned != null)
+				state = assigned;
+		}
+
+		// the formals are the only identifiers hidden by the scope: closing it
+		// restores them, and forgets all the variables of the caller
+		return new AnalysisState<>(state.popScope(scope).getState(), Skip.INSTANCE);
+	}
+
+	private <H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<H, V> summarize(CFG target,
+			AnalysisState<H, V> entryState, SemanticFunction<H, V> semantics) throws SemanticException {
+		Summary summary = summaries.get(target);
+		AnalysisState<H, V> entry = entryState;
+		int updates = 0;
+		if (summary != null) {
+			@SuppressWarnings("unchecked")
+			AnalysisState<H, V> known = (AnalysisState<H, V>) summary.entry;
+			if (entryState.lessOrEqual(known)) {
+				@SuppressWarnings("unchecked")
+				AnalysisState<H, V> exit = (AnalysisState<H, V>) summary.exit;
+				return exit;
+			}
+
+			updates = summary.updates + 1;
+			entry = updates < CFG.DEFAULT_WIDENING_THRESHOLD ? known.lub(entryState) : known.widening(entryState);
+		}
+
+		CFGWithAnalysisResults<H, V> results;
+		analyzing.get().add(target);
+		try {
+			results = iterate(target, entry, semantics);
+		} catch (FixpointException e) {
+			throw new SemanticException("Exception while computing the summary of " + target, e);
+		} finally {
+			analyzing.get().remove(target);
+		}
+
+		AnalysisState<H, V> exit = exitState(target, results, entry);
+		summaries.put(target, new Summary(entry, exit, updates));
+		return exit;
+	}
+
+	/**
+	 * Yields the exit state of a fixpoint over the given cfg, that is, the lub
+	 * of the states at its exitpoints.
+	 * 
+	 * @param <H>     the type of {@link HeapDomain} computed
+	 * @param <V>     the type of {@link ValueDomain} computed
+	 * @param cfg     the analyzed cfg
+	 * @param results the results of the fixpoint
+	 * @param entry   the entry state of the fixpoint
+	 * 
+	 * @return the exit state, or the bottom of {@code entry} if no exitpoint
+	 *             has been reached
+	 * 
+	 * @throws SemanticException if an error occurs while joining the states
+	 */
+	protected static <H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<H, V> exitState(CFG cfg,
+			CFGWithAnalysisResults<H, V> results, AnalysisState<H, V> entry) throws SemanticException {
+		AnalysisState<H, V> exit = null;
+		Collection<Statement> exitpoints = cfg.getNormalExitpoints();
+		if (exitpoints.isEmpty())
+			exitpoints = cfg.getNodes().stream().filter(st -> cfg.followersOf(st).isEmpty())
+					.collect(Collectors.toList());
+		for (Statement st : exitpoints) {
+			AnalysisState<H, V> state = results.getAnalysisStateAt(st);
+			if (state != null)
+				exit = exit == null ? state : exit.lub(state);
+		}
+
+		return exit == null ? entry.bottom() : exit;
+	}
+
+	/**
+	 * Replaces the summary of the given cfg. Calls towards {@code cfg} whose
+	 * entry state is covered by {@code entry} will yield {@code exit}, without
+	 * analyzing the cfg.
+	 * 
+	 * @param <H>   the type of {@link HeapDomain} computed
+	 * @param <V>   the type of {@link ValueDomain} computed
+	 * @param cfg   the summarized cfg
+	 * @param entry the entry state of the summary
+	 * @param exit  the exit state of the summary
+	 */
+	protected final <H extends HeapDomain<H>, V extends ValueDomain<V>> void setSummary(CFG cfg,
+			AnalysisState<H, V> entry, AnalysisState<H, V> exit) {
+		summaries.put(cfg, new Summary(entry, exit, 0));
+	}
+
+	/**
+	 * Yields the exit state of the summary of the given cfg.
+	 * 
+	 * @param <H> the type of {@link HeapDomain} computed
+	 * @param <V> the type of {@link ValueDomain} computed
+	 * @param cfg the summarized cfg
+	 * 
+	 * @return the exit state of the summary, or {@code null} if {@code cfg} has
+	 *             not been summarized
+	 */
+	@SuppressWarnings("unchecked")
+	protected final <H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<H, V> getSummary(CFG cfg) {
+		Summary summary = summaries.get(cfg);
+		return summary == null ? null : (AnalysisState<H, V>) summary.exit;
+	}
+
+	private <H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<H, V> bind(CFGCall call, CFG target,
+			Identifier ret, ScopeToken scope, AnalysisState<H, V> exit) throws SemanticException {
+		if (call.getStaticType().isVoidType())
+			return exit;
+
+		// the returned value is stored in a variable that survives the closing
+		// of the scope
+		Identifier hidden = ret.pushScope(scope);
+
+		// only return statements yield a value: if the target can terminate
+		// in any other way, the expressions computed at its exit are not the
+		// returned value
+		Collection<Statement> exitpoints = target.getNormalExitpoints();
+		if (exitpoints.isEmpty() || !exitpoints.stream().allMatch(st -> st instanceof Return))
+			return exit.smallStepSemantics(hidden);
+
+		AnalysisState<H, V> result = null;
+		if (!exit.getState().isBottom())
+			for (SymbolicExpression expr : exit.getComputedExpressions())
+				if (!(expr instanceof Skip)) {
+					AnalysisState<H, V> tmp = exit.assign(hidden, expr);
+					result = result == null ? tmp : result.lub(tmp);
+				}
+
+		// if nothing is returned, the variable is left unassigned
+		return result == null ? exit.smallStepSemantics(hidden) : result;
+	}
+
+	/**
+	 * The summary of a cfg, made of the entry state it has been analyzed with
+	 * and of the resulting exit state.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static final class Summary {
+
+		private final AnalysisState<?, ?> entry;
+
+		private final AnalysisState<?, ?> exit;
+
+		/**
+		 * The number of times the entry state has grown
+		 */
+		private final int updates;
+
+		private Summary(AnalysisState<?, ?> entry, AnalysisState<?, ?> exit, int updates) {
+			this.entry = entry;
+			this.exit = exit;
+			this.updates = updates;
+		}
+	}
+}
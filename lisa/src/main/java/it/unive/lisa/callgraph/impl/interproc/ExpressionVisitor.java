@@ -0,0 +1,38 @@
+package it.unive.lisa.callgraph.impl.interproc;
+
+import it.unive.lisa.cfg.statement.Expression;
+import it.unive.lisa.cfg.statement.Statement;
+import it.unive.lisa.cfg.statement.StatementVisitor;
+import java.util.function.Consumer;
+
+/**
+ * A {@link StatementVisitor} that applies an action to each visited
+ * {@link Expression}, ignoring statements that are not expressions. Since the
+ * expressions nested into a statement are defined by
+ * {@link Statement#accept(StatementVisitor)}, this visitor reaches all the
+ * expressions exposed by the statements of any frontend.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+final class ExpressionVisitor implements StatementVisitor {
+
+	private final Consumer<Expression> action;
+
+	/**
+	 * Builds the visitor.
+	 * 
+	 * @param action the action to apply to each expression
+	 */
+	ExpressionVisitor(Consumer<Expression> action) {
+		this.action = action;
+	}
+
+	@Override
+	public void visit(Statement statement) {
+	}
+
+	@Override
+	public void visit(Expression expression) {
+		action.accept(expression);
+	}
+}
@@ -0,0 +1,70 @@
+package it.unive.lisa.callgraph.impl.interproc;
+
+import it.unive.lisa.cfg.CFG;
+import it.unive.lisa.cfg.statement.Expression;
+import it.unive.lisa.cfg.statement.Statement;
+import it.unive.lisa.cfg.type.Type;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Predicate;
+
+/**
+ * A {@link ClassHierarchyCallGraph} that resolves calls through Rapid Type
+ * Analysis (RTA), that is, by considering only the types that are instantiated
+ * somewhere in the program as possible runtime types of the receivers. Since
+ * LiSA has no notion of object creation, expressions that instantiate new
+ * objects are recognized through a predicate given at construction time: the
+ * static type of each expression satisfying it is considered to be
+ * instantiated. Calls whose receiver cannot have any of the instantiated types
+ * have no targets.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class RapidTypeCallGraph extends ClassHierarchyCallGraph {
+
+	/**
+	 * The predicate recognizing expressions that instantiate new objects
+	 */
+	private final Predicate<Expression> allocation;
+
+	/**
+	 * Builds the call graph. Components will be analyzed sequentially.
+	 * 
+	 * @param allocation the predicate recognizing expressions that instantiate
+	 *                       new objects
+	 */
+	public RapidTypeCallGraph(Predicate<Expression> allocation) {
+		this(null, allocation);
+	}
+
+	/**
+	 * Builds the call graph. Components will be analyzed concurrently through
+	 * the given executor, that is not shut down by this call graph.
+	 * 
+	 * @param executor   the executor to use for running the fixpoints of
+	 *                       different components, or {@code null} to analyze
+	 *                       them sequentially
+	 * @param allocation the predicate recognizing expressions that instantiate
+	 *                       new objects
+	 */
+	public RapidTypeCallGraph(ExecutorService executor, Predicate<Expression> allocation) {
+		super(executor);
+		this.allocation = allocation;
+	}
+
+	@Override
+	protected Collection<Type> instantiatedTypes(Set<Type> types) {
+		Set<Type> instantiated = new LinkedHashSet<>();
+		ExpressionVisitor visitor = new ExpressionVisitor(e -> {
+			if (allocation.test(e))
+				instantiated.add(e.getStaticType());
+		});
+		for (CFG cfg : getCFGs())
+			for (Statement st : cfg.getNodes())
+				st.accept(visitor);
+		instantiated.retainAll(types);
+		return instantiated;
+	}
+}
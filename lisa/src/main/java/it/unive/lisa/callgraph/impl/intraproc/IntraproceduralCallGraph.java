@@ -1,30 +1,19 @@
 package it.unive.lisa.callgraph.impl.intraproc;
 
 import it.unive.lisa.analysis.AnalysisState;
-import it.unive.lisa.analysis.CFGWithAnalysisResults;
 import it.unive.lisa.analysis.HeapDomain;
 import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.ValueDomain;
+import it.unive.lisa.caches.Caches;
 import it.unive.lisa.callgraph.CallGraph;
+import it.unive.lisa.callgraph.impl.BaseCallGraph;
 import it.unive.lisa.cfg.CFG;
-import it.unive.lisa.cfg.CFG.SemanticFunction;
-import it.unive.lisa.cfg.FixpointException;
-import it.unive.lisa.cfg.Parameter;
 import it.unive.lisa.cfg.statement.CFGCall;
-import it.unive.lisa.cfg.statement.Call;
-import it.unive.lisa.cfg.statement.Expression;
-import it.unive.lisa.cfg.statement.OpenCall;
 import it.unive.lisa.cfg.statement.UnresolvedCall;
-import it.unive.lisa.logging.IterationLogger;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.ValueIdentifier;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import java.util.concurrent.ExecutorService;
 
 /**
  * An instance of {@link CallGraph} that does not handle interprocedurality. In
@@ -37,82 +26,28 @@ import org.apache.logging.log4j.Logger;
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  */
-public class IntraproceduralCallGraph implements CallGraph {
-
-	private static final Logger log = LogManager.getLogger(IntraproceduralCallGraph.class);
-
-	/**
-	 * The cash of the fixpoints' results. {@link Map#keySet()} will contain all
-	 * the cfgs that have been added. If a key's values's
-	 * {@link Optional#isEmpty()} yields true, then the fixpoint for that key
-	 * has not be computed yet.
-	 */
-	private final Map<CFG, Optional<CFGWithAnalysisResults<?, ?>>> results;
+public class IntraproceduralCallGraph extends BaseCallGraph {
 
 	/**
-	 * Builds the call graph.
+	 * Builds the call graph. Fixpoints over different cfgs will be computed
+	 * sequentially.
 	 */
 	public IntraproceduralCallGraph() {
-		this.results = new ConcurrentHashMap<>();
-	}
-
-	@Override
-	public void addCFG(CFG cfg) {
-		results.put(cfg, Optional.empty());
+		this(null);
 	}
 
-	@Override
-	public void clear() {
-		for (CFG cfg : results.keySet())
-			results.put(cfg, Optional.empty());
-	}
-
-	@Override
-	public Call resolve(UnresolvedCall call) {
-		Collection<CFG> targets = new ArrayList<>();
-		for (CFG cfg : results.keySet())
-			if (cfg.getDescriptor().getFullName().equals(call.getQualifiedName())
-					&& cfg.getDescriptor().getReturnType().canBeAssignedTo(call.getStaticType())
-					&& matchParametersTypes(cfg.getDescriptor().getArgs(), call.getParameters()))
-				targets.add(cfg);
-
-		Call resolved;
-		if (targets.isEmpty())
-			resolved = new OpenCall(call.getCFG(), call.getSourceFile(), call.getLine(), call.getCol(),
-					call.getQualifiedName(), call.getStaticType(), call.getParameters());
-		else
-			resolved = new CFGCall(call.getCFG(), call.getSourceFile(), call.getLine(), call.getCol(),
-					call.getQualifiedName(), targets, call.getParameters());
-
-		resolved.setOffset(call.getOffset());
-		return resolved;
-	}
-
-	private boolean matchParametersTypes(Parameter[] formals, Expression[] actuals) {
-		if (formals.length != actuals.length)
-			return false;
-
-		for (int i = 0; i < formals.length; i++)
-			if (!formals[i].getStaticType().canBeAssignedTo(actuals[i].getStaticType()))
-				return false;
-
-		return true;
-	}
-
-	@Override
-	public <H extends HeapDomain<H>, V extends ValueDomain<V>> void fixpoint(AnalysisState<H, V> entryState,
-			SemanticFunction<H, V> semantics)
-			throws FixpointException {
-		for (CFG cfg : IterationLogger.iterate(log, results.keySet(), "Computing fixpoint over the whole program",
-				"cfgs"))
-			results.put(cfg, Optional.of(cfg.fixpoint(entryState, this, semantics)));
-	}
-
-	@Override
-	@SuppressWarnings("unchecked")
-	public <H extends HeapDomain<H>, V extends ValueDomain<V>> CFGWithAnalysisResults<H, V> getAnalysisResultsOf(
-			CFG cfg) {
-		return (CFGWithAnalysisResults<H, V>) results.get(cfg).orElse(null);
+	/**
+	 * Builds the call graph. Since each cfg is analyzed independently from the
+	 * others, fixpoints over different cfgs will be computed concurrently
+	 * through the given executor. The executor is not shut down by this call
+	 * graph.
+	 * 
+	 * @param executor the executor to use for running the fixpoints of
+	 *                     different cfgs, or {@code null} to analyze them
+	 *                     sequentially
+	 */
+	public IntraproceduralCallGraph(ExecutorService executor) {
+		super(executor);
 	}
 
 	@Override
@@ -121,7 +56,8 @@ public class IntraproceduralCallGraph implements CallGraph {
 		if (call.getStaticType().isVoidType())
 			return entryState.top();
 
-		return entryState.top().smallStepSemantics(new ValueIdentifier(call.getRuntimeTypes(), "ret_value"));
+		return entryState.top().smallStepSemantics(
+				Caches.expressions().intern(new ValueIdentifier(call.getRuntimeTypes(getContext()), "ret_value")));
 	}
 
 }
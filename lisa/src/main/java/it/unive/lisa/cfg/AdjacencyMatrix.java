@@ -50,6 +50,13 @@ public class AdjacencyMatrix implements Iterable<Map.Entry<Statement, Pair<Exter
 	 */
 	private int nextOffset;
 
+	/**
+	 * The frozen view of this matrix, if {@link #freeze()} has been invoked and
+	 * the matrix has not been modified since then. This is {@code null}
+	 * otherwise.
+	 */
+	private volatile FrozenAdjacencyMatrix frozen;
+
 	/**
 	 * Builds a new matrix.
 	 */
@@ -72,6 +79,39 @@ public class AdjacencyMatrix implements Iterable<Map.Entry<Statement, Pair<Exter
 		for (Map.Entry<Statement, Pair<ExternalSet<Edge>, ExternalSet<Edge>>> entry : other.matrix.entrySet())
 			matrix.put(entry.getKey(), Pair.of(entry.getValue().getLeft().copy(), entry.getValue().getRight().copy()));
 		nextOffset = other.nextOffset;
+		// the frozen view is immutable, and it describes this copy as well
+		frozen = other.frozen;
+	}
+
+	/**
+	 * Freezes this matrix, building a {@link FrozenAdjacencyMatrix} that stores
+	 * its nodes and edges in compressed sparse row format. The frozen view is
+	 * cached and returned by {@link #getFrozenView()}, until this matrix is
+	 * modified: any modification discards it, and a new invocation of this
+	 * method is needed to obtain an updated view.
+	 * 
+	 * @return the frozen view of this matrix
+	 * 
+	 * @throws IllegalStateException if two nodes of the matrix share the same
+	 *                                   offset, or if a node has an offset
+	 *                                   that has not been assigned by the
+	 *                                   matrix
+	 */
+	public synchronized FrozenAdjacencyMatrix freeze() {
+		if (frozen == null)
+			frozen = new FrozenAdjacencyMatrix(this);
+		return frozen;
+	}
+
+	/**
+	 * Yields the frozen view of this matrix built by the last invocation of
+	 * {@link #freeze()}, or {@code null} if this matrix has never been frozen
+	 * or if it has been modified after the last freeze.
+	 * 
+	 * @return the frozen view, or {@code null}
+	 */
+	public final FrozenAdjacencyMatrix getFrozenView() {
+		return frozen;
 	}
 
 	/**
@@ -80,10 +120,23 @@ public class AdjacencyMatrix implements Iterable<Map.Entry<Statement, Pair<Exter
 	 * @param node the node to add
 	 */
 	public void addNode(Statement node) {
+		frozen = null;
 		matrix.put(node, Pair.of(edgeFactory.mkEmptySet(), edgeFactory.mkEmptySet()));
 		nextOffset = node.setOffset(nextOffset) + 1;
 	}
 
+	/**
+	 * Yields the offset that will be assigned to the next node added to this
+	 * matrix. Since offsets are assigned in increasing order starting from
+	 * {@code 0}, all the nodes of this matrix (and their inner expressions)
+	 * have offsets strictly smaller than the returned value.
+	 * 
+	 * @return the next offset
+	 */
+	public final int getNextOffset() {
+		return nextOffset;
+	}
+
 	/**
 	 * Yields the collection of nodes of this matrix.
 	 * 
@@ -109,6 +162,7 @@ public class AdjacencyMatrix implements Iterable<Map.Entry<Statement, Pair<Exter
 		if (!matrix.containsKey(e.getDestination()))
 			throw new UnsupportedOperationException("The destination node is not in the graph");
 
+		frozen = null;
 		matrix.get(e.getSource()).getRight().add(e);
 		matrix.get(e.getDestination()).getLeft().add(e);
 	}
@@ -146,6 +200,21 @@ public class AdjacencyMatrix implements Iterable<Map.Entry<Statement, Pair<Exter
 				.collect(Collectors.toSet());
 	}
 
+	/**
+	 * Yields the ingoing edges of the given node. Yields {@code null} if the
+	 * node is not in this matrix.
+	 * 
+	 * @param node the node
+	 * 
+	 * @return the ingoing edges
+	 */
+	public final Collection<Edge> getIngoingEdges(Statement node) {
+		if (!matrix.containsKey(node))
+			return null;
+
+		return matrix.get(node).getLeft().collect();
+	}
+
 	/**
 	 * Yields the collection of the nodes that are followers of the given one,
 	 * that is, all nodes such that there exist an edge in this matrix going
@@ -195,6 +264,7 @@ public class AdjacencyMatrix implements Iterable<Map.Entry<Statement, Pair<Exter
 	 *                                           supported.
 	 */
 	public synchronized void simplify() {
+		frozen = null;
 		Set<Statement> noops = matrix.keySet().stream().filter(k -> k instanceof NoOp).collect(Collectors.toSet());
 		for (Statement noop : noops) {
 			for (Edge ingoing : matrix.get(noop).getLeft())
@@ -16,21 +16,21 @@ import it.unive.lisa.cfg.statement.Ret;
 import it.unive.lisa.cfg.statement.Return;
 import it.unive.lisa.cfg.statement.Statement;
 import it.unive.lisa.outputs.DotGraph;
+import it.unive.lisa.outputs.DotGraph.LabelWriter;
 import it.unive.lisa.util.workset.FIFOWorkingSet;
 import it.unive.lisa.util.workset.WorkingSet;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -68,6 +68,12 @@ public class CFG {
 	 */
 	private final CFGDescriptor descriptor;
 
+	/**
+	 * The weak topological ordering of the nodes of this graph, lazily computed
+	 * and discarded each time the structure of the graph changes.
+	 */
+	private WeakTopologicalOrder wto;
+
 	/**
 	 * Builds the control flow graph.
 	 * 
@@ -181,6 +187,7 @@ public class CFG {
 		adjacencyMatrix.addNode(node);
 		if (entrypoint)
 			this.entrypoints.add(node);
+		wto = null;
 	}
 
 	/**
@@ -194,6 +201,19 @@ public class CFG {
 	 */
 	public void addEdge(Edge edge) {
 		adjacencyMatrix.addEdge(edge);
+		wto = null;
+	}
+
+	/**
+	 * Yields the upper bound (exclusive) of the offsets assigned to the
+	 * statements of this control flow graph and to their inner expressions.
+	 * Since offsets are assigned in increasing order starting from {@code 0},
+	 * this can be used to size arrays indexed by offset.
+	 * 
+	 * @return the upper bound of the offsets
+	 */
+	public final int getOffsetLimit() {
+		return adjacencyMatrix.getNextOffset();
 	}
 
 	/**
@@ -286,7 +306,25 @@ public class CFG {
 	 *                         the given writer
 	 */
 	public void dump(Writer writer, String name, Function<Statement, String> labelGenerator) throws IOException {
-		DotGraph.fromCFG(this, labelGenerator).dumpDot(writer);
+		DotGraph.writeCFG(this, labelGenerator, writer);
+	}
+
+	/**
+	 * Dumps the content of this control flow graph in the given writer,
+	 * formatted as a dot file. The content of each vertex will be enriched by
+	 * invoking labelWriter on the vertex itself, that writes an extra
+	 * description directly to the output, after the standard call to the
+	 * vertex's {@link #toString()}
+	 * 
+	 * @param writer      the writer where the content will be written
+	 * @param name        the name of the dot diagraph
+	 * @param labelWriter the function used to write extra labels
+	 * 
+	 * @throws IOException if an exception happens while writing something to
+	 *                         the given writer
+	 */
+	public void dump(Writer writer, String name, LabelWriter labelWriter) throws IOException {
+		DotGraph.writeCFG(this, labelWriter, writer);
 	}
 
 	@Override
@@ -392,6 +430,48 @@ public class CFG {
 	 */
 	public void simplify() {
 		adjacencyMatrix.simplify();
+		wto = null;
+	}
+
+	/**
+	 * Freezes the structure of this control flow graph, building a
+	 * {@link FrozenAdjacencyMatrix} that stores its nodes and edges in
+	 * compressed sparse row format. Fixpoint computations will use the frozen
+	 * view to access the neighbors of each node without allocating collections.
+	 * Modifying this graph after freezing it discards the frozen view, and a
+	 * new invocation of this method is needed to obtain an updated one.
+	 * 
+	 * @return the frozen view of this graph
+	 * 
+	 * @throws IllegalStateException if two nodes of this graph share the same
+	 *                                   offset
+	 */
+	public final FrozenAdjacencyMatrix freeze() {
+		return adjacencyMatrix.freeze();
+	}
+
+	/**
+	 * Yields the frozen view of this control flow graph built by the last
+	 * invocation of {@link #freeze()}, or {@code null} if this graph has never
+	 * been frozen or if it has been modified after the last freeze.
+	 * 
+	 * @return the frozen view, or {@code null}
+	 */
+	public final FrozenAdjacencyMatrix getFrozenView() {
+		return adjacencyMatrix.getFrozenView();
+	}
+
+	/**
+	 * Yields the {@link WeakTopologicalOrder} of the nodes of this control flow
+	 * graph. The ordering is computed once and then cached, until the structure
+	 * of this graph is modified.
+	 * 
+	 * @return the weak topological ordering of this graph
+	 */
+	public final synchronized WeakTopologicalOrder getWeakTopologicalOrder() {
+		if (wto == null)
+			wto = new WeakTopologicalOrder(this);
+		return wto;
 	}
 
 	/**
@@ -905,6 +985,149 @@ public class CFG {
 		return fixpoint(startingPoints, cg, ws, DEFAULT_WIDENING_THRESHOLD, semantics);
 	}
 
+	/**
+	 * Computes a fixpoint over this control flow graph, iterating over its
+	 * nodes following their {@link WeakTopologicalOrder}. This method returns a
+	 * {@link CFGWithAnalysisResults} instance mapping each {@link Statement} to
+	 * the {@link AnalysisState} computed by this method. Each (nested)
+	 * component of the ordering is stabilized before the iteration moves on to
+	 * the statements that follow it. {@link Lattice#lub(Lattice)} is used to
+	 * compose results obtained at different iterations on every statement but
+	 * the heads of the components, where it gets replaced by
+	 * {@link Lattice#widening(Lattice)} after
+	 * {@link #DEFAULT_WIDENING_THRESHOLD} {@code * predecessors_number} times,
+	 * where {@code predecessors_number} is the number of statements that are
+	 * predecessors of the head. The computation starts at the statements
+	 * returned by {@link #getEntrypoints()}, using {@code entryState} as entry
+	 * state for all of them. {@code cg} will be invoked to get the
+	 * approximation of all invoked cfgs.
+	 * 
+	 * @param <H>        the type of {@link HeapDomain} contained into the
+	 *                       computed abstract state
+	 * @param <V>        the type of {@link ValueDomain} contained into the
+	 *                       computed abstract state
+	 * @param entryState the entry states to apply to each {@link Statement}
+	 *                       returned by {@link #getEntrypoints()}
+	 * @param cg         the callgraph that can be queried when a call towards
+	 *                       an other cfg is encountered
+	 * @param semantics  the {@link SemanticFunction} that will be used for
+	 *                       computing the abstract post-state of statements
+	 * 
+	 * @return a {@link CFGWithAnalysisResults} instance that is equivalent to
+	 *             this control flow graph, and that stores for each
+	 *             {@link Statement} the result of the fixpoint computation
+	 * 
+	 * @throws FixpointException if an error occurs during the semantic
+	 *                               computation of a statement, or if some
+	 *                               unknown/invalid statement ends up in the
+	 *                               working set
+	 */
+	public final <H extends HeapDomain<H>, V extends ValueDomain<V>> CFGWithAnalysisResults<H, V> wtoFixpoint(
+			AnalysisState<H, V> entryState, CallGraph cg, SemanticFunction<H, V> semantics) throws FixpointException {
+		return wtoFixpoint(entryState, cg, DEFAULT_WIDENING_THRESHOLD, semantics);
+	}
+
+	/**
+	 * Computes a fixpoint over this control flow graph, iterating over its
+	 * nodes following their {@link WeakTopologicalOrder}. This method returns a
+	 * {@link CFGWithAnalysisResults} instance mapping each {@link Statement} to
+	 * the {@link AnalysisState} computed by this method. Each (nested)
+	 * component of the ordering is stabilized before the iteration moves on to
+	 * the statements that follow it. {@link Lattice#lub(Lattice)} is used to
+	 * compose results obtained at different iterations on every statement but
+	 * the heads of the components, where it gets replaced by
+	 * {@link Lattice#widening(Lattice)} after
+	 * {@code widenAfter * predecessors_number} times, where
+	 * {@code predecessors_number} is the number of statements that are
+	 * predecessors of the head. The computation starts at the statements
+	 * returned by {@link #getEntrypoints()}, using {@code entryState} as entry
+	 * state for all of them. {@code cg} will be invoked to get the
+	 * approximation of all invoked cfgs.
+	 * 
+	 * @param <H>        the type of {@link HeapDomain} contained into the
+	 *                       computed abstract state
+	 * @param <V>        the type of {@link ValueDomain} contained into the
+	 *                       computed abstract state
+	 * @param entryState the entry states to apply to each {@link Statement}
+	 *                       returned by {@link #getEntrypoints()}
+	 * @param cg         the callgraph that can be queried when a call towards
+	 *                       an other cfg is encountered
+	 * @param widenAfter the number of times after which the
+	 *                       {@link Lattice#lub(Lattice)} invocation gets
+	 *                       replaced by the {@link Lattice#widening(Lattice)}
+	 *                       call on component heads. Use {@code 0} to
+	 *                       <b>always</b> use {@link Lattice#lub(Lattice)}
+	 * @param semantics  the {@link SemanticFunction} that will be used for
+	 *                       computing the abstract post-state of statements
+	 * 
+	 * @return a {@link CFGWithAnalysisResults} instance that is equivalent to
+	 *             this control flow graph, and that stores for each
+	 *             {@link Statement} the result of the fixpoint computation
+	 * 
+	 * @throws FixpointException if an error occurs during the semantic
+	 *                               computation of a statement, or if some
+	 *                               unknown/invalid statement ends up in the
+	 *                               working set
+	 */
+	public final <H extends HeapDomain<H>, V extends ValueDomain<V>> CFGWithAnalysisResults<H, V> wtoFixpoint(
+			AnalysisState<H, V> entryState, CallGraph cg, int widenAfter, SemanticFunction<H, V> semantics)
+			throws FixpointException {
+		Map<Statement, AnalysisState<H, V>> start = new HashMap<>();
+		entrypoints.forEach(e -> start.put(e, entryState));
+		return wtoFixpoint(start, cg, widenAfter, semantics);
+	}
+
+	/**
+	 * Computes a fixpoint over this control flow graph, iterating over its
+	 * nodes following their {@link WeakTopologicalOrder}. This method returns a
+	 * {@link CFGWithAnalysisResults} instance mapping each {@link Statement} to
+	 * the {@link AnalysisState} computed by this method. Each (nested)
+	 * component of the ordering is stabilized before the iteration moves on to
+	 * the statements that follow it. {@link Lattice#lub(Lattice)} is used to
+	 * compose results obtained at different iterations on every statement but
+	 * the heads of the components, where it gets replaced by
+	 * {@link Lattice#widening(Lattice)} after
+	 * {@code widenAfter * predecessors_number} times, where
+	 * {@code predecessors_number} is the number of statements that are
+	 * predecessors of the head. The computation starts at the statements in
+	 * {@code startingPoints}, using as its entry state their respective value.
+	 * {@code cg} will be invoked to get the approximation of all invoked cfgs.
+	 * 
+	 * @param <H>            the type of {@link HeapDomain} contained into the
+	 *                           computed abstract state
+	 * @param <V>            the type of {@link ValueDomain} contained into the
+	 *                           computed abstract state
+	 * @param startingPoints a map between {@link Statement}s that to use as a
+	 *                           starting point of the computation (that must be
+	 *                           nodes of this cfg) and the entry states to
+	 *                           apply on it
+	 * @param cg             the callgraph that can be queried when a call
+	 *                           towards an other cfg is encountered
+	 * @param widenAfter     the number of times after which the
+	 *                           {@link Lattice#lub(Lattice)} invocation gets
+	 *                           replaced by the
+	 *                           {@link Lattice#widening(Lattice)} call on
+	 *                           component heads. Use {@code 0} to <b>always</b>
+	 *                           use {@link Lattice#lub(Lattice)}
+	 * @param semantics      the {@link SemanticFunction} that will be used for
+	 *                           computing the abstract post-state of statements
+	 * 
+	 * @return a {@link CFGWithAnalysisResults} instance that is equivalent to
+	 *             this control flow graph, and that stores for each
+	 *             {@link Statement} the result of the fixpoint computation
+	 * 
+	 * @throws FixpointException if an error occurs during the semantic
+	 *                               computation of a statement, or if some
+	 *                               unknown/invalid statement ends up in the
+	 *                               working set
+	 */
+	public final <H extends HeapDomain<H>, V extends ValueDomain<V>> CFGWithAnalysisResults<H, V> wtoFixpoint(
+			Map<Statement, AnalysisState<H, V>> startingPoints, CallGraph cg, int widenAfter,
+			SemanticFunction<H, V> semantics) throws FixpointException {
+		WeakTopologicalOrder order = getWeakTopologicalOrder();
+		return fixpoint(startingPoints, cg, order.mkWorkingSet(), widenAfter, order::isHead, semantics);
+	}
+
 	/**
 	 * A functional interface that can be used for compute the semantics of
 	 * {@link Statement}s, producing {@link AnalysisState}s.
@@ -992,9 +1215,35 @@ public class CFG {
 			Map<Statement, AnalysisState<H, V>> startingPoints, CallGraph cg, WorkingSet<Statement> ws, int widenAfter,
 			SemanticFunction<H, V> semantics)
 			throws FixpointException {
-		int size = adjacencyMatrix.getNodes().size();
-		Map<Statement, AtomicInteger> lubs = new HashMap<>(size);
-		Map<Statement, Pair<AnalysisState<H, V>, ExpressionStore<AnalysisState<H, V>>>> result = new HashMap<>(size);
+		return fixpoint(startingPoints, cg, ws, widenAfter, st -> true, semantics);
+	}
+
+	private <H extends HeapDomain<H>, V extends ValueDomain<V>> CFGWithAnalysisResults<H, V> fixpoint(
+			Map<Statement, AnalysisState<H, V>> startingPoints, CallGraph cg, WorkingSet<Statement> ws, int widenAfter,
+			Predicate<Statement> wideningPoints, SemanticFunction<H, V> semantics) throws FixpointException {
+		// all the per-node information is stored in arrays indexed by the
+		// offsets of the nodes, to avoid hashing statements at each access
+		// if the graph has been frozen, neighbors are read from its compressed
+		// layout instead of the adjacency matrix
+		FrozenAdjacencyMatrix frozen = adjacencyMatrix.getFrozenView();
+		int limit = frozen == null ? getOffsetLimit() : frozen.getOffsetLimit();
+		Statement[] nodes = new Statement[limit];
+		if (frozen != null)
+			for (int i = 0; i < limit; i++)
+				nodes[i] = frozen.getNodeAt(i);
+		else
+			for (Statement node : adjacencyMatrix.getNodes()) {
+				int offset = node.getOffset();
+				if (offset < 0 || offset >= limit || nodes[offset] != null)
+					throw new FixpointException(
+							"'" + node + "' has an invalid offset (" + offset + ") in " + descriptor);
+				nodes[offset] = node;
+			}
+
+		int[] lubs = new int[limit];
+		Arrays.fill(lubs, -1);
+		AnalysisState<H, V>[] approxs = newStates(limit);
+		ExpressionStore<AnalysisState<H, V>>[] stores = newStores(limit);
 		startingPoints.keySet().forEach(ws::push);
 
 		AnalysisState<H, V> oldApprox = null, newApprox;
@@ -1006,13 +1255,14 @@ public class CFG {
 				if (current == null)
 					throw new FixpointException(
 							"Unknown instruction encountered during fixpoint execution in '" + descriptor + "'");
-				if (!adjacencyMatrix.getNodes().contains(current))
+				int offset = current.getOffset();
+				if (offset < 0 || offset >= limit || nodes[offset] != current)
 					throw new FixpointException("'" + current
 							+ "' is not part of this control flow graph, and cannot be analyzed in this fixpoint computation");
 
 				AnalysisState<H, V> entrystate;
 				try {
-					entrystate = getEntryState(current, startingPoints, result);
+					entrystate = getEntryState(current, startingPoints, approxs, frozen);
 				} catch (SemanticException e) {
 					throw new FixpointException(
 							"Exception while computing the entry state for '" + current + "' in " + descriptor, e);
@@ -1021,13 +1271,8 @@ public class CFG {
 				if (entrystate == null)
 					throw new FixpointException(current + " does not have an entry state");
 
-				if (result.containsKey(current)) {
-					oldApprox = result.get(current).getLeft();
-					oldExprs = result.get(current).getRight();
-				} else {
-					oldApprox = null;
-					oldExprs = null;
-				}
+				oldApprox = approxs[offset];
+				oldExprs = stores[offset];
 
 				try {
 					newExprs = new ExpressionStore<>(entrystate);
@@ -1040,18 +1285,18 @@ public class CFG {
 
 				if (oldApprox != null && oldExprs != null)
 					try {
-						if (widenAfter == 0) {
+						if (widenAfter == 0 || !wideningPoints.test(current)) {
 							newApprox = newApprox.lub(oldApprox);
 							newExprs = newExprs.lub(oldExprs);
 						} else {
 							// we multiply by the number of predecessors since
 							// if we have more than one
 							// the threshold will be reached faster
-							int lub = lubs
-									.computeIfAbsent(current,
-											e -> new AtomicInteger(widenAfter * predecessorsOf(e).size()))
-									.getAndDecrement();
-							if (lub > 0) {
+							if (lubs[offset] == -1)
+								lubs[offset] = widenAfter * (frozen == null ? predecessorsOf(current).size()
+										: frozen.countDistinctPredecessors(offset));
+							if (lubs[offset] > 0) {
+								lubs[offset]--;
 								newApprox = newApprox.lub(oldApprox);
 								newExprs = newExprs.lub(oldExprs);
 							} else {
@@ -1067,47 +1312,106 @@ public class CFG {
 
 				if ((oldApprox == null && oldExprs == null) || !newApprox.lessOrEqual(oldApprox)
 						|| !newExprs.lessOrEqual(oldExprs)) {
-					result.put(current, Pair.of(newApprox, newExprs));
-					for (Statement instr : followersOf(current))
-						ws.push(instr);
+					approxs[offset] = newApprox;
+					stores[offset] = newExprs;
+					if (frozen == null)
+						for (Statement instr : followersOf(current))
+							ws.push(instr);
+					else
+						for (int i = frozen.successorsStart(offset); i < frozen.successorsEnd(offset); i++)
+							ws.push(nodes[frozen.getSuccessor(i)]);
 				}
 			}
 
-			HashMap<Statement, AnalysisState<H, V>> finalResults = new HashMap<>(result.size());
-			for (Entry<Statement, Pair<AnalysisState<H, V>, ExpressionStore<AnalysisState<H, V>>>> e : result
-					.entrySet()) {
-				finalResults.put(e.getKey(), e.getValue().getLeft());
-				for (Entry<Expression, AnalysisState<H, V>> ee : e.getValue().getRight())
-					finalResults.put(ee.getKey(), ee.getValue());
-			}
-
-			return new CFGWithAnalysisResults<>(this, finalResults);
+			return mkResults(nodes, approxs, stores);
 		} catch (Exception e) {
 			log.fatal("Unexpected exception during fixpoint computation of '" + descriptor + "': " + e);
 			throw new FixpointException("Unexpected exception during fixpoint computation", e);
 		}
 	}
 
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static <H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<H, V>[] newStates(int length) {
+		return new AnalysisState[length];
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static <H extends HeapDomain<H>, V extends ValueDomain<V>> ExpressionStore<AnalysisState<H, V>>[] newStores(
+			int length) {
+		return new ExpressionStore[length];
+	}
+
+	private <H extends HeapDomain<H>, V extends ValueDomain<V>> CFGWithAnalysisResults<H, V> mkResults(
+			Statement[] nodes, AnalysisState<H, V>[] approxs, ExpressionStore<AnalysisState<H, V>>[] stores) {
+		Statement[] statements = new Statement[nodes.length];
+		AnalysisState<H, V>[] states = newStates(nodes.length);
+		boolean compact = true;
+		for (int i = 0; i < nodes.length && compact; i++)
+			if (approxs[i] != null) {
+				statements[i] = nodes[i];
+				states[i] = approxs[i];
+				for (Entry<Expression, AnalysisState<H, V>> e : stores[i]) {
+					int offset = e.getKey().getOffset();
+					if (offset < 0 || offset >= nodes.length
+							|| (statements[offset] != null && statements[offset] != e.getKey())) {
+						// inner expressions that do not fit the offsets of
+						// this graph: we fall back to the map-based layout
+						compact = false;
+						break;
+					}
+					statements[offset] = e.getKey();
+					states[offset] = e.getValue();
+				}
+			}
+
+		if (compact)
+			return new CFGWithAnalysisResults<>(this, statements, states);
+
+		Map<Statement, AnalysisState<H, V>> finalResults = new HashMap<>(nodes.length);
+		for (int i = 0; i < nodes.length; i++)
+			if (approxs[i] != null) {
+				finalResults.put(nodes[i], approxs[i]);
+				for (Entry<Expression, AnalysisState<H, V>> e : stores[i])
+					finalResults.put(e.getKey(), e.getValue());
+			}
+		return new CFGWithAnalysisResults<>(this, finalResults);
+	}
+
 	private <H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<H, V> getEntryState(Statement current,
-			Map<Statement, AnalysisState<H, V>> startingPoints,
-			Map<Statement, Pair<AnalysisState<H, V>, ExpressionStore<AnalysisState<H, V>>>> result)
-			throws SemanticException {
+			Map<Statement, AnalysisState<H, V>> startingPoints, AnalysisState<H, V>[] approxs,
+			FrozenAdjacencyMatrix frozen) throws SemanticException {
 		AnalysisState<H, V> entrystate = startingPoints.get(current);
-		Collection<Statement> preds = predecessorsOf(current);
-		List<AnalysisState<H, V>> states = new ArrayList<>(preds.size());
 
-		for (Statement pred : preds)
-			if (result.containsKey(pred)) {
+		if (frozen != null) {
+			int offset = current.getOffset();
+			for (int i = frozen.predecessorsStart(offset); i < frozen.predecessorsEnd(offset); i++) {
 				// this might not have been computed yet
-				Edge edge = adjacencyMatrix.getEdgeConnecting(pred, current);
-				states.add(edge.traverse(result.get(edge.getSource()).getLeft()));
+				AnalysisState<H, V> pred = approxs[frozen.getPredecessor(i)];
+				if (pred == null)
+					continue;
+
+				AnalysisState<H, V> state = frozen.getPredecessorEdge(i).traverse(pred);
+				if (entrystate == null)
+					entrystate = state;
+				else
+					entrystate = entrystate.lub(state);
 			}
 
-		for (AnalysisState<H, V> s : states)
+			return entrystate;
+		}
+
+		for (Edge edge : adjacencyMatrix.getIngoingEdges(current)) {
+			// this might not have been computed yet
+			AnalysisState<H, V> pred = approxs[edge.getSource().getOffset()];
+			if (pred == null)
+				continue;
+
+			AnalysisState<H, V> state = edge.traverse(pred);
 			if (entrystate == null)
-				entrystate = s;
+				entrystate = state;
 			else
-				entrystate = entrystate.lub(s);
+				entrystate = entrystate.lub(state);
+		}
 
 		return entrystate;
 	}
@@ -0,0 +1,69 @@
+package it.unive.lisa.cfg;
+
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.CFGWithAnalysisResults;
+import it.unive.lisa.analysis.HeapDomain;
+import it.unive.lisa.analysis.ValueDomain;
+import it.unive.lisa.callgraph.CallGraph;
+import it.unive.lisa.cfg.CFG.SemanticFunction;
+
+/**
+ * The strategies that can be used for iterating over the statements of a
+ * {@link CFG} while computing a fixpoint over it.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public enum FixpointStrategy {
+
+	/**
+	 * Iterates over the statements in the order they are added to the working
+	 * set, through
+	 * {@link CFG#fixpoint(AnalysisState, CallGraph, SemanticFunction)}.
+	 */
+	FIFO {
+		@Override
+		public <H extends HeapDomain<H>, V extends ValueDomain<V>> CFGWithAnalysisResults<H, V> fixpoint(CFG cfg,
+				AnalysisState<H, V> entryState, CallGraph cg, SemanticFunction<H, V> semantics)
+				throws FixpointException {
+			return cfg.fixpoint(entryState, cg, semantics);
+		}
+	},
+
+	/**
+	 * Iterates over the statements following the {@link WeakTopologicalOrder}
+	 * of the cfg, stabilizing each loop before moving to the statements that
+	 * follow it, through
+	 * {@link CFG#wtoFixpoint(AnalysisState, CallGraph, SemanticFunction)}.
+	 */
+	WEAK_TOPOLOGICAL_ORDER {
+		@Override
+		public <H extends HeapDomain<H>, V extends ValueDomain<V>> CFGWithAnalysisResults<H, V> fixpoint(CFG cfg,
+				AnalysisState<H, V> entryState, CallGraph cg, SemanticFunction<H, V> semantics)
+				throws FixpointException {
+			return cfg.wtoFixpoint(entryState, cg, semantics);
+		}
+	};
+
+	/**
+	 * Computes a fixpoint over the given cfg following this strategy.
+	 * 
+	 * @param <H>        the type of {@link HeapDomain} contained into the
+	 *                       computed abstract state
+	 * @param <V>        the type of {@link ValueDomain} contained into the
+	 *                       computed abstract state
+	 * @param cfg        the cfg to analyze
+	 * @param entryState the entry state to apply to each entrypoint of
+	 *                       {@code cfg}
+	 * @param cg         the callgraph that can be queried when a call towards
+	 *                       an other cfg is encountered
+	 * @param semantics  the {@link SemanticFunction} that will be used for
+	 *                       computing the abstract post-state of statements
+	 * 
+	 * @return the results of the fixpoint
+	 * 
+	 * @throws FixpointException if an error occurs during the semantic
+	 *                               computation of a statement
+	 */
+	public abstract <H extends HeapDomain<H>, V extends ValueDomain<V>> CFGWithAnalysisResults<H, V> fixpoint(CFG cfg,
+			AnalysisState<H, V> entryState, CallGraph cg, SemanticFunction<H, V> semantics) throws FixpointException;
+}
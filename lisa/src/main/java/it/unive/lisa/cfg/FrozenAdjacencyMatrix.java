@@ -0,0 +1,292 @@
+package it.unive.lisa.cfg;
+
+import it.unive.lisa.cfg.edge.Edge;
+import it.unive.lisa.cfg.statement.Statement;
+import it.unive.lisa.util.collections.ExternalSet;
+import java.util.Map;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * An immutable, compressed sparse row (CSR) view of an {@link AdjacencyMatrix}.
+ * Nodes are identified by their offset (see {@link Statement#getOffset()}), and
+ * the successors (resp. predecessors) of the node with offset {@code o} are
+ * stored in the slots of the successors (resp. predecessors) arrays ranging
+ * from {@link #successorsStart(int)} (inclusive) to {@link #successorsEnd(int)}
+ * (exclusive) (resp. {@link #predecessorsStart(int)} and
+ * {@link #predecessorsEnd(int)}). Each slot holds the offset of the neighbor
+ * node and the {@link Edge} connecting the two nodes, so that neighbor queries
+ * do not allocate any object.<br>
+ * <br>
+ * Instances of this class are created through {@link AdjacencyMatrix#freeze()}.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class FrozenAdjacencyMatrix {
+
+	/**
+	 * The nodes of the matrix, indexed by their offset
+	 */
+	private final Statement[] nodes;
+
+	/**
+	 * The number of nodes of the matrix
+	 */
+	private final int size;
+
+	/**
+	 * The starting slot of the successors of each node, indexed by offset. The
+	 * successors of the node with offset {@code o} end at
+	 * {@code succStart[o + 1]}.
+	 */
+	private final int[] succStart;
+
+	/**
+	 * The offsets of the successors
+	 */
+	private final int[] succ;
+
+	/**
+	 * The outgoing edges, parallel to {@link #succ}
+	 */
+	private final Edge[] succEdges;
+
+	/**
+	 * The starting slot of the predecessors of each node, indexed by offset.
+	 * The predecessors of the node with offset {@code o} end at
+	 * {@code predStart[o + 1]}.
+	 */
+	private final int[] predStart;
+
+	/**
+	 * The offsets of the predecessors
+	 */
+	private final int[] pred;
+
+	/**
+	 * The ingoing edges, parallel to {@link #pred}
+	 */
+	private final Edge[] predEdges;
+
+	/**
+	 * Builds the frozen view of the given matrix.
+	 * 
+	 * @param matrix the matrix to freeze
+	 * 
+	 * @throws IllegalStateException if two nodes of the matrix share the same
+	 *                                   offset, or if a node has an offset
+	 *                                   that has not been assigned by the
+	 *                                   matrix
+	 */
+	FrozenAdjacencyMatrix(AdjacencyMatrix matrix) {
+		int limit = matrix.getNextOffset();
+		nodes = new Statement[limit];
+		succStart = new int[limit + 1];
+		predStart = new int[limit + 1];
+
+		int outgoing = 0, ingoing = 0, count = 0;
+		for (Map.Entry<Statement, Pair<ExternalSet<Edge>, ExternalSet<Edge>>> entry : matrix) {
+			int offset = entry.getKey().getOffset();
+			if (offset < 0 || offset >= limit || nodes[offset] != null)
+				throw new IllegalStateException(
+						"'" + entry.getKey() + "' has an invalid offset (" + offset + ")");
+			nodes[offset] = entry.getKey();
+			count++;
+			// counts are stored shifted by one, to be turned into starting
+			// slots by the prefix sum below
+			succStart[offset + 1] = entry.getValue().getRight().size();
+			predStart[offset + 1] = entry.getValue().getLeft().size();
+			outgoing += succStart[offset + 1];
+			ingoing += predStart[offset + 1];
+		}
+		size = count;
+
+		for (int i = 0; i < limit; i++) {
+			succStart[i + 1] += succStart[i];
+			predStart[i + 1] += predStart[i];
+		}
+
+		succ = new int[outgoing];
+		succEdges = new Edge[outgoing];
+		pred = new int[ingoing];
+		predEdges = new Edge[ingoing];
+		for (Map.Entry<Statement, Pair<ExternalSet<Edge>, ExternalSet<Edge>>> entry : matrix) {
+			int offset = entry.getKey().getOffset();
+			int slot = succStart[offset];
+			for (Edge e : entry.getValue().getRight()) {
+				succ[slot] = e.getDestination().getOffset();
+				succEdges[slot++] = e;
+			}
+
+			slot = predStart[offset];
+			for (Edge e : entry.getValue().getLeft()) {
+				pred[slot] = e.getSource().getOffset();
+				predEdges[slot++] = e;
+			}
+		}
+	}
+
+	/**
+	 * Yields the upper bound (exclusive) of the offsets of the nodes of this
+	 * matrix.
+	 * 
+	 * @return the upper bound of the offsets
+	 */
+	public int getOffsetLimit() {
+		return nodes.length;
+	}
+
+	/**
+	 * Yields the number of nodes of this matrix.
+	 * 
+	 * @return the number of nodes
+	 */
+	public int getNodesCount() {
+		return size;
+	}
+
+	/**
+	 * Yields the number of edges of this matrix.
+	 * 
+	 * @return the number of edges
+	 */
+	public int getEdgesCount() {
+		return succ.length;
+	}
+
+	/**
+	 * Yields the node with the given offset, or {@code null} if no node of this
+	 * matrix has that offset.
+	 * 
+	 * @param offset the offset
+	 * 
+	 * @return the node with the given offset, or {@code null}
+	 */
+	public Statement getNodeAt(int offset) {
+		return offset >= 0 && offset < nodes.length ? nodes[offset] : null;
+	}
+
+	/**
+	 * Yields {@code true} if and only if the given statement is a node of this
+	 * matrix.
+	 * 
+	 * @param st the statement
+	 * 
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean containsNode(Statement st) {
+		return getNodeAt(st.getOffset()) == st;
+	}
+
+	/**
+	 * Yields the first slot (inclusive) of the successors of the node with the
+	 * given offset.
+	 * 
+	 * @param offset the offset of the node
+	 * 
+	 * @return the first slot of its successors
+	 */
+	public int successorsStart(int offset) {
+		return succStart[offset];
+	}
+
+	/**
+	 * Yields the last slot (exclusive) of the successors of the node with the
+	 * given offset.
+	 * 
+	 * @param offset the offset of the node
+	 * 
+	 * @return the last slot of its successors
+	 */
+	public int successorsEnd(int offset) {
+		return succStart[offset + 1];
+	}
+
+	/**
+	 * Yields the offset of the successor stored in the given slot.
+	 * 
+	 * @param slot the slot
+	 * 
+	 * @return the offset of the successor
+	 */
+	public int getSuccessor(int slot) {
+		return succ[slot];
+	}
+
+	/**
+	 * Yields the edge leading to the successor stored in the given slot.
+	 * 
+	 * @param slot the slot
+	 * 
+	 * @return the outgoing edge
+	 */
+	public Edge getSuccessorEdge(int slot) {
+		return succEdges[slot];
+	}
+
+	/**
+	 * Yields the first slot (inclusive) of the predecessors of the node with
+	 * the given offset.
+	 * 
+	 * @param offset the offset of the node
+	 * 
+	 * @return the first slot of its predecessors
+	 */
+	public int predecessorsStart(int offset) {
+		return predStart[offset];
+	}
+
+	/**
+	 * Yields the last slot (exclusive) of the predecessors of the node with the
+	 * given offset.
+	 * 
+	 * @param offset the offset of the node
+	 * 
+	 * @return the last slot of its predecessors
+	 */
+	public int predecessorsEnd(int offset) {
+		return predStart[offset + 1];
+	}
+
+	/**
+	 * Yields the offset of the predecessor stored in the given slot.
+	 * 
+	 * @param slot the slot
+	 * 
+	 * @return the offset of the predecessor
+	 */
+	public int getPredecessor(int slot) {
+		return pred[slot];
+	}
+
+	/**
+	 * Yields the edge coming from the predecessor stored in the given slot.
+	 * 
+	 * @param slot the slot
+	 * 
+	 * @return the ingoing edge
+	 */
+	public Edge getPredecessorEdge(int slot) {
+		return predEdges[slot];
+	}
+
+	/**
+	 * Yields the number of distinct predecessors of the node with the given
+	 * offset. This differs from the number of ingoing edges if more than one
+	 * edge connects the same pair of nodes.
+	 * 
+	 * @param offset the offset of the node
+	 * 
+	 * @return the number of distinct predecessors
+	 */
+	public int countDistinctPredecessors(int offset) {
+		int count = 0;
+		int start = predStart[offset], end = predStart[offset + 1];
+		outer: for (int i = start; i < end; i++) {
+			for (int j = start; j < i; j++)
+				if (pred[j] == pred[i])
+					continue outer;
+			count++;
+		}
+		return count;
+	}
+}
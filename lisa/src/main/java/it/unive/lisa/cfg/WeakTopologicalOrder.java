@@ -0,0 +1,383 @@
+package it.unive.lisa.cfg;
+
+import it.unive.lisa.cfg.statement.Statement;
+import it.unive.lisa.util.workset.WorkingSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A weak topological ordering of the nodes of a {@link CFG}, computed through
+ * Bourdoncle's algorithm (F. Bourdoncle, <i>Efficient chaotic iteration
+ * strategies with widenings</i>, FMPA 1993). A weak topological ordering is a
+ * hierarchical ordering of the nodes of a graph, where each strongly connected
+ * component is represented as a <i>component</i> with a <i>head</i>, such that
+ * every cycle of the graph passes through the head of at least one component.
+ * <br>
+ * <br>
+ * Iterating on the nodes following this ordering stabilizes each (nested)
+ * component before moving to the statements that follow it, and heads are the
+ * only points where widening needs to be applied to ensure termination. The
+ * working set returned by {@link #mkWorkingSet()} implements such iteration
+ * strategy.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class WeakTopologicalOrder {
+
+	/**
+	 * The nodes of the cfg, in the order defined by this ordering.
+	 */
+	private final Statement[] order;
+
+	/**
+	 * The position of each node inside {@link #order}.
+	 */
+	private final Map<Statement, Integer> positions;
+
+	/**
+	 * The heads of the components of this ordering.
+	 */
+	private final Set<Statement> heads;
+
+	/**
+	 * The hierarchical structure of this ordering, where each element is either
+	 * a {@link Statement} or a {@link Component}.
+	 */
+	private final List<Object> structure;
+
+	/**
+	 * Computes the weak topological ordering of the given cfg. The exploration
+	 * starts from the entrypoints of the cfg, and then proceeds from any node
+	 * that has not been reached, so that every node of the cfg is part of the
+	 * ordering.
+	 * 
+	 * @param cfg the cfg
+	 */
+	public WeakTopologicalOrder(CFG cfg) {
+		Builder builder = new Builder(cfg);
+		this.structure = builder.build();
+		this.heads = builder.heads;
+
+		List<Statement> flat = new ArrayList<>(cfg.getNodesCount());
+		flatten(structure, flat);
+		this.order = flat.toArray(new Statement[flat.size()]);
+		this.positions = new HashMap<>(order.length);
+		for (int i = 0; i < order.length; i++)
+			positions.put(order[i], i);
+	}
+
+	private static void flatten(List<Object> elements, List<Statement> result) {
+		for (Object element : elements)
+			if (element instanceof Component) {
+				result.add(((Component) element).head);
+				flatten(((Component) element).body, result);
+			} else
+				result.add((Statement) element);
+	}
+
+	/**
+	 * Yields the nodes of the cfg, in the order defined by this weak
+	 * topological ordering (that is, with all the nesting flattened).
+	 * 
+	 * @return the ordered nodes
+	 */
+	public List<Statement> getOrder() {
+		return Collections.unmodifiableList(Arrays.asList(order));
+	}
+
+	/**
+	 * Yields the heads of the components of this weak topological ordering.
+	 * These are the only nodes where widening needs to be applied during a
+	 * fixpoint computation.
+	 * 
+	 * @return the heads of the components
+	 */
+	public Set<Statement> getHeads() {
+		return Collections.unmodifiableSet(heads);
+	}
+
+	/**
+	 * Yields {@code true} if and only if the given statement is the head of one
+	 * of the components of this weak topological ordering.
+	 * 
+	 * @param st the statement
+	 * 
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean isHead(Statement st) {
+		return heads.contains(st);
+	}
+
+	/**
+	 * Yields the position of the given statement inside this ordering, or
+	 * {@code -1} if the statement is not part of it.
+	 * 
+	 * @param st the statement
+	 * 
+	 * @return the position of {@code st}
+	 */
+	public int positionOf(Statement st) {
+		Integer pos = positions.get(st);
+		return pos == null ? -1 : pos;
+	}
+
+	/**
+	 * Yields a new {@link WorkingSet} that always pops the pending statement
+	 * that comes first in this ordering. Since all the statements of a
+	 * component (and of its nested components) come before the ones that follow
+	 * it, this causes each component to be stabilized before the iteration
+	 * moves on. Statements are never duplicated inside the returned working
+	 * set. Statements that are not part of this ordering are popped before any
+	 * other one, in the order they have been pushed.
+	 * 
+	 * @return the working set
+	 */
+	public WorkingSet<Statement> mkWorkingSet() {
+		return new WTOWorkingSet();
+	}
+
+	@Override
+	public String toString() {
+		return toString(structure);
+	}
+
+	private static String toString(List<Object> elements) {
+		return elements.stream().map(Object::toString).collect(Collectors.joining(" "));
+	}
+
+	/**
+	 * A component of the ordering, with its head and the elements that follow
+	 * it.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static final class Component {
+
+		private final Statement head;
+
+		private final List<Object> body;
+
+		private Component(Statement head, List<Object> body) {
+			this.head = head;
+			this.body = body;
+		}
+
+		@Override
+		public String toString() {
+			return body.isEmpty() ? "(" + head + ")" : "(" + head + " " + WeakTopologicalOrder.toString(body) + ")";
+		}
+	}
+
+	/**
+	 * The implementation of Bourdoncle's algorithm. The recursion of the
+	 * original formulation is unfolded into an explicit stack of
+	 * {@link Frame}s, so that the depth of the exploration is not bounded by
+	 * the size of the call stack.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static final class Builder {
+
+		private final CFG cfg;
+
+		private final Map<Statement, Integer> dfn = new HashMap<>();
+
+		private final Deque<Statement> stack = new LinkedList<>();
+
+		private final Set<Statement> heads = new HashSet<>();
+
+		private int num = 0;
+
+		private Builder(CFG cfg) {
+			this.cfg = cfg;
+		}
+
+		private List<Object> build() {
+			LinkedList<Object> partition = new LinkedList<>();
+			// we start from the entrypoints, and then proceed with any
+			// unreachable node to have each of them ordered
+			List<Statement> roots = new ArrayList<>(cfg.getEntrypoints());
+			roots.sort(Builder::byOffset);
+			List<Statement> others = new ArrayList<>(cfg.getNodes());
+			others.sort(Builder::byOffset);
+			roots.addAll(others);
+
+			List<Object> result = new ArrayList<>();
+			for (Statement root : roots)
+				if (dfn(root) == 0) {
+					partition.clear();
+					visit(root, partition);
+					result.addAll(partition);
+				}
+
+			return result;
+		}
+
+		private static int byOffset(Statement l, Statement r) {
+			return Integer.compare(l.getOffset(), r.getOffset());
+		}
+
+		private int dfn(Statement st) {
+			return dfn.getOrDefault(st, 0);
+		}
+
+		private Frame enter(Statement vertex, LinkedList<Object> partition) {
+			stack.push(vertex);
+			int vertexNum = ++num;
+			dfn.put(vertex, vertexNum);
+			return new Frame(vertex, partition, null, vertexNum);
+		}
+
+		private void visit(Statement root, LinkedList<Object> partition) {
+			Deque<Frame> frames = new ArrayDeque<>();
+			frames.push(enter(root, partition));
+
+			while (!frames.isEmpty()) {
+				Frame frame = frames.peek();
+				if (frame.successors.hasNext()) {
+					Statement succ = frame.successors.next();
+					if (dfn(succ) == 0)
+						frames.push(enter(succ, frame.body == null ? frame.partition : frame.body));
+					else if (frame.body == null)
+						frame.update(dfn(succ));
+					continue;
+				}
+
+				frames.pop();
+				if (frame.body != null)
+					// all the successors of the head have been visited
+					frame.partition.addFirst(new Component(frame.vertex, frame.body));
+				else if (frame.head == dfn(frame.vertex)) {
+					dfn.put(frame.vertex, Integer.MAX_VALUE);
+					Statement element = stack.pop();
+					if (frame.loop) {
+						while (element != frame.vertex) {
+							dfn.put(element, 0);
+							element = stack.pop();
+						}
+						// the successors of the head are visited again to
+						// build the body of the component
+						heads.add(frame.vertex);
+						frames.push(new Frame(frame.vertex, frame.partition, new LinkedList<>(), frame.head));
+						continue;
+					} else
+						frame.partition.addFirst(frame.vertex);
+				}
+
+				// the head computed by the frame is returned to the one that
+				// visited it
+				Frame caller = frames.peek();
+				if (caller != null && caller.body == null)
+					caller.update(frame.head);
+			}
+		}
+
+		/**
+		 * A pending visit of a node. If the frame has a body, it is collecting
+		 * the elements of the component having the node as head.
+		 * 
+		 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+		 */
+		private final class Frame {
+
+			private final Statement vertex;
+
+			private final LinkedList<Object> partition;
+
+			private final LinkedList<Object> body;
+
+			private final Iterator<Statement> successors;
+
+			private int head;
+
+			private boolean loop;
+
+			private Frame(Statement vertex, LinkedList<Object> partition, LinkedList<Object> body, int head) {
+				this.vertex = vertex;
+				this.partition = partition;
+				this.body = body;
+				this.successors = cfg.followersOf(vertex).iterator();
+				this.head = head;
+				this.loop = false;
+			}
+
+			private void update(int min) {
+				if (min <= head) {
+					head = min;
+					loop = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * A {@link WorkingSet} that pops statements following the order defined by
+	 * the enclosing {@link WeakTopologicalOrder}.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private final class WTOWorkingSet implements WorkingSet<Statement> {
+
+		private final BitSet pending = new BitSet(order.length);
+
+		private final Deque<Statement> unknown = new LinkedList<>();
+
+		@Override
+		public void push(Statement e) {
+			int pos = positionOf(e);
+			if (pos == -1)
+				unknown.addLast(e);
+			else
+				pending.set(pos);
+		}
+
+		@Override
+		public Statement pop() {
+			if (!unknown.isEmpty())
+				return unknown.removeFirst();
+
+			int pos = pending.nextSetBit(0);
+			pending.clear(pos);
+			return order[pos];
+		}
+
+		@Override
+		public Statement peek() {
+			if (!unknown.isEmpty())
+				return unknown.peekFirst();
+
+			int pos = pending.nextSetBit(0);
+			return pos == -1 ? null : order[pos];
+		}
+
+		@Override
+		public int size() {
+			return unknown.size() + pending.cardinality();
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return unknown.isEmpty() && pending.isEmpty();
+		}
+
+		@Override
+		public String toString() {
+			Collection<Statement> content = new ArrayList<>(unknown);
+			pending.stream().forEach(i -> content.add(order[i]));
+			return content.toString();
+		}
+	}
+}
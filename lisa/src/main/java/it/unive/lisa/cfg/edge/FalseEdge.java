@@ -4,6 +4,7 @@ import it.unive.lisa.analysis.AnalysisState;
 import it.unive.lisa.analysis.HeapDomain;
 import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.ValueDomain;
+import it.unive.lisa.caches.Caches;
 import it.unive.lisa.cfg.statement.Statement;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.UnaryExpression;
@@ -41,7 +42,8 @@ public class FalseEdge extends Edge {
 		AnalysisState<H, V> result = null;
 		for (SymbolicExpression expr : exprs) {
 			AnalysisState<H, V> tmp = sourceState
-					.assume(new UnaryExpression(expr.getTypes(), expr, UnaryOperator.LOGICAL_NOT));
+					.assume(Caches.expressions()
+							.intern(new UnaryExpression(expr.getTypes(), expr, UnaryOperator.LOGICAL_NOT)));
 			if (result == null)
 				result = tmp;
 			else
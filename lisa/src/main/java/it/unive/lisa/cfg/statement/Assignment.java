@@ -1,5 +1,6 @@
 package it.unive.lisa.cfg.statement;
 
+import it.unive.lisa.analysis.AnalysisContext;
 import it.unive.lisa.analysis.AnalysisState;
 import it.unive.lisa.analysis.ExpressionStore;
 import it.unive.lisa.analysis.HeapDomain;
@@ -59,6 +60,7 @@ public class Assignment extends BinaryExpression {
 	public <H extends HeapDomain<H>> AnalysisState<H, TypeEnvironment> typeInference(
 			AnalysisState<H, TypeEnvironment> entryState, CallGraph callGraph,
 			ExpressionStore<AnalysisState<H, TypeEnvironment>> expressions) throws SemanticException {
+		AnalysisContext context = callGraph.getContext();
 		AnalysisState<H, TypeEnvironment> right = getRight().typeInference(entryState, callGraph, expressions);
 		AnalysisState<H, TypeEnvironment> left = getLeft().typeInference(right, callGraph, expressions);
 		expressions.put(getRight(), right);
@@ -74,12 +76,12 @@ public class Assignment extends BinaryExpression {
 					result = result.lub(tmp);
 			}
 
-		if (!getRight().getMetaVariables().isEmpty())
-			result = result.forgetIdentifiers(getRight().getMetaVariables());
-		if (!getLeft().getMetaVariables().isEmpty())
-			result = result.forgetIdentifiers(getLeft().getMetaVariables());
+		if (!getRight().getMetaVariables(context).isEmpty())
+			result = result.forgetIdentifiers(getRight().getMetaVariables(context));
+		if (!getLeft().getMetaVariables(context).isEmpty())
+			result = result.forgetIdentifiers(getLeft().getMetaVariables(context));
 
-		setRuntimeTypes(result.getState().getValueState().getLastComputedTypes().getRuntimeTypes());
+		setRuntimeTypes(context, result.getState().getValueState().getLastComputedTypes().getRuntimeTypes());
 		return result;
 	}
 
@@ -105,6 +107,7 @@ public class Assignment extends BinaryExpression {
 	public final <H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<H, V> semantics(
 			AnalysisState<H, V> entryState, CallGraph callGraph, ExpressionStore<AnalysisState<H, V>> expressions)
 			throws SemanticException {
+		AnalysisContext context = callGraph.getContext();
 		AnalysisState<H, V> right = getRight().semantics(entryState, callGraph, expressions);
 		AnalysisState<H, V> left = getLeft().semantics(right, callGraph, expressions);
 		expressions.put(getRight(), right);
@@ -120,10 +123,10 @@ public class Assignment extends BinaryExpression {
 					result = result.lub(tmp);
 			}
 
-		if (!getRight().getMetaVariables().isEmpty())
-			result = result.forgetIdentifiers(getRight().getMetaVariables());
-		if (!getLeft().getMetaVariables().isEmpty())
-			result = result.forgetIdentifiers(getLeft().getMetaVariables());
+		if (!getRight().getMetaVariables(context).isEmpty())
+			result = result.forgetIdentifiers(getRight().getMetaVariables(context));
+		if (!getLeft().getMetaVariables(context).isEmpty())
+			result = result.forgetIdentifiers(getLeft().getMetaVariables(context));
 		return result;
 	}
 }
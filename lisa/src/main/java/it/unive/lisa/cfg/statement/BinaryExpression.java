@@ -72,6 +72,13 @@ public abstract class BinaryExpression extends Expression {
 		return right.setOffset(left.setOffset(offset + 1) + 1);
 	}
 
+	@Override
+	public void accept(StatementVisitor visitor) {
+		super.accept(visitor);
+		left.accept(visitor);
+		right.accept(visitor);
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
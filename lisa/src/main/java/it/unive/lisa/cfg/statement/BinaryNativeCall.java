@@ -1,5 +1,6 @@
 package it.unive.lisa.cfg.statement;
 
+import it.unive.lisa.analysis.AnalysisContext;
 import it.unive.lisa.analysis.AnalysisState;
 import it.unive.lisa.analysis.HeapDomain;
 import it.unive.lisa.analysis.SemanticException;
@@ -95,6 +96,7 @@ public abstract class BinaryNativeCall extends NativeCall {
 	public final <H extends HeapDomain<H>> AnalysisState<H, TypeEnvironment> callTypeInference(
 			AnalysisState<H, TypeEnvironment> computedState, CallGraph callGraph,
 			Collection<SymbolicExpression>[] params) throws SemanticException {
+		AnalysisContext context = callGraph.getContext();
 		AnalysisState<H, TypeEnvironment> result = null;
 		for (SymbolicExpression expr1 : params[0])
 			for (SymbolicExpression expr2 : params[1]) {
@@ -105,7 +107,7 @@ public abstract class BinaryNativeCall extends NativeCall {
 					result = result.lub(tmp);
 			}
 
-		setRuntimeTypes(result.getState().getValueState().getLastComputedTypes().getRuntimeTypes());
+		setRuntimeTypes(context, result.getState().getValueState().getLastComputedTypes().getRuntimeTypes());
 		return result;
 	}
 
@@ -1,10 +1,12 @@
 package it.unive.lisa.cfg.statement;
 
+import it.unive.lisa.analysis.AnalysisContext;
 import it.unive.lisa.analysis.AnalysisState;
 import it.unive.lisa.analysis.HeapDomain;
 import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.ValueDomain;
 import it.unive.lisa.analysis.impl.types.TypeEnvironment;
+import it.unive.lisa.caches.Caches;
 import it.unive.lisa.callgraph.CallGraph;
 import it.unive.lisa.cfg.CFG;
 import it.unive.lisa.cfg.type.Type;
@@ -180,19 +182,19 @@ public class CFGCall extends Call implements MetaVariableCreator {
 	}
 
 	@Override
-	public final Identifier getMetaVariable() {
-		return new ValueIdentifier(getRuntimeTypes(), "call_ret_value@" + offset);
+	public final Identifier getMetaVariable(AnalysisContext context) {
+		return Caches.expressions().intern(new ValueIdentifier(getRuntimeTypes(context), "call_ret_value@" + offset));
 	}
 
 	@Override
 	public <H extends HeapDomain<H>> AnalysisState<H, TypeEnvironment> callTypeInference(
 			AnalysisState<H, TypeEnvironment> computedState, CallGraph callGraph,
 			Collection<SymbolicExpression>[] params) throws SemanticException {
-		// this will contain only the information about the returned
-		// metavariable
+		AnalysisContext context = callGraph.getContext();
+		// this is the state of the caller after the call, and it contains the
+		// information about the returned metavariable
 		AnalysisState<H, TypeEnvironment> returned = callGraph.getAbstractResultOf(this, computedState, params);
-		// the lub will include the metavariable inside the state
-		AnalysisState<H, TypeEnvironment> lub = computedState.lub(returned).smallStepSemantics(new Skip());
+		AnalysisState<H, TypeEnvironment> lub = returned.smallStepSemantics(Skip.INSTANCE);
 
 		AnalysisState<H, TypeEnvironment> result = null;
 		if (getStaticType().isVoidType())
@@ -200,10 +202,10 @@ public class CFGCall extends Call implements MetaVariableCreator {
 			// the stack
 			result = lub;
 		else {
-			Identifier meta = getMetaVariable();
+			Identifier meta = getMetaVariable(context);
 			for (SymbolicExpression expr : returned.getComputedExpressions())
-				getMetaVariables().add((Identifier) expr);
-			getMetaVariables().add(meta);
+				getMetaVariables(context).add((Identifier) expr);
+			getMetaVariables(context).add(meta);
 
 			for (SymbolicExpression expr : lub.getComputedExpressions()) {
 				AnalysisState<H, TypeEnvironment> tmp = lub.assign(meta, expr);
@@ -214,7 +216,7 @@ public class CFGCall extends Call implements MetaVariableCreator {
 			}
 		}
 
-		setRuntimeTypes(result.getState().getValueState().getLastComputedTypes().getRuntimeTypes());
+		setRuntimeTypes(context, result.getState().getValueState().getLastComputedTypes().getRuntimeTypes());
 		return result;
 	}
 
@@ -222,25 +224,23 @@ public class CFGCall extends Call implements MetaVariableCreator {
 	public <H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<H, V> callSemantics(
 			AnalysisState<H, V> computedState, CallGraph callGraph, Collection<SymbolicExpression>[] params)
 			throws SemanticException {
-		// this will contain only the information about the returned
-		// metavariable
+		AnalysisContext context = callGraph.getContext();
+		// this is the state of the caller after the call, and it contains the
+		// information about the returned metavariable
 		AnalysisState<H, V> returned = callGraph.getAbstractResultOf(this, computedState, params);
-		// the lub will include the metavariable inside the state
-		AnalysisState<H, V> lub = computedState.lub(returned);
-
 		if (getStaticType().isVoidType())
 			// no need to add the meta variable since nothing has been pushed on
 			// the stack
-			return lub.smallStepSemantics(new Skip());
+			return returned.smallStepSemantics(Skip.INSTANCE);
 
-		Identifier meta = getMetaVariable();
+		Identifier meta = getMetaVariable(context);
 		for (SymbolicExpression expr : returned.getComputedExpressions())
-			getMetaVariables().add((Identifier) expr);
-		getMetaVariables().add(meta);
+			getMetaVariables(context).add((Identifier) expr);
+		getMetaVariables(context).add(meta);
 
 		AnalysisState<H, V> result = null;
-		for (SymbolicExpression expr : lub.getComputedExpressions()) {
-			AnalysisState<H, V> tmp = lub.assign(meta, expr);
+		for (SymbolicExpression expr : returned.getComputedExpressions()) {
+			AnalysisState<H, V> tmp = returned.assign(meta, expr);
 			if (result == null)
 				result = tmp;
 			else
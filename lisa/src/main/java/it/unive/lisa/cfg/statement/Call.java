@@ -1,5 +1,6 @@
 package it.unive.lisa.cfg.statement;
 
+import it.unive.lisa.analysis.AnalysisContext;
 import it.unive.lisa.analysis.AnalysisState;
 import it.unive.lisa.analysis.ExpressionStore;
 import it.unive.lisa.analysis.HeapDomain;
@@ -68,6 +69,13 @@ public abstract class Call extends Expression {
 		return off;
 	}
 
+	@Override
+	public void accept(StatementVisitor visitor) {
+		super.accept(visitor);
+		for (Expression param : parameters)
+			param.accept(visitor);
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -124,6 +132,7 @@ public abstract class Call extends Expression {
 	public final <H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<H, V> semantics(
 			AnalysisState<H, V> entryState, CallGraph callGraph, ExpressionStore<AnalysisState<H, V>> expressions)
 			throws SemanticException {
+		AnalysisContext context = callGraph.getContext();
 		@SuppressWarnings("unchecked")
 		Collection<SymbolicExpression>[] computed = new Collection[parameters.length];
 
@@ -136,8 +145,8 @@ public abstract class Call extends Expression {
 
 		AnalysisState<H, V> result = callSemantics(current, callGraph, computed);
 		for (Expression param : parameters)
-			if (!param.getMetaVariables().isEmpty())
-				result = result.forgetIdentifiers(param.getMetaVariables());
+			if (!param.getMetaVariables(context).isEmpty())
+				result = result.forgetIdentifiers(param.getMetaVariables(context));
 		return result;
 	}
 
@@ -167,6 +176,7 @@ public abstract class Call extends Expression {
 	public final <H extends HeapDomain<H>> AnalysisState<H, TypeEnvironment> typeInference(
 			AnalysisState<H, TypeEnvironment> entryState, CallGraph callGraph,
 			ExpressionStore<AnalysisState<H, TypeEnvironment>> expressions) throws SemanticException {
+		AnalysisContext context = callGraph.getContext();
 		@SuppressWarnings("unchecked")
 		Collection<SymbolicExpression>[] computed = new Collection[parameters.length];
 
@@ -179,8 +189,8 @@ public abstract class Call extends Expression {
 
 		AnalysisState<H, TypeEnvironment> result = callSemantics(current, callGraph, computed);
 		for (Expression param : parameters)
-			if (!param.getMetaVariables().isEmpty())
-				result = result.forgetIdentifiers(param.getMetaVariables());
+			if (!param.getMetaVariables(context).isEmpty())
+				result = result.forgetIdentifiers(param.getMetaVariables(context));
 		return result;
 	}
 
@@ -1,13 +1,12 @@
 package it.unive.lisa.cfg.statement;
 
-import it.unive.lisa.caches.Caches;
+import it.unive.lisa.analysis.AnalysisContext;
 import it.unive.lisa.cfg.CFG;
 import it.unive.lisa.cfg.type.Type;
 import it.unive.lisa.cfg.type.Untyped;
 import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.util.collections.ExternalSet;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Objects;
 
 /**
@@ -22,15 +21,6 @@ public abstract class Expression extends Statement {
 	 */
 	private final Type staticType;
 
-	private final ExternalSet<Type> runtimeTypes;
-
-	/**
-	 * The collection of meta variables that are generated by the evaluation of
-	 * this expression. These should be removed as soon as the values computed
-	 * by those gets out of scope (e.g., popped from the stack).
-	 */
-	private final Collection<Identifier> metaVariables;
-
 	/**
 	 * Builds an untyped expression happening at the given source location, that
 	 * is its type is {@link Untyped#INSTANCE}.
@@ -63,8 +53,6 @@ public abstract class Expression extends Statement {
 		super(cfg, sourceFile, line, col);
 		Objects.requireNonNull(staticType, "The expression type of a CFG cannot be null");
 		this.staticType = staticType;
-		this.metaVariables = new HashSet<>();
-		this.runtimeTypes = Caches.types().mkEmptySet();
 	}
 
 	/**
@@ -76,44 +64,48 @@ public abstract class Expression extends Statement {
 		return staticType;
 	}
 
+	@Override
+	public void accept(StatementVisitor visitor) {
+		visitor.visit(this);
+	}
+
 	/**
-	 * Sets the runtime types of this expression.
+	 * Sets the runtime types of this expression in the given context.
 	 * 
+	 * @param context      the context of the analysis
 	 * @param runtimeTypes the set of concrete types that this expression can
 	 *                         have at runtime
 	 */
-	protected final void setRuntimeTypes(ExternalSet<Type> runtimeTypes) {
-		if (this.runtimeTypes == runtimeTypes || this.runtimeTypes.equals(runtimeTypes))
-			return;
-
-		this.runtimeTypes.clear();
-		if (runtimeTypes != null && !runtimeTypes.isEmpty())
-			this.runtimeTypes.addAll(runtimeTypes);
+	protected final void setRuntimeTypes(AnalysisContext context, ExternalSet<Type> runtimeTypes) {
+		context.setRuntimeTypes(this, runtimeTypes);
 	}
 
 	/**
-	 * The concrete types that this expression can have at runtime. If type
-	 * inference has not been executed, this method returns a singleton set
-	 * containing the static type of this expression.
+	 * The concrete types that this expression can have at runtime, according
+	 * to the given context. If type inference has not been executed, this
+	 * method returns a singleton set containing the static type of this
+	 * expression.
+	 * 
+	 * @param context the context of the analysis
 	 * 
 	 * @return the set of runtime types
 	 */
-	public final ExternalSet<Type> getRuntimeTypes() {
-		if (runtimeTypes.isEmpty())
-			return Caches.types().mkSingletonSet(staticType);
-		return runtimeTypes;
+	public final ExternalSet<Type> getRuntimeTypes(AnalysisContext context) {
+		return context.getRuntimeTypes(this);
 	}
 
 	/**
 	 * Yields the dynamic type of this expression, that is, the most specific
 	 * common supertype of all its runtime types (available through
-	 * {@link #getRuntimeTypes()}.
+	 * {@link #getRuntimeTypes(AnalysisContext)}.
+	 * 
+	 * @param context the context of the analysis
 	 * 
 	 * @return the dynamic type of this expression
 	 */
-	public final Type getDynamicType() {
-		ExternalSet<Type> runtimes = getRuntimeTypes();
-		return runtimeTypes.reduce(runtimes.first(), (result, t) -> {
+	public final Type getDynamicType(AnalysisContext context) {
+		ExternalSet<Type> runtimes = getRuntimeTypes(context);
+		return runtimes.reduce(runtimes.first(), (result, t) -> {
 			if (result.canBeAssignedTo(t))
 				return t;
 			if (t.canBeAssignedTo(result))
@@ -124,17 +116,20 @@ public abstract class Expression extends Statement {
 
 	/**
 	 * Yields the meta variables that are generated by the evaluation of this
-	 * expression. These should be removed as soon as the values computed by
-	 * those gets out of scope (e.g., popped from the stack). The returned
-	 * collection will be filled while evaluating this expression
+	 * expression, according to the given context. These should be removed as
+	 * soon as the values computed by those gets out of scope (e.g., popped from
+	 * the stack). The returned collection will be filled while evaluating this
+	 * expression
 	 * {@link #semantics(it.unive.lisa.analysis.AnalysisState, it.unive.lisa.callgraph.CallGraph, it.unive.lisa.analysis.ExpressionStore)},
 	 * thus invoking this method before computing the semantics will yield an
 	 * empty collection.
 	 * 
+	 * @param context the context of the analysis
+	 * 
 	 * @return the meta variables
 	 */
-	public Collection<Identifier> getMetaVariables() {
-		return metaVariables;
+	public Collection<Identifier> getMetaVariables(AnalysisContext context) {
+		return context.getMetaVariables(this);
 	}
 
 	@Override
@@ -142,7 +137,6 @@ public abstract class Expression extends Statement {
 		final int prime = 31;
 		int result = super.hashCode();
 		result = prime * result + ((staticType == null) ? 0 : staticType.hashCode());
-		// we ignore the meta variables on purpose
 		return result;
 	}
 
@@ -160,7 +154,6 @@ public abstract class Expression extends Statement {
 				return false;
 		} else if (!staticType.equals(other.staticType))
 			return false;
-		// we ignore the meta variables on purpose
 		return true;
 	}
 }
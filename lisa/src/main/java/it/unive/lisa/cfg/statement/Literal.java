@@ -1,11 +1,13 @@
 package it.unive.lisa.cfg.statement;
 
+import it.unive.lisa.analysis.AnalysisContext;
 import it.unive.lisa.analysis.AnalysisState;
 import it.unive.lisa.analysis.ExpressionStore;
 import it.unive.lisa.analysis.HeapDomain;
 import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.ValueDomain;
 import it.unive.lisa.analysis.impl.types.TypeEnvironment;
+import it.unive.lisa.caches.Caches;
 import it.unive.lisa.callgraph.CallGraph;
 import it.unive.lisa.cfg.CFG;
 import it.unive.lisa.cfg.type.Type;
@@ -105,9 +107,10 @@ public class Literal extends Expression {
 	public <H extends HeapDomain<H>> AnalysisState<H, TypeEnvironment> typeInference(
 			AnalysisState<H, TypeEnvironment> entryState, CallGraph callGraph,
 			ExpressionStore<AnalysisState<H, TypeEnvironment>> expressions) throws SemanticException {
+		AnalysisContext context = callGraph.getContext();
 		AnalysisState<H, TypeEnvironment> typing = entryState
-				.smallStepSemantics(new Constant(getStaticType(), getValue()));
-		setRuntimeTypes(typing.getState().getValueState().getLastComputedTypes().getRuntimeTypes());
+				.smallStepSemantics(Caches.expressions().intern(new Constant(getStaticType(), getValue())));
+		setRuntimeTypes(context, typing.getState().getValueState().getLastComputedTypes().getRuntimeTypes());
 		return typing;
 	}
 
@@ -115,6 +118,6 @@ public class Literal extends Expression {
 	public <H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<H, V> semantics(
 			AnalysisState<H, V> entryState, CallGraph callGraph, ExpressionStore<AnalysisState<H, V>> expressions)
 			throws SemanticException {
-		return entryState.smallStepSemantics(new Constant(getStaticType(), getValue()));
+		return entryState.smallStepSemantics(Caches.expressions().intern(new Constant(getStaticType(), getValue())));
 	}
 }
@@ -1,5 +1,6 @@
 package it.unive.lisa.cfg.statement;
 
+import it.unive.lisa.analysis.AnalysisContext;
 import it.unive.lisa.symbolic.value.Identifier;
 
 /**
@@ -17,7 +18,10 @@ public interface MetaVariableCreator {
 	 * this object. Since the meta variable simulates a value pushed on the
 	 * stack, it should be forgotten after it is consumed.
 	 * 
+	 * @param context the context of the analysis, where the runtime types of
+	 *                    the value produced by this object are stored
+	 * 
 	 * @return the meta variable introduced by this object
 	 */
-	Identifier getMetaVariable();
+	Identifier getMetaVariable(AnalysisContext context);
 }
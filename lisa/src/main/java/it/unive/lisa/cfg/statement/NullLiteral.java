@@ -1,5 +1,6 @@
 package it.unive.lisa.cfg.statement;
 
+import it.unive.lisa.analysis.AnalysisContext;
 import it.unive.lisa.analysis.AnalysisState;
 import it.unive.lisa.analysis.ExpressionStore;
 import it.unive.lisa.analysis.HeapDomain;
@@ -56,8 +57,9 @@ public class NullLiteral extends Literal {
 	public <H extends HeapDomain<H>> AnalysisState<H, TypeEnvironment> typeInference(
 			AnalysisState<H, TypeEnvironment> entryState, CallGraph callGraph,
 			ExpressionStore<AnalysisState<H, TypeEnvironment>> expressions) throws SemanticException {
+		AnalysisContext context = callGraph.getContext();
 		AnalysisState<H, TypeEnvironment> typing = entryState.smallStepSemantics(NullConstant.INSTANCE);
-		setRuntimeTypes(typing.getState().getValueState().getLastComputedTypes().getRuntimeTypes());
+		setRuntimeTypes(context, typing.getState().getValueState().getLastComputedTypes().getRuntimeTypes());
 		return typing;
 	}
 
@@ -1,10 +1,12 @@
 package it.unive.lisa.cfg.statement;
 
+import it.unive.lisa.analysis.AnalysisContext;
 import it.unive.lisa.analysis.AnalysisState;
 import it.unive.lisa.analysis.HeapDomain;
 import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.ValueDomain;
 import it.unive.lisa.analysis.impl.types.TypeEnvironment;
+import it.unive.lisa.caches.Caches;
 import it.unive.lisa.callgraph.CallGraph;
 import it.unive.lisa.cfg.CFG;
 import it.unive.lisa.cfg.type.Type;
@@ -116,23 +118,25 @@ public class OpenCall extends Call implements MetaVariableCreator {
 	}
 
 	@Override
-	public final Identifier getMetaVariable() {
-		return new ValueIdentifier(getRuntimeTypes(), "open_call_ret_value@" + offset);
+	public final Identifier getMetaVariable(AnalysisContext context) {
+		return Caches.expressions()
+				.intern(new ValueIdentifier(getRuntimeTypes(context), "open_call_ret_value@" + offset));
 	}
 
 	@Override
 	public <H extends HeapDomain<H>> AnalysisState<H, TypeEnvironment> callTypeInference(
 			AnalysisState<H, TypeEnvironment> computedState, CallGraph callGraph,
 			Collection<SymbolicExpression>[] params) throws SemanticException {
+		AnalysisContext context = callGraph.getContext();
 		// TODO too coarse
 		AnalysisState<H, TypeEnvironment> poststate = computedState.top();
 
 		if (getStaticType().isVoidType())
-			poststate = poststate.smallStepSemantics(new Skip());
+			poststate = poststate.smallStepSemantics(Skip.INSTANCE);
 		else
-			poststate = poststate.smallStepSemantics(getMetaVariable());
+			poststate = poststate.smallStepSemantics(getMetaVariable(context));
 
-		setRuntimeTypes(poststate.getState().getValueState().getLastComputedTypes().getRuntimeTypes());
+		setRuntimeTypes(context, poststate.getState().getValueState().getLastComputedTypes().getRuntimeTypes());
 		return poststate;
 	}
 
@@ -144,8 +148,8 @@ public class OpenCall extends Call implements MetaVariableCreator {
 		AnalysisState<H, V> poststate = computedState.top();
 
 		if (getStaticType().isVoidType())
-			return poststate.smallStepSemantics(new Skip());
+			return poststate.smallStepSemantics(Skip.INSTANCE);
 		else
-			return poststate.smallStepSemantics(getMetaVariable());
+			return poststate.smallStepSemantics(getMetaVariable(callGraph.getContext()));
 	}
 }
@@ -72,13 +72,13 @@ public class Ret extends Statement {
 	public <H extends HeapDomain<H>> AnalysisState<H, TypeEnvironment> typeInference(
 			AnalysisState<H, TypeEnvironment> entryState, CallGraph callGraph,
 			ExpressionStore<AnalysisState<H, TypeEnvironment>> expressions) throws SemanticException {
-		return entryState.smallStepSemantics(new Skip());
+		return entryState.smallStepSemantics(Skip.INSTANCE);
 	}
 
 	@Override
 	public <H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<H, V> semantics(
 			AnalysisState<H, V> entryState, CallGraph callGraph, ExpressionStore<AnalysisState<H, V>> expressions)
 			throws SemanticException {
-		return entryState.smallStepSemantics(new Skip());
+		return entryState.smallStepSemantics(Skip.INSTANCE);
 	}
 }
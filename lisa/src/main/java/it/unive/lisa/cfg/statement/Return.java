@@ -1,11 +1,13 @@
 package it.unive.lisa.cfg.statement;
 
+import it.unive.lisa.analysis.AnalysisContext;
 import it.unive.lisa.analysis.AnalysisState;
 import it.unive.lisa.analysis.ExpressionStore;
 import it.unive.lisa.analysis.HeapDomain;
 import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.ValueDomain;
 import it.unive.lisa.analysis.impl.types.TypeEnvironment;
+import it.unive.lisa.caches.Caches;
 import it.unive.lisa.callgraph.CallGraph;
 import it.unive.lisa.cfg.CFG;
 import it.unive.lisa.symbolic.SymbolicExpression;
@@ -73,6 +75,12 @@ public class Return extends Statement implements MetaVariableCreator {
 		return expression.setOffset(offset + 1);
 	}
 
+	@Override
+	public void accept(StatementVisitor visitor) {
+		super.accept(visitor);
+		expression.accept(visitor);
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -102,19 +110,21 @@ public class Return extends Statement implements MetaVariableCreator {
 	}
 
 	@Override
-	public final Identifier getMetaVariable() {
-		return new ValueIdentifier(expression.getRuntimeTypes(), "ret_value@" + getCFG().getDescriptor().getName());
+	public final Identifier getMetaVariable(AnalysisContext context) {
+		return Caches.expressions().intern(new ValueIdentifier(expression.getRuntimeTypes(context),
+				"ret_value@" + getCFG().getDescriptor().getName()));
 	}
 
 	@Override
 	public <H extends HeapDomain<H>> AnalysisState<H, TypeEnvironment> typeInference(
 			AnalysisState<H, TypeEnvironment> entryState, CallGraph callGraph,
 			ExpressionStore<AnalysisState<H, TypeEnvironment>> expressions) throws SemanticException {
+		AnalysisContext context = callGraph.getContext();
 		AnalysisState<H, TypeEnvironment> exprResult = expression.typeInference(entryState, callGraph, expressions);
 		expressions.put(expression, exprResult);
 
 		AnalysisState<H, TypeEnvironment> result = null;
-		Identifier meta = getMetaVariable();
+		Identifier meta = getMetaVariable(context);
 		for (SymbolicExpression expr : exprResult.getComputedExpressions()) {
 			AnalysisState<H, TypeEnvironment> tmp = exprResult.assign(meta, expr);
 			if (result == null)
@@ -123,8 +133,8 @@ public class Return extends Statement implements MetaVariableCreator {
 				result = result.lub(tmp);
 		}
 
-		if (!expression.getMetaVariables().isEmpty())
-			result = result.forgetIdentifiers(expression.getMetaVariables());
+		if (!expression.getMetaVariables(context).isEmpty())
+			result = result.forgetIdentifiers(expression.getMetaVariables(context));
 		return result;
 	}
 
@@ -132,11 +142,12 @@ public class Return extends Statement implements MetaVariableCreator {
 	public <H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<H, V> semantics(
 			AnalysisState<H, V> entryState, CallGraph callGraph, ExpressionStore<AnalysisState<H, V>> expressions)
 			throws SemanticException {
+		AnalysisContext context = callGraph.getContext();
 		AnalysisState<H, V> exprResult = expression.semantics(entryState, callGraph, expressions);
 		expressions.put(expression, exprResult);
 
 		AnalysisState<H, V> result = null;
-		Identifier meta = getMetaVariable();
+		Identifier meta = getMetaVariable(context);
 		for (SymbolicExpression expr : exprResult.getComputedExpressions()) {
 			AnalysisState<H, V> tmp = exprResult.assign(meta, expr);
 			if (result == null)
@@ -145,8 +156,8 @@ public class Return extends Statement implements MetaVariableCreator {
 				result = result.lub(tmp);
 		}
 
-		if (!expression.getMetaVariables().isEmpty())
-			result = result.forgetIdentifiers(expression.getMetaVariables());
+		if (!expression.getMetaVariables(context).isEmpty())
+			result = result.forgetIdentifiers(expression.getMetaVariables(context));
 		return result;
 	}
 }
@@ -128,6 +128,17 @@ public abstract class Statement implements Comparable<Statement> {
 	 */
 	public abstract int setOffset(int offset);
 
+	/**
+	 * Lets the given visitor visit this statement and, after it, all the
+	 * expressions nested into it. Statements containing nested expressions must
+	 * override this method to make the visitor visit them as well.
+	 * 
+	 * @param visitor the visitor
+	 */
+	public void accept(StatementVisitor visitor) {
+		visitor.visit(this);
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -212,10 +223,11 @@ public abstract class Statement implements Comparable<Statement> {
 	 * nested {@link Expression}, saving the result of each call in
 	 * {@code expressions}. If this statement is an {@link Expression},
 	 * implementers of this method should call
-	 * {@link Expression#setRuntimeTypes(it.unive.lisa.util.collections.ExternalSet)}
+	 * {@link Expression#setRuntimeTypes(it.unive.lisa.analysis.AnalysisContext, it.unive.lisa.util.collections.ExternalSet)}
 	 * with the computed set of {@link Type}s embedded in {@link InferredTypes}
-	 * as parameter, in order to register the computed runtime types in the
-	 * expression.
+	 * as parameter, in order to register the computed runtime types of the
+	 * expression in the context of the analysis (available through
+	 * {@link CallGraph#getContext()}).
 	 * 
 	 * @param <H>         the concrete type of {@link HeapDomain} that is run
 	 *                        during the type inference
@@ -0,0 +1,27 @@
+package it.unive.lisa.cfg.statement;
+
+/**
+ * A visitor of {@link Statement}s and of the {@link Expression}s nested into
+ * them. Statements are visited through
+ * {@link Statement#accept(StatementVisitor)}, that lets each statement define
+ * which of its components need to be visited.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public interface StatementVisitor {
+
+	/**
+	 * Visits a statement that is not an {@link Expression}.
+	 * 
+	 * @param statement the statement to visit
+	 */
+	void visit(Statement statement);
+
+	/**
+	 * Visits an expression, either the root of a statement or nested into
+	 * another statement.
+	 * 
+	 * @param expression the expression to visit
+	 */
+	void visit(Expression expression);
+}
@@ -1,5 +1,6 @@
 package it.unive.lisa.cfg.statement;
 
+import it.unive.lisa.analysis.AnalysisContext;
 import it.unive.lisa.analysis.AnalysisState;
 import it.unive.lisa.analysis.ExpressionStore;
 import it.unive.lisa.analysis.HeapDomain;
@@ -70,6 +71,12 @@ public class Throw extends Statement {
 		return expression.setOffset(offset + 1);
 	}
 
+	@Override
+	public void accept(StatementVisitor visitor) {
+		super.accept(visitor);
+		expression.accept(visitor);
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -102,21 +109,23 @@ public class Throw extends Statement {
 	public <H extends HeapDomain<H>> AnalysisState<H, TypeEnvironment> typeInference(
 			AnalysisState<H, TypeEnvironment> entryState, CallGraph callGraph,
 			ExpressionStore<AnalysisState<H, TypeEnvironment>> expressions) throws SemanticException {
+		AnalysisContext context = callGraph.getContext();
 		AnalysisState<H, TypeEnvironment> result = expression.typeInference(entryState, callGraph, expressions);
 		expressions.put(expression, result);
-		if (!expression.getMetaVariables().isEmpty())
-			result = result.forgetIdentifiers(expression.getMetaVariables());
-		return result.smallStepSemantics(new Skip());
+		if (!expression.getMetaVariables(context).isEmpty())
+			result = result.forgetIdentifiers(expression.getMetaVariables(context));
+		return result.smallStepSemantics(Skip.INSTANCE);
 	}
 
 	@Override
 	public <H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<H, V> semantics(
 			AnalysisState<H, V> entryState, CallGraph callGraph, ExpressionStore<AnalysisState<H, V>> expressions)
 			throws SemanticException {
+		AnalysisContext context = callGraph.getContext();
 		AnalysisState<H, V> result = expression.semantics(entryState, callGraph, expressions);
 		expressions.put(expression, result);
-		if (!expression.getMetaVariables().isEmpty())
-			result = result.forgetIdentifiers(expression.getMetaVariables());
-		return result.smallStepSemantics(new Skip());
+		if (!expression.getMetaVariables(context).isEmpty())
+			result = result.forgetIdentifiers(expression.getMetaVariables(context));
+		return result.smallStepSemantics(Skip.INSTANCE);
 	}
 }
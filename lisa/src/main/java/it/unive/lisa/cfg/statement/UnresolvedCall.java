@@ -1,5 +1,6 @@
 package it.unive.lisa.cfg.statement;
 
+import it.unive.lisa.analysis.AnalysisContext;
 import it.unive.lisa.analysis.AnalysisState;
 import it.unive.lisa.analysis.HeapDomain;
 import it.unive.lisa.analysis.SemanticException;
@@ -105,10 +106,11 @@ public class UnresolvedCall extends Call {
 	public <H extends HeapDomain<H>> AnalysisState<H, TypeEnvironment> callTypeInference(
 			AnalysisState<H, TypeEnvironment> computedState, CallGraph callGraph,
 			Collection<SymbolicExpression>[] params) throws SemanticException {
+		AnalysisContext context = callGraph.getContext();
 		Call resolved = callGraph.resolve(this);
 		AnalysisState<H, TypeEnvironment> result = resolved.callTypeInference(computedState, callGraph, params);
-		getMetaVariables().addAll(resolved.getMetaVariables());
-		setRuntimeTypes(result.getState().getValueState().getLastComputedTypes().getRuntimeTypes());
+		getMetaVariables(context).addAll(resolved.getMetaVariables(context));
+		setRuntimeTypes(context, result.getState().getValueState().getLastComputedTypes().getRuntimeTypes());
 		return result;
 	}
 
@@ -116,20 +118,22 @@ public class UnresolvedCall extends Call {
 	public <H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<H, V> callSemantics(
 			AnalysisState<H, V> computedState, CallGraph callGraph, Collection<SymbolicExpression>[] params)
 			throws SemanticException {
+		AnalysisContext context = callGraph.getContext();
 		Call resolved = callGraph.resolve(this);
-		resolved.setRuntimeTypes(getRuntimeTypes());
+		resolved.setRuntimeTypes(context, getRuntimeTypes(context));
 		AnalysisState<H, V> result = resolved.callSemantics(computedState, callGraph, params);
-		getMetaVariables().addAll(resolved.getMetaVariables());
+		getMetaVariables(context).addAll(resolved.getMetaVariables(context));
 		return result;
 	}
 
 	/**
 	 * Updates this call's runtime types to match the ones of the given
-	 * expression.
+	 * expression, in the given context.
 	 * 
-	 * @param other the expression to inherit from
+	 * @param context the context of the analysis
+	 * @param other   the expression to inherit from
 	 */
-	public void inheritRuntimeTypesFrom(Expression other) {
-		setRuntimeTypes(other.getRuntimeTypes());
+	public void inheritRuntimeTypesFrom(AnalysisContext context, Expression other) {
+		setRuntimeTypes(context, other.getRuntimeTypes(context));
 	}
 }
@@ -1,11 +1,13 @@
 package it.unive.lisa.cfg.statement;
 
+import it.unive.lisa.analysis.AnalysisContext;
 import it.unive.lisa.analysis.AnalysisState;
 import it.unive.lisa.analysis.ExpressionStore;
 import it.unive.lisa.analysis.HeapDomain;
 import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.ValueDomain;
 import it.unive.lisa.analysis.impl.types.TypeEnvironment;
+import it.unive.lisa.caches.Caches;
 import it.unive.lisa.callgraph.CallGraph;
 import it.unive.lisa.cfg.CFG;
 import it.unive.lisa.cfg.type.Type;
@@ -116,15 +118,15 @@ public class Variable extends Expression {
 		return name;
 	}
 
-	private SymbolicExpression getVariable() {
+	private SymbolicExpression getVariable(AnalysisContext context) {
 		SymbolicExpression expr;
 		if (getStaticType().isPointerType())
 			// the smallStepSemantics will take care of converting that
 			// reference to a variable identifier
 			// setting also the identifier as computed expression
-			expr = new HeapReference(getRuntimeTypes(), getName());
+			expr = Caches.expressions().intern(new HeapReference(getRuntimeTypes(context), getName()));
 		else
-			expr = new ValueIdentifier(getRuntimeTypes(), getName());
+			expr = Caches.expressions().intern(new ValueIdentifier(getRuntimeTypes(context), getName()));
 		return expr;
 	}
 
@@ -132,18 +134,19 @@ public class Variable extends Expression {
 	public <H extends HeapDomain<H>> AnalysisState<H, TypeEnvironment> typeInference(
 			AnalysisState<H, TypeEnvironment> entryState, CallGraph callGraph,
 			ExpressionStore<AnalysisState<H, TypeEnvironment>> expressions) throws SemanticException {
-		AnalysisState<H, TypeEnvironment> typing = entryState.smallStepSemantics(getVariable());
-		setRuntimeTypes(typing.getState().getValueState().getLastComputedTypes().getRuntimeTypes());
+		AnalysisContext context = callGraph.getContext();
+		AnalysisState<H, TypeEnvironment> typing = entryState.smallStepSemantics(getVariable(context));
+		setRuntimeTypes(context, typing.getState().getValueState().getLastComputedTypes().getRuntimeTypes());
 		// we have to recreate the variable for it to have the correct typing
 		// information
-		return typing.smallStepSemantics(getVariable());
+		return typing.smallStepSemantics(getVariable(context));
 	}
 
 	@Override
 	public <H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<H, V> semantics(
 			AnalysisState<H, V> entryState, CallGraph callGraph, ExpressionStore<AnalysisState<H, V>> expressions)
 			throws SemanticException {
-		SymbolicExpression expr = getVariable();
+		SymbolicExpression expr = getVariable(callGraph.getContext());
 		return entryState.smallStepSemantics(expr);
 	}
 }
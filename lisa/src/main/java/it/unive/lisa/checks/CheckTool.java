@@ -11,6 +11,7 @@ import it.unive.lisa.checks.warnings.StatementWarning;
 import it.unive.lisa.checks.warnings.Warning;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -31,7 +32,33 @@ public class CheckTool {
 	 * Build the tool.
 	 */
 	public CheckTool() {
-		warnings = Collections.newSetFromMap(new ConcurrentHashMap<>());
+		this(Collections.newSetFromMap(new ConcurrentHashMap<>()));
+	}
+
+	private CheckTool(Collection<Warning> warnings) {
+		this.warnings = warnings;
+	}
+
+	/**
+	 * Yields a new tool that buffers the warnings it generates without any
+	 * synchronization, and that is thus meant to be used by a single thread at
+	 * a time. Warnings generated through the buffer can be later reported
+	 * through this tool with {@link #merge(CheckTool)}.
+	 * 
+	 * @return the buffer
+	 */
+	public CheckTool buffer() {
+		return new CheckTool(new HashSet<>());
+	}
+
+	/**
+	 * Reports, through this tool, all the warnings that have been generated by
+	 * the given one.
+	 * 
+	 * @param other the tool whose warnings are to be reported
+	 */
+	public void merge(CheckTool other) {
+		warnings.addAll(other.warnings);
 	}
 
 	/**
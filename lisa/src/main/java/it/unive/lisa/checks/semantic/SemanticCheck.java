@@ -0,0 +1,59 @@
+package it.unive.lisa.checks.semantic;
+
+import it.unive.lisa.analysis.CFGWithAnalysisResults;
+import it.unive.lisa.analysis.HeapDomain;
+import it.unive.lisa.analysis.ValueDomain;
+import it.unive.lisa.checks.CheckTool;
+
+/**
+ * A check that inspects the results of the semantic analysis of the program to
+ * report warnings about its behavior. Each {@link CFGWithAnalysisResults} is
+ * passed to the check as soon as the fixpoint over its cfg has been computed,
+ * so that the check can inspect the abstract state computed for each statement
+ * through
+ * {@link CFGWithAnalysisResults#getAnalysisStateAt(it.unive.lisa.cfg.statement.Statement)}
+ * before the results of the whole program are available. Different cfgs might
+ * be inspected in parallel: implementers of this interface should take care of
+ * sharing data between different callback calls <i>only</i> through thread-safe
+ * data structures.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public interface SemanticCheck {
+
+	/**
+	 * Callback invoked only once before the beginning of the analysis. Can be
+	 * used to setup common data structures.
+	 * 
+	 * @param tool the auxiliary tool that this check can use during the
+	 *                 execution
+	 */
+	void beforeExecution(CheckTool tool);
+
+	/**
+	 * Callback invoked when the fixpoint over a cfg has been computed. The
+	 * results should not be retained after this method returns, since LiSA
+	 * might be configured to discard them to bound the memory used by the
+	 * analysis.
+	 * 
+	 * @param <H>    the type of {@link HeapDomain} contained into the computed
+	 *                   abstract states
+	 * @param <V>    the type of {@link ValueDomain} contained into the computed
+	 *                   abstract states
+	 * @param tool   the auxiliary tool that this check can use during the
+	 *                   execution
+	 * @param result the cfg that has been analyzed, together with the abstract
+	 *                   states computed for each of its statements
+	 */
+	<H extends HeapDomain<H>, V extends ValueDomain<V>> void visitCFG(CheckTool tool,
+			CFGWithAnalysisResults<H, V> result);
+
+	/**
+	 * Callback invoked only once after the end of the analysis. Can be used to
+	 * perform cleanups or to report summary warnings.
+	 * 
+	 * @param tool the auxiliary tool that this check can use during the
+	 *                 execution
+	 */
+	void afterExecution(CheckTool tool);
+}
@@ -1,15 +1,22 @@
 package it.unive.lisa.checks.syntactic;
 
+import it.unive.lisa.AnalysisExecutionException;
 import it.unive.lisa.cfg.CFG;
-import it.unive.lisa.cfg.statement.Assignment;
-import it.unive.lisa.cfg.statement.Call;
+import it.unive.lisa.cfg.FrozenAdjacencyMatrix;
 import it.unive.lisa.cfg.statement.Expression;
-import it.unive.lisa.cfg.statement.Return;
 import it.unive.lisa.cfg.statement.Statement;
-import it.unive.lisa.cfg.statement.Throw;
+import it.unive.lisa.cfg.statement.StatementVisitor;
 import it.unive.lisa.checks.CheckTool;
+import it.unive.lisa.logging.Counter;
 import it.unive.lisa.logging.IterationLogger;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -23,51 +30,152 @@ public class SyntacticChecksExecutor {
 	private static final Logger log = LogManager.getLogger(SyntacticChecksExecutor.class);
 
 	/**
-	 * Executes all the given checks on the given inputs cfgs.
+	 * Executes all the given checks on the given inputs cfgs, one cfg at a
+	 * time.
 	 * 
 	 * @param tool   the auxiliary tool to be used during the checks execution
 	 * @param inputs the cfgs to analyze
 	 * @param checks the checks to execute
 	 */
 	public static void executeAll(CheckTool tool, Collection<CFG> inputs, Collection<SyntacticCheck> checks) {
+		executeAll(tool, inputs, checks, null);
+	}
+
+	/**
+	 * Executes all the given checks on the given inputs cfgs. If
+	 * {@code executor} is not {@code null}, different cfgs are inspected
+	 * concurrently. Warnings generated while inspecting each cfg are merged
+	 * into {@code tool} as soon as the cfg has been inspected.
+	 * 
+	 * @param tool     the auxiliary tool to be used during the checks execution
+	 * @param inputs   the cfgs to analyze
+	 * @param checks   the checks to execute
+	 * @param executor the executor to use for inspecting different cfgs, or
+	 *                     {@code null} to inspect them sequentially
+	 * 
+	 * @throws AnalysisExecutionException if the execution is interrupted
+	 */
+	public static void executeAll(CheckTool tool, Collection<CFG> inputs, Collection<SyntacticCheck> checks,
+			ExecutorService executor) {
+		executeAll(tool, inputs, checks, executor, tool::merge);
+	}
+
+	/**
+	 * Executes all the given checks on the given inputs cfgs. If
+	 * {@code executor} is not {@code null}, different cfgs are inspected
+	 * concurrently. Each cfg reports warnings to its own
+	 * {@link CheckTool#buffer() buffer}, that is passed to {@code consumer} as
+	 * soon as the cfg has been inspected and then discarded: warnings that are
+	 * not retained by {@code consumer} are not kept in memory. Only the
+	 * warnings generated in {@link SyntacticCheck#beforeExecution(CheckTool)}
+	 * and {@link SyntacticCheck#afterExecution(CheckTool)} are reported through
+	 * {@code tool}. If {@code executor} is not {@code null}, {@code consumer}
+	 * is invoked by the threads inspecting the cfgs, and it must thus be
+	 * thread-safe.
+	 * 
+	 * @param tool     the auxiliary tool to be used during the checks execution
+	 * @param inputs   the cfgs to analyze
+	 * @param checks   the checks to execute
+	 * @param executor the executor to use for inspecting different cfgs, or
+	 *                     {@code null} to inspect them sequentially
+	 * @param consumer the callback receiving the warnings generated on each
+	 *                     cfg
+	 * 
+	 * @throws AnalysisExecutionException if the execution is interrupted
+	 */
+	public static void executeAll(CheckTool tool, Collection<CFG> inputs, Collection<SyntacticCheck> checks,
+			ExecutorService executor, Consumer<CheckTool> consumer) {
 		checks.forEach(c -> c.beforeExecution(tool));
-		for (CFG cfg : IterationLogger.iterate(log, inputs, "Analyzing CFGs...", "CFGs"))
-			processCFG(tool, cfg, checks);
+
+		if (executor == null)
+			for (CFG cfg : IterationLogger.iterate(log, inputs, "Analyzing CFGs...", "CFGs"))
+				processCFG(tool, cfg, checks, consumer);
+		else
+			processConcurrently(tool, inputs, checks, executor, consumer);
+
 		checks.forEach(c -> c.afterExecution(tool));
 	}
 
-	private static void processCFG(CheckTool tool, CFG cfg, Collection<SyntacticCheck> checks) {
-		checks.forEach(c -> c.visitCFGDescriptor(tool, cfg.getDescriptor()));
+	private static void processConcurrently(CheckTool tool, Collection<CFG> inputs,
+			Collection<SyntacticCheck> checks, ExecutorService executor, Consumer<CheckTool> consumer) {
+		Counter counter = new Counter(log, Level.INFO, "Analyzing CFGs...", "CFGs", inputs.size(), 0.025);
+		List<Future<?>> tasks = new ArrayList<>(inputs.size());
+		counter.on();
+		try {
+			for (CFG cfg : inputs)
+				tasks.add(executor.submit(() -> {
+					processCFG(tool, cfg, checks, consumer);
+					counter.count();
+				}));
 
-		// TODO it would be much better with a visitor pattern
-		// so that new instances of statement/expression are forced to define
-		// how they get visited
-		// instead of adding new instances here
+			for (Future<?> task : tasks)
+				task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			tasks.forEach(t -> t.cancel(true));
+			throw new AnalysisExecutionException("Interrupted while executing the syntactic checks", e);
+		} catch (ExecutionException e) {
+			tasks.forEach(t -> t.cancel(true));
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new AnalysisExecutionException("Unexpected exception while executing the syntactic checks",
+					e.getCause());
+		} finally {
+			counter.off();
+		}
+	}
 
-		for (Statement st : cfg.getNodes())
-			if (st instanceof Expression)
-				processExpression(tool, checks, (Expression) st);
-			else
-				processStatement(tool, checks, st);
+	private static void processCFG(CheckTool tool, CFG cfg, Collection<SyntacticCheck> checks,
+			Consumer<CheckTool> consumer) {
+		CheckTool buffer = tool.buffer();
+		inspect(buffer, cfg, checks);
+		consumer.accept(buffer);
 	}
 
-	private static void processStatement(CheckTool tool, Collection<SyntacticCheck> checks, Statement st) {
-		checks.forEach(c -> c.visitStatement(tool, st));
+	private static void inspect(CheckTool tool, CFG cfg, Collection<SyntacticCheck> checks) {
+		checks.forEach(c -> c.visitCFGDescriptor(tool, cfg.getDescriptor()));
 
-		if (st instanceof Return)
-			processExpression(tool, checks, ((Return) st).getExpression());
-		else if (st instanceof Throw)
-			processExpression(tool, checks, ((Throw) st).getExpression());
+		ChecksVisitor visitor = new ChecksVisitor(tool, checks);
+		FrozenAdjacencyMatrix frozen = cfg.getFrozenView();
+		if (frozen == null)
+			for (Statement st : cfg.getNodes())
+				st.accept(visitor);
+		else
+			// the frozen view lets us visit the nodes following their offsets
+			for (int i = 0; i < frozen.getOffsetLimit(); i++) {
+				Statement st = frozen.getNodeAt(i);
+				if (st != null)
+					st.accept(visitor);
+			}
 	}
 
-	private static void processExpression(CheckTool tool, Collection<SyntacticCheck> checks, Expression expression) {
-		checks.forEach(c -> c.visitExpression(tool, expression));
+	/**
+	 * A visitor that invokes all the checks on each visited element, so that
+	 * each statement and expression is visited only once.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static final class ChecksVisitor implements StatementVisitor {
+
+		private final CheckTool tool;
+
+		private final Collection<SyntacticCheck> checks;
+
+		private ChecksVisitor(CheckTool tool, Collection<SyntacticCheck> checks) {
+			this.tool = tool;
+			this.checks = checks;
+		}
+
+		@Override
+		public void visit(Statement statement) {
+			for (SyntacticCheck check : checks)
+				check.visitStatement(tool, statement);
+		}
 
-		if (expression instanceof Assignment) {
-			processExpression(tool, checks, ((Assignment) expression).getLeft());
-			processExpression(tool, checks, ((Assignment) expression).getRight());
-		} else if (expression instanceof Call)
-			for (Expression param : ((Call) expression).getParameters())
-				processExpression(tool, checks, param);
+		@Override
+		public void visit(Expression expression) {
+			for (SyntacticCheck check : checks)
+				check.visitExpression(tool, expression);
+		}
 	}
 }
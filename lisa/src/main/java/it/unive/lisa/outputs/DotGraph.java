@@ -1,6 +1,7 @@
 package it.unive.lisa.outputs;
 
 import it.unive.lisa.cfg.CFG;
+import it.unive.lisa.cfg.FrozenAdjacencyMatrix;
 import it.unive.lisa.cfg.edge.FalseEdge;
 import it.unive.lisa.cfg.edge.TrueEdge;
 import it.unive.lisa.cfg.statement.Ret;
@@ -15,6 +16,7 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
@@ -35,7 +37,10 @@ import org.graphstream.stream.file.FileSourceDOT;
  * A graph build from a {@link CFG} that can be dumped in dot format, together
  * with a legend. Instances of this class can be created through
  * {@link #fromCFG(CFG, Function)}, or read from a file through
- * {@link #readDot(Reader)}.
+ * {@link #readDot(Reader)}. Since instances of this class hold the whole graph
+ * in memory, cfgs should be dumped through
+ * {@link #writeCFG(CFG, Function, Writer)}, that produces the same output
+ * without building the graph.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  */
@@ -67,6 +72,10 @@ public class DotGraph {
 
 	private static final String LABEL_ATTR = "label";
 
+	private static final String NL = System.lineSeparator();
+
+	private static final String LEGEND_LABEL = legendLabel();
+
 	private static String dotEscape(String extraLabel) {
 		String escapeHtml4 = StringEscapeUtils.escapeHtml4(extraLabel);
 		String replace = escapeHtml4.replaceAll("\\n", "<BR/>");
@@ -109,7 +118,7 @@ public class DotGraph {
 		n.setAttribute(LABEL_ATTR, "<" + label + extraLabel + ">");
 	}
 
-	private String nodeName(long id) {
+	private static String nodeName(long id) {
 		return "node" + id;
 	}
 
@@ -261,6 +270,107 @@ public class DotGraph {
 		return graph.toString();
 	}
 
+	/**
+	 * Dumps a {@link CFG} in dot format through the given {@link Writer},
+	 * together with a legend. The output is the same of
+	 * {@code fromCFG(cfg, labelGenerator).dumpDot(writer)}, but nodes and edges
+	 * are written as soon as they are visited, without building an intermediate
+	 * graph. If {@code cfg} is frozen, nodes are named after their offsets, and
+	 * no extra memory proportional to the size of the cfg is needed.
+	 * 
+	 * @param cfg            the cfg to export into dot format
+	 * @param labelGenerator the function used to generate extra labels
+	 * @param writer         the writer to use for dumping the graph
+	 * 
+	 * @throws IOException if an I/O error occurs while writing
+	 */
+	public static void writeCFG(CFG cfg, Function<Statement, String> labelGenerator, Writer writer)
+			throws IOException {
+		writeCFG(cfg, (st, output) -> output.append(labelGenerator.apply(st)), writer);
+	}
+
+	/**
+	 * Dumps a {@link CFG} in dot format through the given {@link Writer},
+	 * together with a legend. This method behaves as
+	 * {@link #writeCFG(CFG, Function, Writer)}, but the extra label of each
+	 * node is written by {@code labelWriter} directly into the output, that
+	 * escapes it on the fly.
+	 * 
+	 * @param cfg         the cfg to export into dot format
+	 * @param labelWriter the function used to write extra labels
+	 * @param writer      the writer to use for dumping the graph
+	 * 
+	 * @throws IOException if an I/O error occurs while writing
+	 */
+	public static void writeCFG(CFG cfg, LabelWriter labelWriter, Writer writer) throws IOException {
+		writer.write("digraph {" + NL);
+
+		FrozenAdjacencyMatrix frozen = cfg.getFrozenView();
+		Collection<Statement> entrypoints = cfg.getEntrypoints();
+		if (frozen != null) {
+			for (Statement st : entrypoints)
+				writeNode(writer, st.getOffset(), st, true, labelWriter);
+			for (int i = 0; i < frozen.getOffsetLimit(); i++) {
+				Statement st = frozen.getNodeAt(i);
+				if (st != null && !entrypoints.contains(st))
+					writeNode(writer, i, st, false, labelWriter);
+			}
+			for (int i = 0; i < frozen.getOffsetLimit(); i++)
+				if (frozen.getNodeAt(i) != null)
+					for (int slot = frozen.successorsStart(i); slot < frozen.successorsEnd(i); slot++)
+						writeEdge(writer, i, frozen.getSuccessor(slot), frozen.getSuccessorEdge(slot));
+		} else {
+			// without offsets, nodes have to be numbered explicitly
+			Map<Statement, Long> codes = new IdentityHashMap<>();
+			for (Statement st : entrypoints) {
+				codes.put(st, (long) codes.size());
+				writeNode(writer, codes.get(st), st, true, labelWriter);
+			}
+			for (Statement st : cfg.getNodes())
+				if (!entrypoints.contains(st)) {
+					codes.put(st, (long) codes.size());
+					writeNode(writer, codes.get(st), st, false, labelWriter);
+				}
+			for (Statement source : cfg.getNodes())
+				for (Statement dest : cfg.followersOf(source))
+					writeEdge(writer, codes.get(source), codes.get(dest), cfg.getEdgeConnecting(source, dest));
+		}
+
+		writer.write("subgraph cluster_legend {" + NL);
+		writer.write("\tlabel=\"Legend\";" + NL);
+		writer.write("\tstyle=dotted;" + NL);
+		writer.write("\tnode [shape=plaintext];" + NL);
+		writer.write("\t\"legend\" [" + LABEL_ATTR + "=" + LEGEND_LABEL + "];" + NL);
+		writer.write("}" + NL + NL);
+		writer.write("}" + NL);
+	}
+
+	private static void writeNode(Writer writer, long id, Statement st, boolean entry, LabelWriter labelWriter)
+			throws IOException {
+		boolean exit = st instanceof Return || st instanceof Ret || st instanceof Throw;
+		writer.write("\t\"" + nodeName(id) + "\" [" + SHAPE + "=\"" + NODE_SHAPE + "\",");
+		writer.write(COLOR + "=\"" + (entry || exit ? SPECIAL_NODE_COLOR : NORMAL_NODE_COLOR) + "\",");
+		if (exit)
+			writer.write(EXIT_NODE_EXTRA_ATTR + "=\"" + EXIT_NODE_EXTRA_VALUE + "\",");
+		writer.write(LABEL_ATTR + "=<");
+		new EscapingAppendable(writer, null).append(st.toString());
+		// the line break is written only if the extra label is not empty
+		labelWriter.write(st, new EscapingAppendable(writer, "<BR/>"));
+		writer.write(">];" + NL);
+	}
+
+	private static void writeEdge(Writer writer, long source, long dest, it.unive.lisa.cfg.edge.Edge edge)
+			throws IOException {
+		writer.write("\t\"" + nodeName(source) + "\" -> \"" + nodeName(dest) + "\" [" + COLOR + "=\"");
+		if (edge instanceof TrueEdge)
+			writer.write(TRUE_EDGE_COLOR + "\"," + STYLE + "=\"" + CONDITIONAL_EDGE_STYLE);
+		else if (edge instanceof FalseEdge)
+			writer.write(FALSE_EDGE_COLOR + "\"," + STYLE + "=\"" + CONDITIONAL_EDGE_STYLE);
+		else
+			writer.write(SEQUENTIAL_EDGE_COLOR);
+		writer.write("\"];" + NL);
+	}
+
 	/**
 	 * Builds a {@link DotGraph} from a {@link CFG}. The label of a node
 	 * representing a statement {@code st} will be composed by joining
@@ -339,52 +449,144 @@ public class DotGraph {
 		return graph;
 	}
 
+	private static String legendLabel() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("<");
+		builder.append("<table border=\"0\" cellpadding=\"2\" cellspacing=\"0\" cellborder=\"0\">");
+		builder.append("<tr><td align=\"right\">node border&nbsp;</td><td align=\"left\"><font color=\"");
+		builder.append(NORMAL_NODE_COLOR);
+		builder.append("\">");
+		builder.append(NORMAL_NODE_COLOR);
+		builder.append("</font>, single</td></tr>");
+		builder.append("<tr><td align=\"right\">entrypoint border&nbsp;</td><td align=\"left\"><font color=\"");
+		builder.append(SPECIAL_NODE_COLOR);
+		builder.append("\">");
+		builder.append(SPECIAL_NODE_COLOR);
+		builder.append("</font>, single</td></tr>");
+		builder.append("<tr><td align=\"right\">exitpoint border&nbsp;</td><td align=\"left\"><font color=\"");
+		builder.append(SPECIAL_NODE_COLOR);
+		builder.append("\">");
+		builder.append(SPECIAL_NODE_COLOR);
+		builder.append("</font>, double</td></tr>");
+		builder.append("<tr><td align=\"right\">sequential edge&nbsp;</td><td align=\"left\"><font color=\"");
+		builder.append(SEQUENTIAL_EDGE_COLOR);
+		builder.append("\">");
+		builder.append(SEQUENTIAL_EDGE_COLOR);
+		builder.append("</font>, solid</td></tr>");
+		builder.append("<tr><td align=\"right\">true edge&nbsp;</td><td align=\"left\"><font color=\"");
+		builder.append(TRUE_EDGE_COLOR);
+		builder.append("\">");
+		builder.append(TRUE_EDGE_COLOR);
+		builder.append("</font>, ");
+		builder.append(CONDITIONAL_EDGE_STYLE);
+		builder.append("</td></tr>");
+		builder.append("<tr><td align=\"right\">false edge&nbsp;</td><td align=\"left\"><font color=\"");
+		builder.append(FALSE_EDGE_COLOR);
+		builder.append("\">");
+		builder.append(FALSE_EDGE_COLOR);
+		builder.append("</font>, ");
+		builder.append(CONDITIONAL_EDGE_STYLE);
+		builder.append("</td></tr>");
+		builder.append("</table>");
+		builder.append(">");
+		return builder.toString();
+	}
+
+	/**
+	 * An object that writes the extra label of a node.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	@FunctionalInterface
+	public interface LabelWriter {
+
+		/**
+		 * Writes the extra label of the node representing the given statement.
+		 * 
+		 * @param st     the statement
+		 * @param output the appendable to write the label to
+		 * 
+		 * @throws IOException if an I/O error occurs while writing
+		 */
+		void write(Statement st, Appendable output) throws IOException;
+	}
+
+	/**
+	 * An {@link Appendable} that escapes the characters appended to it in the
+	 * same way as {@link DotGraph#dotEscape(String)}, writing them to a
+	 * {@link Writer}. A prefix can be provided, that is written before the
+	 * first character only if some character is appended.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static final class EscapingAppendable implements Appendable {
+
+		private final Writer writer;
+
+		private String prefix;
+
+		private EscapingAppendable(Writer writer, String prefix) {
+			this.writer = writer;
+			this.prefix = prefix;
+		}
+
+		@Override
+		public Appendable append(CharSequence csq) throws IOException {
+			return append(csq, 0, csq.length());
+		}
+
+		@Override
+		public Appendable append(CharSequence csq, int start, int end) throws IOException {
+			for (int i = start; i < end; i++)
+				append(csq.charAt(i));
+			return this;
+		}
+
+		@Override
+		public Appendable append(char c) throws IOException {
+			if (prefix != null) {
+				writer.write(prefix);
+				prefix = null;
+			}
+
+			switch (c) {
+			case '\n':
+				writer.write("<BR/>");
+				break;
+			case '\\':
+				writer.write("\\\\");
+				break;
+			case '&':
+				writer.write("&amp;");
+				break;
+			case '<':
+				writer.write("&lt;");
+				break;
+			case '>':
+				writer.write("&gt;");
+				break;
+			case '"':
+				writer.write("&quot;");
+				break;
+			default:
+				if (c < 0x80)
+					writer.write(c);
+				else
+					// non-ascii characters might have named entities
+					writer.write(StringEscapeUtils.escapeHtml4(String.valueOf(c)));
+				break;
+			}
+			return this;
+		}
+	}
+
 	private static class Legend {
 		private final Graph graph;
 
 		private Legend() {
 			graph = new MultiGraph("legend");
 			Node l = graph.addNode("legend");
-			StringBuilder builder = new StringBuilder();
-			builder.append("<");
-			builder.append("<table border=\"0\" cellpadding=\"2\" cellspacing=\"0\" cellborder=\"0\">");
-			builder.append("<tr><td align=\"right\">node border&nbsp;</td><td align=\"left\"><font color=\"");
-			builder.append(NORMAL_NODE_COLOR);
-			builder.append("\">");
-			builder.append(NORMAL_NODE_COLOR);
-			builder.append("</font>, single</td></tr>");
-			builder.append("<tr><td align=\"right\">entrypoint border&nbsp;</td><td align=\"left\"><font color=\"");
-			builder.append(SPECIAL_NODE_COLOR);
-			builder.append("\">");
-			builder.append(SPECIAL_NODE_COLOR);
-			builder.append("</font>, single</td></tr>");
-			builder.append("<tr><td align=\"right\">exitpoint border&nbsp;</td><td align=\"left\"><font color=\"");
-			builder.append(SPECIAL_NODE_COLOR);
-			builder.append("\">");
-			builder.append(SPECIAL_NODE_COLOR);
-			builder.append("</font>, double</td></tr>");
-			builder.append("<tr><td align=\"right\">sequential edge&nbsp;</td><td align=\"left\"><font color=\"");
-			builder.append(SEQUENTIAL_EDGE_COLOR);
-			builder.append("\">");
-			builder.append(SEQUENTIAL_EDGE_COLOR);
-			builder.append("</font>, solid</td></tr>");
-			builder.append("<tr><td align=\"right\">true edge&nbsp;</td><td align=\"left\"><font color=\"");
-			builder.append(TRUE_EDGE_COLOR);
-			builder.append("\">");
-			builder.append(TRUE_EDGE_COLOR);
-			builder.append("</font>, ");
-			builder.append(CONDITIONAL_EDGE_STYLE);
-			builder.append("</td></tr>");
-			builder.append("<tr><td align=\"right\">false edge&nbsp;</td><td align=\"left\"><font color=\"");
-			builder.append(FALSE_EDGE_COLOR);
-			builder.append("\">");
-			builder.append(FALSE_EDGE_COLOR);
-			builder.append("</font>, ");
-			builder.append(CONDITIONAL_EDGE_STYLE);
-			builder.append("</td></tr>");
-			builder.append("</table>");
-			builder.append(">");
-			l.setAttribute("label", builder.toString());
+			l.setAttribute("label", LEGEND_LABEL);
 		}
 	}
 
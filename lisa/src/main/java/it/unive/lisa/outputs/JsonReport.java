@@ -1,15 +1,19 @@
 package it.unive.lisa.outputs;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import it.unive.lisa.checks.warnings.CFGDesccriptorWarning;
+import it.unive.lisa.checks.warnings.CFGWarning;
+import it.unive.lisa.checks.warnings.StatementWarning;
 import it.unive.lisa.checks.warnings.Warning;
+import it.unive.lisa.checks.warnings.WarningWithLocation;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
+import org.apache.commons.lang3.StringUtils;
 
 /**
  * A report of an executed analysis that can be dumped in json format, and that
@@ -19,6 +23,12 @@ import java.util.TreeSet;
  */
 public class JsonReport {
 
+	/**
+	 * The name of the report file created by LiSA, relative to the workdir of
+	 * the analysis or to the root of its output archive
+	 */
+	public static final String REPORT_FILE = "report.json";
+
 	private final Set<JsonWarning> warnings;
 
 	private final Set<String> files;
@@ -43,6 +53,18 @@ public class JsonReport {
 			this.warnings.add(new JsonWarning(warn));
 	}
 
+	/**
+	 * Builds the report, containing the given warnings and files. The given
+	 * sets are not copied.
+	 * 
+	 * @param warnings the warnings to include
+	 * @param files    the file names to include
+	 */
+	JsonReport(Set<JsonWarning> warnings, Set<String> files) {
+		this.warnings = warnings;
+		this.files = files;
+	}
+
 	/**
 	 * Yields the collection of {@link JsonWarning}s contained into this report.
 	 * 
@@ -67,21 +89,25 @@ public class JsonReport {
 
 	/**
 	 * Dumps this report to the given {@link Writer} instance, serializing it as
-	 * a json object.
+	 * a json object through a {@link JsonReportWriter}. The writer is closed
+	 * after the report has been dumped.
 	 * 
 	 * @param writer the writer to write to
 	 * 
 	 * @throws IOException if some I/O error happens while writing to the writer
 	 */
 	public void dump(Writer writer) throws IOException {
-		ObjectMapper mapper = new ObjectMapper();
-		mapper.configure(SerializationFeature.INDENT_OUTPUT, true);
-		mapper.writeValue(writer, this);
+		try (JsonReportWriter report = new JsonReportWriter(writer)) {
+			for (JsonWarning warning : warnings)
+				report.write(warning);
+			report.writeFiles(files);
+		}
 	}
 
 	/**
 	 * Reads a {@link JsonReport} from a {@link Reader} instance, deserializing
-	 * it as a json object.
+	 * it as a json object through a {@link JsonReportReader}. The reader is
+	 * closed after the report has been read.
 	 * 
 	 * @param reader the reader to read from
 	 * 
@@ -91,8 +117,9 @@ public class JsonReport {
 	 *                         reader
 	 */
 	public static JsonReport read(Reader reader) throws IOException {
-		ObjectMapper mapper = new ObjectMapper();
-		return mapper.readValue(reader, JsonReport.class);
+		try (JsonReportReader report = new JsonReportReader(reader)) {
+			return report.read();
+		}
 	}
 
 	@Override
@@ -126,18 +153,43 @@ public class JsonReport {
 	}
 
 	/**
-	 * A warning that is ready to dump into a {@link JsonReport}.
+	 * A warning that is ready to dump into a {@link JsonReport}. Instead of a
+	 * preformatted message, the warning is made of structured fields: the
+	 * location of the warning (source file, line and column), the signature of
+	 * the cfg it refers to, and its tag. Fields that are not available for a
+	 * given warning are left unset.
 	 * 
 	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
 	 */
 	public static class JsonWarning implements Comparable<JsonWarning> {
 
+		/**
+		 * The value of {@link #getLine()} and {@link #getCol()} for warnings
+		 * that do not have a location
+		 */
+		public static final int NO_POSITION = -1;
+
+		private String file;
+
+		private int line;
+
+		private int col;
+
+		private String cfg;
+
+		private String tag;
+
 		private String message;
 
 		/**
 		 * Builds an empty warning with no message.
 		 */
 		public JsonWarning() {
+			this.file = null;
+			this.line = NO_POSITION;
+			this.col = NO_POSITION;
+			this.cfg = null;
+			this.tag = null;
 			this.message = null;
 		}
 
@@ -148,7 +200,114 @@ public class JsonReport {
 		 * @param warning the warning to clone
 		 */
 		public JsonWarning(Warning warning) {
-			this.message = warning.toString();
+			this();
+			this.tag = warning.getTag();
+			this.message = warning.getMessage();
+
+			if (warning instanceof WarningWithLocation) {
+				WarningWithLocation located = (WarningWithLocation) warning;
+				this.file = located.getSourceFile();
+				this.line = located.getLine();
+				this.col = located.getCol();
+			}
+
+			if (warning instanceof CFGWarning)
+				this.cfg = ((CFGWarning) warning).getCFG().getDescriptor().getFullSignature();
+			else if (warning instanceof CFGDesccriptorWarning)
+				this.cfg = ((CFGDesccriptorWarning) warning).getDescriptor().getFullSignature();
+			else if (warning instanceof StatementWarning)
+				this.cfg = ((StatementWarning) warning).getStatement().getCFG().getDescriptor().getFullSignature();
+		}
+
+		/**
+		 * Yields the source file where the warning was raised, if any.
+		 * 
+		 * @return the source file, or {@code null}
+		 */
+		public String getFile() {
+			return file;
+		}
+
+		/**
+		 * Sets the source file where the warning was raised.
+		 * 
+		 * @param file the source file
+		 */
+		public void setFile(String file) {
+			this.file = file;
+		}
+
+		/**
+		 * Yields the line where the warning was raised, if any.
+		 * 
+		 * @return the line, or {@link #NO_POSITION}
+		 */
+		public int getLine() {
+			return line;
+		}
+
+		/**
+		 * Sets the line where the warning was raised.
+		 * 
+		 * @param line the line
+		 */
+		public void setLine(int line) {
+			this.line = line;
+		}
+
+		/**
+		 * Yields the column where the warning was raised, if any.
+		 * 
+		 * @return the column, or {@link #NO_POSITION}
+		 */
+		public int getCol() {
+			return col;
+		}
+
+		/**
+		 * Sets the column where the warning was raised.
+		 * 
+		 * @param col the column
+		 */
+		public void setCol(int col) {
+			this.col = col;
+		}
+
+		/**
+		 * Yields the full signature of the cfg the warning refers to, if any.
+		 * 
+		 * @return the signature of the cfg, or {@code null}
+		 */
+		public String getCfg() {
+			return cfg;
+		}
+
+		/**
+		 * Sets the full signature of the cfg the warning refers to.
+		 * 
+		 * @param cfg the signature of the cfg
+		 */
+		public void setCfg(String cfg) {
+			this.cfg = cfg;
+		}
+
+		/**
+		 * Yields the tag of this warning, identifying the kind of program
+		 * component it was raised on.
+		 * 
+		 * @return the tag
+		 */
+		public String getTag() {
+			return tag;
+		}
+
+		/**
+		 * Sets the tag of this warning.
+		 * 
+		 * @param tag the tag
+		 */
+		public void setTag(String tag) {
+			this.tag = tag;
 		}
 
 		/**
@@ -171,14 +330,26 @@ public class JsonReport {
 
 		@Override
 		public String toString() {
-			return getMessage();
+			StringBuilder builder = new StringBuilder();
+			if (file != null || line != NO_POSITION || col != NO_POSITION)
+				builder.append("['").append(file).append("':").append(line).append(":").append(col).append("] ");
+			if (cfg != null)
+				builder.append("on '").append(cfg).append("': ");
+			if (tag != null)
+				builder.append("[").append(tag).append("] ");
+			return builder.append(message).toString();
 		}
 
 		@Override
 		public int hashCode() {
 			final int prime = 31;
 			int result = 1;
+			result = prime * result + ((cfg == null) ? 0 : cfg.hashCode());
+			result = prime * result + col;
+			result = prime * result + ((file == null) ? 0 : file.hashCode());
+			result = prime * result + line;
 			result = prime * result + ((message == null) ? 0 : message.hashCode());
+			result = prime * result + ((tag == null) ? 0 : tag.hashCode());
 			return result;
 		}
 
@@ -191,17 +362,31 @@ public class JsonReport {
 			if (getClass() != obj.getClass())
 				return false;
 			JsonWarning other = (JsonWarning) obj;
-			if (message == null) {
-				if (other.message != null)
-					return false;
-			} else if (!message.equals(other.message))
-				return false;
-			return true;
+			return line == other.line && col == other.col && Objects.equals(file, other.file)
+					&& Objects.equals(cfg, other.cfg) && Objects.equals(tag, other.tag)
+					&& Objects.equals(message, other.message);
 		}
 
 		@Override
 		public int compareTo(JsonWarning o) {
-			return message.compareTo(o.message);
+			int cmp;
+
+			if ((cmp = StringUtils.compare(file, o.file)) != 0)
+				return cmp;
+
+			if ((cmp = Integer.compare(line, o.line)) != 0)
+				return cmp;
+
+			if ((cmp = Integer.compare(col, o.col)) != 0)
+				return cmp;
+
+			if ((cmp = StringUtils.compare(cfg, o.cfg)) != 0)
+				return cmp;
+
+			if ((cmp = StringUtils.compare(tag, o.tag)) != 0)
+				return cmp;
+
+			return StringUtils.compare(message, o.message);
 		}
 	}
 }
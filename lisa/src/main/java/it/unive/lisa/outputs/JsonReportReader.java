@@ -0,0 +1,161 @@
+package it.unive.lisa.outputs;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import it.unive.lisa.outputs.JsonReport.JsonWarning;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A reader that parses a {@link JsonReport} token by token, without building an
+ * intermediate tree of the json object. This reader accepts the reports
+ * produced by a {@link JsonReportWriter}: unknown fields are skipped, and
+ * missing fields of warnings are left unset.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class JsonReportReader implements Closeable {
+
+	/**
+	 * The name of the field holding the warnings of the report
+	 */
+	static final String WARNINGS = "warnings";
+
+	/**
+	 * The name of the field holding the generated files of the report
+	 */
+	static final String FILES = "files";
+
+	/**
+	 * The name of the field holding the source file of a warning
+	 */
+	static final String FILE = "file";
+
+	/**
+	 * The name of the field holding the line of a warning
+	 */
+	static final String LINE = "line";
+
+	/**
+	 * The name of the field holding the column of a warning
+	 */
+	static final String COL = "col";
+
+	/**
+	 * The name of the field holding the cfg signature of a warning
+	 */
+	static final String CFG = "cfg";
+
+	/**
+	 * The name of the field holding the tag of a warning
+	 */
+	static final String TAG = "tag";
+
+	/**
+	 * The name of the field holding the message of a warning
+	 */
+	static final String MESSAGE = "message";
+
+	private final JsonParser parser;
+
+	/**
+	 * Builds the reader.
+	 * 
+	 * @param reader the reader to read from, that will be closed when this
+	 *                   reader is closed
+	 * 
+	 * @throws IOException if some I/O error happens while reading from the
+	 *                         reader
+	 */
+	public JsonReportReader(Reader reader) throws IOException {
+		this.parser = new JsonFactory().createParser(reader);
+	}
+
+	/**
+	 * Reads the report.
+	 * 
+	 * @return the read report
+	 * 
+	 * @throws IOException if some I/O error happens while reading from the
+	 *                         reader, or if its contents are not a valid report
+	 */
+	public JsonReport read() throws IOException {
+		Set<JsonWarning> warnings = new TreeSet<>();
+		Set<String> files = new TreeSet<>();
+
+		expect(parser.nextToken(), JsonToken.START_OBJECT);
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			JsonToken value = parser.nextToken();
+			if (WARNINGS.equals(field)) {
+				expect(value, JsonToken.START_ARRAY);
+				while (parser.nextToken() != JsonToken.END_ARRAY)
+					warnings.add(readWarning());
+			} else if (FILES.equals(field)) {
+				expect(value, JsonToken.START_ARRAY);
+				while (parser.nextToken() != JsonToken.END_ARRAY)
+					files.add(readString());
+			} else
+				parser.skipChildren();
+		}
+		expect(parser.currentToken(), JsonToken.END_OBJECT);
+
+		return new JsonReport(warnings, files);
+	}
+
+	private JsonWarning readWarning() throws IOException {
+		expect(parser.currentToken(), JsonToken.START_OBJECT);
+		JsonWarning warning = new JsonWarning();
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			parser.nextToken();
+			switch (field) {
+			case FILE:
+				warning.setFile(readString());
+				break;
+			case LINE:
+				warning.setLine(parser.getValueAsInt(JsonWarning.NO_POSITION));
+				break;
+			case COL:
+				warning.setCol(parser.getValueAsInt(JsonWarning.NO_POSITION));
+				break;
+			case CFG:
+				warning.setCfg(readString());
+				break;
+			case TAG:
+				warning.setTag(readString());
+				break;
+			case MESSAGE:
+				warning.setMessage(readString());
+				break;
+			default:
+				parser.skipChildren();
+				break;
+			}
+		}
+		expect(parser.currentToken(), JsonToken.END_OBJECT);
+		return warning;
+	}
+
+	private String readString() throws IOException {
+		if (parser.currentToken() == JsonToken.VALUE_NULL)
+			return null;
+		expect(parser.currentToken(), JsonToken.VALUE_STRING);
+		return parser.getText();
+	}
+
+	private void expect(JsonToken actual, JsonToken expected) throws JsonParseException {
+		if (actual != expected)
+			throw new JsonParseException(parser, "Expected " + expected + " but found " + actual);
+	}
+
+	@Override
+	public void close() throws IOException {
+		parser.close();
+	}
+}
@@ -0,0 +1,133 @@
+package it.unive.lisa.outputs;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import it.unive.lisa.checks.warnings.Warning;
+import it.unive.lisa.outputs.JsonReport.JsonWarning;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * A writer that dumps a {@link JsonReport} incrementally, without holding its
+ * contents in memory. Warnings are appended to the report as soon as they are
+ * passed to {@link #write(Warning)}, while the names of the generated files are
+ * written through {@link #writeFiles(Collection)} once all warnings have been
+ * written. The json object is completed when this writer is closed. All methods
+ * are synchronized, so that warnings coming from different threads can be
+ * written through the same instance.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class JsonReportWriter implements Closeable {
+
+	private final JsonGenerator generator;
+
+	private boolean filesWritten;
+
+	/**
+	 * Builds the writer, starting the json object representing the report.
+	 * 
+	 * @param writer the writer to write to, that will be closed when this
+	 *                   writer is closed
+	 * 
+	 * @throws IOException if some I/O error happens while writing to the writer
+	 */
+	public JsonReportWriter(Writer writer) throws IOException {
+		this.generator = new JsonFactory().createGenerator(writer).useDefaultPrettyPrinter();
+		this.filesWritten = false;
+		generator.writeStartObject();
+		generator.writeArrayFieldStart(JsonReportReader.WARNINGS);
+	}
+
+	/**
+	 * Appends the given warning to the report.
+	 * 
+	 * @param warning the warning to write
+	 * 
+	 * @throws IOException           if some I/O error happens while writing to
+	 *                                   the writer
+	 * @throws IllegalStateException if the generated files have already been
+	 *                                   written
+	 */
+	public synchronized void write(Warning warning) throws IOException {
+		write(new JsonWarning(warning));
+	}
+
+	/**
+	 * Appends the given warning to the report.
+	 * 
+	 * @param warning the warning to write
+	 * 
+	 * @throws IOException           if some I/O error happens while writing to
+	 *                                   the writer
+	 * @throws IllegalStateException if the generated files have already been
+	 *                                   written
+	 */
+	public synchronized void write(JsonWarning warning) throws IOException {
+		if (filesWritten)
+			throw new IllegalStateException("Cannot write warnings after the generated files");
+
+		generator.writeStartObject();
+		if (warning.getFile() != null)
+			generator.writeStringField(JsonReportReader.FILE, warning.getFile());
+		if (warning.getLine() != JsonWarning.NO_POSITION)
+			generator.writeNumberField(JsonReportReader.LINE, warning.getLine());
+		if (warning.getCol() != JsonWarning.NO_POSITION)
+			generator.writeNumberField(JsonReportReader.COL, warning.getCol());
+		if (warning.getCfg() != null)
+			generator.writeStringField(JsonReportReader.CFG, warning.getCfg());
+		if (warning.getTag() != null)
+			generator.writeStringField(JsonReportReader.TAG, warning.getTag());
+		generator.writeStringField(JsonReportReader.MESSAGE, warning.getMessage());
+		generator.writeEndObject();
+	}
+
+	/**
+	 * Writes the names of the files generated during the analysis, closing the
+	 * collection of warnings. After this method has been invoked, no more
+	 * warnings can be written.
+	 * 
+	 * @param files the names of the generated files, relative to the workdir of
+	 *                  the analysis
+	 * 
+	 * @throws IOException           if some I/O error happens while writing to
+	 *                                   the writer
+	 * @throws IllegalStateException if the generated files have already been
+	 *                                   written
+	 */
+	public synchronized void writeFiles(Collection<String> files) throws IOException {
+		if (filesWritten)
+			throw new IllegalStateException("The generated files have already been written");
+
+		filesWritten = true;
+		generator.writeEndArray();
+		generator.writeArrayFieldStart(JsonReportReader.FILES);
+		for (String file : files)
+			generator.writeString(file);
+		generator.writeEndArray();
+	}
+
+	/**
+	 * Completes the json object representing the report and closes the
+	 * underlying writer. If {@link #writeFiles(Collection)} has not been
+	 * invoked, the report will contain no generated files.
+	 * 
+	 * @throws IOException if some I/O error happens while writing to the writer
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (generator.isClosed())
+			return;
+
+		try {
+			if (!filesWritten)
+				writeFiles(Collections.emptyList());
+			generator.writeEndObject();
+		} finally {
+			generator.close();
+		}
+	}
+}
@@ -3,11 +3,15 @@ package it.unive.lisa.outputs.compare;
 import it.unive.lisa.outputs.DotGraph;
 import it.unive.lisa.outputs.JsonReport;
 import it.unive.lisa.outputs.JsonReport.JsonWarning;
+import it.unive.lisa.outputs.JsonReportReader;
 import it.unive.lisa.util.collections.CollectionsDiffBuilder;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
 import org.apache.commons.lang3.tuple.Pair;
 
@@ -19,6 +23,8 @@ import org.apache.commons.lang3.tuple.Pair;
  */
 public class JsonReportComparer {
 
+	private static final String ARCHIVE_EXTENSION = ".zip";
+
 	/**
 	 * An enumeration defining the different type of reports that can be issued.
 	 * 
@@ -97,6 +103,77 @@ public class JsonReportComparer {
 		void fileDiff(String first, String second, String message);
 	}
 
+	/**
+	 * Compares the reports contained in the two given files, reading them
+	 * through a {@link JsonReportReader}. The names of the files contained in
+	 * each report are resolved against the folder containing the report. Each
+	 * of the given files can also be a zip archive (i.e., its name ends with
+	 * {@code .zip}) produced by LiSA: the report is then read from its
+	 * {@link JsonReport#REPORT_FILE} entry, and file names are resolved against
+	 * the root of the archive. The {@link DiffReporter} used during the
+	 * comparison will dump the differences to {@link System#err}.
+	 * 
+	 * @param first  the file containing the first report, or an archive
+	 *                   containing it
+	 * @param second the file containing the second report, or an archive
+	 *                   containing it
+	 * 
+	 * @return {@code true} if and only the two reports are equal
+	 * 
+	 * @throws IOException if errors happen while opening or reading the reports
+	 *                         or the files contained in them
+	 */
+	public static boolean compare(File first, File second) throws IOException {
+		return compare(first, second, new BaseDiffReporter());
+	}
+
+	/**
+	 * Compares the reports contained in the two given files, reading them
+	 * through a {@link JsonReportReader}. The names of the files contained in
+	 * each report are resolved against the folder containing the report. Each
+	 * of the given files can also be a zip archive (i.e., its name ends with
+	 * {@code .zip}) produced by LiSA: the report is then read from its
+	 * {@link JsonReport#REPORT_FILE} entry, and file names are resolved against
+	 * the root of the archive.
+	 * 
+	 * @param first    the file containing the first report, or an archive
+	 *                     containing it
+	 * @param second   the file containing the second report, or an archive
+	 *                     containing it
+	 * @param reporter the {@link DiffReporter} that will be used for dumping
+	 *                     the differences found in the two reports
+	 * 
+	 * @return {@code true} if and only the two reports are equal
+	 * 
+	 * @throws IOException if errors happen while opening or reading the reports
+	 *                         or the files contained in them
+	 */
+	public static boolean compare(File first, File second, DiffReporter reporter) throws IOException {
+		try (FileSystem firstArchive = openArchive(first); FileSystem secondArchive = openArchive(second)) {
+			Path firstRoot = firstArchive == null ? first.getAbsoluteFile().getParentFile().toPath()
+					: firstArchive.getPath("/");
+			Path secondRoot = secondArchive == null ? second.getAbsoluteFile().getParentFile().toPath()
+					: secondArchive.getPath("/");
+			Path firstReport = firstArchive == null ? first.toPath() : firstRoot.resolve(JsonReport.REPORT_FILE);
+			Path secondReport = secondArchive == null ? second.toPath() : secondRoot.resolve(JsonReport.REPORT_FILE);
+			return compare(readReport(firstReport), readReport(secondReport), firstRoot, secondRoot, reporter);
+		}
+	}
+
+	private static FileSystem openArchive(File file) throws IOException {
+		if (!file.getName().endsWith(ARCHIVE_EXTENSION))
+			return null;
+		// each archive gets its own private file system, so that the same
+		// archive can be opened more than once
+		return FileSystems.newFileSystem(file.toPath(), (ClassLoader) null);
+	}
+
+	private static JsonReport readReport(Path file) throws IOException {
+		try (JsonReportReader reader = new JsonReportReader(Files.newBufferedReader(file))) {
+			return reader.read();
+		}
+	}
+
 	/**
 	 * Compares the two reports. The {@link DiffReporter} used during the
 	 * comparison will dump the differences to {@link System#err}.
@@ -146,6 +223,11 @@ public class JsonReportComparer {
 	 */
 	public static boolean compare(JsonReport first, JsonReport second, File firstFileRoot, File secondFileRoot,
 			DiffReporter reporter) throws IOException {
+		return compare(first, second, firstFileRoot.toPath(), secondFileRoot.toPath(), reporter);
+	}
+
+	private static boolean compare(JsonReport first, JsonReport second, Path firstFileRoot, Path secondFileRoot,
+			DiffReporter reporter) throws IOException {
 		CollectionsDiffBuilder<JsonWarning> warnings = new CollectionsDiffBuilder<>(JsonWarning.class,
 				first.getWarnings(), second.getWarnings());
 		warnings.compute(JsonWarning::compareTo);
@@ -172,17 +254,17 @@ public class JsonReportComparer {
 			return false;
 
 		for (Pair<String, String> pair : files.getCommons()) {
-			File left = new File(firstFileRoot, pair.getLeft());
-			File right = new File(secondFileRoot, pair.getRight());
+			Path left = firstFileRoot.resolve(pair.getLeft());
+			Path right = secondFileRoot.resolve(pair.getRight());
 
-			if (!left.exists())
+			if (!Files.exists(left))
 				throw new FileNotFoundException(
 						pair.getLeft() + " declared as output in the first report does not exist");
-			if (!right.exists())
+			if (!Files.exists(right))
 				throw new FileNotFoundException(
 						pair.getRight() + " declared as output in the second report does not exist");
 
-			if (left.getName().endsWith(".dot"))
+			if (pair.getLeft().endsWith(".dot"))
 				if (!matchDotGraphs(left, right)) {
 					reporter.fileDiff(left.toString(), right.toString(), "Graphs are different");
 					return false;
@@ -192,9 +274,9 @@ public class JsonReportComparer {
 		return true;
 	}
 
-	private static boolean matchDotGraphs(File left, File right) throws IOException {
-		DotGraph lDot = DotGraph.readDot(new FileReader(left));
-		DotGraph rDot = DotGraph.readDot(new FileReader(right));
+	private static boolean matchDotGraphs(Path left, Path right) throws IOException {
+		DotGraph lDot = DotGraph.readDot(Files.newBufferedReader(left));
+		DotGraph rDot = DotGraph.readDot(Files.newBufferedReader(right));
 		return lDot.equals(rDot);
 	}
 
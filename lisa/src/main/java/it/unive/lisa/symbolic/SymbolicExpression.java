@@ -16,6 +16,26 @@ public abstract class SymbolicExpression {
 	 */
 	private final ExternalSet<Type> types;
 
+	/**
+	 * The interned expression that represents all the interned expressions that
+	 * are equal to this one, or {@code null} if this expression has not been
+	 * interned through a {@link SymbolicExpressionCache}
+	 */
+	private SymbolicExpression representative;
+
+	/**
+	 * The key of this expression inside the {@link SymbolicExpressionCache}
+	 * that interned it, that is kept alive as long as this expression is
+	 */
+	@SuppressWarnings("unused")
+	private Object internKey;
+
+	/**
+	 * The hash code of this expression, cached when this expression gets
+	 * interned
+	 */
+	private int hash;
+
 	/**
 	 * Builds the symbolic expression.
 	 * 
@@ -51,8 +71,52 @@ public abstract class SymbolicExpression {
 		});
 	}
 
+	/**
+	 * Yields {@code true} if and only if this expression has been interned
+	 * through a {@link SymbolicExpressionCache}. Interned expressions have
+	 * their hash code cached, and they are compared by reference with other
+	 * interned expressions.
+	 * 
+	 * @return {@code true} if that condition holds
+	 */
+	public final boolean isInterned() {
+		return representative != null;
+	}
+
+	/**
+	 * Marks this expression as interned. This method must be invoked before
+	 * this expression is published to other threads.
+	 * 
+	 * @param representative the interned expression representing all the
+	 *                           interned expressions equal to this one
+	 * @param key            the key of this expression inside the cache
+	 */
+	final void markInterned(SymbolicExpression representative, Object key) {
+		this.hash = representative == this ? computeHashCode() : representative.hash;
+		this.representative = representative;
+		this.internKey = key;
+	}
+
+	/**
+	 * {@inheritDoc}<br>
+	 * <br>
+	 * The hash code is computed through {@link #computeHashCode()}, and it is
+	 * cached for interned expressions.
+	 */
 	@Override
 	public int hashCode() {
+		return representative == null ? computeHashCode() : hash;
+	}
+
+	/**
+	 * Computes the hash code of this expression. Subclasses should override
+	 * this method instead of {@link #hashCode()} to have the result cached when
+	 * they get interned. Subclasses that still override {@link #hashCode()}
+	 * work as before, but their hash code is never cached.
+	 * 
+	 * @return the hash code of this expression
+	 */
+	protected int computeHashCode() {
 		final int prime = 31;
 		int result = 1;
 		result = prime * result + ((types == null) ? 0 : types.hashCode());
@@ -68,6 +132,9 @@ public abstract class SymbolicExpression {
 		if (getClass() != obj.getClass())
 			return false;
 		SymbolicExpression other = (SymbolicExpression) obj;
+		if (representative != null && other.representative != null)
+			// interned expressions share the representative iff they are equal
+			return representative == other.representative;
 		if (types == null) {
 			if (other.types != null)
 				return false;
@@ -0,0 +1,337 @@
+package it.unive.lisa.symbolic;
+
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.symbolic.heap.AccessChild;
+import it.unive.lisa.symbolic.heap.HeapAllocation;
+import it.unive.lisa.symbolic.heap.HeapReference;
+import it.unive.lisa.symbolic.value.BinaryExpression;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.HeapIdentifier;
+import it.unive.lisa.symbolic.value.Skip;
+import it.unive.lisa.symbolic.value.TernaryExpression;
+import it.unive.lisa.symbolic.value.TypeConversion;
+import it.unive.lisa.symbolic.value.UnaryExpression;
+import it.unive.lisa.symbolic.value.ValueIdentifier;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+/**
+ * A cache for interning (i.e., hash-consing) {@link SymbolicExpression}s.
+ * Interning an expression yields the unique instance of that expression stored
+ * in this cache, where all sub-expressions (and names of identifiers) have been
+ * interned as well: structurally identical trees are thus represented by the
+ * same object, and repeated sub-expressions share memory. Interned expressions
+ * have their hash code cached, and equality between interned expressions is
+ * decided through a reference check.<br>
+ * <br>
+ * Two expressions are considered structurally identical if they are equal
+ * (according to {@link SymbolicExpression#equals(Object)}), they have the same
+ * runtime types, and their sub-expressions are structurally identical. Note
+ * that this is stricter than equality, since identifiers are equal regardless
+ * of their runtime types: interning never replaces an expression with one that
+ * has different types. Only expressions whose class is one of the ones defined
+ * in {@link it.unive.lisa.symbolic} are interned, while instances of other
+ * classes are returned as-is. The runtime types of interned expressions must
+ * not be modified.<br>
+ * <br>
+ * The contents of this cache are held weakly: an interned expression is dropped
+ * from the cache once it is no longer reachable from outside of it, and so is
+ * an equality class once none of its members is reachable. Equal expressions
+ * that are alive at the same time thus always share their representative, while
+ * the cache does not grow across analyses.<br>
+ * <br>
+ * The unique instance of this class is available through
+ * {@link Caches#expressions()}.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class SymbolicExpressionCache {
+
+	/**
+	 * The interned expressions, indexed by their structure
+	 */
+	private final WeakTable<Structure, SymbolicExpression> expressions = new WeakTable<>();
+
+	/**
+	 * The representatives of the interned expressions, that is, the first
+	 * interned expression for each equality class
+	 */
+	private final WeakTable<SymbolicExpression, SymbolicExpression> representatives = new WeakTable<>();
+
+	/**
+	 * The interned names of identifiers
+	 */
+	private final WeakTable<String, String> names = new WeakTable<>();
+
+	/**
+	 * The key used to look up expressions by structure, reused by each thread
+	 * to avoid allocating a new key for each lookup
+	 */
+	private final ThreadLocal<Structure> probes = ThreadLocal.withInitial(Structure::new);
+
+	/**
+	 * Yields the unique instance of the given expression. If the expression is
+	 * not interned yet, an interned copy of it is created, where all
+	 * sub-expressions are interned as well.
+	 * 
+	 * @param <T>        the type of the expression
+	 * @param expression the expression to intern
+	 * 
+	 * @return the interned expression, or {@code expression} itself if its
+	 *             class does not support interning
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends SymbolicExpression> T intern(T expression) {
+		if (expression == null || expression.isInterned() || !isSupported(expression.getClass()))
+			return expression;
+
+		// sub-expressions are interned first, so that the expression can be
+		// looked up by structure without building its interned copy
+		SymbolicExpression first = null, second = null, third = null;
+		if (expression instanceof UnaryExpression)
+			first = intern(((UnaryExpression) expression).getExpression());
+		else if (expression instanceof BinaryExpression) {
+			first = intern(((BinaryExpression) expression).getLeft());
+			second = intern(((BinaryExpression) expression).getRight());
+		} else if (expression instanceof TernaryExpression) {
+			first = intern(((TernaryExpression) expression).getLeft());
+			second = intern(((TernaryExpression) expression).getMiddle());
+			third = intern(((TernaryExpression) expression).getRight());
+		} else if (expression instanceof TypeConversion)
+			first = intern(((TypeConversion) expression).getOperand());
+		else if (expression instanceof AccessChild) {
+			first = intern(((AccessChild) expression).getContainer());
+			second = intern(((AccessChild) expression).getChild());
+		}
+
+		Structure probe = probes.get();
+		SymbolicExpression interned;
+		try {
+			interned = expressions.get(probe.set(expression, first, second, third));
+		} finally {
+			// the probe must not keep the expression alive
+			probe.set(null, null, null, null);
+		}
+		if (interned != null)
+			return (T) interned;
+
+		SymbolicExpression rebuilt = rebuild(expression, first, second, third);
+		Structure structure = new Structure().set(rebuilt, first, second, third);
+		interned = expressions.intern(structure, () -> {
+			SymbolicExpression representative = representatives.intern(rebuilt, () -> rebuilt);
+			// the expression keeps its own key alive
+			rebuilt.markInterned(representative, structure);
+			return rebuilt;
+		});
+		return (T) interned;
+	}
+
+	/**
+	 * Yields the total number of expressions stored in this cache.
+	 * 
+	 * @return the number of expressions
+	 */
+	public int size() {
+		return expressions.size();
+	}
+
+	private String intern(String name) {
+		if (name == null)
+			return null;
+		return names.intern(name, () -> name);
+	}
+
+	private static boolean isSupported(Class<?> type) {
+		return type == Skip.class || type == Constant.class || type == HeapAllocation.class
+				|| type == ValueIdentifier.class || type == HeapIdentifier.class || type == HeapReference.class
+				|| type == UnaryExpression.class || type == BinaryExpression.class
+				|| type == TernaryExpression.class || type == TypeConversion.class || type == AccessChild.class;
+	}
+
+	/**
+	 * Yields a copy of the given expression having the given interned
+	 * sub-expressions and interned names, or the expression itself if it has
+	 * no sub-expressions or names.
+	 */
+	private SymbolicExpression rebuild(SymbolicExpression e, SymbolicExpression first, SymbolicExpression second,
+			SymbolicExpression third) {
+		Class<?> type = e.getClass();
+		if (type == ValueIdentifier.class)
+			return new ValueIdentifier(e.getTypes(), intern(((ValueIdentifier) e).getName()));
+		if (type == HeapIdentifier.class)
+			return new HeapIdentifier(e.getTypes(), intern(((HeapIdentifier) e).getName()));
+		if (type == HeapReference.class)
+			return new HeapReference(e.getTypes(), intern(((HeapReference) e).getName()));
+		if (type == UnaryExpression.class)
+			return new UnaryExpression(e.getTypes(), first, ((UnaryExpression) e).getOperator());
+		if (type == BinaryExpression.class)
+			return new BinaryExpression(e.getTypes(), first, second, ((BinaryExpression) e).getOperator());
+		if (type == TernaryExpression.class)
+			return new TernaryExpression(e.getTypes(), first, second, third, ((TernaryExpression) e).getOperator());
+		if (type == TypeConversion.class)
+			return new TypeConversion(((TypeConversion) e).getToType(), first);
+		if (type == AccessChild.class)
+			return new AccessChild(e.getTypes(), first, second);
+		return e;
+	}
+
+	/**
+	 * Yields the label of an expression with sub-expressions, that is, what
+	 * distinguishes it from other expressions of the same class having the
+	 * same sub-expressions and runtime types.
+	 */
+	private static Object label(SymbolicExpression e) {
+		if (e instanceof UnaryExpression)
+			return ((UnaryExpression) e).getOperator();
+		if (e instanceof BinaryExpression)
+			return ((BinaryExpression) e).getOperator();
+		if (e instanceof TernaryExpression)
+			return ((TernaryExpression) e).getOperator();
+		if (e instanceof TypeConversion)
+			return ((TypeConversion) e).getToType();
+		return null;
+	}
+
+	/**
+	 * The structure of an expression, given by its class, its runtime types,
+	 * its label and its interned sub-expressions (or the expression itself, if
+	 * it has no sub-expressions), that compares expressions by structural
+	 * identity.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static final class Structure {
+
+		private SymbolicExpression expression;
+
+		private SymbolicExpression first, second, third;
+
+		private int hash;
+
+		private Structure set(SymbolicExpression expression, SymbolicExpression first, SymbolicExpression second,
+				SymbolicExpression third) {
+			this.expression = expression;
+			this.first = first;
+			this.second = second;
+			this.third = third;
+			if (expression == null)
+				return this;
+
+			int result = 31 * expression.getClass().hashCode() + expression.getTypes().hashCode();
+			if (isLeaf())
+				// leaves have no sub-expressions, their hash is cheap
+				result = 31 * result + expression.hashCode();
+			else {
+				// sub-expressions are interned, their hash is cached
+				result = 31 * result + Objects.hashCode(label(expression));
+				result = 31 * result + Objects.hashCode(first);
+				result = 31 * result + Objects.hashCode(second);
+				result = 31 * result + Objects.hashCode(third);
+			}
+			hash = result;
+			return this;
+		}
+
+		private boolean isLeaf() {
+			return !(expression instanceof UnaryExpression || expression instanceof BinaryExpression
+					|| expression instanceof TernaryExpression || expression instanceof TypeConversion
+					|| expression instanceof AccessChild);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Structure))
+				return false;
+			Structure other = (Structure) obj;
+			if (hash != other.hash || expression == null || other.expression == null
+					|| expression.getClass() != other.expression.getClass()
+					|| !expression.getTypes().equals(other.expression.getTypes()))
+				return false;
+
+			if (isLeaf())
+				return expression.equals(other.expression);
+
+			// sub-expressions are interned: they are structurally identical
+			// only if they are the same object
+			return first == other.first && second == other.second && third == other.third
+					&& Objects.equals(label(expression), label(other.expression));
+		}
+	}
+
+	/**
+	 * A table whose keys and values are held weakly, split in segments that are
+	 * locked independently. The value of each key must keep the key alive, so
+	 * that entries are dropped only when their value is no longer reachable.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 * 
+	 * @param <K> the type of the keys
+	 * @param <V> the type of the values
+	 */
+	private static final class WeakTable<K, V> {
+
+		private static final int SEGMENTS = 64;
+
+		private final Map<K, WeakReference<V>>[] segments;
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		private WeakTable() {
+			segments = new Map[SEGMENTS];
+			for (int i = 0; i < SEGMENTS; i++)
+				segments[i] = new WeakHashMap<>();
+		}
+
+		private Map<K, WeakReference<V>> segment(K key) {
+			int hash = key.hashCode();
+			return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+		}
+
+		/**
+		 * Yields the value stored for the given key, or {@code null} if no
+		 * value is stored.
+		 */
+		private V get(K key) {
+			Map<K, WeakReference<V>> segment = segment(key);
+			synchronized (segment) {
+				WeakReference<V> ref = segment.get(key);
+				return ref == null ? null : ref.get();
+			}
+		}
+
+		/**
+		 * Yields the value stored for the given key, storing the one provided
+		 * by {@code factory} if no value is stored yet.
+		 */
+		private V intern(K key, Supplier<V> factory) {
+			Map<K, WeakReference<V>> segment = segment(key);
+			synchronized (segment) {
+				WeakReference<V> ref = segment.get(key);
+				V value = ref == null ? null : ref.get();
+				if (value == null) {
+					value = factory.get();
+					segment.put(key, new WeakReference<>(value));
+				}
+				return value;
+			}
+		}
+
+		private int size() {
+			int size = 0;
+			for (Map<K, WeakReference<V>> segment : segments)
+				synchronized (segment) {
+					size += segment.size();
+				}
+			return size;
+		}
+	}
+}
@@ -20,8 +20,8 @@ public class HeapAllocation extends HeapExpression {
 	}
 
 	@Override
-	public int hashCode() {
-		return super.hashCode() ^ getClass().getName().hashCode();
+	protected int computeHashCode() {
+		return super.computeHashCode() ^ getClass().getName().hashCode();
 	}
 
 	@Override
@@ -36,9 +36,9 @@ public class HeapReference extends HeapExpression {
 	}
 
 	@Override
-	public int hashCode() {
+	protected int computeHashCode() {
 		final int prime = 31;
-		int result = super.hashCode();
+		int result = super.computeHashCode();
 		result = prime * result + ((name == null) ? 0 : name.hashCode());
 		return result;
 	}
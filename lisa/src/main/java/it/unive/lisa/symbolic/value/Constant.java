@@ -36,9 +36,9 @@ public class Constant extends ValueExpression {
 	}
 
 	@Override
-	public int hashCode() {
+	protected int computeHashCode() {
 		final int prime = 31;
-		int result = super.hashCode();
+		int result = super.computeHashCode();
 		result = prime * result + ((value == null) ? 0 : value.hashCode());
 		return result;
 	}
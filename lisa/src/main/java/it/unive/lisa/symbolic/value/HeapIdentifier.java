@@ -1,11 +1,15 @@
 package it.unive.lisa.symbolic.value;
 
+import it.unive.lisa.analysis.ScopeToken;
 import it.unive.lisa.cfg.type.Type;
 import it.unive.lisa.util.collections.ExternalSet;
 
 /**
  * An identifier of a synthetic program variable that represents a resolved
- * memory location.
+ * memory location. Memory locations are not bound to the context where they
+ * have been created, and are thus visible in every scope: heap identifiers are
+ * never hidden by {@link #pushScope(ScopeToken)}, and they survive
+ * {@link #popScope(ScopeToken)}.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  */
@@ -21,6 +25,16 @@ public class HeapIdentifier extends Identifier {
 		super(types, name);
 	}
 
+	@Override
+	public Identifier pushScope(ScopeToken token) {
+		return this;
+	}
+
+	@Override
+	public Identifier popScope(ScopeToken token) {
+		return this;
+	}
+
 	@Override
 	public String toString() {
 		return "hid$" + getName();
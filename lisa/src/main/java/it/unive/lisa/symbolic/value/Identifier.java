@@ -1,5 +1,6 @@
 package it.unive.lisa.symbolic.value;
 
+import it.unive.lisa.analysis.ScopeToken;
 import it.unive.lisa.cfg.type.Type;
 import it.unive.lisa.util.collections.ExternalSet;
 
@@ -37,13 +38,40 @@ public abstract class Identifier extends ValueExpression {
 		return name;
 	}
 
+	/**
+	 * Yields an {@link OutOfScopeIdentifier} hiding this identifier, that is
+	 * out of scope after the scope identified by {@code token} has been opened.
+	 * 
+	 * @param token the token of the scope being opened
+	 * 
+	 * @return the hidden version of this identifier
+	 */
+	public Identifier pushScope(ScopeToken token) {
+		return new OutOfScopeIdentifier(this, token);
+	}
+
+	/**
+	 * Yields the identifier that was hidden by the scope identified by
+	 * {@code token}, if this identifier has been produced by
+	 * {@link #pushScope(ScopeToken)} with the same token. Otherwise, this
+	 * identifier belongs to the scope being closed, and {@code null} is
+	 * returned.
+	 * 
+	 * @param token the token of the scope being closed
+	 * 
+	 * @return the restored identifier, or {@code null}
+	 */
+	public Identifier popScope(ScopeToken token) {
+		return null;
+	}
+
 	@Override
-	public int hashCode() {
+	protected int computeHashCode() {
 		final int prime = 31;
 		// we do not call super here since variables should be uniquely
 		// identified
 		// by their name, regardless of their type
-		int result = 1; // super.hashCode();
+		int result = 1; // super.computeHashCode();
 		result = prime * result + ((name == null) ? 0 : name.hashCode());
 		return result;
 	}
@@ -60,6 +88,9 @@ public abstract class Identifier extends ValueExpression {
 		if (getClass() != obj.getClass())
 			return false;
 		Identifier other = (Identifier) obj;
+		if (isInterned() && other.isInterned())
+			// names of interned identifiers are interned as well
+			return name == other.name;
 		if (name == null) {
 			if (other.name != null)
 				return false;
@@ -22,8 +22,8 @@ public class NullConstant extends Constant {
 	}
 
 	@Override
-	public int hashCode() {
-		return super.hashCode() ^ getClass().getName().hashCode();
+	protected int computeHashCode() {
+		return super.computeHashCode() ^ getClass().getName().hashCode();
 	}
 
 	@Override
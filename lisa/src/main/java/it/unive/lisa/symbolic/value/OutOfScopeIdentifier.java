@@ -0,0 +1,84 @@
+package it.unive.lisa.symbolic.value;
+
+import it.unive.lisa.analysis.ScopeToken;
+
+/**
+ * An {@link Identifier} that has been hidden by the opening of a new scope,
+ * since it belongs to the context that is being left. Out of scope identifiers
+ * are created with {@link Identifier#pushScope(ScopeToken)}, and the original
+ * identifier can be restored through {@link #popScope(ScopeToken)} with the
+ * same token.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class OutOfScopeIdentifier extends Identifier {
+
+	/**
+	 * The identifier that has been hidden
+	 */
+	private final Identifier id;
+
+	/**
+	 * The token of the scope that hid {@link #id}
+	 */
+	private final ScopeToken scope;
+
+	/**
+	 * Builds the identifier.
+	 * 
+	 * @param id    the identifier that has been hidden
+	 * @param scope the token of the scope that hid {@code id}
+	 */
+	public OutOfScopeIdentifier(Identifier id, ScopeToken scope) {
+		super(id.getTypes(), scope + ":" + id.getName());
+		this.id = id;
+		this.scope = scope;
+	}
+
+	/**
+	 * Yields the identifier that has been hidden.
+	 * 
+	 * @return the hidden identifier
+	 */
+	public Identifier getInnerIdentifier() {
+		return id;
+	}
+
+	/**
+	 * Yields the token of the scope that hid the inner identifier.
+	 * 
+	 * @return the token
+	 */
+	public ScopeToken getScope() {
+		return scope;
+	}
+
+	@Override
+	public Identifier popScope(ScopeToken token) {
+		return scope.equals(token) ? id : null;
+	}
+
+	@Override
+	protected int computeHashCode() {
+		final int prime = 31;
+		int result = super.computeHashCode();
+		result = prime * result + id.hashCode();
+		result = prime * result + scope.hashCode();
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!super.equals(obj))
+			return false;
+		OutOfScopeIdentifier other = (OutOfScopeIdentifier) obj;
+		return scope.equals(other.scope) && id.equals(other.id);
+	}
+
+	@Override
+	public String toString() {
+		return "[" + scope + "]" + id;
+	}
+}
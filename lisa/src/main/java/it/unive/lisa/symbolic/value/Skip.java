@@ -11,15 +11,22 @@ import it.unive.lisa.cfg.type.VoidType;
 public class Skip extends ValueExpression {
 
 	/**
-	 * Builds the skip.
+	 * The interned instance of skip, shared by all the statements and states
+	 * that do not produce any expression. Use this instead of building new
+	 * instances.
+	 */
+	public static final Skip INSTANCE = Caches.expressions().intern(new Skip());
+
+	/**
+	 * Builds the skip. Prefer {@link #INSTANCE} to new instances.
 	 */
 	public Skip() {
 		super(Caches.types().mkSingletonSet(VoidType.INSTANCE));
 	}
 
 	@Override
-	public int hashCode() {
-		return super.hashCode() ^ getClass().getName().hashCode();
+	protected int computeHashCode() {
+		return super.computeHashCode() ^ getClass().getName().hashCode();
 	}
 
 	@Override
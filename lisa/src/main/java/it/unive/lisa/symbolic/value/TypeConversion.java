@@ -52,9 +52,9 @@ public class TypeConversion extends ValueExpression {
 	}
 
 	@Override
-	public int hashCode() {
+	protected int computeHashCode() {
 		final int prime = 31;
-		int result = super.hashCode();
+		int result = super.computeHashCode();
 		result = prime * result + ((operand == null) ? 0 : operand.hashCode());
 		result = prime * result + ((toType == null) ? 0 : toType.hashCode());
 		return result;
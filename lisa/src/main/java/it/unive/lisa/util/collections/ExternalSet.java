@@ -37,7 +37,7 @@ public class ExternalSet<T> implements Iterable<T>, Set<T> {
 	 * 
 	 * @return the bitwise mask
 	 */
-	private static int bitmask(int n) {
+	private static long bitmask(int n) {
 		// assuming that n will be stored in the right long (obtained with
 		// toNLongs(n)),
 		// we have to determine which bit of the long has to be turned to 1. To
@@ -49,7 +49,7 @@ public class ExternalSet<T> implements Iterable<T>, Set<T> {
 		// (we use bitwise and as a mask) that yields the correct bit to
 		// represent a
 		// number between 0 and 63 inside the long
-		return (int) 1L << (n & LENGTH_MASK);
+		return 1L << (n & LENGTH_MASK);
 	}
 
 	/**
@@ -374,7 +374,7 @@ public class ExternalSet<T> implements Iterable<T>, Set<T> {
 		// if at least one bit that is 0 in this is 1 in other, than this does
 		// not
 		// contain other
-		for (int i = otherbits.length; i >= 0; i--)
+		for (int i = otherbits.length - 1; i >= 0; i--)
 			if ((localbits[i] | otherbits[i]) != localbits[i])
 				return false;
 
@@ -0,0 +1,780 @@
+package it.unive.lisa.util.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An immutable {@link Map} implemented as a persistent hash array mapped trie
+ * (P. Bagwell, <i>Ideal Hash Trees</i>, 2001). Instances of this class are
+ * never modified: {@link #plus(Object, Object)} and {@link #minus(Object)}
+ * yield new maps that share all the untouched portions of the trie with the
+ * original one, thus requiring {@code O(log n)} time and memory for single-key
+ * updates. All the mutating operations of the {@link Map} interface throw
+ * {@link UnsupportedOperationException}. {@code null} keys and values are not
+ * supported. When merging with or comparing to a {@link PersistentMap} of a
+ * different kind, the latter is first converted to a
+ * {@link PersistentHashMap}.<br>
+ * <br>
+ * Since updated maps share their structure with the original ones,
+ * {@link #merge(PersistentMap, MergeFunction)},
+ * {@link #allMatch(PersistentMap, MatchPredicate)} and {@link #equals(Object)}
+ * visit the two tries in parallel, skipping all the sub-tries that are shared
+ * between them: their cost is thus proportional to the number of mappings on
+ * which the two maps differ, rather than to their size.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ * 
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public final class PersistentHashMap<K, V> extends AbstractMap<K, V> implements PersistentMap<K, V> {
+
+	/**
+	 * The number of bits of the hash consumed at each level of the trie
+	 */
+	private static final int BITS = 5;
+
+	/**
+	 * The mask to extract {@link #BITS} bits from a hash
+	 */
+	private static final int MASK = (1 << BITS) - 1;
+
+	/**
+	 * The unique empty map
+	 */
+	private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(null, 0);
+
+	/**
+	 * The root of the trie, or {@code null} if this map is empty
+	 */
+	private final Node<K, V> root;
+
+	/**
+	 * The number of mappings in this map
+	 */
+	private final int size;
+
+	/**
+	 * The entry set view of this map, lazily created
+	 */
+	private Set<Map.Entry<K, V>> entrySet;
+
+	private PersistentHashMap(Node<K, V> root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	/**
+	 * Yields the empty map.
+	 * 
+	 * @param <K> the type of the keys
+	 * @param <V> the type of the values
+	 * 
+	 * @return the empty map
+	 */
+	@SuppressWarnings("unchecked")
+	public static <K, V> PersistentHashMap<K, V> empty() {
+		return (PersistentHashMap<K, V>) EMPTY;
+	}
+
+	/**
+	 * Yields a map containing all the mappings of the given one. If {@code map}
+	 * is already a {@link PersistentHashMap}, it is returned as-is.
+	 * 
+	 * @param <K> the type of the keys
+	 * @param <V> the type of the values
+	 * @param map the map to copy
+	 * 
+	 * @return a persistent map with the same mappings of {@code map}
+	 */
+	@SuppressWarnings("unchecked")
+	public static <K, V> PersistentHashMap<K, V> from(Map<? extends K, ? extends V> map) {
+		if (map instanceof PersistentHashMap)
+			return (PersistentHashMap<K, V>) map;
+
+		PersistentHashMap<K, V> result = empty();
+		for (Map.Entry<? extends K, ? extends V> entry : map.entrySet())
+			result = result.plus(entry.getKey(), entry.getValue());
+		return result;
+	}
+
+	private static int hash(Object key) {
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	private static int fragment(int hash, int shift) {
+		return (hash >>> shift) & MASK;
+	}
+
+	@Override
+	public PersistentHashMap<K, V> plus(K key, V value) {
+		Objects.requireNonNull(key, "Persistent maps do not support null keys");
+		Objects.requireNonNull(value, "Persistent maps do not support null values");
+		Leaf<K, V> leaf = new Leaf<>(hash(key), key, value);
+		if (root == null)
+			return new PersistentHashMap<>(leaf.asNode(0), 1);
+
+		boolean[] added = new boolean[1];
+		Node<K, V> updated = root.put(leaf, 0, added);
+		if (updated == root)
+			return this;
+		return new PersistentHashMap<>(updated, added[0] ? size + 1 : size);
+	}
+
+	@Override
+	public PersistentHashMap<K, V> minus(Object key) {
+		if (root == null || key == null)
+			return this;
+
+		Node<K, V> updated = root.remove(key, hash(key), 0);
+		if (updated == root)
+			return this;
+		if (updated == null)
+			return empty();
+		return new PersistentHashMap<>(updated, size - 1);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public V get(Object key) {
+		Leaf<K, V> leaf = find(key);
+		return leaf == null ? null : leaf.value;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return find(key) != null;
+	}
+
+	private Leaf<K, V> find(Object key) {
+		if (root == null || key == null)
+			return null;
+		return root.find(key, hash(key), 0);
+	}
+
+	@Override
+	public Set<Map.Entry<K, V>> entrySet() {
+		if (entrySet == null)
+			entrySet = new AbstractSet<Map.Entry<K, V>>() {
+
+				@Override
+				public Iterator<Map.Entry<K, V>> iterator() {
+					return new TrieIterator<>(root);
+				}
+
+				@Override
+				public int size() {
+					return size;
+				}
+			};
+		return entrySet;
+	}
+
+	@Override
+	public <E extends Exception> PersistentHashMap<K, V> merge(PersistentMap<K, V> other,
+			MergeFunction<K, V, E> function) throws E {
+		PersistentHashMap<K, V> map = from(other);
+		if (this == map)
+			return this;
+
+		int[] delta = new int[1];
+		Object merged = mergeSlots(root, map.root, 0, function, delta);
+		if (merged == root)
+			return this;
+		if (merged == map.root)
+			return map;
+		if (merged == null)
+			return empty();
+		return new PersistentHashMap<>(asNode(merged, 0), size + delta[0]);
+	}
+
+	@Override
+	public <E extends Exception> boolean allMatch(PersistentMap<K, V> other, MatchPredicate<K, V, E> predicate)
+			throws E {
+		PersistentHashMap<K, V> map = from(other);
+		return this == map || matchSlots(root, map.root, 0, predicate);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof PersistentHashMap))
+			return super.equals(obj);
+
+		@SuppressWarnings("unchecked")
+		PersistentHashMap<K, V> other = (PersistentHashMap<K, V>) obj;
+		return size == other.size && allMatch(other, (key, left, right) -> left != null && left.equals(right));
+	}
+
+	@Override
+	public int hashCode() {
+		return super.hashCode();
+	}
+
+	// the following methods work on slots of the trie, that is, on objects
+	// that are either null, a Leaf or a Node
+
+	@SuppressWarnings("unchecked")
+	private static <K, V, E extends Exception> Object mergeSlots(Object left, Object right, int shift,
+			MergeFunction<K, V, E> function, int[] delta) throws E {
+		if (left == right)
+			return left;
+
+		if (sameHash(left, right)) {
+			Leaf<K, V>[] lefts = leaves(left), rights = leaves(right);
+			List<Leaf<K, V>> result = new ArrayList<>(lefts.length + rights.length);
+			boolean sameAsLeft = true, sameAsRight = true;
+			for (Leaf<K, V> l : lefts) {
+				Leaf<K, V> r = lookup(rights, l);
+				Leaf<K, V> merged = mergeLeaves(l, r, function, delta);
+				sameAsLeft &= merged == l;
+				sameAsRight &= merged == r;
+				if (merged != null)
+					result.add(merged);
+			}
+			for (Leaf<K, V> r : rights)
+				if (lookup(lefts, r) == null) {
+					Leaf<K, V> merged = mergeLeaves(null, r, function, delta);
+					sameAsLeft &= merged == null;
+					sameAsRight &= merged == r;
+					if (merged != null)
+						result.add(merged);
+				}
+
+			if (sameAsLeft)
+				return left;
+			if (sameAsRight)
+				return right;
+			if (result.isEmpty())
+				return null;
+			if (result.size() == 1)
+				return result.get(0);
+			return new CollisionNode<>(result.get(0).hash, result.toArray(newLeaves(result.size())));
+		}
+
+		BitmapNode<K, V> l = asBitmapNode(left, shift), r = asBitmapNode(right, shift);
+		int bitmap = l.bitmap | r.bitmap;
+		Object[] children = new Object[Integer.bitCount(bitmap)];
+		int resultBitmap = 0, count = 0;
+		boolean sameAsLeft = true, sameAsRight = true;
+		for (int remaining = bitmap; remaining != 0; remaining &= remaining - 1) {
+			int bit = Integer.lowestOneBit(remaining);
+			Object lchild = (l.bitmap & bit) == 0 ? null : l.children[l.index(bit)];
+			Object rchild = (r.bitmap & bit) == 0 ? null : r.children[r.index(bit)];
+			Object merged = mergeSlots(lchild, rchild, shift + BITS, function, delta);
+			sameAsLeft &= merged == lchild;
+			sameAsRight &= merged == rchild;
+			if (merged != null) {
+				children[count++] = merged;
+				resultBitmap |= bit;
+			}
+		}
+
+		if (sameAsLeft)
+			return left;
+		if (sameAsRight)
+			return right;
+		if (count == 0)
+			return null;
+		if (count == 1 && children[0] instanceof Leaf)
+			// a sub-trie with a single mapping is inlined
+			return children[0];
+		return new BitmapNode<>(resultBitmap, count == children.length ? children : Arrays.copyOf(children, count));
+	}
+
+	private static <K, V, E extends Exception> Leaf<K, V> mergeLeaves(Leaf<K, V> left, Leaf<K, V> right,
+			MergeFunction<K, V, E> function, int[] delta) throws E {
+		Leaf<K, V> result;
+		if (left != null && right != null && left.value == right.value)
+			result = left;
+		else {
+			Leaf<K, V> some = left == null ? right : left;
+			V value = function.merge(some.key, left == null ? null : left.value, right == null ? null : right.value);
+			if (value == null)
+				result = null;
+			else if (left != null && value == left.value)
+				result = left;
+			else if (right != null && value == right.value)
+				result = right;
+			else
+				result = new Leaf<>(some.hash, some.key, value);
+		}
+
+		delta[0] += (result == null ? 0 : 1) - (left == null ? 0 : 1);
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V, E extends Exception> boolean matchSlots(Object left, Object right, int shift,
+			MatchPredicate<K, V, E> predicate) throws E {
+		if (left == right)
+			return true;
+
+		if (sameHash(left, right)) {
+			Leaf<K, V>[] lefts = leaves(left), rights = leaves(right);
+			for (Leaf<K, V> l : lefts) {
+				Leaf<K, V> r = lookup(rights, l);
+				if ((r == null || l.value != r.value) && !predicate.test(l.key, l.value, r == null ? null : r.value))
+					return false;
+			}
+			for (Leaf<K, V> r : rights)
+				if (lookup(lefts, r) == null && !predicate.test(r.key, null, r.value))
+					return false;
+			return true;
+		}
+
+		BitmapNode<K, V> l = asBitmapNode(left, shift), r = asBitmapNode(right, shift);
+		for (int remaining = l.bitmap | r.bitmap; remaining != 0; remaining &= remaining - 1) {
+			int bit = Integer.lowestOneBit(remaining);
+			Object lchild = (l.bitmap & bit) == 0 ? null : l.children[l.index(bit)];
+			Object rchild = (r.bitmap & bit) == 0 ? null : r.children[r.index(bit)];
+			if (!matchSlots(lchild, rchild, shift + BITS, predicate))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Yields {@code true} if the two slots can be merged leaf by leaf, that is,
+	 * if they hold no inner {@link BitmapNode} and all the keys they hold share
+	 * the same hash.
+	 */
+	private static boolean sameHash(Object left, Object right) {
+		if (left instanceof BitmapNode || right instanceof BitmapNode)
+			return false;
+		return left == null || right == null || hashOf(left) == hashOf(right);
+	}
+
+	private static int hashOf(Object slot) {
+		return slot instanceof Leaf ? ((Leaf<?, ?>) slot).hash : ((CollisionNode<?, ?>) slot).hash;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V> Leaf<K, V>[] leaves(Object slot) {
+		if (slot == null)
+			return newLeaves(0);
+		if (slot instanceof Leaf) {
+			Leaf<K, V>[] single = newLeaves(1);
+			single[0] = (Leaf<K, V>) slot;
+			return single;
+		}
+		return ((CollisionNode<K, V>) slot).leaves;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static <K, V> Leaf<K, V>[] newLeaves(int length) {
+		return new Leaf[length];
+	}
+
+	private static <K, V> Leaf<K, V> lookup(Leaf<K, V>[] leaves, Leaf<K, V> target) {
+		for (Leaf<K, V> leaf : leaves)
+			if (leaf.matches(target.key, target.hash))
+				return leaf;
+		return null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V> BitmapNode<K, V> asBitmapNode(Object slot, int shift) {
+		if (slot == null)
+			return new BitmapNode<>(0, new Object[0]);
+		if (slot instanceof BitmapNode)
+			return (BitmapNode<K, V>) slot;
+		return new BitmapNode<>(1 << fragment(hashOf(slot), shift), new Object[] { slot });
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V> Node<K, V> asNode(Object slot, int shift) {
+		return slot instanceof Leaf ? ((Leaf<K, V>) slot).asNode(shift) : (Node<K, V>) slot;
+	}
+
+	/**
+	 * A node of the trie.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 * 
+	 * @param <K> the type of the keys
+	 * @param <V> the type of the values
+	 */
+	private abstract static class Node<K, V> {
+
+		abstract Leaf<K, V> find(Object key, int hash, int shift);
+
+		abstract Node<K, V> put(Leaf<K, V> leaf, int shift, boolean[] added);
+
+		abstract Node<K, V> remove(Object key, int hash, int shift);
+
+		abstract int arity();
+
+		abstract Object child(int i);
+	}
+
+	/**
+	 * A mapping stored in the trie, that is also the {@link Map.Entry} returned
+	 * while iterating over the map.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 * 
+	 * @param <K> the type of the keys
+	 * @param <V> the type of the values
+	 */
+	private static final class Leaf<K, V> implements Map.Entry<K, V> {
+
+		private final int hash;
+
+		private final K key;
+
+		private final V value;
+
+		private Leaf(int hash, K key, V value) {
+			this.hash = hash;
+			this.key = key;
+			this.value = value;
+		}
+
+		private boolean matches(Object key, int hash) {
+			return this.hash == hash && (this.key == key || this.key.equals(key));
+		}
+
+		private Node<K, V> asNode(int shift) {
+			return new BitmapNode<>(1 << fragment(hash, shift), new Object[] { this });
+		}
+
+		@Override
+		public K getKey() {
+			return key;
+		}
+
+		@Override
+		public V getValue() {
+			return value;
+		}
+
+		@Override
+		public V setValue(V value) {
+			throw new UnsupportedOperationException("Persistent maps cannot be modified");
+		}
+
+		@Override
+		public int hashCode() {
+			return key.hashCode() ^ Objects.hashCode(value);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Map.Entry))
+				return false;
+			Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+			return key.equals(other.getKey()) && Objects.equals(value, other.getValue());
+		}
+
+		@Override
+		public String toString() {
+			return key + "=" + value;
+		}
+	}
+
+	/**
+	 * An inner node of the trie, whose children (either {@link Leaf}s or other
+	 * {@link Node}s) are stored in a compact array indexed through a bitmap.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 * 
+	 * @param <K> the type of the keys
+	 * @param <V> the type of the values
+	 */
+	private static final class BitmapNode<K, V> extends Node<K, V> {
+
+		private final int bitmap;
+
+		private final Object[] children;
+
+		private BitmapNode(int bitmap, Object[] children) {
+			this.bitmap = bitmap;
+			this.children = children;
+		}
+
+		private int index(int bit) {
+			return Integer.bitCount(bitmap & (bit - 1));
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		Leaf<K, V> find(Object key, int hash, int shift) {
+			int bit = 1 << fragment(hash, shift);
+			if ((bitmap & bit) == 0)
+				return null;
+
+			Object child = children[index(bit)];
+			if (child instanceof Leaf) {
+				Leaf<K, V> leaf = (Leaf<K, V>) child;
+				return leaf.matches(key, hash) ? leaf : null;
+			}
+
+			return ((Node<K, V>) child).find(key, hash, shift + BITS);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		Node<K, V> put(Leaf<K, V> leaf, int shift, boolean[] added) {
+			int bit = 1 << fragment(leaf.hash, shift);
+			int idx = index(bit);
+			if ((bitmap & bit) == 0) {
+				Object[] updated = new Object[children.length + 1];
+				System.arraycopy(children, 0, updated, 0, idx);
+				updated[idx] = leaf;
+				System.arraycopy(children, idx, updated, idx + 1, children.length - idx);
+				added[0] = true;
+				return new BitmapNode<>(bitmap | bit, updated);
+			}
+
+			Object child = children[idx];
+			Object replacement;
+			if (child instanceof Leaf) {
+				Leaf<K, V> existing = (Leaf<K, V>) child;
+				if (existing.matches(leaf.key, leaf.hash)) {
+					if (existing.value == leaf.value)
+						return this;
+					replacement = leaf;
+				} else {
+					replacement = merge(existing, leaf, shift + BITS);
+					added[0] = true;
+				}
+			} else {
+				Node<K, V> node = (Node<K, V>) child;
+				replacement = node.put(leaf, shift + BITS, added);
+				if (replacement == node)
+					return this;
+			}
+
+			Object[] updated = children.clone();
+			updated[idx] = replacement;
+			return new BitmapNode<>(bitmap, updated);
+		}
+
+		private static <K, V> Node<K, V> merge(Leaf<K, V> first, Leaf<K, V> second, int shift) {
+			if (first.hash == second.hash) {
+				Leaf<K, V>[] leaves = newLeaves(2);
+				leaves[0] = first;
+				leaves[1] = second;
+				return new CollisionNode<>(first.hash, leaves);
+			}
+
+			int f1 = fragment(first.hash, shift), f2 = fragment(second.hash, shift);
+			if (f1 == f2)
+				return new BitmapNode<>(1 << f1, new Object[] { merge(first, second, shift + BITS) });
+
+			return new BitmapNode<>((1 << f1) | (1 << f2),
+					f1 < f2 ? new Object[] { first, second } : new Object[] { second, first });
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		Node<K, V> remove(Object key, int hash, int shift) {
+			int bit = 1 << fragment(hash, shift);
+			if ((bitmap & bit) == 0)
+				return this;
+
+			int idx = index(bit);
+			Object child = children[idx];
+			if (child instanceof Leaf) {
+				if (!((Leaf<K, V>) child).matches(key, hash))
+					return this;
+				return without(bit, idx);
+			}
+
+			Node<K, V> node = (Node<K, V>) child;
+			Node<K, V> replacement = node.remove(key, hash, shift + BITS);
+			if (replacement == node)
+				return this;
+			if (replacement == null)
+				return without(bit, idx);
+
+			Object[] updated = children.clone();
+			// a sub-trie with a single mapping is inlined
+			updated[idx] = replacement.arity() == 1 && replacement.child(0) instanceof Leaf ? replacement.child(0)
+					: replacement;
+			return new BitmapNode<>(bitmap, updated);
+		}
+
+		private Node<K, V> without(int bit, int idx) {
+			if (children.length == 1)
+				return null;
+
+			Object[] updated = new Object[children.length - 1];
+			System.arraycopy(children, 0, updated, 0, idx);
+			System.arraycopy(children, idx + 1, updated, idx, children.length - idx - 1);
+			return new BitmapNode<>(bitmap & ~bit, updated);
+		}
+
+		@Override
+		int arity() {
+			return children.length;
+		}
+
+		@Override
+		Object child(int i) {
+			return children[i];
+		}
+	}
+
+	/**
+	 * A node of the trie containing mappings whose keys have the same hash.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 * 
+	 * @param <K> the type of the keys
+	 * @param <V> the type of the values
+	 */
+	private static final class CollisionNode<K, V> extends Node<K, V> {
+
+		private final int hash;
+
+		private final Leaf<K, V>[] leaves;
+
+		private CollisionNode(int hash, Leaf<K, V>[] leaves) {
+			this.hash = hash;
+			this.leaves = leaves;
+		}
+
+		@Override
+		Leaf<K, V> find(Object key, int hash, int shift) {
+			for (Leaf<K, V> leaf : leaves)
+				if (leaf.matches(key, hash))
+					return leaf;
+			return null;
+		}
+
+		@Override
+		Node<K, V> put(Leaf<K, V> leaf, int shift, boolean[] added) {
+			if (leaf.hash != hash)
+				// the new key only shares a prefix of the hash: we push this
+				// node one level down
+				return new BitmapNode<K, V>(1 << fragment(hash, shift), new Object[] { this }).put(leaf, shift, added);
+
+			for (int i = 0; i < leaves.length; i++)
+				if (leaves[i].matches(leaf.key, leaf.hash)) {
+					if (leaves[i].value == leaf.value)
+						return this;
+					Leaf<K, V>[] updated = leaves.clone();
+					updated[i] = leaf;
+					return new CollisionNode<>(hash, updated);
+				}
+
+			Leaf<K, V>[] updated = newLeaves(leaves.length + 1);
+			System.arraycopy(leaves, 0, updated, 0, leaves.length);
+			updated[leaves.length] = leaf;
+			added[0] = true;
+			return new CollisionNode<>(hash, updated);
+		}
+
+		@Override
+		Node<K, V> remove(Object key, int hash, int shift) {
+			for (int i = 0; i < leaves.length; i++)
+				if (leaves[i].matches(key, hash)) {
+					if (leaves.length == 1)
+						return null;
+
+					Leaf<K, V>[] updated = newLeaves(leaves.length - 1);
+					System.arraycopy(leaves, 0, updated, 0, i);
+					System.arraycopy(leaves, i + 1, updated, i, leaves.length - i - 1);
+					return new CollisionNode<>(hash, updated);
+				}
+			return this;
+		}
+
+		@Override
+		int arity() {
+			return leaves.length;
+		}
+
+		@Override
+		Object child(int i) {
+			return leaves[i];
+		}
+	}
+
+	/**
+	 * A depth-first iterator over the mappings of a trie.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 * 
+	 * @param <K> the type of the keys
+	 * @param <V> the type of the values
+	 */
+	private static final class TrieIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+
+		private final Deque<Node<K, V>> nodes = new ArrayDeque<>();
+
+		private final Deque<Integer> positions = new ArrayDeque<>();
+
+		private Leaf<K, V> next;
+
+		private TrieIterator(Node<K, V> root) {
+			if (root != null) {
+				nodes.push(root);
+				positions.push(0);
+			}
+			advance();
+		}
+
+		@SuppressWarnings("unchecked")
+		private void advance() {
+			next = null;
+			while (!nodes.isEmpty()) {
+				Node<K, V> node = nodes.peek();
+				int pos = positions.pop();
+				if (pos >= node.arity()) {
+					nodes.pop();
+					continue;
+				}
+
+				positions.push(pos + 1);
+				Object child = node.child(pos);
+				if (child instanceof Leaf) {
+					next = (Leaf<K, V>) child;
+					return;
+				}
+
+				nodes.push((Node<K, V>) child);
+				positions.push(0);
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public Map.Entry<K, V> next() {
+			if (next == null)
+				throw new NoSuchElementException();
+			Leaf<K, V> result = next;
+			advance();
+			return result;
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package it.unive.lisa.util.collections;
+
+import java.util.Map;
+
+/**
+ * An immutable {@link Map} whose updates yield new maps that share as much
+ * structure as possible with the original one. All the mutating operations of
+ * the {@link Map} interface throw {@link UnsupportedOperationException}.
+ * {@code null} keys and values are not supported.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ * 
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public interface PersistentMap<K, V> extends Map<K, V> {
+
+	/**
+	 * Yields a map containing all the mappings of this one, with the exception
+	 * that {@code key} is mapped to {@code value}. If {@code key} is already
+	 * mapped to {@code value} (in terms of reference equality), this map is
+	 * returned.
+	 * 
+	 * @param key   the key
+	 * @param value the value
+	 * 
+	 * @return the updated map
+	 */
+	PersistentMap<K, V> plus(K key, V value);
+
+	/**
+	 * Yields a map containing all the mappings of this one, except the one for
+	 * {@code key}. If {@code key} is not mapped, this map is returned.
+	 * 
+	 * @param key the key
+	 * 
+	 * @return the updated map
+	 */
+	PersistentMap<K, V> minus(Object key);
+
+	/**
+	 * Merges this map with the given one. The resulting map contains a mapping
+	 * for each key of the two maps, that is mapped to the value returned by
+	 * {@code function} on that key (if {@code function} returns {@code null},
+	 * the key is left out from the resulting map). {@code function} receives
+	 * {@code null} as one of its arguments when the key is mapped only in one
+	 * of the two maps, and it is never invoked on mappings whose value is the
+	 * same object in both maps: such mappings are copied as-is in the result,
+	 * since {@code function} is assumed to be idempotent. If all the mappings
+	 * of the result are the same as the ones of this map (resp. of
+	 * {@code other}), this map (resp. {@code other}) is returned.
+	 * 
+	 * @param <E>      the type of exceptions thrown by {@code function}
+	 * @param other    the other map
+	 * @param function the function used to compute the merged values
+	 * 
+	 * @return the merged map
+	 * 
+	 * @throws E if {@code function} throws it
+	 */
+	<E extends Exception> PersistentMap<K, V> merge(PersistentMap<K, V> other, MergeFunction<K, V, E> function)
+			throws E;
+
+	/**
+	 * Yields {@code true} if and only if {@code predicate} holds on each key of
+	 * this map or of the given one. {@code predicate} receives {@code null} as
+	 * one of its arguments when the key is mapped only in one of the two maps,
+	 * and it is never invoked on mappings whose value is the same object in
+	 * both maps, that are assumed to satisfy it.
+	 * 
+	 * @param <E>       the type of exceptions thrown by {@code predicate}
+	 * @param other     the other map
+	 * @param predicate the predicate to test
+	 * 
+	 * @return {@code true} if that condition holds
+	 * 
+	 * @throws E if {@code predicate} throws it
+	 */
+	<E extends Exception> boolean allMatch(PersistentMap<K, V> other, MatchPredicate<K, V, E> predicate) throws E;
+
+	/**
+	 * A function merging the values that two {@link PersistentMap}s associate
+	 * to the same key.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 * 
+	 * @param <K> the type of the keys
+	 * @param <V> the type of the values
+	 * @param <E> the type of exceptions thrown by the function
+	 */
+	@FunctionalInterface
+	interface MergeFunction<K, V, E extends Exception> {
+
+		/**
+		 * Merges the values that two maps associate to the given key.
+		 * 
+		 * @param key   the key
+		 * @param left  the value in the receiver of the merge, or {@code null}
+		 * @param right the value in the parameter of the merge, or {@code null}
+		 * 
+		 * @return the merged value, or {@code null} to remove the key
+		 * 
+		 * @throws E if something goes wrong during the merge
+		 */
+		V merge(K key, V left, V right) throws E;
+	}
+
+	/**
+	 * A predicate over the values that two {@link PersistentMap}s associate to
+	 * the same key.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 * 
+	 * @param <K> the type of the keys
+	 * @param <V> the type of the values
+	 * @param <E> the type of exceptions thrown by the predicate
+	 */
+	@FunctionalInterface
+	interface MatchPredicate<K, V, E extends Exception> {
+
+		/**
+		 * Tests the values that two maps associate to the given key.
+		 * 
+		 * @param key   the key
+		 * @param left  the value in the receiver of the test, or {@code null}
+		 * @param right the value in the parameter of the test, or {@code null}
+		 * 
+		 * @return whether or not the predicate holds
+		 * 
+		 * @throws E if something goes wrong during the test
+		 */
+		boolean test(K key, V left, V right) throws E;
+	}
+}
@@ -0,0 +1,522 @@
+package it.unive.lisa.util.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A {@link PersistentMap} whose keys are translated to integers through a
+ * {@link SlotTable}, and whose mappings are stored in a persistent trie indexed
+ * by such integers. Each node of the trie covers five bits of the slots, and
+ * only holds its non-empty children, selected through a bitmap. The trie only
+ * grows as high as needed to cover the biggest slot of its keys.<br>
+ * <br>
+ * Updates copy the path from the root to the updated slot, sharing all other
+ * nodes with the original map, and thus cost a logarithmic number of steps
+ * regardless of how many slots the {@link SlotTable} holds.
+ * {@link #get(Object)} and {@link #containsKey(Object)} perform a single lookup
+ * in the {@link SlotTable} and a walk down the trie.
+ * {@link #merge(PersistentMap, MergeFunction)} and
+ * {@link #allMatch(PersistentMap, MatchPredicate)} between maps using the same
+ * table visit the two tries together, skipping subtries and values that are the
+ * same object in both maps. When merging with or comparing to a
+ * {@link PersistentMap} of a different kind, or using a different table, the
+ * latter is first converted to a {@link SlotMap}.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ * 
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public final class SlotMap<K, V> extends AbstractMap<K, V> implements PersistentMap<K, V> {
+
+	/**
+	 * The number of bits of a slot consumed by each level of the trie
+	 */
+	private static final int BITS = 5;
+
+	/**
+	 * The mask selecting the bits of a slot consumed by a level of the trie
+	 */
+	private static final int MASK = (1 << BITS) - 1;
+
+	/**
+	 * The table assigning slots to keys
+	 */
+	private final SlotTable<K> table;
+
+	/**
+	 * The root of the trie, or {@code null} if this map is empty
+	 */
+	private final Node root;
+
+	/**
+	 * The position of the bits of the slots consumed by {@link #root}
+	 */
+	private final int shift;
+
+	/**
+	 * The entry set view of this map, lazily created
+	 */
+	private Set<Map.Entry<K, V>> entrySet;
+
+	private SlotMap(SlotTable<K> table, Node root, int shift) {
+		this.table = table;
+		this.root = root;
+		this.shift = shift;
+	}
+
+	/**
+	 * Yields an empty map using the given table.
+	 * 
+	 * @param <K>   the type of the keys
+	 * @param <V>   the type of the values
+	 * @param table the table assigning slots to keys
+	 * 
+	 * @return the empty map
+	 */
+	public static <K, V> SlotMap<K, V> empty(SlotTable<K> table) {
+		return new SlotMap<>(table, null, 0);
+	}
+
+	/**
+	 * Yields a map using the given table and containing all the mappings of the
+	 * given one. If {@code map} is already a {@link SlotMap} using
+	 * {@code table}, it is returned as-is.
+	 * 
+	 * @param <K>   the type of the keys
+	 * @param <V>   the type of the values
+	 * @param table the table assigning slots to keys
+	 * @param map   the map to copy
+	 * 
+	 * @return a slot map with the same mappings of {@code map}
+	 */
+	@SuppressWarnings("unchecked")
+	public static <K, V> SlotMap<K, V> from(SlotTable<K> table, Map<? extends K, ? extends V> map) {
+		if (map instanceof SlotMap && ((SlotMap<?, ?>) map).table == table)
+			return (SlotMap<K, V>) map;
+
+		SlotMap<K, V> result = empty(table);
+		for (Map.Entry<? extends K, ? extends V> entry : map.entrySet())
+			result = result.plus(entry.getKey(), entry.getValue());
+		return result;
+	}
+
+	/**
+	 * Yields the table used by this map to assign slots to keys.
+	 * 
+	 * @return the table
+	 */
+	public SlotTable<K> getTable() {
+		return table;
+	}
+
+	private static boolean covers(int shift, int slot) {
+		// slots are never negative, so the sign bit needs not to be covered
+		return shift + BITS >= Integer.SIZE - 1 || slot >>> (shift + BITS) == 0;
+	}
+
+	private static int fragment(int slot, int shift) {
+		return (slot >>> shift) & MASK;
+	}
+
+	private static int index(int bitmap, int bit) {
+		return Integer.bitCount(bitmap & (bit - 1));
+	}
+
+	private static Node lift(Node node, int shift, int target) {
+		// wraps the node in single-child nodes, so that it covers the same
+		// slots at a higher level
+		if (node == null)
+			return null;
+		for (int sh = shift; sh < target; sh += BITS)
+			node = new Node(1, new Object[] { node }, node.size, false);
+		return node;
+	}
+
+	private Object valueAt(int slot) {
+		if (root == null || !covers(shift, slot))
+			return null;
+
+		Node node = root;
+		for (int sh = shift;; sh -= BITS) {
+			int bit = 1 << fragment(slot, sh);
+			if ((node.bitmap & bit) == 0)
+				return null;
+			int idx = index(node.bitmap, bit);
+			if (node.leaf)
+				return node.array[2 * idx + 1];
+			node = (Node) node.array[idx];
+		}
+	}
+
+	@Override
+	public SlotMap<K, V> plus(K key, V value) {
+		Objects.requireNonNull(key, "Persistent maps do not support null keys");
+		Objects.requireNonNull(value, "Persistent maps do not support null values");
+		int slot = table.slotOfOrAdd(key);
+
+		Node node = root;
+		int sh = root == null ? 0 : shift;
+		while (!covers(sh, slot)) {
+			node = lift(node, sh, sh + BITS);
+			sh += BITS;
+		}
+
+		Node updated = put(node, sh, slot, key, value);
+		return updated == node ? this : new SlotMap<>(table, updated, sh);
+	}
+
+	private static Node put(Node node, int shift, int slot, Object key, Object value) {
+		int bit = 1 << fragment(slot, shift);
+		if (node == null)
+			return shift == 0 ? new Node(bit, new Object[] { key, value }, 1, true)
+					: new Node(bit, new Object[] { put(null, shift - BITS, slot, key, value) }, 1, false);
+
+		int idx = index(node.bitmap, bit);
+		boolean present = (node.bitmap & bit) != 0;
+		if (node.leaf) {
+			if (present) {
+				if (node.array[2 * idx + 1] == value)
+					return node;
+				Object[] array = node.array.clone();
+				array[2 * idx] = key;
+				array[2 * idx + 1] = value;
+				return new Node(node.bitmap, array, node.size, true);
+			}
+
+			Object[] array = new Object[node.array.length + 2];
+			System.arraycopy(node.array, 0, array, 0, 2 * idx);
+			array[2 * idx] = key;
+			array[2 * idx + 1] = value;
+			System.arraycopy(node.array, 2 * idx, array, 2 * idx + 2, node.array.length - 2 * idx);
+			return new Node(node.bitmap | bit, array, node.size + 1, true);
+		}
+
+		Node child = present ? (Node) node.array[idx] : null;
+		Node updated = put(child, shift - BITS, slot, key, value);
+		if (updated == child)
+			return node;
+
+		if (present) {
+			Object[] array = node.array.clone();
+			array[idx] = updated;
+			return new Node(node.bitmap, array, node.size - child.size + updated.size, false);
+		}
+
+		Object[] array = new Object[node.array.length + 1];
+		System.arraycopy(node.array, 0, array, 0, idx);
+		array[idx] = updated;
+		System.arraycopy(node.array, idx, array, idx + 1, node.array.length - idx);
+		return new Node(node.bitmap | bit, array, node.size + updated.size, false);
+	}
+
+	@Override
+	public SlotMap<K, V> minus(Object key) {
+		int slot = table.slotOf(key);
+		if (slot == -1 || root == null || !covers(shift, slot))
+			return this;
+
+		Node updated = remove(root, shift, slot);
+		if (updated == root)
+			return this;
+		return updated == null ? empty(table) : new SlotMap<>(table, updated, shift);
+	}
+
+	private static Node remove(Node node, int shift, int slot) {
+		int bit = 1 << fragment(slot, shift);
+		if ((node.bitmap & bit) == 0)
+			return node;
+
+		int idx = index(node.bitmap, bit);
+		if (node.leaf) {
+			if (node.size == 1)
+				return null;
+			Object[] array = new Object[node.array.length - 2];
+			System.arraycopy(node.array, 0, array, 0, 2 * idx);
+			System.arraycopy(node.array, 2 * idx + 2, array, 2 * idx, array.length - 2 * idx);
+			return new Node(node.bitmap & ~bit, array, node.size - 1, true);
+		}
+
+		Node child = (Node) node.array[idx];
+		Node updated = remove(child, shift - BITS, slot);
+		if (updated == child)
+			return node;
+
+		if (updated != null) {
+			Object[] array = node.array.clone();
+			array[idx] = updated;
+			return new Node(node.bitmap, array, node.size - 1, false);
+		}
+
+		if (node.array.length == 1)
+			return null;
+		Object[] array = new Object[node.array.length - 1];
+		System.arraycopy(node.array, 0, array, 0, idx);
+		System.arraycopy(node.array, idx + 1, array, idx, array.length - idx);
+		return new Node(node.bitmap & ~bit, array, node.size - 1, false);
+	}
+
+	@Override
+	public int size() {
+		return root == null ? 0 : root.size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return root == null;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(Object key) {
+		int slot = table.slotOf(key);
+		return slot == -1 ? null : (V) valueAt(slot);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	@Override
+	public Set<Map.Entry<K, V>> entrySet() {
+		if (entrySet == null)
+			entrySet = new AbstractSet<Map.Entry<K, V>>() {
+
+				@Override
+				public Iterator<Map.Entry<K, V>> iterator() {
+					return new SlotIterator();
+				}
+
+				@Override
+				public int size() {
+					return SlotMap.this.size();
+				}
+			};
+		return entrySet;
+	}
+
+	@Override
+	public <E extends Exception> SlotMap<K, V> merge(PersistentMap<K, V> other, MergeFunction<K, V, E> function)
+			throws E {
+		SlotMap<K, V> map = from(table, other);
+		if (this == map || map.root == null && root == null)
+			return this;
+
+		int sh = Math.max(shift, map.shift);
+		Node left = lift(root, shift, sh), right = lift(map.root, map.shift, sh);
+		Node merged = merge(left, right, function);
+		if (merged == left)
+			return this;
+		if (merged == right)
+			return map;
+		return merged == null ? empty(table) : new SlotMap<>(table, merged, sh);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V, E extends Exception> Node merge(Node left, Node right, MergeFunction<K, V, E> function)
+			throws E {
+		if (left == right)
+			return left;
+
+		int bitmap = bitmapOf(left) | bitmapOf(right);
+		boolean leaf = left == null ? right.leaf : left.leaf;
+		Object[] array = new Object[leaf ? 2 * Integer.bitCount(bitmap) : Integer.bitCount(bitmap)];
+		int resultBitmap = 0, count = 0, size = 0;
+		boolean sameAsLeft = true, sameAsRight = true;
+		for (int rest = bitmap; rest != 0; rest &= rest - 1) {
+			int bit = rest & -rest;
+			if (leaf) {
+				Object lvalue = valueOf(left, bit), rvalue = valueOf(right, bit);
+				Object key, value;
+				if (lvalue == rvalue) {
+					key = keyOf(left, bit);
+					value = lvalue;
+				} else {
+					key = lvalue == null ? keyOf(right, bit) : keyOf(left, bit);
+					value = function.merge((K) key, (V) lvalue, (V) rvalue);
+					if (value != null && value == rvalue)
+						key = keyOf(right, bit);
+				}
+
+				sameAsLeft &= value == lvalue;
+				sameAsRight &= value == rvalue;
+				if (value != null) {
+					array[2 * count] = key;
+					array[2 * count + 1] = value;
+					count++;
+					size++;
+					resultBitmap |= bit;
+				}
+			} else {
+				Node l = childOf(left, bit), r = childOf(right, bit);
+				Node child = merge(l, r, function);
+				sameAsLeft &= child == l;
+				sameAsRight &= child == r;
+				if (child != null) {
+					array[count++] = child;
+					size += child.size;
+					resultBitmap |= bit;
+				}
+			}
+		}
+
+		if (sameAsLeft)
+			return left;
+		if (sameAsRight)
+			return right;
+		if (count == 0)
+			return null;
+		int length = leaf ? 2 * count : count;
+		return new Node(resultBitmap, length == array.length ? array : Arrays.copyOf(array, length), size, leaf);
+	}
+
+	private static int bitmapOf(Node node) {
+		return node == null ? 0 : node.bitmap;
+	}
+
+	private static Node childOf(Node node, int bit) {
+		return node == null || (node.bitmap & bit) == 0 ? null : (Node) node.array[index(node.bitmap, bit)];
+	}
+
+	private static Object keyOf(Node node, int bit) {
+		return node == null || (node.bitmap & bit) == 0 ? null : node.array[2 * index(node.bitmap, bit)];
+	}
+
+	private static Object valueOf(Node node, int bit) {
+		return node == null || (node.bitmap & bit) == 0 ? null : node.array[2 * index(node.bitmap, bit) + 1];
+	}
+
+	@Override
+	public <E extends Exception> boolean allMatch(PersistentMap<K, V> other, MatchPredicate<K, V, E> predicate)
+			throws E {
+		SlotMap<K, V> map = from(table, other);
+		if (this == map)
+			return true;
+
+		int sh = Math.max(shift, map.shift);
+		return allMatch(lift(root, shift, sh), lift(map.root, map.shift, sh), predicate);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V, E extends Exception> boolean allMatch(Node left, Node right,
+			MatchPredicate<K, V, E> predicate) throws E {
+		if (left == right)
+			return true;
+
+		boolean leaf = left == null ? right.leaf : left.leaf;
+		for (int rest = bitmapOf(left) | bitmapOf(right); rest != 0; rest &= rest - 1) {
+			int bit = rest & -rest;
+			if (leaf) {
+				Object lvalue = valueOf(left, bit), rvalue = valueOf(right, bit);
+				if (lvalue != rvalue && !predicate.test((K) (lvalue == null ? keyOf(right, bit) : keyOf(left, bit)),
+						(V) lvalue, (V) rvalue))
+					return false;
+			} else if (!allMatch(childOf(left, bit), childOf(right, bit), predicate))
+				return false;
+		}
+		return true;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof SlotMap) || ((SlotMap<?, ?>) obj).table != table)
+			return super.equals(obj);
+
+		@SuppressWarnings("unchecked")
+		SlotMap<K, V> other = (SlotMap<K, V>) obj;
+		return size() == other.size()
+				&& allMatch(other, (key, left, right) -> left != null && left.equals(right));
+	}
+
+	@Override
+	public int hashCode() {
+		return super.hashCode();
+	}
+
+	/**
+	 * A node of the trie. The children of a node are selected by the bits of
+	 * the slot consumed by the level of the node: the bitmap has a bit set for
+	 * each of the children that are present, and these are stored in increasing
+	 * order of slot. Leaves store the key and the value of each of their
+	 * mappings in consecutive positions of the same array.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static final class Node {
+
+		private final int bitmap;
+
+		private final Object[] array;
+
+		private final int size;
+
+		private final boolean leaf;
+
+		private Node(int bitmap, Object[] array, int size, boolean leaf) {
+			this.bitmap = bitmap;
+			this.array = array;
+			this.size = size;
+			this.leaf = leaf;
+		}
+	}
+
+	/**
+	 * An iterator over the mappings of the enclosing map, in increasing order
+	 * of slot.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private final class SlotIterator implements Iterator<Map.Entry<K, V>> {
+
+		private final Deque<Node> pending = new ArrayDeque<>();
+
+		private Node leaf;
+
+		private int next;
+
+		private SlotIterator() {
+			if (root != null)
+				pending.push(root);
+			advance();
+		}
+
+		private void advance() {
+			while ((leaf == null || next >= leaf.size) && !pending.isEmpty()) {
+				Node node = pending.pop();
+				if (node.leaf) {
+					leaf = node;
+					next = 0;
+				} else
+					for (int i = node.array.length - 1; i >= 0; i--)
+						pending.push((Node) node.array[i]);
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return leaf != null && next < leaf.size;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public Map.Entry<K, V> next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			Map.Entry<K, V> entry = new SimpleImmutableEntry<>((K) leaf.array[2 * next], (V) leaf.array[2 * next + 1]);
+			next++;
+			advance();
+			return entry;
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package it.unive.lisa.util.collections;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A table assigning a dense, non-negative integer (a <i>slot</i>) to each
+ * element that is added to it. Slots are assigned in increasing order, starting
+ * from {@code 0}, and they never change. Elements are compared through
+ * {@link Object#equals(Object)}. This class is thread-safe.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ * 
+ * @param <T> the type of elements that this table stores
+ */
+public class SlotTable<T> {
+
+	/**
+	 * A map from the elements to their slot
+	 */
+	private final ConcurrentMap<T, Integer> slots = new ConcurrentHashMap<>();
+
+	/**
+	 * The next slot available for new elements
+	 */
+	private final AtomicInteger nextSlot = new AtomicInteger();
+
+	/**
+	 * Yields the slot assigned to the given element, or {@code -1} if the
+	 * element has never been added to this table.
+	 * 
+	 * @param e the element
+	 * 
+	 * @return the slot of {@code e}, or {@code -1}
+	 */
+	public final int slotOf(Object e) {
+		Integer result;
+		return e == null || (result = slots.get(e)) == null ? -1 : result;
+	}
+
+	/**
+	 * Yields the slot assigned to the given element. If the element has never
+	 * been added to this table, it is added with a fresh slot.
+	 * 
+	 * @param e the element
+	 * 
+	 * @return the slot of {@code e}
+	 */
+	public final int slotOfOrAdd(T e) {
+		Integer result = slots.get(e);
+		if (result == null)
+			result = slots.computeIfAbsent(e, el -> nextSlot.getAndIncrement());
+		return result;
+	}
+
+	/**
+	 * Yields the total number of elements stored in this table.
+	 * 
+	 * @return the number of elements
+	 */
+	public final int size() {
+		return slots.size();
+	}
+}
@@ -1,41 +1,104 @@
 package it.unive.lisa.util.file;
 
+import java.io.Closeable;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.TreeSet;
 
 /**
  * A file manager that provides standard functionalities for communicating with
- * the file system.
+ * the file system. Each instance creates files inside its own working
+ * directory, and keeps track of the files it created, so that different
+ * analyses can use different instances concurrently. Instead of creating loose
+ * files, a manager can store all of them as entries of a single zip archive,
+ * that is completed when the manager is closed.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  */
-public class FileManager {
+public class FileManager implements Closeable {
 
-	private static File workdir;
+	private final File workdir;
 
-	private static final Collection<String> createdFiles = new TreeSet<>();
+	private final FileSystem archive;
+
+	private final Collection<String> createdFiles;
+
+	/**
+	 * Builds a new manager, that creates loose files in the working directory.
+	 * 
+	 * @param workdir the working directory that will be used as root folder for
+	 *                    the creation of all files
+	 */
+	public FileManager(String workdir) {
+		this.workdir = Paths.get(workdir).toFile();
+		this.archive = null;
+		this.createdFiles = new TreeSet<>();
+	}
 
 	/**
-	 * Sets the working directory that will be used as root folder for the
-	 * creation of all files.
+	 * Builds a new manager, that stores all files as entries of a zip archive
+	 * created in the working directory. If the archive already exists, it is
+	 * replaced. The archive is completed only when {@link #close()} is invoked.
+	 * 
+	 * @param workdir     the working directory where the archive will be
+	 *                        created
+	 * @param archiveName the name of the archive
+	 * @param compress    whether or not entries should be compressed
 	 * 
-	 * @param workdir the working directory
+	 * @throws IOException if something goes wrong while creating the archive
 	 */
-	public static void setWorkdir(String workdir) {
-		FileManager.workdir = Paths.get(workdir).toFile();
+	public FileManager(String workdir, String archiveName, boolean compress) throws IOException {
+		this.workdir = Paths.get(workdir).toFile();
+		this.createdFiles = new TreeSet<>();
+
+		Path file = new File(this.workdir, archiveName).getAbsoluteFile().toPath();
+		Files.createDirectories(file.getParent());
+		Files.deleteIfExists(file);
+		Map<String, String> env = new HashMap<>();
+		env.put("create", "true");
+		env.put("noCompression", String.valueOf(!compress));
+		this.archive = FileSystems.newFileSystem(URI.create("jar:" + file.toUri()), env);
+	}
+
+	/**
+	 * Yields {@code true} if and only if this manager stores files as entries
+	 * of a zip archive.
+	 * 
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean isArchive() {
+		return archive != null;
+	}
+
+	/**
+	 * Closes this manager. If files are stored in a zip archive, this completes
+	 * the archive, and no more files can be created after this method has been
+	 * invoked. Writers returned by this manager should be closed before
+	 * invoking this method.
+	 * 
+	 * @throws IOException if something goes wrong while completing the archive
+	 */
+	@Override
+	public void close() throws IOException {
+		if (archive != null)
+			archive.close();
 	}
 
 	/**
 	 * Clears the list of names of created files.
 	 */
-	public static void clearCreatedFiles() {
+	public synchronized void clearCreatedFiles() {
 		createdFiles.clear();
 	}
 
@@ -45,8 +108,8 @@ public class FileManager {
 	 * 
 	 * @return the names of the created files
 	 */
-	public static Collection<String> createdFiles() {
-		return createdFiles;
+	public synchronized Collection<String> createdFiles() {
+		return new TreeSet<>(createdFiles);
 	}
 
 	/**
@@ -61,7 +124,7 @@ public class FileManager {
 	 * 
 	 * @throws IOException if something goes wrong while creating the file
 	 */
-	public static Writer mkOutputFile(String name) throws IOException {
+	public Writer mkOutputFile(String name) throws IOException {
 		return mkOutputFile(cleanupForDotFile(name), false);
 	}
 
@@ -69,7 +132,10 @@ public class FileManager {
 	 * Creates a UTF-8 encoded file with the given name. If name is a path, all
 	 * missing directories will be created as well. The given name will be
 	 * joined with the workdir used to initialize this file manager, thus
-	 * raising an exception if {@code name} is absolute.
+	 * raising an exception if {@code name} is absolute. If this manager stores
+	 * files in a zip archive, {@code name} is instead the name of the entry to
+	 * create. The returned writer is buffered, and it must be closed to ensure
+	 * that its contents are written to the file.
 	 * 
 	 * @param name the name of the file to create
 	 * @param bom  if {@code true}, the bom marker {@code \ufeff} will be
@@ -79,17 +145,22 @@ public class FileManager {
 	 * 
 	 * @throws IOException if something goes wrong while creating the file
 	 */
-	public static Writer mkOutputFile(String name, boolean bom) throws IOException {
-		File file = new File(workdir, name);
+	public Writer mkOutputFile(String name, boolean bom) throws IOException {
+		Path file = archive == null ? new File(workdir, name).getAbsoluteFile().toPath()
+				: archive.getPath("/", name);
 
-		if (!file.getAbsoluteFile().getParentFile().exists())
-			file.getAbsoluteFile().getParentFile().mkdirs();
+		if (file.getParent() != null)
+			Files.createDirectories(file.getParent());
 
-		Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8.newEncoder());
+		// the writer is buffered, so that small writes do not reach the channel
+		// one at a time
+		Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
 		if (bom)
 			writer.write('\ufeff');
 
-		createdFiles.add(name);
+		synchronized (this) {
+			createdFiles.add(name);
+		}
 
 		return writer;
 	}
@@ -108,7 +179,7 @@ public class FileManager {
 	 * 
 	 * @throws IOException if something goes wrong while creating the file
 	 */
-	public static Writer mkDotFile(String name) throws IOException {
+	public Writer mkDotFile(String name) throws IOException {
 		return mkOutputFile(cleanupForDotFile(name) + ".dot", false);
 	}
 
@@ -0,0 +1,144 @@
+package it.unive.lisa.util.file;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A background stage that writes output files on behalf of the analysis.
+ * Threads submitting a dump through {@link #dumpDot(String, DumpAction)} only
+ * enqueue it, and a fixed number of writer threads create the files through a
+ * {@link FileManager} and fill them. The queue of pending dumps is bounded:
+ * when it is full, the submitting thread performs the dump itself, so that the
+ * memory held by pending dumps does not grow without limits.<br>
+ * <br>
+ * Failures while writing a file, including unchecked exceptions thrown by a
+ * {@link DumpAction}, are logged and do not interrupt the analysis, nor the
+ * other dumps. This holds also for dumps performed by the submitting thread:
+ * differently from a synchronous dump, {@link #dumpDot(String, DumpAction)}
+ * never propagates the failures of the dump it submits.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class OutputPipeline {
+
+	private static final Logger log = LogManager.getLogger(OutputPipeline.class);
+
+	/**
+	 * The default number of writer threads
+	 */
+	public static final int DEFAULT_WRITERS = 2;
+
+	/**
+	 * The default maximum number of pending dumps
+	 */
+	public static final int DEFAULT_CAPACITY = 64;
+
+	private final FileManager manager;
+
+	private final ThreadPoolExecutor writers;
+
+	/**
+	 * Builds the pipeline, using {@link #DEFAULT_WRITERS} writer threads and
+	 * holding at most {@link #DEFAULT_CAPACITY} pending dumps.
+	 * 
+	 * @param manager the manager used to create the files
+	 */
+	public OutputPipeline(FileManager manager) {
+		this(manager, DEFAULT_WRITERS, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Builds the pipeline.
+	 * 
+	 * @param manager  the manager used to create the files
+	 * @param writers  the number of writer threads
+	 * @param capacity the maximum number of pending dumps
+	 * 
+	 * @throws IllegalArgumentException if {@code writers} or {@code capacity}
+	 *                                      is not positive
+	 */
+	public OutputPipeline(FileManager manager, int writers, int capacity) {
+		if (writers < 1)
+			throw new IllegalArgumentException("The number of writers must be positive: " + writers);
+		if (capacity < 1)
+			throw new IllegalArgumentException("The capacity must be positive: " + capacity);
+
+		this.manager = manager;
+		AtomicInteger ids = new AtomicInteger();
+		this.writers = new ThreadPoolExecutor(writers, writers, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(capacity), r -> {
+					Thread thread = new Thread(r, "lisa-output-" + ids.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+
+	/**
+	 * Schedules the creation of a dot file with the given name, that will be
+	 * filled by the given action. The file is created through
+	 * {@link FileManager#mkDotFile(String)}, and it is closed after the action
+	 * completes. Failures of the dump are logged, and they are not propagated
+	 * to the caller.
+	 * 
+	 * @param name   the name of the file to create
+	 * @param action the action writing the contents of the file
+	 * 
+	 * @throws IllegalStateException if {@link #drain()} has already been
+	 *                                   invoked
+	 */
+	public void dumpDot(String name, DumpAction action) {
+		if (writers.isShutdown())
+			throw new IllegalStateException("The pipeline has already been drained");
+
+		writers.execute(() -> {
+			try (Writer writer = manager.mkDotFile(name)) {
+				action.dump(writer);
+			} catch (IOException | RuntimeException e) {
+				log.error("Exception while dumping " + name, e);
+			}
+		});
+	}
+
+	/**
+	 * Waits for all pending dumps to complete, and stops the writer threads. No
+	 * more dumps can be submitted after this method has been invoked. If the
+	 * current thread is interrupted while waiting, pending dumps are discarded.
+	 * 
+	 * @throws InterruptedException if the current thread is interrupted while
+	 *                                  waiting
+	 */
+	public void drain() throws InterruptedException {
+		writers.shutdown();
+		try {
+			while (!writers.awaitTermination(1, TimeUnit.SECONDS))
+				log.debug(writers.getQueue().size() + " dumps still pending");
+		} catch (InterruptedException e) {
+			writers.shutdownNow();
+			throw e;
+		}
+	}
+
+	/**
+	 * An action writing the contents of a file.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	@FunctionalInterface
+	public interface DumpAction {
+
+		/**
+		 * Writes the contents of the file to the given writer.
+		 * 
+		 * @param writer the writer to write to
+		 * 
+		 * @throws IOException if some I/O error happens while writing
+		 */
+		void dump(Writer writer) throws IOException;
+	}
+}
@@ -0,0 +1,90 @@
+package it.unive.lisa.test.analysis;
+
+import static org.junit.Assert.assertEquals;
+
+import it.unive.lisa.AnalysisException;
+import it.unive.lisa.LiSA;
+import it.unive.lisa.analysis.CFGWithAnalysisResults;
+import it.unive.lisa.analysis.nonrelational.NonRelationalValueDomain;
+import it.unive.lisa.callgraph.impl.intraproc.IntraproceduralCallGraph;
+import it.unive.lisa.cfg.CFG;
+import it.unive.lisa.cfg.statement.Statement;
+import it.unive.lisa.test.imp.IMPFrontend;
+import it.unive.lisa.test.imp.ParsingException;
+import it.unive.lisa.test.imp.tutorial.Parity;
+import it.unive.lisa.test.imp.tutorial.Sign;
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.Test;
+
+public class ConcurrentConfigurationsTest {
+
+	private static final String FILE = "imp-testcases/type-inference/program.imp";
+
+	private static <T extends NonRelationalValueDomain<T>> LiSA configuration(T domain,
+			IntraproceduralCallGraph callGraph, boolean inferTypes, String workdir) {
+		LiSA lisa = new LiSA();
+		lisa.addNonRelationalValueDomain(domain);
+		lisa.setInferTypes(inferTypes);
+		lisa.setCallGraph(callGraph);
+		lisa.setWorkdir(workdir);
+		return lisa;
+	}
+
+	@Test
+	public void testSameResultsAsSequentialRuns() throws ParsingException, AnalysisException {
+		Collection<CFG> cfgs = IMPFrontend.processFile(FILE);
+		IntraproceduralCallGraph sign = new IntraproceduralCallGraph();
+		IntraproceduralCallGraph parity = new IntraproceduralCallGraph();
+		IntraproceduralCallGraph typedSign = new IntraproceduralCallGraph();
+		LiSA.runAll(cfgs, Arrays.asList(
+				configuration(new Sign(), sign, false, "test-outputs/concurrent/sign"),
+				configuration(new Parity(), parity, false, "test-outputs/concurrent/parity"),
+				configuration(new Sign(), typedSign, true, "test-outputs/concurrent/typed-sign")), 2);
+
+		check(cfgs, sign, new Sign(), false);
+		check(cfgs, parity, new Parity(), false);
+		check(cfgs, typedSign, new Sign(), true);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSharedWorkdirRejected() throws ParsingException, AnalysisException {
+		Collection<CFG> cfgs = IMPFrontend.processFile(FILE);
+		LiSA.runAll(cfgs, Arrays.asList(
+				configuration(new Sign(), new IntraproceduralCallGraph(), false, "test-outputs/concurrent/shared"),
+				configuration(new Parity(), new IntraproceduralCallGraph(), false, "test-outputs/concurrent/shared")),
+				2);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSharedCallGraphRejected() throws ParsingException, AnalysisException {
+		Collection<CFG> cfgs = IMPFrontend.processFile(FILE);
+		IntraproceduralCallGraph shared = new IntraproceduralCallGraph();
+		LiSA.runAll(cfgs, Arrays.asList(
+				configuration(new Sign(), shared, false, "test-outputs/concurrent/sign"),
+				configuration(new Parity(), shared, false, "test-outputs/concurrent/parity")), 2);
+	}
+
+	private static <T extends NonRelationalValueDomain<T>> void check(Collection<CFG> cfgs,
+			IntraproceduralCallGraph actual, T domain, boolean inferTypes) throws ParsingException, AnalysisException {
+		Collection<CFG> sequentialCfgs = IMPFrontend.processFile(FILE);
+		IntraproceduralCallGraph expected = new IntraproceduralCallGraph();
+		LiSA lisa = configuration(domain, expected, inferTypes, "test-outputs/concurrent/sequential");
+		lisa.addCFGs(sequentialCfgs);
+		lisa.run();
+
+		for (CFG cfg : cfgs) {
+			CFG other = sequentialCfgs.stream()
+					.filter(c -> c.getDescriptor().getFullSignature().equals(cfg.getDescriptor().getFullSignature()))
+					.findFirst().get();
+			CFGWithAnalysisResults<?, ?> act = actual.getAnalysisResultsOf(cfg);
+			CFGWithAnalysisResults<?, ?> exp = expected.getAnalysisResultsOf(other);
+			for (Statement st : cfg.getNodes()) {
+				Statement otherSt = other.getNodes().stream().filter(s -> s.getOffset() == st.getOffset())
+						.findFirst().get();
+				assertEquals(exp.getAnalysisStateAt(otherSt).getState().getValueState().representation(),
+						act.getAnalysisStateAt(st).getState().getValueState().representation());
+			}
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package it.unive.lisa.test.analysis;
+
+import static org.junit.Assert.assertEquals;
+
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.SemanticDomain;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.ValueProduct;
+import it.unive.lisa.analysis.heap.MonolithicHeap;
+import it.unive.lisa.analysis.impl.types.TypeEnvironment;
+import it.unive.lisa.analysis.nonrelational.ValueEnvironment;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.ValueIdentifier;
+import it.unive.lisa.test.imp.tutorial.Parity;
+import it.unive.lisa.test.imp.tutorial.Sign;
+import it.unive.lisa.test.imp.types.IntType;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class RepresentationTest {
+
+	private static final ValueIdentifier X = new ValueIdentifier(Caches.types().mkSingletonSet(IntType.INSTANCE), "x");
+
+	private static final ValueIdentifier Y = new ValueIdentifier(Caches.types().mkSingletonSet(IntType.INSTANCE), "y");
+
+	private static void check(SemanticDomain<?, ?, ?> domain) throws IOException {
+		StringBuilder builder = new StringBuilder();
+		domain.representation(builder);
+		assertEquals(domain.representation(), builder.toString());
+	}
+
+	private static ValueProduct product() {
+		return new ValueProduct(Arrays.asList(new ValueEnvironment<>(new Sign()), new ValueEnvironment<>(new Parity()),
+				new TypeEnvironment()));
+	}
+
+	private static List<ValueProduct> states() throws SemanticException {
+		ValueProduct top = product().top();
+		ValueProduct x = top.assign(X, new Constant(IntType.INSTANCE, 4));
+		ValueProduct xy = x.assign(Y, new Constant(IntType.INSTANCE, -3));
+		return Arrays.asList(top, product().bottom(), x, xy);
+	}
+
+	@Test
+	public void testEnvironments() throws SemanticException, IOException {
+		for (ValueProduct state : states())
+			for (int i = 0; i < 3; i++)
+				check(state.getComponent(i));
+	}
+
+	@Test
+	public void testValueProduct() throws SemanticException, IOException {
+		for (ValueProduct state : states())
+			check(state);
+	}
+
+	@Test
+	public void testAnalysisState() throws SemanticException, IOException {
+		for (ValueProduct state : states()) {
+			AbstractState<MonolithicHeap, ValueProduct> abstractState = new AbstractState<>(new MonolithicHeap().top(),
+					state);
+			check(abstractState);
+			check(new AnalysisState<>(abstractState, X));
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package it.unive.lisa.test.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.AnalysisException;
+import it.unive.lisa.LiSA;
+import it.unive.lisa.analysis.CFGWithAnalysisResults;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.ValueDomain;
+import it.unive.lisa.analysis.ValueProduct;
+import it.unive.lisa.analysis.nonrelational.ValueEnvironment;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.callgraph.impl.intraproc.IntraproceduralCallGraph;
+import it.unive.lisa.cfg.CFG;
+import it.unive.lisa.cfg.statement.Statement;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.ValueIdentifier;
+import it.unive.lisa.test.imp.IMPFrontend;
+import it.unive.lisa.test.imp.ParsingException;
+import it.unive.lisa.test.imp.tutorial.Parity;
+import it.unive.lisa.test.imp.tutorial.Sign;
+import it.unive.lisa.test.imp.types.IntType;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.junit.Test;
+
+public class ValueProductTest {
+
+	@Test
+	public void testReduction() throws SemanticException {
+		AtomicInteger reductions = new AtomicInteger();
+		ValueProduct product = new ValueProduct(
+				Arrays.asList(new ValueEnvironment<>(new Sign()), new ValueEnvironment<>(new Parity())),
+				components -> {
+					reductions.incrementAndGet();
+					return components;
+				});
+
+		ValueIdentifier x = new ValueIdentifier(Caches.types().mkSingletonSet(IntType.INSTANCE), "x");
+		ValueProduct result = product.top().assign(x, new Constant(IntType.INSTANCE, 4));
+		assertEquals(1, reductions.get());
+		assertEquals("+", result.<ValueEnvironment<Sign>>getComponent(0).getState(x).representation());
+		assertEquals("Even", result.<ValueEnvironment<Parity>>getComponent(1).getState(x).representation());
+
+		// reductions are not applied when joining
+		result.lub(product.top());
+		assertEquals(1, reductions.get());
+	}
+
+	@Test
+	public void testBottomIsSmashed() throws SemanticException {
+		ValueProduct product = new ValueProduct(
+				Arrays.asList(new ValueEnvironment<>(new Sign()), new ValueEnvironment<>(new Parity())),
+				components -> Arrays.asList(components.get(0), (ValueDomain<?>) components.get(1).bottom()));
+
+		ValueIdentifier x = new ValueIdentifier(Caches.types().mkSingletonSet(IntType.INSTANCE), "x");
+		ValueProduct result = product.top().assign(x, new Constant(IntType.INSTANCE, 4));
+		assertTrue(result.<ValueEnvironment<Sign>>getComponent(0).isBottom());
+		assertEquals(product.bottom(), result);
+	}
+
+	@Test
+	public void testMultipleDomains() throws ParsingException, AnalysisException {
+		Collection<CFG> cfgs = IMPFrontend.processFile("imp-testcases/type-inference/program.imp");
+		IntraproceduralCallGraph product = run(cfgs, lisa -> {
+			lisa.addNonRelationalValueDomain(new Sign());
+			lisa.addNonRelationalValueDomain(new Parity());
+		});
+		IntraproceduralCallGraph sign = run(cfgs, lisa -> lisa.addNonRelationalValueDomain(new Sign()));
+		IntraproceduralCallGraph parity = run(cfgs, lisa -> lisa.addNonRelationalValueDomain(new Parity()));
+
+		// without reductions, each component must be the same as if its
+		// domain was executed alone
+		for (CFG cfg : cfgs) {
+			CFGWithAnalysisResults<?, ?> result = product.getAnalysisResultsOf(cfg);
+			for (Statement st : cfg.getNodes()) {
+				Object state = result.getAnalysisStateAt(st).getState().getValueState();
+				assertTrue(state instanceof ValueProduct);
+				assertEquals(2, ((ValueProduct) state).getComponents().size());
+				assertEquals(valueStateAt(sign, cfg, st), ((ValueProduct) state).getComponent(0));
+				assertEquals(valueStateAt(parity, cfg, st), ((ValueProduct) state).getComponent(1));
+			}
+		}
+	}
+
+	private static IntraproceduralCallGraph run(Collection<CFG> cfgs, Consumer<LiSA> domains)
+			throws AnalysisException {
+		IntraproceduralCallGraph callGraph = new IntraproceduralCallGraph();
+		LiSA lisa = new LiSA();
+		cfgs.forEach(lisa::addCFG);
+		domains.accept(lisa);
+		lisa.setCallGraph(callGraph);
+		lisa.setWorkdir("test-outputs/value-product");
+		lisa.run();
+		return callGraph;
+	}
+
+	private static Object valueStateAt(IntraproceduralCallGraph callGraph, CFG cfg, Statement st) {
+		return callGraph.getAnalysisResultsOf(cfg).getAnalysisStateAt(st).getState().getValueState();
+	}
+}
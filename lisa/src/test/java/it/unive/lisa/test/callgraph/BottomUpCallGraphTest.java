@@ -0,0 +1,132 @@
+package it.unive.lisa.test.callgraph;
+
+import static org.junit.Assert.assertEquals;
+
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.heap.MonolithicHeap;
+import it.unive.lisa.analysis.nonrelational.ValueEnvironment;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.callgraph.impl.interproc.BottomUpCallGraph;
+import it.unive.lisa.cfg.CFG;
+import it.unive.lisa.cfg.CFGDescriptor;
+import it.unive.lisa.cfg.FixpointException;
+import it.unive.lisa.cfg.Parameter;
+import it.unive.lisa.cfg.edge.SequentialEdge;
+import it.unive.lisa.cfg.statement.Assignment;
+import it.unive.lisa.cfg.statement.Literal;
+import it.unive.lisa.cfg.statement.NoOp;
+import it.unive.lisa.cfg.statement.Return;
+import it.unive.lisa.cfg.statement.Statement;
+import it.unive.lisa.cfg.statement.UnresolvedCall;
+import it.unive.lisa.cfg.statement.Variable;
+import it.unive.lisa.cfg.type.Untyped;
+import it.unive.lisa.symbolic.value.Skip;
+import it.unive.lisa.symbolic.value.ValueIdentifier;
+import it.unive.lisa.test.imp.tutorial.Sign;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+
+public class BottomUpCallGraphTest {
+
+	private static AnalysisState<MonolithicHeap, ValueEnvironment<Sign>> entry() {
+		return new AnalysisState<>(
+				new AbstractState<>(new MonolithicHeap().top(), new ValueEnvironment<>(new Sign()).top()),
+				Skip.INSTANCE);
+	}
+
+	private static Sign valueOf(BottomUpCallGraph cg, CFG cfg, Statement st, String name) {
+		return cg.<MonolithicHeap, ValueEnvironment<Sign>>getAnalysisResultsOf(cfg).getAnalysisStateAt(st)
+				.getState().getValueState().getState(new ValueIdentifier(Caches.types().mkEmptySet(), name));
+	}
+
+	@Test
+	public void testRecursiveComponents() throws FixpointException {
+		// f(p) { return g(p); } g(p) { either return 1; or return f(p); }
+		CFG f = new CFG(new CFGDescriptor("f", new Parameter("p")));
+		CFG g = new CFG(new CFGDescriptor("g", new Parameter("p")));
+		f.addNode(new Return(f, new UnresolvedCall(f, "g", new Variable(f, "p"))), true);
+		NoOp choice = new NoOp(g);
+		Return base = new Return(g, new Literal(g, 1, Untyped.INSTANCE));
+		Return rec = new Return(g, new UnresolvedCall(g, "f", new Variable(g, "p")));
+		g.addNode(choice, true);
+		g.addNode(base);
+		g.addNode(rec);
+		g.addEdge(new SequentialEdge(choice, base));
+		g.addEdge(new SequentialEdge(choice, rec));
+
+		// main() { x = -5; y = f(x); return x; }
+		CFG main = new CFG(new CFGDescriptor("main"));
+		Assignment x = new Assignment(main, new Variable(main, "x"), new Literal(main, -5, Untyped.INSTANCE));
+		Assignment y = new Assignment(main, new Variable(main, "y"),
+				new UnresolvedCall(main, "f", new Variable(main, "x")));
+		Return ret = new Return(main, new Variable(main, "x"));
+		main.addNode(x, true);
+		main.addNode(y);
+		main.addNode(ret);
+		main.addEdge(new SequentialEdge(x, y));
+		main.addEdge(new SequentialEdge(y, ret));
+
+		ExecutorService executor = new ForkJoinPool(2);
+		try {
+			BottomUpCallGraph cg = new BottomUpCallGraph(executor);
+			cg.addCFG(main);
+			cg.addCFG(f);
+			cg.addCFG(g);
+			cg.fixpoint(entry(), Statement::semantics);
+
+			// the summaries of f and g are iterated until they both return 1
+			assertEquals("-", valueOf(cg, main, ret, "x").representation());
+			assertEquals("+", valueOf(cg, main, ret, "y").representation());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testCalleesAnalyzedOnce() throws FixpointException {
+		// leaf(p) { return -1; }
+		CFG leaf = new CFG(new CFGDescriptor("leaf", new Parameter("p")));
+		leaf.addNode(new Return(leaf, new Literal(leaf, -1, Untyped.INSTANCE)), true);
+
+		// a(p) { return leaf(p); } b(p) { return leaf(p); }
+		CFG a = new CFG(new CFGDescriptor("a", new Parameter("p")));
+		a.addNode(new Return(a, new UnresolvedCall(a, "leaf", new Variable(a, "p"))), true);
+		CFG b = new CFG(new CFGDescriptor("b", new Parameter("p")));
+		b.addNode(new Return(b, new UnresolvedCall(b, "leaf", new Variable(b, "p"))), true);
+
+		// main() { x = a(1); y = b(-1); return x; }
+		CFG main = new CFG(new CFGDescriptor("main"));
+		Assignment x = new Assignment(main, new Variable(main, "x"),
+				new UnresolvedCall(main, "a", new Literal(main, 1, Untyped.INSTANCE)));
+		Assignment y = new Assignment(main, new Variable(main, "y"),
+				new UnresolvedCall(main, "b", new Literal(main, -1, Untyped.INSTANCE)));
+		Return ret = new Return(main, new Variable(main, "x"));
+		main.addNode(x, true);
+		main.addNode(y);
+		main.addNode(ret);
+		main.addEdge(new SequentialEdge(x, y));
+		main.addEdge(new SequentialEdge(y, ret));
+
+		BottomUpCallGraph cg = new BottomUpCallGraph();
+		for (CFG cfg : Arrays.asList(main, a, b, leaf))
+			cg.addCFG(cfg);
+		Map<CFG, Integer> fixpoints = new ConcurrentHashMap<>();
+		cg.fixpoint(entry(), (st, state, callGraph, expressions) -> {
+			// all the cfgs are made of a single return
+			if (st instanceof Return)
+				fixpoints.merge(st.getCFG(), 1, Integer::sum);
+			return st.semantics(state, callGraph, expressions);
+		});
+
+		// each callee is analyzed once, and then read through its summary
+		for (CFG cfg : Arrays.asList(a, b, leaf))
+			assertEquals(cfg.toString(), 1, (int) fixpoints.get(cfg));
+		assertEquals("-", valueOf(cg, main, ret, "x").representation());
+		assertEquals("-", valueOf(cg, main, ret, "y").representation());
+	}
+}
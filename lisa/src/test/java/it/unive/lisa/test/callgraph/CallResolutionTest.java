@@ -0,0 +1,77 @@
+package it.unive.lisa.test.callgraph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.callgraph.impl.intraproc.IntraproceduralCallGraph;
+import it.unive.lisa.cfg.CFG;
+import it.unive.lisa.cfg.CFGDescriptor;
+import it.unive.lisa.cfg.Parameter;
+import it.unive.lisa.cfg.statement.CFGCall;
+import it.unive.lisa.cfg.statement.Call;
+import it.unive.lisa.cfg.statement.OpenCall;
+import it.unive.lisa.cfg.statement.UnresolvedCall;
+import it.unive.lisa.cfg.statement.Variable;
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.Test;
+
+public class CallResolutionTest {
+
+	private static UnresolvedCall call(CFG caller, String name, String... args) {
+		return new UnresolvedCall(caller, name,
+				Arrays.stream(args).map(arg -> new Variable(caller, arg)).toArray(Variable[]::new));
+	}
+
+	@Test
+	public void testResolutionThroughNameAndArity() {
+		CFG main = new CFG(new CFGDescriptor("main"));
+		CFG foo = new CFG(new CFGDescriptor("foo", new Parameter("a")));
+		CFG fooPair = new CFG(new CFGDescriptor("foo", new Parameter("a"), new Parameter("b")));
+		CFG bar = new CFG(new CFGDescriptor("bar", new Parameter("a")));
+		IntraproceduralCallGraph cg = new IntraproceduralCallGraph();
+		cg.addCFG(main);
+		cg.addCFG(foo);
+		cg.addCFG(fooPair);
+		cg.addCFG(bar);
+
+		Call single = cg.resolve(call(main, "foo", "x"));
+		Call pair = cg.resolve(call(main, "foo", "x", "y"));
+		Call none = cg.resolve(call(main, "foo", "x", "y", "z"));
+		Call unknown = cg.resolve(call(main, "baz", "x"));
+
+		assertEquals(new HashSet<>(Arrays.asList(foo)), new HashSet<>(((CFGCall) single).getTargets()));
+		assertEquals(new HashSet<>(Arrays.asList(fooPair)), new HashSet<>(((CFGCall) pair).getTargets()));
+		assertTrue(none instanceof OpenCall);
+		assertTrue(unknown instanceof OpenCall);
+
+		// calls with the same shape share the cached targets
+		assertSame(((CFGCall) single).getTargets(), ((CFGCall) cg.resolve(call(main, "foo", "y"))).getTargets());
+	}
+
+	@Test
+	public void testAddedOverloadInvalidatesResolutions() {
+		CFG main = new CFG(new CFGDescriptor("main"));
+		CFG foo = new CFG(new CFGDescriptor("foo", new Parameter("a")));
+		IntraproceduralCallGraph cg = new IntraproceduralCallGraph();
+		cg.addCFG(main);
+		cg.addCFG(foo);
+
+		CFGCall before = (CFGCall) cg.resolve(call(main, "foo", "x"));
+		assertTrue(cg.resolve(call(main, "foo", "x", "y")) instanceof OpenCall);
+
+		CFG overload = new CFG(new CFGDescriptor("foo", new Parameter("b")));
+		CFG fooPair = new CFG(new CFGDescriptor("foo", new Parameter("a"), new Parameter("b")));
+		cg.addCFG(overload);
+		cg.addCFG(fooPair);
+
+		CFGCall after = (CFGCall) cg.resolve(call(main, "foo", "x"));
+		assertEquals(new HashSet<>(Arrays.asList(foo, overload)), new HashSet<>(after.getTargets()));
+		assertEquals(new HashSet<>(Arrays.asList(fooPair)),
+				new HashSet<>(((CFGCall) cg.resolve(call(main, "foo", "x", "y"))).getTargets()));
+
+		// calls resolved before the overload was added are left untouched
+		assertEquals(new HashSet<>(Arrays.asList(foo)), new HashSet<>(before.getTargets()));
+	}
+}
@@ -0,0 +1,139 @@
+package it.unive.lisa.test.callgraph;
+
+import static org.junit.Assert.assertEquals;
+
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.ExpressionStore;
+import it.unive.lisa.analysis.HeapDomain;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.ValueDomain;
+import it.unive.lisa.analysis.impl.types.TypeEnvironment;
+import it.unive.lisa.callgraph.CallGraph;
+import it.unive.lisa.callgraph.impl.interproc.ClassHierarchyCallGraph;
+import it.unive.lisa.callgraph.impl.interproc.RapidTypeCallGraph;
+import it.unive.lisa.cfg.CFG;
+import it.unive.lisa.cfg.CFGDescriptor;
+import it.unive.lisa.cfg.Parameter;
+import it.unive.lisa.cfg.edge.SequentialEdge;
+import it.unive.lisa.cfg.statement.Assignment;
+import it.unive.lisa.cfg.statement.CFGCall;
+import it.unive.lisa.cfg.statement.Expression;
+import it.unive.lisa.cfg.statement.Return;
+import it.unive.lisa.cfg.statement.Statement;
+import it.unive.lisa.cfg.statement.StatementVisitor;
+import it.unive.lisa.cfg.statement.UnresolvedCall;
+import it.unive.lisa.cfg.statement.Variable;
+import it.unive.lisa.test.imp.expressions.IMPNewObj;
+import it.unive.lisa.test.imp.types.ClassType;
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.Test;
+
+public class ClassHierarchyCallGraphTest {
+
+	private static final ClassType A = ClassType.lookup("HierarchyA", null);
+	private static final ClassType B = ClassType.lookup("HierarchyB", A);
+	private static final ClassType C = ClassType.lookup("HierarchyC", A);
+
+	private final CFG inA = new CFG(new CFGDescriptor("m", new Parameter("this", A)));
+	private final CFG inB = new CFG(new CFGDescriptor("m", new Parameter("this", B)));
+
+	// main(a, c) { x = new HierarchyB(); y = m(c); return m(a); }
+	private final CFG main = new CFG(new CFGDescriptor("main", new Parameter("a", A), new Parameter("c", C)));
+	private final UnresolvedCall onA = new UnresolvedCall(main, "m", new Variable(main, "a", A));
+	private final UnresolvedCall onC = new UnresolvedCall(main, "m", new Variable(main, "c", C));
+
+	// a frontend statement, exposing its inner expression only through accept
+	private static class Wrapper extends Statement {
+
+		private final Expression expression;
+
+		private Wrapper(CFG cfg, Expression expression) {
+			super(cfg, null, -1, -1);
+			this.expression = expression;
+		}
+
+		@Override
+		public int setOffset(int offset) {
+			this.offset = offset;
+			return expression.setOffset(offset + 1);
+		}
+
+		@Override
+		public void accept(StatementVisitor visitor) {
+			super.accept(visitor);
+			expression.accept(visitor);
+		}
+
+		@Override
+		public String toString() {
+			return "wrap(" + expression + ")";
+		}
+
+		@Override
+		public <H extends HeapDomain<H>> AnalysisState<H, TypeEnvironment> typeInference(
+				AnalysisState<H, TypeEnvironment> entryState, CallGraph callGraph,
+				ExpressionStore<AnalysisState<H, TypeEnvironment>> expressions) throws SemanticException {
+			return expression.typeInference(entryState, callGraph, expressions);
+		}
+
+		@Override
+		public <H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<H, V> semantics(
+				AnalysisState<H, V> entryState, CallGraph callGraph, ExpressionStore<AnalysisState<H, V>> expressions)
+				throws SemanticException {
+			return expression.semantics(entryState, callGraph, expressions);
+		}
+	}
+
+	private void fill(ClassHierarchyCallGraph cg) {
+		Assignment alloc = new Assignment(main, new Variable(main, "x", B), new IMPNewObj(main, null, -1, -1, B));
+		Assignment y = new Assignment(main, new Variable(main, "y"), onC);
+		Return ret = new Return(main, onA);
+		main.addNode(alloc, true);
+		main.addNode(y);
+		main.addNode(ret);
+		main.addEdge(new SequentialEdge(alloc, y));
+		main.addEdge(new SequentialEdge(y, ret));
+
+		cg.addCFG(main);
+		cg.addCFG(inA);
+		cg.addCFG(inB);
+	}
+
+	@Test
+	public void testClassHierarchy() {
+		ClassHierarchyCallGraph cg = new ClassHierarchyCallGraph();
+		fill(cg);
+		assertEquals(new HashSet<>(Arrays.asList(inA, inB)),
+				new HashSet<>(((CFGCall) cg.resolve(onA)).getTargets()));
+		// the implementation is inherited from HierarchyA
+		assertEquals(Arrays.asList(inA), ((CFGCall) cg.resolve(onC)).getTargets());
+	}
+
+	@Test
+	public void testRapidType() {
+		RapidTypeCallGraph cg = new RapidTypeCallGraph(e -> e instanceof IMPNewObj);
+		fill(cg);
+		// only HierarchyB is instantiated
+		assertEquals(Arrays.asList(inB), ((CFGCall) cg.resolve(onA)).getTargets());
+	}
+
+	@Test
+	public void testRapidTypeThroughVisitor() {
+		// main(a) { wrap(new HierarchyB()); return m(a); }
+		CFG wrapping = new CFG(new CFGDescriptor("main", new Parameter("a", A)));
+		UnresolvedCall call = new UnresolvedCall(wrapping, "m", new Variable(wrapping, "a", A));
+		Wrapper alloc = new Wrapper(wrapping, new IMPNewObj(wrapping, null, -1, -1, B));
+		Return ret = new Return(wrapping, call);
+		wrapping.addNode(alloc, true);
+		wrapping.addNode(ret);
+		wrapping.addEdge(new SequentialEdge(alloc, ret));
+
+		RapidTypeCallGraph cg = new RapidTypeCallGraph(e -> e instanceof IMPNewObj);
+		cg.addCFG(wrapping);
+		cg.addCFG(inA);
+		cg.addCFG(inB);
+		// the allocation is only reachable through the visitor
+		assertEquals(Arrays.asList(inB), ((CFGCall) cg.resolve(call)).getTargets());
+	}
+}
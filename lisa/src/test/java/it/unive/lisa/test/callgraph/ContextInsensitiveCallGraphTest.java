@@ -0,0 +1,199 @@
+package it.unive.lisa.test.callgraph;
+
+import static org.junit.Assert.assertEquals;
+
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.CFGWithAnalysisResults;
+import it.unive.lisa.analysis.heap.MonolithicHeap;
+import it.unive.lisa.analysis.nonrelational.ValueEnvironment;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.callgraph.impl.interproc.ContextInsensitiveCallGraph;
+import it.unive.lisa.cfg.CFG;
+import it.unive.lisa.cfg.CFGDescriptor;
+import it.unive.lisa.cfg.FixpointException;
+import it.unive.lisa.cfg.Parameter;
+import it.unive.lisa.cfg.edge.SequentialEdge;
+import it.unive.lisa.cfg.statement.Assignment;
+import it.unive.lisa.cfg.statement.CFGCall;
+import it.unive.lisa.cfg.statement.Literal;
+import it.unive.lisa.cfg.statement.Return;
+import it.unive.lisa.cfg.statement.Statement;
+import it.unive.lisa.cfg.statement.UnresolvedCall;
+import it.unive.lisa.cfg.statement.Variable;
+import it.unive.lisa.cfg.type.Untyped;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.Skip;
+import it.unive.lisa.symbolic.value.ValueIdentifier;
+import it.unive.lisa.test.imp.expressions.IMPFieldAccess;
+import it.unive.lisa.test.imp.tutorial.Sign;
+import it.unive.lisa.util.collections.SlotTable;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class ContextInsensitiveCallGraphTest {
+
+	@Test
+	public void testReturnedValueAndCallerFrame() throws FixpointException {
+		// neg(p) { return -1; }
+		CFG neg = new CFG(new CFGDescriptor("neg", new Parameter("p")));
+		Return negRet = new Return(neg, new Literal(neg, -1, Untyped.INSTANCE));
+		neg.addNode(negRet, true);
+
+		// main() { x = 5; y = neg(x); return x; }
+		CFG main = new CFG(new CFGDescriptor("main"));
+		Assignment x = new Assignment(main, new Variable(main, "x"), new Literal(main, 5, Untyped.INSTANCE));
+		Assignment y = new Assignment(main, new Variable(main, "y"),
+				new CFGCall(main, "neg", neg, new Variable(main, "x")));
+		Return ret = new Return(main, new Variable(main, "x"));
+		main.addNode(x, true);
+		main.addNode(y);
+		main.addNode(ret);
+		main.addEdge(new SequentialEdge(x, y));
+		main.addEdge(new SequentialEdge(y, ret));
+
+		ContextInsensitiveCallGraph cg = new ContextInsensitiveCallGraph();
+		cg.addCFG(main);
+		cg.addCFG(neg);
+		AnalysisState<MonolithicHeap, ValueEnvironment<Sign>> entry = new AnalysisState<>(
+				new AbstractState<>(new MonolithicHeap().top(), new ValueEnvironment<>(new Sign()).top()),
+				Skip.INSTANCE);
+		cg.fixpoint(entry, Statement::semantics);
+
+		CFGWithAnalysisResults<MonolithicHeap, ValueEnvironment<Sign>> result = cg.getAnalysisResultsOf(main);
+		ValueEnvironment<Sign> env = result.getAnalysisStateAt(ret).getState().getValueState();
+		assertEquals("+", env.getState(new ValueIdentifier(Caches.types().mkEmptySet(), "x")).representation());
+		assertEquals("-", env.getState(new ValueIdentifier(Caches.types().mkEmptySet(), "y")).representation());
+		// the parameter of the callee is not visible in the caller
+		assertEquals("Unknown sign",
+				env.getState(new ValueIdentifier(Caches.types().mkEmptySet(), "p")).representation());
+	}
+
+	@Test
+	public void testSummaryReusedAcrossCallSites() throws FixpointException {
+		// neg(p) { return -1; }
+		CFG neg = new CFG(new CFGDescriptor("neg", new Parameter("p")));
+		Return negRet = new Return(neg, new Literal(neg, -1, Untyped.INSTANCE));
+		neg.addNode(negRet, true);
+
+		// main() { x = 5; y = neg(x); z = neg(x); return x; }
+		CFG main = new CFG(new CFGDescriptor("main"));
+		Assignment x = new Assignment(main, new Variable(main, "x"), new Literal(main, 5, Untyped.INSTANCE));
+		Assignment y = new Assignment(main, new Variable(main, "y"),
+				new CFGCall(main, "neg", neg, new Variable(main, "x")));
+		Assignment z = new Assignment(main, new Variable(main, "z"),
+				new CFGCall(main, "neg", neg, new Variable(main, "x")));
+		Return ret = new Return(main, new Variable(main, "x"));
+		main.addNode(x, true);
+		main.addNode(y);
+		main.addNode(z);
+		main.addNode(ret);
+		main.addEdge(new SequentialEdge(x, y));
+		main.addEdge(new SequentialEdge(y, z));
+		main.addEdge(new SequentialEdge(z, ret));
+
+		// neg is only analyzed when computing its summary
+		ContextInsensitiveCallGraph cg = new ContextInsensitiveCallGraph();
+		cg.addCFG(main);
+		AtomicInteger fixpoints = new AtomicInteger();
+		AnalysisState<MonolithicHeap, ValueEnvironment<Sign>> entry = new AnalysisState<>(
+				new AbstractState<>(new MonolithicHeap().top(), new ValueEnvironment<>(new Sign()).top()),
+				Skip.INSTANCE);
+		cg.fixpoint(entry, (st, state, callGraph, expressions) -> {
+			if (st == negRet)
+				fixpoints.incrementAndGet();
+			return st.semantics(state, callGraph, expressions);
+		});
+
+		// the two calls have the same entry state once the frame of the caller
+		// is dropped, even if the latter differs
+		assertEquals(1, fixpoints.get());
+		ValueEnvironment<Sign> env = cg.<MonolithicHeap, ValueEnvironment<Sign>>getAnalysisResultsOf(main)
+				.getAnalysisStateAt(ret).getState().getValueState();
+		assertEquals("+", env.getState(new ValueIdentifier(Caches.types().mkEmptySet(), "x")).representation());
+		assertEquals("-", env.getState(new ValueIdentifier(Caches.types().mkEmptySet(), "y")).representation());
+		assertEquals("-", env.getState(new ValueIdentifier(Caches.types().mkEmptySet(), "z")).representation());
+	}
+
+	@Test
+	public void testCalleeWritesHeap() throws FixpointException {
+		// setf(o) { o.f = -1; }
+		CFG setf = new CFG(new CFGDescriptor("setf", new Parameter("o")));
+		setf.addNode(new Assignment(setf, field(setf, "o", "f"), new Literal(setf, -1, Untyped.INSTANCE)), true);
+
+		// main() { x.f = 1; t = setf(x); y = x.f; return y; }
+		CFG main = new CFG(new CFGDescriptor("main"));
+		Assignment write = new Assignment(main, field(main, "x", "f"), new Literal(main, 1, Untyped.INSTANCE));
+		Assignment t = new Assignment(main, new Variable(main, "t"),
+				new CFGCall(main, "setf", setf, new Variable(main, "x")));
+		Assignment y = new Assignment(main, new Variable(main, "y"), field(main, "x", "f"));
+		Return ret = new Return(main, new Variable(main, "y"));
+		main.addNode(write, true);
+		main.addNode(t);
+		main.addNode(y);
+		main.addNode(ret);
+		main.addEdge(new SequentialEdge(write, t));
+		main.addEdge(new SequentialEdge(t, y));
+		main.addEdge(new SequentialEdge(y, ret));
+
+		ContextInsensitiveCallGraph cg = new ContextInsensitiveCallGraph();
+		cg.addCFG(main);
+		cg.addCFG(setf);
+		AnalysisState<MonolithicHeap, ValueEnvironment<Sign>> entry = new AnalysisState<>(
+				new AbstractState<>(new MonolithicHeap().top(), new ValueEnvironment<>(new Sign()).top()),
+				Skip.INSTANCE);
+		cg.fixpoint(entry, Statement::semantics);
+
+		// the write performed by the callee is visible in the caller
+		ValueEnvironment<Sign> env = cg.<MonolithicHeap, ValueEnvironment<Sign>>getAnalysisResultsOf(main)
+				.getAnalysisStateAt(ret).getState().getValueState();
+		assertEquals("-", env.getState(new ValueIdentifier(Caches.types().mkEmptySet(), "y")).representation());
+		// setf does not return anything
+		assertEquals("Unknown sign",
+				env.getState(new ValueIdentifier(Caches.types().mkEmptySet(), "t")).representation());
+	}
+
+	@Test
+	public void testScopedIdentifiersStable() throws FixpointException {
+		// neg(p) { return -1; }
+		CFG neg = new CFG(new CFGDescriptor("neg", new Parameter("p")));
+		neg.addNode(new Return(neg, new Literal(neg, -1, Untyped.INSTANCE)), true);
+
+		// main() { x = 5; y = neg(x); return y; }
+		CFG main = new CFG(new CFGDescriptor("main"));
+		Assignment x = new Assignment(main, new Variable(main, "x"), new Literal(main, 5, Untyped.INSTANCE));
+		Assignment y = new Assignment(main, new Variable(main, "y"),
+				new UnresolvedCall(main, "neg", new Variable(main, "x")));
+		Return ret = new Return(main, new Variable(main, "y"));
+		main.addNode(x, true);
+		main.addNode(y);
+		main.addNode(ret);
+		main.addEdge(new SequentialEdge(x, y));
+		main.addEdge(new SequentialEdge(y, ret));
+
+		ContextInsensitiveCallGraph cg = new ContextInsensitiveCallGraph();
+		cg.addCFG(main);
+		cg.addCFG(neg);
+		SlotTable<Identifier> identifiers = new SlotTable<>();
+		AnalysisState<MonolithicHeap, ValueEnvironment<Sign>> entry = new AnalysisState<>(
+				new AbstractState<>(new MonolithicHeap().top(), new ValueEnvironment<>(new Sign(), identifiers).top()),
+				Skip.INSTANCE);
+
+		// the call is resolved again at each evaluation, but the identifiers
+		// hidden while analyzing neg must be the same ones
+		cg.fixpoint(entry, Statement::semantics);
+		int slots = identifiers.size();
+		for (int i = 0; i < 5; i++) {
+			cg.fixpoint(entry, Statement::semantics);
+			assertEquals(slots, identifiers.size());
+		}
+
+		ValueEnvironment<Sign> env = cg.<MonolithicHeap, ValueEnvironment<Sign>>getAnalysisResultsOf(main)
+				.getAnalysisStateAt(ret).getState().getValueState();
+		assertEquals("-", env.getState(new ValueIdentifier(Caches.types().mkEmptySet(), "y")).representation());
+	}
+
+	private static IMPFieldAccess field(CFG cfg, String object, String field) {
+		return new IMPFieldAccess(cfg, null, -1, -1, new Variable(cfg, object), new Variable(cfg, field));
+	}
+}
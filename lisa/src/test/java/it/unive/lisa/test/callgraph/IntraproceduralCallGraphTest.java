@@ -0,0 +1,94 @@
+package it.unive.lisa.test.callgraph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.CFGWithAnalysisResults;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.heap.MonolithicHeap;
+import it.unive.lisa.analysis.nonrelational.ValueEnvironment;
+import it.unive.lisa.callgraph.impl.intraproc.IntraproceduralCallGraph;
+import it.unive.lisa.cfg.CFG;
+import it.unive.lisa.cfg.FixpointException;
+import it.unive.lisa.cfg.statement.Statement;
+import it.unive.lisa.symbolic.value.Skip;
+import it.unive.lisa.test.imp.IMPFrontend;
+import it.unive.lisa.test.imp.ParsingException;
+import it.unive.lisa.test.imp.tutorial.Sign;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+
+public class IntraproceduralCallGraphTest {
+
+	private static final String FILE = "imp-testcases/type-inference/program.imp";
+
+	private static AnalysisState<MonolithicHeap, ValueEnvironment<Sign>> entry() {
+		return new AnalysisState<>(
+				new AbstractState<>(new MonolithicHeap().top(), new ValueEnvironment<>(new Sign()).top()),
+				Skip.INSTANCE);
+	}
+
+	private static IntraproceduralCallGraph callGraph(Collection<CFG> cfgs, ExecutorService executor) {
+		IntraproceduralCallGraph cg = executor == null ? new IntraproceduralCallGraph()
+				: new IntraproceduralCallGraph(executor);
+		cfgs.forEach(cg::addCFG);
+		return cg;
+	}
+
+	@Test
+	public void testParallelFixpointsMatchSequentialOnes() throws ParsingException, FixpointException {
+		Collection<CFG> cfgs = IMPFrontend.processFile(FILE);
+		assertTrue(cfgs.size() > 1);
+
+		IntraproceduralCallGraph sequential = callGraph(cfgs, null);
+		sequential.fixpoint(entry(), Statement::semantics);
+
+		ExecutorService executor = new ForkJoinPool(4);
+		IntraproceduralCallGraph parallel = callGraph(cfgs, executor);
+		try {
+			parallel.fixpoint(entry(), Statement::semantics);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		for (CFG cfg : cfgs) {
+			CFGWithAnalysisResults<MonolithicHeap, ValueEnvironment<Sign>> expected = sequential
+					.getAnalysisResultsOf(cfg);
+			CFGWithAnalysisResults<MonolithicHeap, ValueEnvironment<Sign>> actual = parallel.getAnalysisResultsOf(cfg);
+			for (Statement st : cfg.getNodes())
+				assertEquals(expected.getAnalysisStateAt(st).representation(),
+						actual.getAnalysisStateAt(st).representation());
+		}
+	}
+
+	@Test
+	public void testParallelFixpointFailureIsPropagated() throws ParsingException {
+		Collection<CFG> cfgs = IMPFrontend.processFile(FILE);
+		CFG failing = cfgs.iterator().next();
+		SemanticException cause = new SemanticException("Failing on purpose");
+
+		ExecutorService executor = new ForkJoinPool(4);
+		IntraproceduralCallGraph cg = callGraph(cfgs, executor);
+		try {
+			cg.<MonolithicHeap, ValueEnvironment<Sign>>fixpoint(entry(), (st, state, callGraph, expressions) -> {
+				if (st.getCFG() == failing)
+					throw cause;
+				return st.semantics(state, callGraph, expressions);
+			});
+			fail("The failure of the fixpoint over " + failing + " has not been propagated");
+		} catch (FixpointException e) {
+			Throwable root = e;
+			while (root.getCause() != null && root != cause)
+				root = root.getCause();
+			assertSame(cause, root);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
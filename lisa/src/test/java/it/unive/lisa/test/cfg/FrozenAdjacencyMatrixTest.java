@@ -0,0 +1,138 @@
+package it.unive.lisa.test.cfg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.AnalysisException;
+import it.unive.lisa.LiSA;
+import it.unive.lisa.cfg.CFG;
+import it.unive.lisa.cfg.CFGDescriptor;
+import it.unive.lisa.cfg.FrozenAdjacencyMatrix;
+import it.unive.lisa.cfg.edge.Edge;
+import it.unive.lisa.cfg.edge.FalseEdge;
+import it.unive.lisa.cfg.edge.SequentialEdge;
+import it.unive.lisa.cfg.edge.TrueEdge;
+import it.unive.lisa.cfg.statement.Assignment;
+import it.unive.lisa.cfg.statement.Literal;
+import it.unive.lisa.cfg.statement.NoOp;
+import it.unive.lisa.cfg.statement.Return;
+import it.unive.lisa.cfg.statement.Statement;
+import it.unive.lisa.cfg.statement.Variable;
+import it.unive.lisa.cfg.type.Untyped;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+public class FrozenAdjacencyMatrixTest {
+
+	private static CFG conditional() {
+		CFG cfg = new CFG(new CFGDescriptor("foo"));
+		Variable cond = new Variable(cfg, "c");
+		Assignment yes = new Assignment(cfg, new Variable(cfg, "x"), new Literal(cfg, 1, Untyped.INSTANCE));
+		Assignment no = new Assignment(cfg, new Variable(cfg, "x"), new Literal(cfg, 2, Untyped.INSTANCE));
+		NoOp join = new NoOp(cfg);
+		Return ret = new Return(cfg, new Variable(cfg, "x"));
+		cfg.addNode(cond, true);
+		cfg.addNode(yes);
+		cfg.addNode(no);
+		cfg.addNode(join);
+		cfg.addNode(ret);
+		cfg.addEdge(new TrueEdge(cond, yes));
+		cfg.addEdge(new FalseEdge(cond, no));
+		cfg.addEdge(new SequentialEdge(yes, join));
+		cfg.addEdge(new SequentialEdge(no, join));
+		cfg.addEdge(new SequentialEdge(join, ret));
+		return cfg;
+	}
+
+	private static void checkLayout(CFG cfg, FrozenAdjacencyMatrix frozen) {
+		Collection<Statement> nodes = cfg.getNodes();
+		assertEquals(nodes.size(), frozen.getNodesCount());
+		assertEquals(cfg.getEdges().size(), frozen.getEdgesCount());
+
+		for (Statement node : nodes) {
+			int offset = node.getOffset();
+			assertSame(node, frozen.getNodeAt(offset));
+			assertTrue(frozen.containsNode(node));
+
+			Set<Statement> followers = new HashSet<>();
+			for (int i = frozen.successorsStart(offset); i < frozen.successorsEnd(offset); i++) {
+				Statement follower = frozen.getNodeAt(frozen.getSuccessor(i));
+				followers.add(follower);
+				Edge edge = frozen.getSuccessorEdge(i);
+				assertSame(node, edge.getSource());
+				assertSame(follower, edge.getDestination());
+				assertEquals(cfg.getEdgeConnecting(node, follower), edge);
+			}
+			assertEquals(new HashSet<>(cfg.followersOf(node)), followers);
+
+			Set<Statement> predecessors = new HashSet<>();
+			for (int i = frozen.predecessorsStart(offset); i < frozen.predecessorsEnd(offset); i++) {
+				Statement predecessor = frozen.getNodeAt(frozen.getPredecessor(i));
+				predecessors.add(predecessor);
+				Edge edge = frozen.getPredecessorEdge(i);
+				assertSame(predecessor, edge.getSource());
+				assertSame(node, edge.getDestination());
+				assertEquals(cfg.getEdgeConnecting(predecessor, node), edge);
+			}
+			assertEquals(new HashSet<>(cfg.predecessorsOf(node)), predecessors);
+			assertEquals(predecessors.size(), frozen.countDistinctPredecessors(offset));
+		}
+	}
+
+	@Test
+	public void testFrozenLayout() {
+		CFG cfg = conditional();
+		FrozenAdjacencyMatrix frozen = cfg.freeze();
+		assertSame(frozen, cfg.getFrozenView());
+		assertSame(frozen, cfg.freeze());
+		checkLayout(cfg, frozen);
+	}
+
+	@Test
+	public void testInvalidationOnAddEdge() {
+		CFG cfg = conditional();
+		cfg.freeze();
+		Statement first = cfg.getEntrypoints().iterator().next();
+		Statement last = cfg.getNormalExitpoints().iterator().next();
+		cfg.addEdge(new SequentialEdge(first, last));
+		assertNull(cfg.getFrozenView());
+
+		FrozenAdjacencyMatrix frozen = cfg.freeze();
+		assertNotNull(cfg.getEdgeConnecting(first, last));
+		checkLayout(cfg, frozen);
+	}
+
+	@Test
+	public void testInvalidationOnSimplify() {
+		CFG cfg = conditional();
+		cfg.freeze();
+		cfg.simplify();
+		assertNull(cfg.getFrozenView());
+
+		FrozenAdjacencyMatrix frozen = cfg.freeze();
+		assertTrue(cfg.getNodes().stream().noneMatch(NoOp.class::isInstance));
+		checkLayout(cfg, frozen);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testSharedOffsetRejected() {
+		CFG cfg = conditional();
+		cfg.getNormalExitpoints().iterator().next().setOffset(0);
+		cfg.freeze();
+	}
+
+	@Test(expected = AnalysisException.class)
+	public void testSharedOffsetReportedByLiSA() throws AnalysisException {
+		CFG cfg = conditional();
+		cfg.getNormalExitpoints().iterator().next().setOffset(0);
+		LiSA lisa = new LiSA();
+		lisa.setWorkdir("test-outputs/frozen");
+		lisa.addCFG(cfg);
+		lisa.run();
+	}
+}
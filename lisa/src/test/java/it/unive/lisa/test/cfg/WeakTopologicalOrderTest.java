@@ -0,0 +1,163 @@
+package it.unive.lisa.test.cfg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.CFGWithAnalysisResults;
+import it.unive.lisa.analysis.heap.MonolithicHeap;
+import it.unive.lisa.analysis.nonrelational.ValueEnvironment;
+import it.unive.lisa.callgraph.impl.intraproc.IntraproceduralCallGraph;
+import it.unive.lisa.cfg.CFG;
+import it.unive.lisa.cfg.CFGDescriptor;
+import it.unive.lisa.cfg.FixpointException;
+import it.unive.lisa.cfg.FixpointStrategy;
+import it.unive.lisa.cfg.WeakTopologicalOrder;
+import it.unive.lisa.cfg.edge.Edge;
+import it.unive.lisa.cfg.edge.FalseEdge;
+import it.unive.lisa.cfg.edge.SequentialEdge;
+import it.unive.lisa.cfg.edge.TrueEdge;
+import it.unive.lisa.cfg.statement.Assignment;
+import it.unive.lisa.cfg.statement.Literal;
+import it.unive.lisa.cfg.statement.NoOp;
+import it.unive.lisa.cfg.statement.Statement;
+import it.unive.lisa.cfg.statement.Variable;
+import it.unive.lisa.cfg.type.Untyped;
+import it.unive.lisa.symbolic.value.Skip;
+import it.unive.lisa.test.imp.tutorial.Sign;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class WeakTopologicalOrderTest {
+
+	private static CFG nestedLoops() {
+		// x = 1; while (?) { while (?) { x = -1; } }
+		CFG cfg = new CFG(new CFGDescriptor("foo"));
+		Assignment entry = new Assignment(cfg, new Variable(cfg, "x"), new Literal(cfg, 1, Untyped.INSTANCE));
+		NoOp outer = new NoOp(cfg);
+		NoOp inner = new NoOp(cfg);
+		Assignment body = new Assignment(cfg, new Variable(cfg, "x"), new Literal(cfg, -1, Untyped.INSTANCE));
+		NoOp latch = new NoOp(cfg);
+		NoOp exit = new NoOp(cfg);
+		cfg.addNode(entry, true);
+		cfg.addNode(outer);
+		cfg.addNode(inner);
+		cfg.addNode(body);
+		cfg.addNode(latch);
+		cfg.addNode(exit);
+		cfg.addEdge(new SequentialEdge(entry, outer));
+		cfg.addEdge(new TrueEdge(outer, inner));
+		cfg.addEdge(new FalseEdge(outer, exit));
+		cfg.addEdge(new TrueEdge(inner, body));
+		cfg.addEdge(new FalseEdge(inner, latch));
+		cfg.addEdge(new SequentialEdge(body, inner));
+		cfg.addEdge(new SequentialEdge(latch, outer));
+		return cfg;
+	}
+
+	@Test
+	public void testNestedLoops() {
+		CFG cfg = nestedLoops();
+		WeakTopologicalOrder wto = cfg.getWeakTopologicalOrder();
+
+		assertEquals("Not all nodes are ordered", cfg.getNodesCount(), wto.getOrder().size());
+		assertEquals("Wrong number of heads", 2, wto.getHeads().size());
+		for (Statement st : cfg.getNodes())
+			if (cfg.predecessorsOf(st).size() > 1)
+				assertTrue(st + " should be a head", wto.isHead(st));
+			else
+				assertFalse(st + " should not be a head", wto.isHead(st));
+
+		// every edge either goes forward or it goes back to a head
+		for (Edge e : cfg.getEdges())
+			assertTrue("Invalid ordering for " + e,
+					wto.positionOf(e.getSource()) < wto.positionOf(e.getDestination())
+							|| wto.isHead(e.getDestination()));
+	}
+
+	@Test
+	public void testCacheInvalidation() {
+		CFG cfg = nestedLoops();
+		WeakTopologicalOrder wto = cfg.getWeakTopologicalOrder();
+		assertTrue("The ordering is not cached", wto == cfg.getWeakTopologicalOrder());
+		cfg.addNode(new NoOp(cfg));
+		assertFalse("The ordering has not been invalidated", wto == cfg.getWeakTopologicalOrder());
+	}
+
+	@Test
+	public void testLongChain() {
+		// deep enough to overflow the call stack with a recursive visit
+		CFG cfg = new CFG(new CFGDescriptor("foo"));
+		NoOp previous = new NoOp(cfg, null, 0, 0);
+		cfg.addNode(previous, true);
+		for (int i = 1; i <= 100000; i++) {
+			NoOp next = new NoOp(cfg, null, i, 0);
+			cfg.addNode(next);
+			cfg.addEdge(new SequentialEdge(previous, next));
+			previous = next;
+		}
+		NoOp exit = new NoOp(cfg, null, -1, -1);
+		cfg.addNode(exit);
+		cfg.addEdge(new SequentialEdge(previous, exit));
+		cfg.addEdge(new SequentialEdge(exit, previous));
+
+		WeakTopologicalOrder wto = cfg.getWeakTopologicalOrder();
+		assertEquals("Not all nodes are ordered", cfg.getNodesCount(), wto.getOrder().size());
+		assertEquals("Wrong number of heads", 1, wto.getHeads().size());
+		assertTrue(previous + " should be a head", wto.isHead(previous));
+		for (Edge e : cfg.getEdges())
+			assertTrue("Invalid ordering for " + e,
+					wto.positionOf(e.getSource()) < wto.positionOf(e.getDestination())
+							|| wto.isHead(e.getDestination()));
+	}
+
+	private static AnalysisState<MonolithicHeap, ValueEnvironment<Sign>> entryState() {
+		return new AnalysisState<>(
+				new AbstractState<>(new MonolithicHeap().top(), new ValueEnvironment<>(new Sign()).top()),
+				Skip.INSTANCE);
+	}
+
+	@Test
+	public void testFixpoint() throws FixpointException {
+		CFG cfg = nestedLoops();
+		AnalysisState<MonolithicHeap, ValueEnvironment<Sign>> entry = entryState();
+		IntraproceduralCallGraph graph = new IntraproceduralCallGraph();
+		graph.addCFG(cfg);
+
+		AtomicInteger fifo = new AtomicInteger(), wto = new AtomicInteger();
+		CFGWithAnalysisResults<MonolithicHeap, ValueEnvironment<Sign>> expected = cfg.fixpoint(entry, graph,
+				(st, state, cg, exprs) -> {
+					fifo.incrementAndGet();
+					return st.semantics(state, cg, exprs);
+				});
+		CFGWithAnalysisResults<MonolithicHeap, ValueEnvironment<Sign>> actual = cfg.wtoFixpoint(entry, graph,
+				(st, state, cg, exprs) -> {
+					wto.incrementAndGet();
+					return st.semantics(state, cg, exprs);
+				});
+
+		for (Statement st : cfg.getNodes())
+			assertEquals("Different results for " + st, expected.getAnalysisStateAt(st),
+					actual.getAnalysisStateAt(st));
+		assertEquals("Wrong number of iterations with the fifo working set", 14, fifo.get());
+		assertEquals("Wrong number of iterations with the weak topological ordering", 11, wto.get());
+	}
+
+	@Test
+	public void testCallGraphStrategy() throws FixpointException {
+		CFG cfg = nestedLoops();
+		IntraproceduralCallGraph cg = new IntraproceduralCallGraph();
+		assertEquals("Wrong default strategy", FixpointStrategy.FIFO, cg.getFixpointStrategy());
+		cg.setFixpointStrategy(FixpointStrategy.WEAK_TOPOLOGICAL_ORDER);
+		cg.addCFG(cfg);
+
+		AtomicInteger iterations = new AtomicInteger();
+		cg.fixpoint(entryState(), (st, state, graph, exprs) -> {
+			iterations.incrementAndGet();
+			return st.semantics(state, graph, exprs);
+		});
+		assertEquals("The strategy of the call graph has not been used", 11, iterations.get());
+	}
+}
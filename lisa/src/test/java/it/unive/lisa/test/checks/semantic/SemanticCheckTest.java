@@ -0,0 +1,75 @@
+package it.unive.lisa.test.checks.semantic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import it.unive.lisa.AnalysisException;
+import it.unive.lisa.LiSA;
+import it.unive.lisa.analysis.CFGWithAnalysisResults;
+import it.unive.lisa.analysis.HeapDomain;
+import it.unive.lisa.analysis.ValueDomain;
+import it.unive.lisa.callgraph.impl.intraproc.IntraproceduralCallGraph;
+import it.unive.lisa.cfg.CFG;
+import it.unive.lisa.cfg.statement.Statement;
+import it.unive.lisa.checks.CheckTool;
+import it.unive.lisa.checks.semantic.SemanticCheck;
+import it.unive.lisa.test.imp.IMPFrontend;
+import it.unive.lisa.test.imp.ParsingException;
+import it.unive.lisa.test.imp.tutorial.Sign;
+import java.util.Collection;
+import org.junit.Test;
+
+public class SemanticCheckTest {
+
+	private static class StatesCounter implements SemanticCheck {
+
+		@Override
+		public void beforeExecution(CheckTool tool) {
+		}
+
+		@Override
+		public <H extends HeapDomain<H>, V extends ValueDomain<V>> void visitCFG(CheckTool tool,
+				CFGWithAnalysisResults<H, V> result) {
+			int states = 0;
+			for (Statement st : result.getNodes())
+				if (result.getAnalysisStateAt(st) != null)
+					states++;
+			tool.warnOn(result, states + " states computed");
+		}
+
+		@Override
+		public void afterExecution(CheckTool tool) {
+		}
+	}
+
+	private static void run(boolean retain) throws ParsingException, AnalysisException {
+		Collection<CFG> cfgs = IMPFrontend.processFile("imp-testcases/type-inference/program.imp");
+		IntraproceduralCallGraph callGraph = new IntraproceduralCallGraph();
+		LiSA lisa = new LiSA();
+		cfgs.forEach(lisa::addCFG);
+		lisa.addNonRelationalValueDomain(new Sign());
+		lisa.addSemanticCheck(new StatesCounter());
+		lisa.setRetainResults(retain);
+		lisa.setCallGraph(callGraph);
+		lisa.setWorkdir("test-outputs/semantic-checks");
+		lisa.run();
+
+		assertEquals(cfgs.size(), lisa.getWarnings().size());
+		for (CFG cfg : cfgs)
+			if (retain)
+				assertNotNull(callGraph.getAnalysisResultsOf(cfg));
+			else
+				assertNull(callGraph.getAnalysisResultsOf(cfg));
+	}
+
+	@Test
+	public void testRetainedResults() throws ParsingException, AnalysisException {
+		run(true);
+	}
+
+	@Test
+	public void testDiscardedResults() throws ParsingException, AnalysisException {
+		run(false);
+	}
+}
@@ -1,5 +1,6 @@
 package it.unive.lisa.test.checks.syntactic;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -54,12 +55,23 @@ public class SyntacticCheckTest {
 	@Test
 	public void testSyntacticChecks() throws IOException, ParsingException {
 		System.out.println("Testing syntactic checks...");
+		run(1, "test-outputs/syntactic");
+	}
+
+	@Test
+	public void testParallelSyntacticChecks() throws IOException, ParsingException {
+		System.out.println("Testing parallel syntactic checks...");
+		run(4, "test-outputs/syntactic-parallel");
+	}
+
+	private static void run(int parallelism, String workdir) throws IOException, ParsingException {
 		LiSA lisa = new LiSA();
 		lisa.addSyntacticCheck(new VariableI());
+		lisa.setParallelism(parallelism);
 
 		Collection<CFG> cfgs = IMPFrontend.processFile("imp-testcases/syntactic/expressions.imp");
 		cfgs.forEach(lisa::addCFG);
-		lisa.setWorkdir("test-outputs/syntactic");
+		lisa.setWorkdir(workdir);
 		lisa.setJsonOutput(true);
 		try {
 			lisa.run();
@@ -69,11 +81,28 @@ public class SyntacticCheckTest {
 		}
 
 		File expFile = new File("imp-testcases/syntactic/report.json");
-		File actFile = new File("test-outputs/syntactic/report.json");
+		File actFile = new File(workdir, "report.json");
 		JsonReport expected = JsonReport.read(new FileReader(expFile));
 		JsonReport actual = JsonReport.read(new FileReader(actFile));
 
 		assertTrue("Results are different",
 				JsonReportComparer.compare(expected, actual, expFile.getParentFile(), actFile.getParentFile()));
+		// warnings written to the report are not kept in memory
+		assertTrue(lisa.getWarnings().isEmpty());
+	}
+
+	@Test
+	public void testWarningsRetainedWithoutReport() throws IOException, ParsingException, AnalysisException {
+		for (int parallelism : new int[] { 1, 4 }) {
+			LiSA lisa = new LiSA();
+			lisa.addSyntacticCheck(new VariableI());
+			lisa.setParallelism(parallelism);
+			IMPFrontend.processFile("imp-testcases/syntactic/expressions.imp").forEach(lisa::addCFG);
+			lisa.setWorkdir("test-outputs/syntactic-no-report");
+			lisa.run();
+
+			JsonReport expected = JsonReport.read(new FileReader("imp-testcases/syntactic/report.json"));
+			assertEquals(expected.getWarnings().size(), lisa.getWarnings().size());
+		}
 	}
 }
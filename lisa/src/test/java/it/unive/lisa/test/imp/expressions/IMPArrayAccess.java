@@ -45,6 +45,6 @@ public class IMPArrayAccess extends BinaryNativeCall {
 		// resolving it. we rely on the rewriting that will happen inside heap
 		// domain to translate this into a variable that will have its correct
 		// type
-		return computedState.smallStepSemantics(new AccessChild(getRuntimeTypes(), left, right));
+		return computedState.smallStepSemantics(new AccessChild(getRuntimeTypes(callGraph.getContext()), left, right));
 	}
 }
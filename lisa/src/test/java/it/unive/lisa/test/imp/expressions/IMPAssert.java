@@ -1,5 +1,6 @@
 package it.unive.lisa.test.imp.expressions;
 
+import it.unive.lisa.analysis.AnalysisContext;
 import it.unive.lisa.analysis.AnalysisState;
 import it.unive.lisa.analysis.ExpressionStore;
 import it.unive.lisa.analysis.HeapDomain;
@@ -58,25 +59,27 @@ public class IMPAssert extends Statement {
 	public <H extends HeapDomain<H>> AnalysisState<H, TypeEnvironment> typeInference(
 			AnalysisState<H, TypeEnvironment> entryState, CallGraph callGraph,
 			ExpressionStore<AnalysisState<H, TypeEnvironment>> expressions) throws SemanticException {
+		AnalysisContext context = callGraph.getContext();
 		AnalysisState<H, TypeEnvironment> result = expression.typeInference(entryState, callGraph, expressions);
 		expressions.put(expression, result);
-		if (!expression.getMetaVariables().isEmpty())
-			result = result.forgetIdentifiers(expression.getMetaVariables());
-		if (!expression.getDynamicType().isBooleanType())
+		if (!expression.getMetaVariables(context).isEmpty())
+			result = result.forgetIdentifiers(expression.getMetaVariables(context));
+		if (!expression.getDynamicType(context).isBooleanType())
 			return result.bottom();
-		return result.smallStepSemantics(new Skip());
+		return result.smallStepSemantics(Skip.INSTANCE);
 	}
 
 	@Override
 	public <H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<H, V> semantics(
 			AnalysisState<H, V> entryState, CallGraph callGraph, ExpressionStore<AnalysisState<H, V>> expressions)
 			throws SemanticException {
+		AnalysisContext context = callGraph.getContext();
 		AnalysisState<H, V> result = expression.semantics(entryState, callGraph, expressions);
 		expressions.put(expression, result);
-		if (!expression.getMetaVariables().isEmpty())
-			result = result.forgetIdentifiers(expression.getMetaVariables());
-		if (!expression.getDynamicType().isBooleanType())
+		if (!expression.getMetaVariables(context).isEmpty())
+			result = result.forgetIdentifiers(expression.getMetaVariables(context));
+		if (!expression.getDynamicType(context).isBooleanType())
 			return result.bottom();
-		return result.smallStepSemantics(new Skip());
+		return result.smallStepSemantics(Skip.INSTANCE);
 	}
 }
@@ -44,7 +44,7 @@ public class IMPNewArray extends NativeCall {
 	public <H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<H, V> callSemantics(
 			AnalysisState<H, V> computedState, CallGraph callGraph, Collection<SymbolicExpression>[] params)
 			throws SemanticException {
-		return computedState.smallStepSemantics(new HeapAllocation(getRuntimeTypes()));
+		return computedState.smallStepSemantics(new HeapAllocation(getRuntimeTypes(callGraph.getContext())));
 	}
 
 	@Override
@@ -1,5 +1,6 @@
 package it.unive.lisa.test.imp.expressions;
 
+import it.unive.lisa.analysis.AnalysisContext;
 import it.unive.lisa.analysis.AnalysisState;
 import it.unive.lisa.analysis.HeapDomain;
 import it.unive.lisa.analysis.SemanticException;
@@ -50,7 +51,8 @@ public class IMPNewObj extends NativeCall {
 	public <H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<H, V> callSemantics(
 			AnalysisState<H, V> computedState, CallGraph callGraph, Collection<SymbolicExpression>[] params)
 			throws SemanticException {
-		HeapAllocation created = new HeapAllocation(getRuntimeTypes());
+		AnalysisContext context = callGraph.getContext();
+		HeapAllocation created = new HeapAllocation(getRuntimeTypes(context));
 
 		// we need to add the receiver to the parameters
 		Variable paramThis = new Variable(getCFG(), getSourceFile(), getLine(), getCol(), "this", getStaticType());
@@ -59,7 +61,7 @@ public class IMPNewObj extends NativeCall {
 
 		UnresolvedCall call = new UnresolvedCall(getCFG(), getSourceFile(), getLine(), getCol(),
 				getStaticType().toString(), fullExpressions);
-		call.inheritRuntimeTypesFrom(this);
+		call.inheritRuntimeTypesFrom(context, this);
 		return call.callSemantics(computedState, callGraph, fullParams).smallStepSemantics(created);
 	}
 
@@ -67,9 +69,10 @@ public class IMPNewObj extends NativeCall {
 	public <H extends HeapDomain<H>> AnalysisState<H, TypeEnvironment> callTypeInference(
 			AnalysisState<H, TypeEnvironment> computedState, CallGraph callGraph,
 			Collection<SymbolicExpression>[] params) throws SemanticException {
+		AnalysisContext context = callGraph.getContext();
 		// we still need to compute the call to ensure that the type information
 		// is propagated in the constructor
-		HeapAllocation created = new HeapAllocation(getRuntimeTypes());
+		HeapAllocation created = new HeapAllocation(getRuntimeTypes(context));
 
 		// we need to add the receiver to the parameters
 		Variable paramThis = new Variable(getCFG(), getSourceFile(), getLine(), getCol(), "this", getStaticType());
@@ -90,7 +93,7 @@ public class IMPNewObj extends NativeCall {
 		// at this stage, the runtime types correspond to the singleton set
 		// containing only the static type. This is fine since we are creating
 		// exactly an instance of that type
-		setRuntimeTypes(getRuntimeTypes());
+		setRuntimeTypes(context, getRuntimeTypes(context));
 
 		return typing.smallStepSemantics(created);
 	}
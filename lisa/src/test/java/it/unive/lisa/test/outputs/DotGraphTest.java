@@ -0,0 +1,119 @@
+package it.unive.lisa.test.outputs;
+
+import static org.junit.Assert.assertEquals;
+
+import it.unive.lisa.cfg.CFG;
+import it.unive.lisa.cfg.CFGDescriptor;
+import it.unive.lisa.cfg.Parameter;
+import it.unive.lisa.cfg.edge.FalseEdge;
+import it.unive.lisa.cfg.edge.SequentialEdge;
+import it.unive.lisa.cfg.edge.TrueEdge;
+import it.unive.lisa.cfg.statement.Assignment;
+import it.unive.lisa.cfg.statement.Literal;
+import it.unive.lisa.cfg.statement.Return;
+import it.unive.lisa.cfg.statement.Statement;
+import it.unive.lisa.cfg.statement.Variable;
+import it.unive.lisa.cfg.type.Untyped;
+import it.unive.lisa.outputs.DotGraph;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+public class DotGraphTest {
+
+	/**
+	 * The output of the GraphStream-based dump of {@link #conditional()}
+	 */
+	private static final String GOLDEN = "imp-testcases/dot/conditional.dot";
+
+	private static final Function<Statement, String> LABELS = st -> "offset " + st.getOffset() + " & \"more\"";
+
+	private static final Pattern NODE = Pattern.compile("^\\t\"(node\\d+)\" \\[(.*label=<(.*)>)\\];$");
+
+	private static final Pattern EDGE = Pattern.compile("^\\t\"(node\\d+)\" -> \"(node\\d+)\" (\\[.*\\];)$");
+
+	private static CFG conditional() {
+		CFG cfg = new CFG(new CFGDescriptor("test2", new Parameter("i")));
+		Variable cond = new Variable(cfg, "c");
+		Assignment yes = new Assignment(cfg, new Variable(cfg, "x"), new Literal(cfg, 10, Untyped.INSTANCE));
+		Assignment no = new Assignment(cfg, new Variable(cfg, "x"), new Literal(cfg, "<s>", Untyped.INSTANCE));
+		Return ret = new Return(cfg, new Variable(cfg, "x"));
+		cfg.addNode(cond, true);
+		cfg.addNode(yes);
+		cfg.addNode(no);
+		cfg.addNode(ret);
+		cfg.addEdge(new TrueEdge(cond, yes));
+		cfg.addEdge(new FalseEdge(cond, no));
+		cfg.addEdge(new SequentialEdge(yes, ret));
+		cfg.addEdge(new SequentialEdge(no, ret));
+		return cfg;
+	}
+
+	/**
+	 * Node names and the order of nodes and edges depend on the writer: nodes
+	 * are replaced by their labels, and lines are sorted.
+	 */
+	private static List<String> normalize(String dot) {
+		String[] lines = dot.split("\\R");
+		Map<String, String> labels = new HashMap<>();
+		for (String line : lines) {
+			Matcher m = NODE.matcher(line);
+			if (m.matches())
+				labels.put(m.group(1), m.group(3));
+		}
+
+		List<String> result = new ArrayList<>();
+		for (String line : lines) {
+			Matcher node = NODE.matcher(line), edge = EDGE.matcher(line);
+			if (node.matches())
+				result.add("node [" + node.group(2) + "];");
+			else if (edge.matches())
+				result.add(labels.get(edge.group(1)) + " -> " + labels.get(edge.group(2)) + " " + edge.group(3));
+			else
+				result.add(line);
+		}
+		result.sort(null);
+		return result;
+	}
+
+	private static void check(CFG cfg) throws IOException {
+		String expected = new String(Files.readAllBytes(Paths.get(GOLDEN)), StandardCharsets.UTF_8);
+		StringWriter actual = new StringWriter();
+		DotGraph.writeCFG(cfg, LABELS, actual);
+
+		assertEquals(normalize(expected), normalize(actual.toString()));
+		assertEquals(DotGraph.readDot(new StringReader(expected)),
+				DotGraph.readDot(new StringReader(actual.toString())));
+	}
+
+	@Test
+	public void testDirectWriterMatchesGraphStream() throws IOException {
+		check(conditional());
+	}
+
+	@Test
+	public void testFrozenDirectWriterMatchesGraphStream() throws IOException {
+		CFG cfg = conditional();
+		cfg.freeze();
+		check(cfg);
+	}
+
+	@Test
+	public void testGoldenMatchesGraphStream() throws IOException {
+		StringWriter graphstream = new StringWriter();
+		DotGraph.fromCFG(conditional(), LABELS).dumpDot(graphstream);
+		String expected = new String(Files.readAllBytes(Paths.get(GOLDEN)), StandardCharsets.UTF_8);
+		assertEquals(normalize(expected), normalize(graphstream.toString()));
+	}
+}
@@ -0,0 +1,137 @@
+package it.unive.lisa.test.outputs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.cfg.CFG;
+import it.unive.lisa.cfg.CFGDescriptor;
+import it.unive.lisa.cfg.Parameter;
+import it.unive.lisa.cfg.statement.Literal;
+import it.unive.lisa.cfg.statement.Return;
+import it.unive.lisa.cfg.type.Untyped;
+import it.unive.lisa.checks.warnings.CFGDesccriptorWarning;
+import it.unive.lisa.checks.warnings.StatementWarning;
+import it.unive.lisa.checks.warnings.Warning;
+import it.unive.lisa.outputs.JsonReport;
+import it.unive.lisa.outputs.JsonReport.JsonWarning;
+import it.unive.lisa.outputs.JsonReportReader;
+import it.unive.lisa.outputs.JsonReportWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.junit.Test;
+
+public class JsonReportTest {
+
+	private static final String ESCAPED = "\"quoted\" \\back\\slash\\ /slash/ \t tab \n newline \r \u0001 \u00e8 \u2603";
+
+	private static final List<String> FILES = Arrays.asList("typing___main().dot", "dir\\with \"quotes\".dot");
+
+	private static JsonWarning warning(String file, int line, int col, String cfg, String tag, String message) {
+		JsonWarning warning = new JsonWarning();
+		warning.setFile(file);
+		warning.setLine(line);
+		warning.setCol(col);
+		warning.setCfg(cfg);
+		warning.setTag(tag);
+		warning.setMessage(message);
+		return warning;
+	}
+
+	private static String write(Collection<JsonWarning> warnings, Collection<String> files) throws IOException {
+		StringWriter writer = new StringWriter();
+		try (JsonReportWriter report = new JsonReportWriter(writer)) {
+			for (JsonWarning warning : warnings)
+				report.write(warning);
+			report.writeFiles(files);
+		}
+		return writer.toString();
+	}
+
+	private static JsonReport read(String json) throws IOException {
+		try (JsonReportReader reader = new JsonReportReader(new StringReader(json))) {
+			return reader.read();
+		}
+	}
+
+	private static void assertSameWarnings(Collection<JsonWarning> expected, Collection<JsonWarning> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (JsonWarning warning : expected)
+			assertTrue(warning + " has not been read back", actual.contains(warning));
+	}
+
+	@Test
+	public void testRoundTripWithEscaping() throws IOException {
+		List<JsonWarning> warnings = new ArrayList<>();
+		warnings.add(warning("C:\\src\\\"odd\" file.imp", 12, 4, "untyped main(untyped \"x\")", "TAG\\1", ESCAPED));
+		warnings.add(warning(null, JsonWarning.NO_POSITION, JsonWarning.NO_POSITION, null, null, "no location"));
+		warnings.add(warning("file.imp", 0, JsonWarning.NO_POSITION, null, "partial", ""));
+
+		JsonReport report = read(write(warnings, FILES));
+		assertSameWarnings(warnings, report.getWarnings());
+		assertEquals(FILES.size(), report.getFiles().size());
+		assertTrue(report.getFiles().containsAll(FILES));
+
+		for (JsonWarning warning : report.getWarnings())
+			if (warning.getMessage().equals(ESCAPED)) {
+				assertEquals("C:\\src\\\"odd\" file.imp", warning.getFile());
+				assertEquals(12, warning.getLine());
+				assertEquals(4, warning.getCol());
+				assertEquals("untyped main(untyped \"x\")", warning.getCfg());
+				assertEquals("TAG\\1", warning.getTag());
+			} else if (warning.getMessage().equals("no location")) {
+				assertNull(warning.getFile());
+				assertEquals(JsonWarning.NO_POSITION, warning.getLine());
+				assertEquals(JsonWarning.NO_POSITION, warning.getCol());
+				assertNull(warning.getCfg());
+				assertNull(warning.getTag());
+			}
+	}
+
+	@Test
+	public void testRoundTripOfLocatedWarnings() throws IOException {
+		CFG cfg = new CFG(new CFGDescriptor("prog\\\"1\".imp", 3, 1, "main", new Parameter("x")));
+		Return ret = new Return(cfg, "prog\\\"1\".imp", 5, 9, new Literal(cfg, 1, Untyped.INSTANCE));
+		cfg.addNode(ret, true);
+
+		List<Warning> warnings = Arrays.asList(new StatementWarning(ret, ESCAPED),
+				new CFGDesccriptorWarning(cfg.getDescriptor(), "descriptor"));
+		StringWriter writer = new StringWriter();
+		try (JsonReportWriter report = new JsonReportWriter(writer)) {
+			for (Warning warning : warnings)
+				report.write(warning);
+		}
+
+		JsonReport expected = new JsonReport(warnings, new ArrayList<>());
+		JsonReport actual = read(writer.toString());
+		assertEquals(expected, actual);
+		assertEquals(expected, JsonReport.read(new StringReader(writer.toString())));
+
+		for (JsonWarning warning : actual.getWarnings()) {
+			assertEquals("prog\\\"1\".imp", warning.getFile());
+			assertEquals(cfg.getDescriptor().getFullSignature(), warning.getCfg());
+			if (warning.getMessage().equals(ESCAPED)) {
+				assertEquals(5, warning.getLine());
+				assertEquals(9, warning.getCol());
+			} else {
+				assertEquals(3, warning.getLine());
+				assertEquals(1, warning.getCol());
+			}
+		}
+	}
+
+	@Test
+	public void testDumpMatchesWriter() throws IOException {
+		List<Warning> warnings = Arrays.asList(new Warning(ESCAPED), new Warning("plain"));
+		JsonReport report = new JsonReport(warnings, FILES);
+
+		StringWriter dumped = new StringWriter();
+		report.dump(dumped);
+		assertEquals(report, read(dumped.toString()));
+	}
+}
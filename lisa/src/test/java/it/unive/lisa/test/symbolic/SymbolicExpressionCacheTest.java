@@ -0,0 +1,69 @@
+package it.unive.lisa.test.symbolic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.cfg.type.Untyped;
+import it.unive.lisa.symbolic.SymbolicExpressionCache;
+import it.unive.lisa.symbolic.value.BinaryExpression;
+import it.unive.lisa.symbolic.value.BinaryOperator;
+import it.unive.lisa.symbolic.value.Skip;
+import it.unive.lisa.symbolic.value.ValueIdentifier;
+import org.junit.Test;
+
+public class SymbolicExpressionCacheTest {
+
+	private static ValueIdentifier id(String name) {
+		return new ValueIdentifier(Caches.types().mkSingletonSet(Untyped.INSTANCE), name);
+	}
+
+	@Test
+	public void testStructurallyIdenticalExpressionsAreShared() {
+		SymbolicExpressionCache cache = new SymbolicExpressionCache();
+		ValueIdentifier x = cache.intern(id("x"));
+		BinaryExpression sum = cache.intern(new BinaryExpression(x.getTypes(), x, id("y"), BinaryOperator.NUMERIC_ADD));
+
+		assertSame(x, cache.intern(id("x")));
+		assertSame(x, sum.getLeft());
+		assertSame(sum, cache.intern(new BinaryExpression(x.getTypes(), id("x"), id("y"), BinaryOperator.NUMERIC_ADD)));
+		assertSame(sum.getRight(), cache.intern(id("y")));
+		assertEquals(sum, new BinaryExpression(x.getTypes(), x, id("y"), BinaryOperator.NUMERIC_ADD));
+		assertEquals(3, cache.size());
+	}
+
+	@Test
+	public void testNestedExpressionsAreLookedUpByStructure() {
+		SymbolicExpressionCache cache = new SymbolicExpressionCache();
+		BinaryExpression sum = cache.intern(new BinaryExpression(id("x").getTypes(), id("x"), id("y"),
+				BinaryOperator.NUMERIC_ADD));
+		BinaryExpression sub = cache.intern(new BinaryExpression(id("x").getTypes(), id("x"), id("y"),
+				BinaryOperator.NUMERIC_SUB));
+		BinaryExpression nested = new BinaryExpression(sum.getTypes(),
+				new BinaryExpression(id("x").getTypes(), id("x"), id("y"), BinaryOperator.NUMERIC_ADD), id("z"),
+				BinaryOperator.NUMERIC_MUL);
+
+		assertNotSame(sum, sub);
+		assertSame(sum.getLeft(), sub.getLeft());
+		BinaryExpression interned = cache.intern(nested);
+		assertSame(sum, interned.getLeft());
+		assertSame(interned, cache.intern(nested));
+		assertEquals(6, cache.size());
+	}
+
+	@Test
+	public void testDifferentTypesAreNotShared() {
+		SymbolicExpressionCache cache = new SymbolicExpressionCache();
+		ValueIdentifier x = cache.intern(id("x"));
+		ValueIdentifier untyped = cache.intern(new ValueIdentifier(Caches.types().mkEmptySet(), "x"));
+
+		assertEquals(x, untyped);
+		assertNotSame(x, untyped);
+	}
+
+	@Test
+	public void testSkipIsInterned() {
+		assertSame(Skip.INSTANCE, Caches.expressions().intern(new Skip()));
+	}
+}
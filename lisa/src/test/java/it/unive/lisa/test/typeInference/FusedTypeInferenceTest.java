@@ -0,0 +1,220 @@
+package it.unive.lisa.test.typeInference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.AnalysisException;
+import it.unive.lisa.LiSA;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.CFGWithAnalysisResults;
+import it.unive.lisa.analysis.HeapDomain;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.ValueCartesianProduct;
+import it.unive.lisa.analysis.ValueDomain;
+import it.unive.lisa.analysis.impl.types.TypeEnvironment;
+import it.unive.lisa.analysis.nonrelational.ValueEnvironment;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.callgraph.impl.interproc.ContextInsensitiveCallGraph;
+import it.unive.lisa.callgraph.impl.intraproc.IntraproceduralCallGraph;
+import it.unive.lisa.cfg.CFG;
+import it.unive.lisa.cfg.CFGDescriptor;
+import it.unive.lisa.cfg.Parameter;
+import it.unive.lisa.cfg.edge.SequentialEdge;
+import it.unive.lisa.cfg.statement.Assignment;
+import it.unive.lisa.cfg.statement.CFGCall;
+import it.unive.lisa.cfg.statement.Literal;
+import it.unive.lisa.cfg.statement.Return;
+import it.unive.lisa.cfg.statement.Statement;
+import it.unive.lisa.cfg.statement.UnresolvedCall;
+import it.unive.lisa.cfg.statement.Variable;
+import it.unive.lisa.cfg.type.Untyped;
+import it.unive.lisa.checks.CheckTool;
+import it.unive.lisa.checks.semantic.SemanticCheck;
+import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.value.ValueIdentifier;
+import it.unive.lisa.test.imp.IMPFrontend;
+import it.unive.lisa.test.imp.ParsingException;
+import it.unive.lisa.test.imp.tutorial.Sign;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import org.junit.Test;
+
+public class FusedTypeInferenceTest {
+
+	private static final String WORKDIR = "test-outputs/fused-type-inference";
+
+	private static class StatesCollector implements SemanticCheck {
+
+		private final Map<String, String> states = new ConcurrentHashMap<>();
+
+		@Override
+		public void beforeExecution(CheckTool tool) {
+		}
+
+		@Override
+		public <H extends HeapDomain<H>, V extends ValueDomain<V>> void visitCFG(CheckTool tool,
+				CFGWithAnalysisResults<H, V> result) {
+			for (Statement st : result.getNodes()) {
+				V value = result.getAnalysisStateAt(st).getState().getValueState();
+				assertFalse(value instanceof ValueCartesianProduct);
+				states.put(result.getDescriptor().getFullSignature() + ":" + st.getOffset(), value.representation());
+			}
+		}
+
+		@Override
+		public void afterExecution(CheckTool tool) {
+		}
+	}
+
+	private static List<CFG> run(boolean fuse, IntraproceduralCallGraph callGraph)
+			throws ParsingException, AnalysisException {
+		Collection<CFG> cfgs = IMPFrontend.processFile("imp-testcases/type-inference/program.imp");
+		LiSA lisa = new LiSA();
+		cfgs.forEach(lisa::addCFG);
+		lisa.setInferTypes(true);
+		lisa.setFuseTypeInference(fuse);
+		lisa.addNonRelationalValueDomain(new Sign());
+		lisa.setCallGraph(callGraph);
+		lisa.setWorkdir(WORKDIR);
+		lisa.run();
+
+		List<CFG> sorted = new ArrayList<>(cfgs);
+		sorted.sort(Comparator.comparing(cfg -> cfg.getDescriptor().getFullSignature()));
+		return sorted;
+	}
+
+	@Test
+	public void testSameValuesAsSeparateFixpoints() throws ParsingException, AnalysisException {
+		IntraproceduralCallGraph separate = new IntraproceduralCallGraph();
+		List<CFG> expected = run(false, separate);
+		IntraproceduralCallGraph fused = new IntraproceduralCallGraph();
+		List<CFG> actual = run(true, fused);
+
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			CFGWithAnalysisResults<?, ?> exp = separate.getAnalysisResultsOf(expected.get(i));
+			CFGWithAnalysisResults<?, ?> act = fused.getAnalysisResultsOf(actual.get(i));
+			List<Statement> expNodes = new ArrayList<>(expected.get(i).getNodes());
+			List<Statement> actNodes = new ArrayList<>(actual.get(i).getNodes());
+			expNodes.sort(Comparator.naturalOrder());
+			actNodes.sort(Comparator.naturalOrder());
+			for (int j = 0; j < expNodes.size(); j++) {
+				AnalysisState<?, ?> expState = exp.getAnalysisStateAt(expNodes.get(j));
+				AnalysisState<?, ?> actState = act.getAnalysisStateAt(actNodes.get(j));
+				ValueCartesianProduct<?, ?> product = (ValueCartesianProduct<?, ?>) actState.getState()
+						.getValueState();
+				assertEquals(expState.getState().getValueState().representation(),
+						product.getRight().representation());
+			}
+		}
+	}
+
+	private static Map<String, String> runWithDumps(boolean fuse, boolean retain, String workdir)
+			throws ParsingException, AnalysisException {
+		StatesCollector collector = new StatesCollector();
+		LiSA lisa = new LiSA();
+		IMPFrontend.processFile("imp-testcases/type-inference/program.imp").forEach(lisa::addCFG);
+		lisa.setInferTypes(true);
+		lisa.setFuseTypeInference(fuse);
+		lisa.addNonRelationalValueDomain(new Sign());
+		lisa.addSemanticCheck(collector);
+		lisa.setRetainResults(retain);
+		lisa.setDumpTypeInference(true);
+		lisa.setDumpAnalysis(true);
+		lisa.setWorkdir(workdir);
+		lisa.run();
+		return collector.states;
+	}
+
+	private static void assertSameDumps(String expected, String actual) throws IOException {
+		List<Path> files = new ArrayList<>();
+		try (Stream<Path> stream = Files.list(Paths.get(expected))) {
+			stream.filter(file -> file.toString().endsWith(".dot")).forEach(files::add);
+		}
+		assertFalse(files.isEmpty());
+		for (Path file : files) {
+			Path other = Paths.get(actual, file.getFileName().toString());
+			assertTrue(Files.exists(other));
+			assertEquals(file.toString(), new String(Files.readAllBytes(file), StandardCharsets.UTF_8),
+					new String(Files.readAllBytes(other), StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	public void testChecksAndDumpsSeeProjectedStates() throws ParsingException, AnalysisException, IOException {
+		for (boolean retain : new boolean[] { true, false }) {
+			String separateDir = WORKDIR + "/separate-" + retain, fusedDir = WORKDIR + "/fused-" + retain;
+			Map<String, String> separate = runWithDumps(false, retain, separateDir);
+			Map<String, String> fused = runWithDumps(true, retain, fusedDir);
+
+			assertEquals(separate, fused);
+			assertSameDumps(separateDir, fusedDir);
+		}
+	}
+
+	@Test
+	public void testCallsResolvedOnceOnProducts() throws AnalysisException {
+		// neg(p) { return -1; }
+		CFG neg = new CFG(new CFGDescriptor("neg", new Parameter("p")));
+		neg.addNode(new Return(neg, new Literal(neg, -1, Untyped.INSTANCE)), true);
+
+		// main() { x = 5; y = neg(x); z = neg(neg(y)); return z; }
+		CFG main = new CFG(new CFGDescriptor("main"));
+		Assignment x = new Assignment(main, new Variable(main, "x"), new Literal(main, 5, Untyped.INSTANCE));
+		Assignment y = new Assignment(main, new Variable(main, "y"),
+				new UnresolvedCall(main, "neg", new Variable(main, "x")));
+		Assignment z = new Assignment(main, new Variable(main, "z"), new UnresolvedCall(main, "neg",
+				new UnresolvedCall(main, "neg", new Variable(main, "y"))));
+		Return ret = new Return(main, new Variable(main, "z"));
+		main.addNode(x, true);
+		main.addNode(y);
+		main.addNode(z);
+		main.addNode(ret);
+		main.addEdge(new SequentialEdge(x, y));
+		main.addEdge(new SequentialEdge(y, z));
+		main.addEdge(new SequentialEdge(z, ret));
+
+		List<AnalysisState<?, ?>> calls = Collections.synchronizedList(new ArrayList<>());
+		ContextInsensitiveCallGraph callGraph = new ContextInsensitiveCallGraph() {
+			@Override
+			public <H extends HeapDomain<H>, V extends ValueDomain<V>> AnalysisState<H, V> getAbstractResultOf(
+					CFGCall call, AnalysisState<H, V> entryState, Collection<SymbolicExpression>[] parameters)
+					throws SemanticException {
+				calls.add(entryState);
+				return super.getAbstractResultOf(call, entryState, parameters);
+			}
+		};
+
+		LiSA lisa = new LiSA();
+		lisa.addCFG(main);
+		lisa.addCFG(neg);
+		lisa.setInferTypes(true);
+		lisa.setFuseTypeInference(true);
+		lisa.addNonRelationalValueDomain(new Sign());
+		lisa.setCallGraph(callGraph);
+		lisa.setWorkdir(WORKDIR);
+		lisa.run();
+
+		// main has no loops: each of its calls is resolved once, on products
+		assertEquals(3, calls.size());
+		for (AnalysisState<?, ?> state : calls)
+			assertTrue(((ValueCartesianProduct<?, ?>) state.getState().getValueState())
+					.getLeft() instanceof TypeEnvironment);
+		ValueCartesianProduct<?, ?> product = (ValueCartesianProduct<?, ?>) callGraph.getAnalysisResultsOf(main)
+				.getAnalysisStateAt(ret).getState().getValueState();
+		assertEquals("-", ((ValueEnvironment<?>) product.getRight())
+				.getState(new ValueIdentifier(Caches.types().mkEmptySet(), "z")).representation());
+	}
+}
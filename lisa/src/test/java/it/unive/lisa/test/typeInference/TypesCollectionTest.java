@@ -44,4 +44,28 @@ public class TypesCollectionTest {
 		assertTrue("Results are different",
 				JsonReportComparer.compare(expected, actual, expFile.getParentFile(), actFile.getParentFile()));
 	}
+
+	@Test
+	public void testArchivedTypesCollection() throws IOException, ParsingException {
+		LiSA lisa = new LiSA();
+
+		Collection<CFG> cfgs = IMPFrontend.processFile("imp-testcases/type-inference/program.imp");
+		cfgs.forEach(lisa::addCFG);
+		lisa.setInferTypes(true);
+		lisa.setDumpTypeInference(true);
+		lisa.setJsonOutput(true);
+		lisa.setWorkdir("test-outputs/type-inference-archive");
+		lisa.setOutputArchive("outputs.zip");
+
+		try {
+			lisa.run();
+		} catch (AnalysisException e) {
+			System.err.println(e);
+			fail("Analysis terminated with errors");
+		}
+
+		File expFile = new File("imp-testcases/type-inference/report.json");
+		File actFile = new File("test-outputs/type-inference-archive/outputs.zip");
+		assertTrue("Results are different", JsonReportComparer.compare(expFile, actFile));
+	}
 }
\ No newline at end of file
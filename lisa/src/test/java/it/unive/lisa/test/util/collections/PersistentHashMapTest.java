@@ -0,0 +1,111 @@
+package it.unive.lisa.test.util.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.util.collections.PersistentHashMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+public class PersistentHashMapTest {
+
+	/**
+	 * A key with a configurable hash code, to force collisions.
+	 */
+	private static final class Key {
+		private final int id, hash;
+
+		private Key(int id, int hash) {
+			this.id = id;
+			this.hash = hash;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Key && ((Key) obj).id == id;
+		}
+
+		@Override
+		public String toString() {
+			return "k" + id;
+		}
+	}
+
+	private static Key[] keys(Random random, int count) {
+		Key[] keys = new Key[count];
+		for (int i = 0; i < count; i++)
+			// few distinct hashes, to have both collisions and deep tries
+			keys[i] = new Key(i, random.nextInt(count / 4) * 0x9E3779B9);
+		return keys;
+	}
+
+	@Test
+	public void testAgainstHashMap() {
+		Random random = new Random(42);
+		Key[] keys = keys(random, 400);
+		Map<Key, Integer> expected = new HashMap<>();
+		PersistentHashMap<Key, Integer> actual = PersistentHashMap.empty();
+		for (int i = 0; i < 5000; i++) {
+			Key key = keys[random.nextInt(keys.length)];
+			if (random.nextInt(3) == 0) {
+				expected.remove(key);
+				actual = actual.minus(key);
+			} else {
+				Integer value = random.nextInt(10);
+				expected.put(key, value);
+				actual = actual.plus(key, value);
+			}
+			assertEquals("Wrong size after operation " + i, expected.size(), actual.size());
+		}
+
+		assertEquals(expected, actual);
+		assertEquals(actual, PersistentHashMap.from(expected));
+		for (Key key : keys)
+			assertEquals("Wrong mapping for " + key, expected.get(key), actual.get(key));
+	}
+
+	@Test
+	public void testMerge() {
+		Random random = new Random(7);
+		Key[] keys = keys(random, 200);
+		PersistentHashMap<Key, Integer> base = PersistentHashMap.empty();
+		for (Key key : keys)
+			base = base.plus(key, random.nextInt(10));
+
+		PersistentHashMap<Key, Integer> left = base, right = base;
+		for (int i = 0; i < 30; i++) {
+			left = random.nextBoolean() ? left.minus(keys[random.nextInt(keys.length)])
+					: left.plus(keys[random.nextInt(keys.length)], random.nextInt(10));
+			right = random.nextBoolean() ? right.minus(keys[random.nextInt(keys.length)])
+					: right.plus(keys[random.nextInt(keys.length)], random.nextInt(10));
+		}
+
+		Set<Key> invoked = new HashSet<>();
+		PersistentHashMap<Key, Integer> max = left.merge(right, (key, l, r) -> {
+			assertTrue("Merge invoked twice on " + key, invoked.add(key));
+			return l == null ? r : r == null ? l : Math.max(l, r);
+		});
+
+		Map<Key, Integer> expected = new HashMap<>(left);
+		right.forEach((key, value) -> expected.merge(key, value, Math::max));
+		assertEquals(expected, max);
+		assertEquals(expected.size(), max.size());
+		// only the mappings that have been changed are visited
+		assertTrue("Too many invocations: " + invoked.size(), invoked.size() <= 60);
+
+		assertTrue(left.allMatch(max, (key, l, r) -> l == null || l <= r));
+		assertTrue(right.allMatch(max, (key, l, r) -> l == null || l <= r));
+		assertSame(max, max.merge(left, (key, l, r) -> l == null ? r : r == null ? l : Math.max(l, r)));
+		assertSame(max, left.merge(max, (key, l, r) -> l == null ? r : r == null ? l : Math.max(l, r)));
+	}
+}
@@ -0,0 +1,94 @@
+package it.unive.lisa.test.util.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.util.collections.PersistentHashMap;
+import it.unive.lisa.util.collections.SlotMap;
+import it.unive.lisa.util.collections.SlotTable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+public class SlotMapTest {
+
+	@Test
+	public void testAgainstHashMap() {
+		Random random = new Random(42);
+		SlotTable<String> table = new SlotTable<>();
+		Map<String, Integer> expected = new HashMap<>();
+		SlotMap<String, Integer> actual = SlotMap.empty(table);
+		for (int i = 0; i < 2000; i++) {
+			String key = "k" + random.nextInt(100);
+			if (random.nextInt(3) == 0) {
+				expected.remove(key);
+				actual = actual.minus(key);
+			} else {
+				Integer value = random.nextInt(10);
+				expected.put(key, value);
+				actual = actual.plus(key, value);
+			}
+			assertEquals("Wrong size after operation " + i, expected.size(), actual.size());
+		}
+
+		assertEquals(expected, actual);
+		assertEquals(actual, SlotMap.from(table, expected));
+		assertEquals(actual, PersistentHashMap.from(expected));
+	}
+
+	@Test
+	public void testMerge() {
+		Random random = new Random(7);
+		SlotTable<String> table = new SlotTable<>();
+		SlotMap<String, Integer> left = SlotMap.empty(table), right = SlotMap.empty(table);
+		for (int i = 0; i < 50; i++) {
+			left = left.plus("k" + random.nextInt(60), random.nextInt(10));
+			right = right.plus("k" + random.nextInt(60), random.nextInt(10));
+		}
+
+		SlotMap<String, Integer> max = left.merge(right,
+				(key, l, r) -> l == null ? r : r == null ? l : Math.max(l, r));
+		Map<String, Integer> expected = new HashMap<>(left);
+		right.forEach((key, value) -> expected.merge(key, value, Math::max));
+		assertEquals(expected, max);
+
+		assertTrue(left.allMatch(max, (key, l, r) -> l == null || l <= r));
+		assertTrue(right.allMatch(max, (key, l, r) -> l == null || l <= r));
+		assertSame(max, max.merge(left, (key, l, r) -> l == null ? r : r == null ? l : Math.max(l, r)));
+		assertSame(max, left.merge(max, (key, l, r) -> l == null ? r : r == null ? l : Math.max(l, r)));
+	}
+
+	@Test
+	public void testSparseSlots() {
+		Random random = new Random(13);
+		SlotTable<String> table = new SlotTable<>();
+		for (int i = 0; i < 70000; i++)
+			table.slotOfOrAdd("k" + i);
+
+		Map<String, Integer> expected = new HashMap<>();
+		SlotMap<String, Integer> actual = SlotMap.empty(table);
+		SlotMap<String, Integer> low = SlotMap.<String, Integer>empty(table).plus("k0", 0);
+		for (int i = 0; i < 2000; i++) {
+			String key = "k" + (random.nextBoolean() ? random.nextInt(40) : random.nextInt(70000));
+			if (random.nextInt(4) == 0) {
+				expected.remove(key);
+				actual = actual.minus(key);
+			} else {
+				Integer value = random.nextInt(10);
+				expected.put(key, value);
+				actual = actual.plus(key, value);
+			}
+			assertEquals("Wrong size after operation " + i, expected.size(), actual.size());
+		}
+
+		assertEquals(expected, actual);
+		assertEquals(actual, PersistentHashMap.from(expected));
+
+		Map<String, Integer> union = new HashMap<>(expected);
+		union.merge("k0", 0, Math::max);
+		assertEquals(union, low.merge(actual, (key, l, r) -> l == null ? r : r == null ? l : Math.max(l, r)));
+		assertEquals(union, actual.merge(low, (key, l, r) -> l == null ? r : r == null ? l : Math.max(l, r)));
+	}
+}
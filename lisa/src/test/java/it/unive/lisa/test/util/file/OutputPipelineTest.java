@@ -0,0 +1,101 @@
+package it.unive.lisa.test.util.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.util.file.FileManager;
+import it.unive.lisa.util.file.OutputPipeline;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+
+public class OutputPipelineTest {
+
+	private static final String WORKDIR = "test-outputs/pipeline";
+
+	private static String read(String name) throws IOException {
+		return new String(Files.readAllBytes(Paths.get(WORKDIR, name + ".dot")), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testCallerRunsWhenFullAndDrainWaits() throws IOException, InterruptedException {
+		FileManager manager = new FileManager(WORKDIR);
+		OutputPipeline pipeline = new OutputPipeline(manager, 1, 1);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicReference<Thread> fallback = new AtomicReference<>();
+
+		// occupies the only writer
+		pipeline.dumpDot("blocking", writer -> {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			writer.write("blocking");
+		});
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+
+		// fills the queue
+		pipeline.dumpDot("queued", writer -> writer.write("queued"));
+
+		// the queue is full: the dump is performed by this thread
+		pipeline.dumpDot("fallback", writer -> {
+			fallback.set(Thread.currentThread());
+			writer.write("fallback");
+		});
+		assertSame(Thread.currentThread(), fallback.get());
+		assertEquals("fallback", read("fallback"));
+
+		Thread releaser = new Thread(() -> {
+			try {
+				Thread.sleep(200);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			release.countDown();
+		});
+		releaser.start();
+		pipeline.drain();
+
+		// drain returns only once the pending dumps have been written
+		assertEquals(0, release.getCount());
+		assertEquals("blocking", read("blocking"));
+		assertEquals("queued", read("queued"));
+		manager.close();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testDumpAfterDrainRejected() throws InterruptedException {
+		OutputPipeline pipeline = new OutputPipeline(new FileManager(WORKDIR), 1, 1);
+		pipeline.drain();
+		pipeline.dumpDot("late", writer -> writer.write("late"));
+	}
+
+	@Test
+	public void testFailuresAreNotPropagated() throws IOException, InterruptedException {
+		FileManager manager = new FileManager(WORKDIR);
+		OutputPipeline pipeline = new OutputPipeline(manager, 1, 1);
+		pipeline.dumpDot("failing-io", writer -> {
+			throw new IOException("Failing on purpose");
+		});
+		pipeline.dumpDot("failing-unchecked", writer -> {
+			throw new IllegalStateException("Failing on purpose");
+		});
+		pipeline.dumpDot("after-failures", writer -> writer.write("done"));
+		pipeline.drain();
+
+		Path written = Paths.get(WORKDIR, "after-failures.dot");
+		assertTrue(Files.exists(written));
+		assertEquals("done", read("after-failures"));
+		manager.close();
+	}
+}